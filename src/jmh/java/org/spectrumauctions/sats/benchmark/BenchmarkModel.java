@@ -0,0 +1,53 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.model.bvm.bvm.BaseValueModel;
+import org.spectrumauctions.sats.core.model.bvm.mbvm.MultiBandValueModel;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.instancehandling.InMemoryInstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The models covered by the benchmarks, all created with their default parameters.
+ */
+public enum BenchmarkModel {
+
+    BVM(BaseValueModel::new),
+    MBVM(MultiBandValueModel::new),
+    GSVM(GlobalSynergyValueModel::new),
+    LSVM(LocalSynergyValueModel::new),
+    SRVM(SingleRegionModel::new),
+    MRVM(MultiRegionModel::new),
+    CATS(CATSRegionModel::new);
+
+    /**
+     * The seed of all worlds, populations and bidding languages in the benchmarks, such that results of different
+     * commits are comparable
+     */
+    public static final long SEED = 20190101L;
+
+    private final Supplier<DefaultModel<?, ?>> model;
+
+    BenchmarkModel(Supplier<DefaultModel<?, ?>> model) {
+        this.model = model;
+    }
+
+    /**
+     * Creates the world and population of this model with the fixed {@link #SEED}. The instances are kept in memory
+     * only, such that no files are written during the setup of a benchmark.
+     */
+    public List<? extends SATSBidder> createPopulation() {
+        InstanceHandler.setDefaultHandler(InMemoryInstanceHandler.getInstance());
+        return model.get().createNewWorldAndPopulation(new JavaUtilRNGSupplier(SEED));
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.XORQRandomOrderSimple;
+import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetDecreasing;
+import org.spectrumauctions.sats.core.bidlang.generic.SizeOrderedPowerset.GenericPowersetIncreasing;
+import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of bids by the bidding language iterators. Every invocation requests a new value function
+ * (with the fixed seed) from the first bidder of the population and consumes at most {@link #numberOfBids} bids.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BiddingLanguageBenchmark {
+
+    /**
+     * The bidding languages and a model that supports them
+     */
+    public enum Language {
+        SIZE_BASED_UNIQUE_RANDOM_XOR_GSVM(SizeBasedUniqueRandomXOR.class, BenchmarkModel.GSVM),
+        SIZE_BASED_UNIQUE_RANDOM_XOR_MRVM(SizeBasedUniqueRandomXOR.class, BenchmarkModel.MRVM),
+        XORQ_RANDOM_ORDER_SIMPLE_SRVM(XORQRandomOrderSimple.class, BenchmarkModel.SRVM),
+        XORQ_RANDOM_ORDER_SIMPLE_MRVM(XORQRandomOrderSimple.class, BenchmarkModel.MRVM),
+        GENERIC_POWERSET_INCREASING_SRVM(GenericPowersetIncreasing.class, BenchmarkModel.SRVM),
+        GENERIC_POWERSET_DECREASING_SRVM(GenericPowersetDecreasing.class, BenchmarkModel.SRVM),
+        GENERIC_POWERSET_INCREASING_MBVM(GenericPowersetIncreasing.class, BenchmarkModel.MBVM),
+        CATS_XOR(CatsXOR.class, BenchmarkModel.CATS);
+
+        private final Class<? extends BiddingLanguage> type;
+        private final BenchmarkModel model;
+
+        Language(Class<? extends BiddingLanguage> type, BenchmarkModel model) {
+            this.type = type;
+            this.model = model;
+        }
+    }
+
+    @Param
+    public Language language;
+
+    @Param({"100"})
+    public int numberOfBids;
+
+    private SATSBidder bidder;
+
+    @Setup
+    public void setUp() {
+        bidder = language.model.createPopulation().get(0);
+    }
+
+    @Benchmark
+    public void generateBids(Blackhole blackhole) throws UnsupportedBiddingLanguageException {
+        BiddingLanguage valueFunction = bidder.getValueFunction(language.type, BenchmarkModel.SEED);
+        if (valueFunction instanceof SizeBasedUniqueRandomXOR) {
+            ((SizeBasedUniqueRandomXOR) valueFunction).setIterations(numberOfBids);
+        } else if (valueFunction instanceof XORQRandomOrderSimple) {
+            ((XORQRandomOrderSimple) valueFunction).setIterations(numberOfBids);
+        }
+        Iterator<BundleValue> iterator = valueFunction.iterator();
+        for (int i = 0; i < numberOfBids && iterator.hasNext(); i++) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
+import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A bidding language whose bids are generated upfront, used to measure the writing of bids without their generation.
+ */
+final class CachedBiddingLanguage implements BiddingLanguage {
+
+    private final SATSBidder bidder;
+    private final List<BundleValue> bids = new ArrayList<>();
+
+    CachedBiddingLanguage(BiddingLanguage valueFunction) {
+        this.bidder = valueFunction.getBidder();
+        valueFunction.iterator().forEachRemaining(bids::add);
+    }
+
+    @Override
+    public SATSBidder getBidder() {
+        return bidder;
+    }
+
+    @Override
+    public Iterator<BundleValue> iterator() {
+        return bids.iterator();
+    }
+
+}
@@ -0,0 +1,89 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.spectrumauctions.sats.core.bidfile.CatsExporter;
+import org.spectrumauctions.sats.core.bidfile.FileWriter;
+import org.spectrumauctions.sats.core.bidfile.JsonExporter;
+import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the bid file writers, writing the XOR bids of all bidders of a population into one file.
+ * The bids are generated before every invocation, such that only the writing is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExporterBenchmark {
+
+    public enum Format {
+        JSON, CATS
+    }
+
+    @Param
+    public Format format;
+
+    @Param({"GSVM", "MRVM"})
+    public BenchmarkModel model;
+
+    @Param({"100"})
+    public int numberOfBids;
+
+    private File folder;
+    private FileWriter writer;
+    private List<? extends SATSBidder> bidders;
+    private Collection<BiddingLanguage> valueFunctions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("sats-benchmark").toFile();
+        writer = format == Format.JSON ? new JsonExporter(folder) : new CatsExporter(folder);
+        bidders = model.createPopulation();
+    }
+
+    @Setup(Level.Invocation)
+    public void createBids() throws UnsupportedBiddingLanguageException {
+        valueFunctions = new ArrayList<>();
+        for (SATSBidder bidder : bidders) {
+            SizeBasedUniqueRandomXOR valueFunction = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, BenchmarkModel.SEED);
+            valueFunction.setIterations(numberOfBids);
+            valueFunctions.add(new CachedBiddingLanguage(valueFunction));
+        }
+    }
+
+    @Benchmark
+    public File write() throws IOException {
+        return writer.writeMultiBidderXOR(valueFunctions, numberOfBids, "bids");
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() throws IOException {
+        FileUtils.cleanDirectory(folder);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFolder() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.model.World;
+import org.spectrumauctions.sats.core.util.file.FilePathUtils;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.JSONInstanceHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a round-trip of a world and its population through the {@link JSONInstanceHandler}: Writing the world and
+ * all bidders, and reading them back. (The {@link org.spectrumauctions.sats.core.util.instancehandling.InMemoryInstanceHandler}
+ * does not support reading instances.)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InstanceHandlerBenchmark {
+
+    @Param
+    public BenchmarkModel model;
+
+    private File folder;
+    private InstanceHandler instanceHandler;
+    private World world;
+    private List<? extends SATSBidder> bidders;
+    private long populationId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // The folder of the JSON files is fixed once the file utilities are first used
+        folder = Files.createTempDirectory("sats-benchmark").toFile();
+        FilePathUtils.FOLDER = folder;
+        bidders = model.createPopulation();
+        world = bidders.get(0).getWorld();
+        populationId = bidders.get(0).getPopulation();
+        instanceHandler = JSONInstanceHandler.getInstance();
+    }
+
+    @Benchmark
+    public void roundTrip(Blackhole blackhole) {
+        instanceHandler.writeWorld(world);
+        for (SATSBidder bidder : bidders) {
+            instanceHandler.writeBidder(bidder);
+        }
+        blackhole.consume(instanceHandler.readWorld(world.getClass(), world.getId()));
+        // As in World#restorePopulation, the bidders are restored with the original world instance
+        blackhole.consume(instanceHandler.readPopulationWithUnknownTypes(SATSBidder.class, world, populationId));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFolder() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+}
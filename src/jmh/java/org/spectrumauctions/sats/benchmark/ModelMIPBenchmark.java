@@ -0,0 +1,78 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.opt.model.ModelMIP;
+import org.spectrumauctions.sats.opt.model.cats.CATSXORWinnerDetermination;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMStandardMIP;
+import org.spectrumauctions.sats.opt.model.lsvm.LSVMStandardMIP;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
+import org.spectrumauctions.sats.opt.model.srvm.SRVM_MIP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the construction of the winner determination MIPs, without solving them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModelMIPBenchmark {
+
+    @Param({"GSVM", "LSVM", "SRVM", "MRVM", "CATS"})
+    public BenchmarkModel model;
+
+    private List<? extends SATSBidder> bidders;
+    private List<CatsXOR> catsValueFunctions;
+
+    @Setup
+    public void setUp() throws UnsupportedBiddingLanguageException {
+        bidders = model.createPopulation();
+        if (model == BenchmarkModel.CATS) {
+            catsValueFunctions = new ArrayList<>();
+            for (SATSBidder bidder : bidders) {
+                catsValueFunctions.add(bidder.getValueFunction(CatsXOR.class, BenchmarkModel.SEED));
+            }
+        }
+    }
+
+    @Benchmark
+    public ModelMIP construct() {
+        switch (model) {
+            case GSVM:
+                return new GSVMStandardMIP(cast(GSVMBidder.class));
+            case LSVM:
+                return new LSVMStandardMIP(cast(LSVMBidder.class));
+            case SRVM:
+                return new SRVM_MIP(cast(SRVMBidder.class));
+            case MRVM:
+                return new MRVM_MIP(cast(MRVMBidder.class));
+            case CATS:
+                return new CATSXORWinnerDetermination(catsValueFunctions);
+            default:
+                throw new IllegalStateException("No MIP for model " + model);
+        }
+    }
+
+    private <T extends SATSBidder> List<T> cast(Class<T> type) {
+        return bidders.stream().map(type::cast).collect(Collectors.toList());
+    }
+
+}
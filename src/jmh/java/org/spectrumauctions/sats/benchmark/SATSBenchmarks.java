@@ -0,0 +1,49 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the SATS benchmarks and writes the results as JSON (by default to target/jmh-result.json), such that the
+ * results of different commits can be compared. All JMH command line options are supported and take precedence,
+ * e.g., a regular expression to only run some of the benchmarks.
+ */
+public final class SATSBenchmarks {
+
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private SATSBenchmarks() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        // Options of the builder override its parent, hence the defaults are only set if not given on the command line
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(SATSBenchmarks.class.getPackage().getName() + "\\..*Benchmark");
+        }
+        if (!commandLineOptions.getForkCount().hasValue()) {
+            builder.forks(1);
+        }
+        if (!commandLineOptions.getWarmupIterations().hasValue()) {
+            builder.warmupIterations(3);
+        }
+        if (!commandLineOptions.getMeasurementIterations().hasValue()) {
+            builder.measurementIterations(5);
+        }
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        Options options = builder.parent(commandLineOptions).build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.spectrumauctions.sats.benchmark;
+
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.spectrumauctions.sats.core.model.License;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SATSBidder#calculateValue(Bundle)} on random bundles of licenses.
+ * Every invocation queries the next bidder for the next bundle, cycling through a fixed set of queries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValueQueryBenchmark {
+
+    private static final int NUMBER_OF_BUNDLES = 64;
+
+    @Param
+    public BenchmarkModel model;
+
+    /**
+     * The probability of a license to be part of a bundle
+     */
+    @Param({"0.1", "0.5"})
+    public double density;
+
+    private List<? extends SATSBidder> bidders;
+    private final List<Bundle> bundles = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        bidders = model.createPopulation();
+        List<? extends License> licenses = bidders.get(0).getWorld().getLicenses();
+        Random random = new Random(BenchmarkModel.SEED);
+        while (bundles.size() < NUMBER_OF_BUNDLES) {
+            List<License> bundle = new ArrayList<>();
+            for (License license : licenses) {
+                if (random.nextDouble() < density) bundle.add(license);
+            }
+            if (!bundle.isEmpty()) bundles.add(Bundle.of(bundle));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateValue() {
+        int query = next++;
+        SATSBidder bidder = bidders.get(query % bidders.size());
+        return bidder.calculateValue(bundles.get(query % NUMBER_OF_BUNDLES));
+    }
+
+}
@@ -98,6 +98,10 @@ public class CommandLineTool {
             for (File file : pathResult.getValueFiles()) {
                 System.out.println("\t - " + file.getPath());
             }
+            if (pathResult.getIndexFile() != null) {
+                System.out.println("The summary index of all instances can be found here:");
+                System.out.println("\t - " + pathResult.getIndexFile().getPath());
+            }
             if (pathResult.isAreInstancesSerialized()) {
                 System.out.println("The serialized instances can be found here:");
                 System.out.println("\t - " + pathResult.getInstanceFolder().getPath());
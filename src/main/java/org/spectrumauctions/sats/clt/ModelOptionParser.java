@@ -28,6 +28,9 @@ public abstract class ModelOptionParser extends OptionParser {
     public static String KEY_FILETYPE = "filetype";
     public static String KEY_MUTE = "mute";
     public static String KEY_SEED = "seed";
+    public static String KEY_SEEDRANGE = "seedrange";
+    public static String KEY_MANIFEST = "manifest";
+    public static String KEY_THREADS = "threads";
 
     private static File DEFAULTBIDSPATH = new File("bidfiles");
 
@@ -53,6 +56,15 @@ public abstract class ModelOptionParser extends OptionParser {
                 .ofType(Long.class);
         this.accepts(KEY_BIDSPATH, "Path to the folder where the bid files should be stored. Default is a folder "
                 .concat(DEFAULTBIDSPATH.getName())).withRequiredArg().ofType(String.class);
+        this.accepts(KEY_SEEDRANGE, "Batch mode: Creates one instance per seed in the range (e.g. --seedrange 1000:1999, both inclusive), "
+                + "each in its own subfolder of the bids path, and a summary index " + BatchModelCreator.INDEX_FILE_NAME)
+                .withRequiredArg().ofType(String.class);
+        this.accepts(KEY_MANIFEST, "Batch mode: Path to a file with the seeds of one instance per line, "
+                + "either a single seed or a world seed and a population seed")
+                .withRequiredArg().ofType(String.class);
+        this.accepts(KEY_THREADS, "The maximal number of bidder files written concurrently, or in batch mode, of instances created concurrently. "
+                + "Default is the number of processors")
+                .withRequiredArg().ofType(Integer.class);
     }
 
     protected abstract Model getModel();
@@ -80,6 +92,15 @@ public abstract class ModelOptionParser extends OptionParser {
             builder.setLang(BiddingLanguageEnum.CATS_SPECIFIC);
         }
 
+        List<BatchModelCreator.InstanceSeeds> batchSeeds = null;
+        if (options.has(KEY_SEEDRANGE) || options.has(KEY_MANIFEST)) {
+            if (options.has(KEY_SEED) || (options.has(KEY_SEEDRANGE) && options.has(KEY_MANIFEST))) {
+                throw new IllegalConfigException("Only one of --" + KEY_SEED + ", --" + KEY_SEEDRANGE + " and --" + KEY_MANIFEST + " can be used");
+            }
+            batchSeeds = options.has(KEY_SEEDRANGE)
+                    ? parseSeedRange((String) options.valueOf(KEY_SEEDRANGE))
+                    : BatchModelCreator.readManifest(new File((String) options.valueOf(KEY_MANIFEST)));
+        }
         if (options.has(KEY_SEED)) {
             List<Long> seeds = (List<Long>) options.valuesOf(KEY_SEED);
             System.out.println(seeds);
@@ -113,9 +134,37 @@ public abstract class ModelOptionParser extends OptionParser {
             outputFolder = new File((String) options.valueOf(KEY_BIDSPATH));
         }
         outputFolder.mkdir();
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (options.has(KEY_THREADS)) {
+            threads = (Integer) options.valueOf(KEY_THREADS);
+            if (threads < 1) {
+                throw new IllegalConfigException(threads + " is not a valid number of threads");
+            }
+        }
+        // Instances created concurrently in batch mode write their bidders on a single thread each
+        builder.setWriterThreads(threads);
+        if (batchSeeds != null) {
+            return new BatchModelCreator(builder, batchSeeds, threads).generateResults(outputFolder);
+        }
         return builder.build().generateResult(outputFolder);
     }
 
+    private static List<BatchModelCreator.InstanceSeeds> parseSeedRange(String seedRange) throws IllegalConfigException {
+        String[] bounds = seedRange.split(":");
+        try {
+            if (bounds.length == 2) {
+                long from = Long.parseLong(bounds[0].trim());
+                long to = Long.parseLong(bounds[1].trim());
+                if (from <= to) {
+                    return BatchModelCreator.seedRange(from, to);
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Handled below
+        }
+        throw new IllegalConfigException(seedRange + " is not a valid seed range, expected e.g. 1000:1999");
+    }
+
     /**
      * Factory Method to create a ModelOptionParser for a specific model
      *
@@ -0,0 +1,283 @@
+package org.spectrumauctions.sats.core.api;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.GsonBuilder;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.spectrumauctions.sats.core.bidfile.FileWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Generates one instance per seed (or pair of seeds) for the same model configuration, within one JVM and with
+ * bounded parallelism.<br>
+ * Every instance is generated by a {@link ModelCreator} built from the passed builder, and its value files are written
+ * by the {@link FileWriter} of the configured {@link FileType} to its own subfolder of the output folder (e.g.,
+ * <i>seed-42</i>). The summary index {@value #INDEX_FILE_NAME} in the output folder lists, in the order of the seeds,
+ * the value files and the generation time of every instance, or the error if its generation failed.
+ */
+public class BatchModelCreator {
+
+    private static final Logger logger = LogManager.getLogger(BatchModelCreator.class);
+
+    public static final String INDEX_FILE_NAME = "index.json";
+
+    private final ModelCreator.Builder builder;
+    private final List<InstanceSeeds> seeds;
+    private final int parallelism;
+
+    /**
+     * @param builder     the configuration of the instances. Its seeds are overwritten for every instance.
+     * @param seeds       the seeds of the instances
+     * @param parallelism the maximal number of instances which are generated concurrently
+     */
+    public BatchModelCreator(ModelCreator.Builder builder, List<InstanceSeeds> seeds, int parallelism) {
+        Preconditions.checkNotNull(builder);
+        Preconditions.checkArgument(!seeds.isEmpty(), "At least one seed is required");
+        Preconditions.checkArgument(parallelism > 0, "%s is not a valid parallelism", parallelism);
+        Preconditions.checkArgument(seeds.stream().map(InstanceSeeds::getName).distinct().count() == seeds.size(),
+                "Seeds must be unique");
+        this.builder = builder;
+        this.seeds = Collections.unmodifiableList(new ArrayList<>(seeds));
+        this.parallelism = parallelism;
+    }
+
+    public List<InstanceSeeds> getSeeds() {
+        return seeds;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Generates all instances and writes the summary index.
+     *
+     * @return the subfolders of the instances as value files, and the summary index
+     */
+    public PathResult generateResults(File outputFolder) throws IOException {
+        outputFolder.mkdirs();
+        List<ModelCreator> creators = buildCreators();
+        List<IndexEntry> entries = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(getInstanceThreads());
+        try {
+            List<Future<IndexEntry>> futures = new ArrayList<>();
+            for (int i = 0; i < seeds.size(); i++) {
+                InstanceSeeds instanceSeeds = seeds.get(i);
+                ModelCreator creator = creators.get(i);
+                futures.add(executor.submit(() -> generate(creator, instanceSeeds, outputFolder)));
+            }
+            for (Future<IndexEntry> future : futures) {
+                entries.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating instances", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        File indexFile = new File(outputFolder, INDEX_FILE_NAME);
+        FileUtils.write(indexFile, new GsonBuilder().setPrettyPrinting().create().toJson(entries), StandardCharsets.UTF_8);
+        PathResult result = new PathResult(false, outputFolder);
+        for (InstanceSeeds instanceSeeds : seeds) {
+            result.addValueFile(new File(outputFolder, instanceSeeds.getName()));
+        }
+        result.setIndexFile(indexFile);
+        long failures = entries.stream().filter(entry -> entry.error != null).count();
+        if (failures > 0) {
+            logger.warn("{} of {} instances could not be generated, see {}", failures, entries.size(), indexFile);
+        }
+        return result;
+    }
+
+    private int getInstanceThreads() {
+        return Math.min(parallelism, seeds.size());
+    }
+
+    /**
+     * Builds one creator per instance. The creators are built sequentially, as the builder is shared.
+     * If instances are generated concurrently, every instance writes its bidders on a single thread, such that
+     * the number of threads is bounded by the parallelism (rather than by its product with the writer threads).
+     */
+    List<ModelCreator> buildCreators() {
+        int writerThreads = builder.getWriterThreads();
+        if (getInstanceThreads() > 1) {
+            builder.setWriterThreads(1);
+        }
+        try {
+            List<ModelCreator> creators = new ArrayList<>();
+            for (InstanceSeeds instanceSeeds : seeds) {
+                instanceSeeds.applyTo(builder);
+                creators.add(builder.build());
+            }
+            return creators;
+        } finally {
+            builder.setWriterThreads(writerThreads);
+        }
+    }
+
+    private static IndexEntry generate(ModelCreator creator, InstanceSeeds instanceSeeds, File outputFolder) {
+        IndexEntry entry = new IndexEntry(instanceSeeds);
+        File instanceFolder = new File(outputFolder, instanceSeeds.getName());
+        long start = System.nanoTime();
+        try {
+            instanceFolder.mkdirs();
+            PathResult pathResult = creator.generateResult(instanceFolder);
+            Path base = outputFolder.getAbsoluteFile().toPath();
+            entry.valueFiles = pathResult.getValueFiles().stream()
+                    .map(file -> base.relativize(file.getAbsoluteFile().toPath()).toString())
+                    .collect(Collectors.toList());
+            entry.instanceFolder = pathResult.getInstanceFolder().getPath();
+        } catch (Exception e) {
+            logger.error("Generation of instance {} failed", instanceSeeds.getName(), e);
+            entry.error = String.valueOf(e);
+        }
+        entry.millis = (System.nanoTime() - start) / 1000000;
+        return entry;
+    }
+
+    /**
+     * @return one super seed per seed from fromSeed to toSeed (both inclusive)
+     */
+    public static List<InstanceSeeds> seedRange(long fromSeed, long toSeed) {
+        Preconditions.checkArgument(fromSeed <= toSeed, "Empty seed range %s:%s", fromSeed, toSeed);
+        List<InstanceSeeds> seeds = new ArrayList<>();
+        for (long seed = fromSeed; seed <= toSeed; seed++) {
+            seeds.add(InstanceSeeds.superSeed(seed));
+        }
+        return seeds;
+    }
+
+    /**
+     * Reads a manifest with one instance per line, given either by a super seed, or by a world seed and a population
+     * seed (separated by whitespace or a comma). Empty lines and lines starting with # are ignored.
+     */
+    public static List<InstanceSeeds> readManifest(File manifest) throws IOException, IllegalConfigException {
+        List<InstanceSeeds> seeds = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : FileUtils.readLines(manifest, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            String[] tokens = trimmed.split("[\\s,]+");
+            try {
+                if (tokens.length == 1) {
+                    seeds.add(InstanceSeeds.superSeed(Long.parseLong(tokens[0])));
+                } else if (tokens.length == 2) {
+                    seeds.add(InstanceSeeds.individualSeeds(Long.parseLong(tokens[0]), Long.parseLong(tokens[1])));
+                } else {
+                    throw new IllegalConfigException("Line " + lineNumber + " of the manifest has " + tokens.length + " seeds, expected 1 or 2");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalConfigException("Line " + lineNumber + " of the manifest is not a valid seed: " + trimmed, e);
+            }
+        }
+        if (seeds.isEmpty()) {
+            throw new IllegalConfigException("The manifest " + manifest + " does not contain any seeds");
+        }
+        return seeds;
+    }
+
+    /**
+     * The seeds of one instance of a batch
+     */
+    public static final class InstanceSeeds {
+
+        private final SeedType seedType;
+        private final long worldSeed;
+        private final long populationSeed;
+
+        private InstanceSeeds(SeedType seedType, long worldSeed, long populationSeed) {
+            this.seedType = seedType;
+            this.worldSeed = worldSeed;
+            this.populationSeed = populationSeed;
+        }
+
+        /**
+         * @see SeedType#SUPERSEED
+         */
+        public static InstanceSeeds superSeed(long seed) {
+            return new InstanceSeeds(SeedType.SUPERSEED, seed, seed);
+        }
+
+        /**
+         * @see SeedType#INDIVIDUALSEED
+         */
+        public static InstanceSeeds individualSeeds(long worldSeed, long populationSeed) {
+            return new InstanceSeeds(SeedType.INDIVIDUALSEED, worldSeed, populationSeed);
+        }
+
+        public SeedType getSeedType() {
+            return seedType;
+        }
+
+        public long getWorldSeed() {
+            return worldSeed;
+        }
+
+        public long getPopulationSeed() {
+            return populationSeed;
+        }
+
+        /**
+         * @return the name of the instance's subfolder
+         */
+        public String getName() {
+            return seedType == SeedType.SUPERSEED ? "seed-" + worldSeed : "seed-" + worldSeed + "-" + populationSeed;
+        }
+
+        private void applyTo(ModelCreator.Builder builder) {
+            builder.setSeedType(seedType);
+            if (seedType == SeedType.SUPERSEED) {
+                builder.setSuperSeed(worldSeed);
+            } else {
+                builder.setWorldSeed(worldSeed);
+                builder.setPopulationSeed(populationSeed);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+
+    /**
+     * An entry of the summary index, serialized with gson
+     */
+    @SuppressWarnings("unused")
+    private static final class IndexEntry {
+        private final String name;
+        private final Long seed;
+        private final Long worldSeed;
+        private final Long populationSeed;
+        private List<String> valueFiles;
+        private String instanceFolder;
+        private long millis;
+        private String error;
+
+        private IndexEntry(InstanceSeeds seeds) {
+            this.name = seeds.getName();
+            boolean superSeed = seeds.getSeedType() == SeedType.SUPERSEED;
+            this.seed = superSeed ? seeds.getWorldSeed() : null;
+            this.worldSeed = superSeed ? null : seeds.getWorldSeed();
+            this.populationSeed = superSeed ? null : seeds.getPopulationSeed();
+        }
+    }
+
+}
@@ -6,6 +6,7 @@
 package org.spectrumauctions.sats.core.api;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import org.spectrumauctions.sats.core.bidfile.FileWriter;
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
 import org.spectrumauctions.sats.core.model.DefaultModel;
@@ -18,7 +19,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Michael Weiss
@@ -32,6 +38,7 @@ public abstract class ModelCreator {
     private final long worldSeed;
     private final long populationSeed;
     private final BiddingLanguageEnum lang;
+    private final int writerThreads;
 
     private final boolean storeWorldSerialization;
     private SeedType seedType;
@@ -49,6 +56,7 @@ public abstract class ModelCreator {
         this.populationSeed = builder.populationSeed;
         this.storeWorldSerialization = builder.storeWorldSerialization;
         this.lang = builder.lang;
+        this.writerThreads = builder.writerThreads;
     }
 
     public boolean isOneFile() {
@@ -80,6 +88,10 @@ public abstract class ModelCreator {
         return storeWorldSerialization;
     }
 
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
     public abstract PathResult generateResult(File outputFolder) throws UnsupportedBiddingLanguageException, IOException, IllegalConfigException;
 
     protected PathResult appendTopLevelParamsAndSolve(DefaultModel<?, ?> model, File outputFolder) throws UnsupportedBiddingLanguageException, IOException, IllegalConfigException {
@@ -116,7 +128,7 @@ public abstract class ModelCreator {
                 result.addValueFile(valueFile);
                 return result;
             } else {
-                Collection<BiddingLanguage> languages = new ArrayList<>();
+                List<BiddingLanguage> languages = new ArrayList<>();
                 String zipId = String.valueOf(new Date().getTime());
                 File folder = new File(writer.getFolder().getAbsolutePath().concat(File.separator).concat(zipId));
                 folder.mkdir();
@@ -127,8 +139,9 @@ public abstract class ModelCreator {
                     } else {
                         valueFunction = bidder.getValueFunction(langClass);
                     }
-                    writer.writeSingleBidderXORQ(valueFunction, bidsPerBidder, zipId.concat(File.separator).concat("satsvalue"));
+                    languages.add(valueFunction);
                 }
+                writeSingleBidderFiles(writer, languages, zipId.concat(File.separator).concat("satsvalue"));
                 result = new PathResult(storeWorldSerialization, instanceFolder);
                 result.addValueFile(folder);
                 return result;
@@ -150,6 +163,7 @@ public abstract class ModelCreator {
                 result.addValueFile(valueFile);
                 return result;
             } else {
+                List<BiddingLanguage> languages = new ArrayList<>();
                 String zipId = String.valueOf(new Date().getTime());
                 File folder = new File(writer.getFolder().getAbsolutePath().concat(File.separator).concat(zipId));
                 folder.mkdir();
@@ -160,8 +174,9 @@ public abstract class ModelCreator {
                     } else {
                         language = bidder.getValueFunction(langClass);
                     }
-                    writer.writeSingleBidderXOR(language, bidsPerBidder, zipId.concat(File.separator).concat("satsvalue"));
+                    languages.add(language);
                 }
+                writeSingleBidderFiles(writer, languages, zipId.concat(File.separator).concat("satsvalue"));
                 result = new PathResult(storeWorldSerialization, instanceFolder);
                 result.addValueFile(folder);
                 return result;
@@ -169,6 +184,54 @@ public abstract class ModelCreator {
         }
     }
 
+    /**
+     * Writes one file per bidder, generating and writing the bids of up to {@link #getWriterThreads()} bidders
+     * concurrently. The files are reserved in the order of the bidders before any bids are generated, such that
+     * every bidder's file has the same name and content as if the files were written one after the other.
+     */
+    private void writeSingleBidderFiles(FileWriter writer, List<BiddingLanguage> languages, String filePrefix) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < languages.size(); i++) {
+            files.add(writer.reserveFile(filePrefix));
+        }
+        int threads = Math.min(writerThreads, languages.size());
+        if (threads <= 1) {
+            for (int i = 0; i < languages.size(); i++) {
+                writeSingleBidderFile(writer, languages.get(i), files.get(i));
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<File>> futures = new ArrayList<>();
+            for (int i = 0; i < languages.size(); i++) {
+                BiddingLanguage language = languages.get(i);
+                File file = files.get(i);
+                futures.add(executor.submit(() -> writeSingleBidderFile(writer, language, file)));
+            }
+            for (Future<File> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing value files", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private File writeSingleBidderFile(FileWriter writer, BiddingLanguage language, File file) throws IOException {
+        if (generic) {
+            return writer.writeSingleBidderXORQ(language, bidsPerBidder, file);
+        } else {
+            return writer.writeSingleBidderXOR(language, bidsPerBidder, file);
+        }
+    }
+
 
     public static abstract class Builder {
 
@@ -182,6 +245,7 @@ public abstract class ModelCreator {
         private boolean generic;
         private FileType fileType;
         private boolean oneFile;
+        private int writerThreads;
 
         public Builder() {
             this.lang = BiddingLanguageEnum.RANDOM;
@@ -191,6 +255,7 @@ public abstract class ModelCreator {
             generic = false;
             fileType = FileType.CATS;
             oneFile = true;
+            writerThreads = 1;
         }
 
         public abstract ModelCreator build();
@@ -271,5 +336,18 @@ public abstract class ModelCreator {
             this.oneFile = oneFile;
         }
 
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+
+        /**
+         * Sets the number of bidders whose files are generated and written concurrently if every bidder is written to
+         * its own file (see {@link #setOneFile(boolean)}). Defaults to 1, i.e., the files are written one after the other.
+         */
+        public void setWriterThreads(int writerThreads) {
+            Preconditions.checkArgument(writerThreads > 0, "%s is not a valid number of threads", writerThreads);
+            this.writerThreads = writerThreads;
+        }
+
     }
 }
\ No newline at end of file
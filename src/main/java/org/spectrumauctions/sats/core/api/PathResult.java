@@ -18,6 +18,7 @@ public final class PathResult {
     private List<File> valueFiles;
     private boolean areInstancesSerialized;
     private File instanceFolder;
+    private File indexFile;
 
 
     public PathResult(boolean areInstancesSerialized, File instanceFolder) {
@@ -51,4 +52,16 @@ public final class PathResult {
         this.instanceFolder = instanceFolder;
     }
 
+    /**
+     * @return the summary index of a batch, or null if the result is not a batch
+     * @see BatchModelCreator
+     */
+    public File getIndexFile() {
+        return indexFile;
+    }
+
+    public void setIndexFile(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
 }
@@ -25,6 +25,18 @@ public class CatsExporter extends FileWriter {
 
     @Override
     public File writeSingleBidderXOR(BiddingLanguage valueFunction, int numberOfBids, String filePrefix) throws IOException {
+        return write(singleBidderXOR(valueFunction, numberOfBids), nextNonexistingFile(filePrefix));
+    }
+
+    /* (non-Javadoc)
+     * @see FileWriter#writeSingleBidderXOR(BiddingLanguage, int, java.io.File)
+     */
+    @Override
+    public File writeSingleBidderXOR(BiddingLanguage valueFunction, int numberOfBids, File target) throws IOException {
+        return write(singleBidderXOR(valueFunction, numberOfBids), target.toPath());
+    }
+
+    private List<String> singleBidderXOR(BiddingLanguage valueFunction, int numberOfBids) {
         Iterator<BundleValue> iter = valueFunction.iterator();
         Set<BundleValue> selectedValues = new HashSet<>();
         List<String> bidLines = fileInit(valueFunction);
@@ -42,9 +54,7 @@ public class CatsExporter extends FileWriter {
         lines.add("dummy 0");
         lines.add("");
         lines.addAll(bidLines);
-
-        return write(lines, filePrefix);
-
+        return lines;
     }
 
     private List<String> fileInit(BiddingLanguage lang) {
@@ -102,8 +112,11 @@ public class CatsExporter extends FileWriter {
     }
 
     private File write(List<String> lines, String filePrefix) throws IOException {
-        Path file = nextNonexistingFile(filePrefix);
-        Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE);
+        return write(lines, nextNonexistingFile(filePrefix));
+    }
+
+    private File write(List<String> lines, Path file) throws IOException {
+        Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 //            Files.write(file, lines, StandardOpenOption.CREATE); //jvm 8 version
         return file.toFile();
     }
@@ -126,6 +139,15 @@ public class CatsExporter extends FileWriter {
         throw new UnsupportedOperationException("XOR-Q is not compatible with the CATS file format");
     }
 
+    /* (non-Javadoc)
+     * @see FileWriter#writeSingleBidderXORQ(BiddingLanguage, int, java.io.File)
+     */
+    @Override
+    public File writeSingleBidderXORQ(BiddingLanguage lang, int numberOfBids, File target)
+            throws IOException {
+        throw new UnsupportedOperationException("XOR-Q is not compatible with the CATS file format");
+    }
+
     /* (non-Javadoc)
      * @see FileWriter#filetype()
      */
@@ -10,7 +10,10 @@ import org.spectrumauctions.sats.core.util.CacheMap;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
 
 /**
@@ -31,6 +34,24 @@ public abstract class FileWriter {
 
     public abstract File writeSingleBidderXORQ(BiddingLanguage lang, int numberOfBids, String filePrefix) throws IOException;
 
+    /**
+     * Writes the bids of a single bidder to the given file, usually one reserved with {@link #reserveFile(String)}.
+     * By default, the bids are written with {@link #writeSingleBidderXOR(BiddingLanguage, int, String)} and then
+     * moved to the given file.
+     */
+    public File writeSingleBidderXOR(BiddingLanguage valueFunction, int numberOfBids, File target) throws IOException {
+        return moveTo(writeSingleBidderXOR(valueFunction, numberOfBids, temporaryPrefix(target)), target);
+    }
+
+    /**
+     * Writes the bids of a single bidder to the given file, usually one reserved with {@link #reserveFile(String)}.
+     * By default, the bids are written with {@link #writeSingleBidderXORQ(BiddingLanguage, int, String)} and then
+     * moved to the given file.
+     */
+    public File writeSingleBidderXORQ(BiddingLanguage lang, int numberOfBids, File target) throws IOException {
+        return moveTo(writeSingleBidderXORQ(lang, numberOfBids, temporaryPrefix(target)), target);
+    }
+
     /**
      * @return the file ending of the generated bid files
      */
@@ -48,7 +69,15 @@ public abstract class FileWriter {
         this.folder = path;
     }
 
-    protected Path nextNonexistingFile(String filePrefix) {
+    /**
+     * Reserves the next nonexisting file with the given prefix by creating it (empty), such that concurrent writers
+     * never write to the same file. Files are reserved in the order of the calls.
+     */
+    public File reserveFile(String filePrefix) throws IOException {
+        return nextNonexistingFile(filePrefix).toFile();
+    }
+
+    protected synchronized Path nextNonexistingFile(String filePrefix) throws IOException {
         Integer cashedCount = fileNameCount.get(filePrefix);
         if (cashedCount == null)
             cashedCount = 0;
@@ -56,11 +85,12 @@ public abstract class FileWriter {
         File candidate;
         do {
             candidate = getFile(filePrefix, cashedCount);
-            if (candidate.exists() && candidate.isFile()) {
-                cashedCount++;
-            } else {
-                // Found next nonexisting file
+            try {
+                Files.createFile(candidate.toPath());
+                // Found (and reserved) next nonexisting file
                 searching = false;
+            } catch (FileAlreadyExistsException e) {
+                cashedCount++;
             }
         } while (searching);
         fileNameCount.put(filePrefix, cashedCount + 1);
@@ -73,6 +103,14 @@ public abstract class FileWriter {
         return new File(fileName);
     }
 
+    private static String temporaryPrefix(File target) {
+        return "." + target.getName() + ".";
+    }
+
+    private static File moveTo(File written, File target) throws IOException {
+        return Files.move(written.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING).toFile();
+    }
+
     public String getDefaultFilePrefix() {
         return defaultFilePrefix;
     }
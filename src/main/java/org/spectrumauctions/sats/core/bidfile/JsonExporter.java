@@ -84,6 +84,16 @@ public class JsonExporter extends FileWriter {
         return write(singleBidder, filePrefix);
     }
 
+    /* (non-Javadoc)
+     * @see FileWriter#writeSingleBidderXOR(BiddingLanguage, int, java.io.File)
+     */
+    @Override
+    public File writeSingleBidderXOR(BiddingLanguage valueFunction, int numberOfBids, File target)
+            throws IOException {
+        JsonElement singleBidder = singleBidderXOR(valueFunction, numberOfBids, target.getName());
+        return write(singleBidder, target.toPath());
+    }
+
     /* (non-Javadoc)
      * @see FileWriter#writeMultiBidderXORQ(java.util.Collection, int, java.lang.String)
      */
@@ -110,6 +120,16 @@ public class JsonExporter extends FileWriter {
         return write(singleBidder, filePrefix);
     }
 
+    /* (non-Javadoc)
+     * @see FileWriter#writeSingleBidderXORQ(BiddingLanguage, int, java.io.File)
+     */
+    @Override
+    public File writeSingleBidderXORQ(BiddingLanguage lang, int numberOfBids, File target)
+            throws IOException {
+        JsonElement singleBidder = singleBidderXORQ(lang, numberOfBids, target.getName());
+        return write(singleBidder, target.toPath());
+    }
+
     private JsonElement singleBidderXORQ(BiddingLanguage lang, int numberOfBids, String filePrefix) {
         JsonArray result = new JsonArray();
         Iterator<BundleValue> iter = lang.iterator();
@@ -135,9 +155,12 @@ public class JsonExporter extends FileWriter {
 
 
     private File write(JsonElement toWrite, String filePrefix) throws IOException {
-        Path file = nextNonexistingFile(filePrefix);
+        return write(toWrite, nextNonexistingFile(filePrefix));
+    }
+
+    private File write(JsonElement toWrite, Path file) throws IOException {
         String content = gson.toJson(toWrite);
-        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
         return file.toFile();
     }
 
@@ -25,7 +25,7 @@ public abstract class GenericSizeDecreasing extends GenericSizeOrdered {
 
     @Override
     public Iterator<BundleValue> iterator() {
-        return new DecreasingIterator();
+        return getBidder().instrumentBids(this, new DecreasingIterator());
     }
 
     private class DecreasingIterator implements Iterator<BundleValue> {
@@ -26,7 +26,7 @@ public abstract class GenericSizeIncreasing extends GenericSizeOrdered {
 
     @Override
     public Iterator<BundleValue> iterator() {
-        return new IncreasingIterator();
+        return getBidder().instrumentBids(this, new IncreasingIterator());
     }
 
     private class IncreasingIterator implements Iterator<BundleValue> {
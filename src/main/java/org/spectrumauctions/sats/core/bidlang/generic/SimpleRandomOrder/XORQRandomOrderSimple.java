@@ -70,7 +70,7 @@ public abstract class XORQRandomOrderSimple implements BiddingLanguage {
      */
     @Override
     public Iterator<BundleValue> iterator() {
-        return new SimpleRandomOrderIterator(iterations, rngSupplier.getUniformDistributionRNG());
+        return getBidder().instrumentBids(this, new SimpleRandomOrderIterator(iterations, rngSupplier.getUniformDistributionRNG()));
     }
 
     class SimpleRandomOrderIterator implements Iterator<BundleValue> {
@@ -41,7 +41,7 @@ public abstract class GenericPowersetDecreasing extends GenericPowerset {
      */
     @Override
     public Iterator<BundleValue> iterator() {
-        return new DecreasingIterator();
+        return getBidder().instrumentBids(this, new DecreasingIterator());
     }
 
 
@@ -35,7 +35,7 @@ public abstract class GenericPowersetIncreasing extends GenericPowerset {
 
     @Override
     public Iterator<BundleValue> iterator() {
-        return new IncreasingIterator();
+        return getBidder().instrumentBids(this, new IncreasingIterator());
     }
 
     private class IncreasingIterator extends GenericPowerset.PowersetIterator {
@@ -75,9 +75,9 @@ public class CatsXOR implements BiddingLanguage {
     @Override
     public Iterator<BundleValue> iterator() {
         if (noCapForSubstitutableGoods) {
-            return new CATSIterator(rngSupplier.getUniformDistributionRNG(), false);
+            return getBidder().instrumentBids(this, new CATSIterator(rngSupplier.getUniformDistributionRNG(), false));
         } else {
-            return getCATSXORBids().iterator();
+            return getBidder().instrumentBids(this, getCATSXORBids().iterator());
         }
     }
 
@@ -26,7 +26,7 @@ public class DecreasingSizeOrderedXOR extends SizeOrderedXOR {
 
     @Override
     public Iterator<BundleValue> iterator() {
-        return new DecreasingIterator();
+        return getBidder().instrumentBids(this, new DecreasingIterator());
     }
 
     private class DecreasingIterator implements Iterator<BundleValue> {
@@ -27,7 +27,7 @@ public class IncreasingSizeOrderedXOR extends SizeOrderedXOR {
 
     @Override
     public Iterator<BundleValue> iterator() {
-        return new IncreasingIterator();
+        return getBidder().instrumentBids(this, new IncreasingIterator());
     }
 
     private class IncreasingIterator implements Iterator<BundleValue> {
@@ -101,8 +101,8 @@ public class SizeBasedUniqueRandomXOR implements BiddingLanguage {
         if (iterations < 0) {
             setMaxIterations();
         }
-        return new ValueIterator(rngSupplier.getUniformDistributionRNG(seed),
-                rngSupplier.getGaussianDistributionRNG(seed + 1), meanBundleSize, standardDeviation, iterations);
+        return getBidder().instrumentBids(this, new ValueIterator(rngSupplier.getUniformDistributionRNG(seed),
+                rngSupplier.getGaussianDistributionRNG(seed + 1), meanBundleSize, standardDeviation, iterations));
     }
 
     private class BigIntegerComparator implements Comparator<BigInteger>, Serializable{
@@ -0,0 +1,126 @@
+package org.spectrumauctions.sats.core.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe statistics of one type of queries: The number of queries, their latency and size distribution, and
+ * how many of them were answered from a cache.
+ * <ul>
+ * <li>Latencies are counted in buckets of powers of two, i.e., bucket i counts latencies in
+ * [2<sup>i</sup>, 2<sup>i+1</sup>) nanoseconds (bucket 0 also counts 0 ns).</li>
+ * <li>Sizes are counted exactly up to {@link #MAX_SIZE}, larger sizes are counted in the last bucket.
+ * The size of a value query or a bid is the number of items in the bundle, the size of a batch of value queries or
+ * a demand query is the number of bundles.</li>
+ * </ul>
+ */
+public final class QueryStatistics {
+
+    public static final int LATENCY_BUCKETS = 64;
+    public static final int MAX_SIZE = 128;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder totalSize = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+    private final AtomicLongArray sizes = new AtomicLongArray(MAX_SIZE + 1);
+
+    void record(long durationNanos, int size, boolean cacheHit) {
+        count.increment();
+        totalNanos.add(durationNanos);
+        totalSize.add(size);
+        if (cacheHit) cacheHits.increment();
+        latencies.incrementAndGet(latencyBucket(durationNanos));
+        sizes.incrementAndGet(Math.max(0, Math.min(size, MAX_SIZE)));
+    }
+
+    /**
+     * Adds the statistics of another instance to this instance.
+     */
+    void add(QueryStatistics other) {
+        count.add(other.getCount());
+        totalNanos.add(other.getTotalNanos());
+        totalSize.add(other.totalSize.sum());
+        cacheHits.add(other.getCacheHits());
+        for (int i = 0; i < LATENCY_BUCKETS; i++) latencies.addAndGet(i, other.latencies.get(i));
+        for (int i = 0; i <= MAX_SIZE; i++) sizes.addAndGet(i, other.sizes.get(i));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getTotalNanos() / n;
+    }
+
+    public double getMeanSize() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) totalSize.sum() / n;
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public double getCacheHitRate() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getCacheHits() / n;
+    }
+
+    /**
+     * @return the number of queries per latency bucket, see {@link QueryStatistics}
+     */
+    public long[] getLatencyHistogram() {
+        long[] result = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) result[i] = latencies.get(i);
+        return result;
+    }
+
+    /**
+     * @return the number of queries per size, see {@link QueryStatistics}
+     */
+    public long[] getSizeHistogram() {
+        long[] result = new long[MAX_SIZE + 1];
+        for (int i = 0; i <= MAX_SIZE; i++) result[i] = sizes.get(i);
+        return result;
+    }
+
+    /**
+     * @param quantile the quantile, between 0 and 1
+     * @return an upper bound of the latency quantile in nanoseconds, i.e., the upper end of the latency bucket
+     * containing the quantile
+     */
+    public long getLatencyQuantile(double quantile) {
+        long[] histogram = getLatencyHistogram();
+        long total = 0;
+        for (long bucket : histogram) total += bucket;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank && histogram[i] > 0) return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d queries, mean %.1f us, p50 <= %.1f us, p99 <= %.1f us, mean size %.1f, cache hit rate %.3f",
+                getCount(), getMeanNanos() / 1e3, getLatencyQuantile(0.5) / 1e3, getLatencyQuantile(0.99) / 1e3,
+                getMeanSize(), getCacheHitRate());
+    }
+
+    private static int latencyBucket(long durationNanos) {
+        if (durationNanos <= 1) return 0;
+        return Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(durationNanos));
+    }
+
+}
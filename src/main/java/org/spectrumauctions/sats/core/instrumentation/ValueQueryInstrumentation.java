@@ -0,0 +1,55 @@
+package org.spectrumauctions.sats.core.instrumentation;
+
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Observes the queries answered by a {@link SATSBidder}, analogous to the
+ * {@link org.marketdesignresearch.mechlib.instrumentation.MipInstrumentation} for MIPs.
+ * Extend this class and override the methods of interest, or use {@link ValueQueryStatistics}.
+ * <p>
+ * With the default {@link #NO_OP} instrumentation, the bidders skip the instrumentation entirely,
+ * i.e., they do not even measure the time of a query.
+ * Instrumentations are called concurrently if the bidders are queried concurrently.
+ */
+public class ValueQueryInstrumentation {
+
+    public static final ValueQueryInstrumentation NO_OP = new ValueQueryInstrumentation();
+
+    protected ValueQueryInstrumentation() {
+    }
+
+    /**
+     * Called after a value query ({@link SATSBidder#calculateValue(Bundle)}).
+     *
+     * @param cacheHit whether the value was answered from a cache instead of being calculated
+     */
+    public void valueQuery(SATSBidder bidder, Bundle bundle, long durationNanos, boolean cacheHit) {
+    }
+
+    /**
+     * Called after a batch of value queries ({@link SATSBidder#calculateValues(List)}), in addition to the calls of
+     * {@link #valueQuery(SATSBidder, Bundle, long, boolean)} for each bundle.
+     */
+    public void valueQueries(SATSBidder bidder, List<Bundle> bundles, long durationNanos) {
+    }
+
+    /**
+     * Called after a demand query ({@link SATSBidder#getBestBundles(Prices, int, boolean)}).
+     */
+    public void demandQuery(SATSBidder bidder, Prices prices, Collection<Bundle> bestBundles, long durationNanos) {
+    }
+
+    /**
+     * Called after a bid was generated by a bidding language's iterator.
+     */
+    public void bid(SATSBidder bidder, BiddingLanguage biddingLanguage, BundleValue bid, long durationNanos) {
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.spectrumauctions.sats.core.instrumentation;
+
+import lombok.Value;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ValueQueryInstrumentation} which records {@link QueryStatistics} per bidder and per setup type
+ * (i.e., bidder type). Bidders are identified by their setup type and id, such that the statistics of similar bidders
+ * (see {@link SATSBidder#drawSimilarBidder(org.spectrumauctions.sats.core.util.random.RNGSupplier)}) are added to the
+ * statistics of the original bidder.
+ * <p>
+ * One instance is typically shared among all bidders of a domain, see
+ * {@code ModelDomain#setValueQueryInstrumentation(ValueQueryInstrumentation)}.
+ */
+public class ValueQueryStatistics extends ValueQueryInstrumentation {
+
+    public enum QueryType {
+        VALUE, VALUES, DEMAND, BID
+    }
+
+    private final Map<BidderKey, QueryStatistics> byBidder = new ConcurrentHashMap<>();
+
+    @Override
+    public void valueQuery(SATSBidder bidder, Bundle bundle, long durationNanos, boolean cacheHit) {
+        record(bidder, QueryType.VALUE, durationNanos, bundle.getTotalAmount(), cacheHit);
+    }
+
+    @Override
+    public void valueQueries(SATSBidder bidder, List<Bundle> bundles, long durationNanos) {
+        record(bidder, QueryType.VALUES, durationNanos, bundles.size(), false);
+    }
+
+    @Override
+    public void demandQuery(SATSBidder bidder, Prices prices, Collection<Bundle> bestBundles, long durationNanos) {
+        record(bidder, QueryType.DEMAND, durationNanos, bestBundles.size(), false);
+    }
+
+    @Override
+    public void bid(SATSBidder bidder, BiddingLanguage biddingLanguage, BundleValue bid, long durationNanos) {
+        record(bidder, QueryType.BID, durationNanos, bid.getBundle().getTotalAmount(), false);
+    }
+
+    private void record(SATSBidder bidder, QueryType type, long durationNanos, int size, boolean cacheHit) {
+        byBidder.computeIfAbsent(new BidderKey(bidder.getSetupType(), bidder.getLongId(), type), k -> new QueryStatistics())
+                .record(durationNanos, size, cacheHit);
+    }
+
+    /**
+     * @return the statistics of all queries of the given type
+     */
+    public QueryStatistics getStatistics(QueryType type) {
+        return aggregate(null, null, type);
+    }
+
+    /**
+     * @return the statistics of the queries of the given type to bidders of the given setup type
+     */
+    public QueryStatistics getStatistics(String setupType, QueryType type) {
+        return aggregate(setupType, null, type);
+    }
+
+    /**
+     * @return the statistics of the queries of the given type to the given bidder
+     */
+    public QueryStatistics getStatistics(SATSBidder bidder, QueryType type) {
+        return aggregate(bidder.getSetupType(), bidder.getLongId(), type);
+    }
+
+    /**
+     * @return the setup types of the bidders which have been queried
+     */
+    public Set<String> getSetupTypes() {
+        Set<String> result = new TreeSet<>();
+        byBidder.keySet().forEach(key -> result.add(key.getSetupType()));
+        return result;
+    }
+
+    public void reset() {
+        byBidder.clear();
+    }
+
+    private QueryStatistics aggregate(String setupType, Long bidderId, QueryType type) {
+        QueryStatistics result = new QueryStatistics();
+        byBidder.forEach((key, statistics) -> {
+            if (key.getType() == type
+                    && (setupType == null || setupType.equals(key.getSetupType()))
+                    && (bidderId == null || bidderId == key.getBidderId())) {
+                result.add(statistics);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return a summary of the statistics per setup type and query type
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ValueQueryStatistics");
+        for (String setupType : getSetupTypes()) {
+            for (QueryType type : QueryType.values()) {
+                QueryStatistics statistics = getStatistics(setupType, type);
+                if (statistics.getCount() > 0) {
+                    sb.append(System.lineSeparator()).append(setupType).append(" ").append(type).append(": ").append(statistics);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Value
+    private static class BidderKey {
+        String setupType;
+        long bidderId;
+        QueryType type;
+    }
+
+}
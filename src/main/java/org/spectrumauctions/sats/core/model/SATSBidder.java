@@ -8,14 +8,19 @@ package org.spectrumauctions.sats.core.model;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.marketdesignresearch.mechlib.core.Bundle;
 import org.marketdesignresearch.mechlib.core.bidder.Bidder;
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
 import org.marketdesignresearch.mechlib.core.bidder.strategy.DefaultStrategyHandler;
 import org.marketdesignresearch.mechlib.core.bidder.strategy.InteractionStrategy;
+import org.marketdesignresearch.mechlib.core.price.Prices;
 import org.marketdesignresearch.mechlib.instrumentation.MipInstrumentation;
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.instrumentation.ValueQueryInstrumentation;
+import org.spectrumauctions.sats.core.util.BundleValueCache;
 import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
 import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
@@ -106,12 +111,48 @@ public abstract class SATSBidder implements Bidder, Serializable {
 //    }
 
     /**
-     * Returns the value this bidder has for a specific bundle.
+     * Returns the value this bidder has for a specific bundle.<br>
+     * The value is taken from the value cache (see {@link #enableValueCache(int)}) or calculated by
+     * {@link #computeValue(Bundle)}, and the query is reported to the {@link ValueQueryInstrumentation}.
+     * Subclasses which override this method instead of {@link #computeValue(Bundle)} bypass both.
      *
      * @param bundle the bundle for which the value is asked
      * @return bidder specific value for this bundle
      */
-    public abstract BigDecimal calculateValue(Bundle bundle);
+    public BigDecimal calculateValue(Bundle bundle) {
+        ValueQueryInstrumentation instrumentation = this.valueQueryInstrumentation;
+        BundleValueCache cache = this.valueCache;
+        if (cache == null) {
+            if (instrumentation == null || instrumentation == ValueQueryInstrumentation.NO_OP) {
+                return computeValue(bundle);
+            }
+            long start = System.nanoTime();
+            BigDecimal value = computeValue(bundle);
+            instrumentation.valueQuery(this, bundle, System.nanoTime() - start, false);
+            return value;
+        }
+        long start = System.nanoTime();
+        BigDecimal value = cache.get(bundle);
+        boolean cacheHit = value != null;
+        if (!cacheHit) {
+            value = computeValue(bundle);
+            cache.put(bundle, value);
+        }
+        if (instrumentation != null && instrumentation != ValueQueryInstrumentation.NO_OP) {
+            instrumentation.valueQuery(this, bundle, System.nanoTime() - start, cacheHit);
+        }
+        return value;
+    }
+
+    /**
+     * Calculates the value this bidder has for a specific bundle, see {@link #calculateValue(Bundle)}.
+     *
+     * @throws UnsupportedOperationException unless overridden, for subclasses which override
+     *                                       {@link #calculateValue(Bundle)} instead
+     */
+    protected BigDecimal computeValue(Bundle bundle) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not implement computeValue");
+    }
 
     /**
      * Returns a list of values for a list of bundles, in the same
@@ -121,7 +162,39 @@ public abstract class SATSBidder implements Bidder, Serializable {
      * @return a list of bidder specific values for these bundles
      */
     public List<BigDecimal> calculateValues(List<Bundle> bundles) {
-        return bundles.parallelStream().map(this::calculateValue).collect(Collectors.toList());
+        ValueQueryInstrumentation instrumentation = getValueQueryInstrumentation();
+        long start = instrumentation == ValueQueryInstrumentation.NO_OP ? 0 : System.nanoTime();
+        List<BigDecimal> values = bundles.parallelStream().map(this::calculateValue).collect(Collectors.toList());
+        if (instrumentation != ValueQueryInstrumentation.NO_OP) {
+            instrumentation.valueQueries(this, bundles, System.nanoTime() - start);
+        }
+        return values;
+    }
+
+    /**
+     * Answers a demand query with {@link #computeBestBundles(Prices, int, boolean)} and reports it to the
+     * {@link ValueQueryInstrumentation}. Subclasses which override this method instead bypass the instrumentation.
+     */
+    @Override
+    public LinkedHashSet<Bundle> getBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        ValueQueryInstrumentation instrumentation = getValueQueryInstrumentation();
+        if (instrumentation == ValueQueryInstrumentation.NO_OP) {
+            return computeBestBundles(prices, maxNumberOfBundles, allowNegative);
+        }
+        long start = System.nanoTime();
+        LinkedHashSet<Bundle> bestBundles = computeBestBundles(prices, maxNumberOfBundles, allowNegative);
+        instrumentation.demandQuery(this, prices, bestBundles, System.nanoTime() - start);
+        return bestBundles;
+    }
+
+    /**
+     * Answers a demand query, see {@link #getBestBundles(Prices, int, boolean)}.
+     *
+     * @throws UnsupportedOperationException unless overridden, for subclasses which override
+     *                                       {@link #getBestBundles(Prices, int, boolean)} instead
+     */
+    protected LinkedHashSet<Bundle> computeBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not implement computeBestBundles");
     }
 
     @Override
@@ -213,25 +286,112 @@ public abstract class SATSBidder implements Bidder, Serializable {
     
     // region strategy
     // TODO handle persistence
-    private Map<Class<? extends InteractionStrategy>,InteractionStrategy> strategies = new HashMap<>();
+    private volatile Map<Class<? extends InteractionStrategy>,InteractionStrategy> strategies = new ConcurrentHashMap<>();
+
+    /**
+     * Deserialization may leave the map null (JSON of previous versions) or create a map which is not thread-safe,
+     * in which case it is re-created (keeping its strategies) on first access.
+     */
+    private Map<Class<? extends InteractionStrategy>,InteractionStrategy> getStrategies() {
+        Map<Class<? extends InteractionStrategy>,InteractionStrategy> result = strategies;
+        if (!(result instanceof ConcurrentHashMap)) {
+            synchronized (this) {
+                result = strategies;
+                if (!(result instanceof ConcurrentHashMap)) {
+                    strategies = result = result == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(result);
+                }
+            }
+        }
+        return result;
+    }
     
     @Override
-	public void setStrategy(InteractionStrategy strategy) {
+	public synchronized void setStrategy(InteractionStrategy strategy) {
     	strategy.setBidder(this);
-		strategy.getTypes().forEach(t -> this.strategies.put(t, strategy));
+		strategy.getTypes().forEach(t -> this.getStrategies().put(t, strategy));
 	}
     
     @SuppressWarnings("unchecked")
 	@Override
 	public <T extends InteractionStrategy> T getStrategy(Class<T> type) {
-		if(!this.strategies.containsKey(type)) this.setStrategy(DefaultStrategyHandler.defaultStrategy(type));
-		return  (T) this.strategies.get(type);
+        InteractionStrategy strategy = getStrategies().get(type);
+        if (strategy == null) {
+            // The default strategy is created only once, even if queried concurrently
+            synchronized (this) {
+                strategy = getStrategies().get(type);
+                if (strategy == null) {
+                    this.setStrategy(DefaultStrategyHandler.defaultStrategy(type));
+                    strategy = getStrategies().get(type);
+                }
+            }
+        }
+		return (T) strategy;
 	}
 	// endregion
 
     // region instrumentation
     @Getter @Setter
     private MipInstrumentation mipInstrumentation = MipInstrumentation.NO_OP;
+
+    // Not serialized; null after deserialization
+    private transient ValueQueryInstrumentation valueQueryInstrumentation = ValueQueryInstrumentation.NO_OP;
+
+    public ValueQueryInstrumentation getValueQueryInstrumentation() {
+        return valueQueryInstrumentation == null ? ValueQueryInstrumentation.NO_OP : valueQueryInstrumentation;
+    }
+
+    public void setValueQueryInstrumentation(ValueQueryInstrumentation valueQueryInstrumentation) {
+        this.valueQueryInstrumentation = Preconditions.checkNotNull(valueQueryInstrumentation);
+    }
+
+    /**
+     * Wraps the bid iterator of a bidding language of this bidder, such that the generated bids are reported to the
+     * {@link ValueQueryInstrumentation}. Without instrumentation, the iterator is returned as is.
+     */
+    public Iterator<BundleValue> instrumentBids(BiddingLanguage biddingLanguage, Iterator<BundleValue> bids) {
+        ValueQueryInstrumentation instrumentation = getValueQueryInstrumentation();
+        if (instrumentation == ValueQueryInstrumentation.NO_OP) return bids;
+        return new Iterator<BundleValue>() {
+            @Override
+            public boolean hasNext() {
+                return bids.hasNext();
+            }
+
+            @Override
+            public BundleValue next() {
+                long start = System.nanoTime();
+                BundleValue bid = bids.next();
+                instrumentation.bid(SATSBidder.this, biddingLanguage, bid, System.nanoTime() - start);
+                return bid;
+            }
+        };
+    }
+    // endregion
+
+    // region value cache
+    // Disabled by default; not serialized
+    private transient volatile BundleValueCache valueCache = null;
+
+    /**
+     * Caches the values of up to maximumSize bundles, such that repeated value queries for the same bundle are only
+     * calculated once. Replaces the current cache, if any.
+     *
+     * @see BundleValueCache
+     */
+    public void enableValueCache(int maximumSize) {
+        this.valueCache = new BundleValueCache(maximumSize);
+    }
+
+    public void disableValueCache() {
+        this.valueCache = null;
+    }
+
+    /**
+     * @return the value cache with its hit and miss counts, or null if values are not cached
+     */
+    public BundleValueCache getValueCache() {
+        return valueCache;
+    }
     // endregion
 
 }
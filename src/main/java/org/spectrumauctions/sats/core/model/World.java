@@ -5,13 +5,21 @@
  */
 package org.spectrumauctions.sats.core.model;
 
+import com.google.common.base.Preconditions;
 import org.spectrumauctions.sats.core.model.bvm.BMWorld;
 import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.random.RNGSupplier;
+import org.spectrumauctions.sats.core.util.random.ReservedRNGSupplier;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 public abstract class World implements Serializable {
 
@@ -20,6 +28,8 @@ public abstract class World implements Serializable {
     protected final String modelName;
     protected final long id;
 
+    private transient Executor populationExecutor = null;
+
     public World(String modelName) {
         this.id = InstanceHandler.getDefaultHandler().getNextWorldId();
         this.modelName = modelName;
@@ -45,6 +55,93 @@ public abstract class World implements Serializable {
         return InstanceHandler.getDefaultHandler().getNextPopulationId(getId());
     }
 
+    /**
+     * Sets the executor on which the bidders of new populations are created.<br>
+     * By default (null), bidders are created one after the other from the population's {@link RNGSupplier}.
+     * With an executor, the generators every bidder draws are reserved from the population's {@link RNGSupplier}
+     * in bidder order first (see {@link RNGSupplier#reserve(int)}), so the population is identical to the one
+     * created sequentially. Suppliers which do not support reservations always create their bidders sequentially.
+     *
+     * @param populationExecutor the executor, or null to create bidders sequentially
+     */
+    public void setPopulationExecutor(Executor populationExecutor) {
+        this.populationExecutor = populationExecutor;
+    }
+
+    public Executor getPopulationExecutor() {
+        return populationExecutor;
+    }
+
+    /**
+     * Creates the bidders of a population, see {@link #setPopulationExecutor(Executor)}.
+     *
+     * @param bidderFactories     one factory per bidder, in the order of the bidder ids
+     * @param generatorsPerBidder the number of generators every factory draws from its {@link RNGSupplier}
+     * @param populationRNG       the rng supplier of the population
+     * @return the bidders, in the order of the factories
+     * @throws IllegalStateException if a factory draws another number of generators when created concurrently
+     */
+    protected <T extends SATSBidder> List<T> createBidders(List<Function<RNGSupplier, T>> bidderFactories,
+                                                           int generatorsPerBidder, RNGSupplier populationRNG) {
+        Preconditions.checkNotNull(populationRNG);
+        List<T> bidders = new ArrayList<>();
+        List<ReservedRNGSupplier> bidderRNGs = populationExecutor == null ? null
+                : reserve(populationRNG, bidderFactories.size(), generatorsPerBidder);
+        if (bidderRNGs == null) {
+            for (Function<RNGSupplier, T> factory : bidderFactories) {
+                bidders.add(factory.apply(populationRNG));
+            }
+            return bidders;
+        }
+        prepareConcurrentAccess();
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (int i = 0; i < bidderFactories.size(); i++) {
+            Function<RNGSupplier, T> factory = bidderFactories.get(i);
+            ReservedRNGSupplier bidderRNG = bidderRNGs.get(i);
+            int position = i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                T bidder = factory.apply(bidderRNG);
+                Preconditions.checkState(bidderRNG.getRemainingGenerators() == 0,
+                        "Factory %s drew fewer than the %s reserved generators", position, generatorsPerBidder);
+                return bidder;
+            }, populationExecutor));
+        }
+        try {
+            for (CompletableFuture<T> future : futures) {
+                bidders.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+        return bidders;
+    }
+
+    /**
+     * @return the reserved generators of every bidder, in bidder order, or null if the supplier does not support
+     * reservations
+     */
+    private static List<ReservedRNGSupplier> reserve(RNGSupplier populationRNG, int numberOfBidders, int generatorsPerBidder) {
+        List<ReservedRNGSupplier> bidderRNGs = new ArrayList<>();
+        for (int i = 0; i < numberOfBidders; i++) {
+            try {
+                bidderRNGs.add(populationRNG.reserve(generatorsPerBidder));
+            } catch (UnsupportedOperationException e) {
+                return null;
+            }
+        }
+        return bidderRNGs;
+    }
+
+    /**
+     * Computes lazily derived state of this world, which is read while bidders are created or queried,
+     * such that bidders can be created and queried concurrently.
+     */
+    public void prepareConcurrentAccess() {
+        getLicenses();
+    }
+
     /**
      * Restore serialized {@link SATSBidder} instances via population id
      * @param populationId the population id
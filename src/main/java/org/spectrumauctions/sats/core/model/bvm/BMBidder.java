@@ -227,7 +227,7 @@ public final class BMBidder extends SATSBidder {
     }
 
     @Override
-    public BigDecimal calculateValue(Bundle bundle) {
+    protected BigDecimal computeValue(Bundle bundle) {
         if (bundle.getBundleEntries().isEmpty()) return BigDecimal.ZERO;
         // First, if there are only single licenses, construct the generic map
         Map<Good, Integer> combined = new HashMap<>();
@@ -282,7 +282,7 @@ public final class BMBidder extends SATSBidder {
 
 
     @Override
-    public LinkedHashSet<Bundle> getBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+    protected LinkedHashSet<Bundle> computeBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
         throw new NotImplementedException("Demand Query to be implemented");
     }
 
@@ -16,6 +16,7 @@ import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 /**
  * @author Michael Weiss
@@ -125,14 +126,15 @@ public final class BMWorld extends World implements GenericWorld {
      */
     public List<BMBidder> createPopulation(Collection<BMBidderSetup> bidderSetups, RNGSupplier rngSupplier) {
         long population = openNewPopulation();
-        List<BMBidder> bidders = new ArrayList<>();
+        List<Function<RNGSupplier, BMBidder>> bidderFactories = new ArrayList<>();
         int idCount = 0;
         for (BMBidderSetup setup : bidderSetups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new BMBidder(population, idCount++, this, setup, rngSupplier.getUniformDistributionRNG()));
+                int id = idCount++;
+                bidderFactories.add(rng -> new BMBidder(population, id, this, setup, rng.getUniformDistributionRNG()));
             }
         }
-        return bidders;
+        return createBidders(bidderFactories, 1, rngSupplier);
     }
 
     public static BMWorld readWorld(long worldId) {
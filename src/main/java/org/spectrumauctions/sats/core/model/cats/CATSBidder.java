@@ -3,7 +3,6 @@ package org.spectrumauctions.sats.core.model.cats;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import lombok.EqualsAndHashCode;
-import org.apache.commons.lang3.NotImplementedException;
 import org.marketdesignresearch.mechlib.core.Bundle;
 import org.marketdesignresearch.mechlib.core.Good;
 import org.marketdesignresearch.mechlib.core.price.Prices;
@@ -16,10 +15,13 @@ import org.spectrumauctions.sats.core.model.SATSBidder;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
+import org.spectrumauctions.sats.opt.model.cats.CATSDemandQuery;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * @author Fabio Isler
@@ -32,7 +34,7 @@ public final class CATSBidder extends SATSBidder {
     @EqualsAndHashCode.Exclude
     private transient CATSWorld world;
     @EqualsAndHashCode.Exclude
-    private transient ImmutableMap<Long, BigDecimal> privateValueMap;
+    private transient volatile ImmutableMap<Long, BigDecimal> privateValueMap;
 
 
     CATSBidder(CATSBidderSetup setup, CATSWorld world, long currentId, long population, RNGSupplier rngSupplier) {
@@ -43,7 +45,7 @@ public final class CATSBidder extends SATSBidder {
     }
 
     @Override
-    public BigDecimal calculateValue(Bundle bundle) {
+    protected BigDecimal computeValue(Bundle bundle) {
         double value = 0;
         for (Good good : bundle.getSingleQuantityGoods()) {
             CATSLicense license = (CATSLicense) good;
@@ -90,10 +92,11 @@ public final class CATSBidder extends SATSBidder {
     }
 
     public ImmutableMap<Long, BigDecimal> getPrivateValues() {
-        if (privateValueMap == null) {
-            privateValueMap = ImmutableMap.copyOf(privateValues);
+        ImmutableMap<Long, BigDecimal> result = privateValueMap;
+        if (result == null) {
+            privateValueMap = result = ImmutableMap.copyOf(privateValues);
         }
-        return privateValueMap;
+        return result;
     }
 
     @Override
@@ -112,7 +115,12 @@ public final class CATSBidder extends SATSBidder {
     }
 
     @Override
-    public LinkedHashSet<Bundle> getBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
-        throw new NotImplementedException("Demand Query to be implemented");
+    protected LinkedHashSet<Bundle> computeBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        List<Bundle> bestBundles = new CATSDemandQuery(this, prices).getBestBundles(maxNumberOfBundles);
+        LinkedHashSet<Bundle> result = bestBundles.stream()
+                .filter(bundle -> allowNegative || getUtility(bundle, prices).signum() > -1)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (result.isEmpty()) result.add(Bundle.EMPTY);
+        return result;
     }
 }
@@ -10,6 +10,7 @@ import org.spectrumauctions.sats.core.model.cats.graphalgorithms.Vertex;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * @author Fabio Isler
@@ -28,7 +29,7 @@ public final class CATSWorld extends World {
     private final int size;
     private final List<CATSLicense> licenses;
 
-    private transient ImmutableList<CATSLicense> licenseList;
+    private transient volatile ImmutableList<CATSLicense> licenseList;
     private int maxSubstitutableBids;
 
 
@@ -72,10 +73,11 @@ public final class CATSWorld extends World {
      */
     @Override
     public ImmutableList<CATSLicense> getLicenses() {
-        if (licenseList == null) {
-            licenseList = ImmutableList.copyOf(licenses);
+        ImmutableList<CATSLicense> result = licenseList;
+        if (result == null) {
+            licenseList = result = ImmutableList.copyOf(licenses);
         }
-        return licenseList;
+        return result;
     }
 
     /**
@@ -99,13 +101,14 @@ public final class CATSWorld extends World {
     public List<CATSBidder> createPopulation(List<CATSBidderSetup> setups, RNGSupplier populationRNG) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<CATSBidder> bidders = new ArrayList<>();
+        List<Function<RNGSupplier, CATSBidder>> bidderFactories = new ArrayList<>();
         for (CATSBidderSetup setup : setups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new CATSBidder(setup, this, currentId++, population, populationRNG));
+                long id = currentId++;
+                bidderFactories.add(rng -> new CATSBidder(setup, this, id, population, rng));
             }
         }
-        return bidders;
+        return createBidders(bidderFactories, 1, populationRNG);
     }
 
     public double getAdditivity() {
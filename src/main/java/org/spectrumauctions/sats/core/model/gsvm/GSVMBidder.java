@@ -64,15 +64,15 @@ public final class GSVMBidder extends SATSBidder {
     }
 
     @Override
-    public BigDecimal calculateValue(Bundle bundle) {
+    protected BigDecimal computeValue(Bundle bundle) {
         List<Double> values = new ArrayList<>();
         int synergyCount = 0;
         for (Good good : bundle.getSingleQuantityGoods()) {
             GSVMLicense license = (GSVMLicense) good;
             if (this.values.containsKey(license.getLongId())) {
                 values.add(this.values.get(license.getLongId()).doubleValue());
-                synergyCount++;
-            } else if (world.isLegacyGSVM()) {
+            }
+            if (countsTowardsSynergy(license)) {
                 synergyCount++;
             }
         }
@@ -80,11 +80,27 @@ public final class GSVMBidder extends SATSBidder {
         double value = 0;
         value = values.stream().mapToDouble(Double::doubleValue).sum();
         
-        double factor = 0;
-        if (synergyCount > 0) factor = 0.2 * (synergyCount - 1);
+        double factor = getSynergyFactor(synergyCount);
         return BigDecimal.valueOf(value + value * factor);
     }
 
+    /**
+     * @return true if the license increases the synergy factor of a bundle containing it, i.e., if this bidder has
+     * a base value for it or if this is a legacy GSVM world (see {@link GSVMWorld#isLegacyGSVM()})
+     */
+    public boolean countsTowardsSynergy(GSVMLicense license) {
+        return values.containsKey(license.getLongId()) || world.isLegacyGSVM();
+    }
+
+    /**
+     * @param synergyCount the number of licenses in a bundle which count towards the synergy
+     * @return the synergy factor, i.e., the value of the bundle is the sum of its base values multiplied by one
+     * plus this factor. It does not decrease with the synergy count.
+     */
+    public double getSynergyFactor(int synergyCount) {
+        return synergyCount > 0 ? 0.2 * (synergyCount - 1) : 0;
+    }
+
     public int getBidderPosition() {
         return bidderPosition;
     }
@@ -146,25 +162,8 @@ public final class GSVMBidder extends SATSBidder {
     }
 
     @Override
-    public LinkedHashSet<Bundle> getBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
-        GSVMStandardMIP mip = new GSVMStandardMIP(world, Lists.newArrayList(this));
-        mip.setMipInstrumentation(getMipInstrumentation());
-        mip.setPurpose(MipInstrumentation.MipPurpose.DEMAND_QUERY.name());
-        Variable priceVar = new Variable("p", VarType.DOUBLE, 0, MIP.MAX_VALUE);
-        mip.getMIP().add(priceVar);
-        mip.getMIP().addObjectiveTerm(-1, priceVar);
-        Constraint price = new Constraint(CompareType.EQ, 0);
-        price.addTerm(-1, priceVar);
-        for (GSVMLicense license : world.getLicenses()) {
-            Map<Integer, Variable> xVariables = mip.getXVariables(this, license);
-            for (Variable xVariable : xVariables.values()) {
-                price.addTerm(prices.getPrice(Bundle.of(license)).getAmount().doubleValue(), xVariable);
-            }
-        }
-        mip.getMIP().add(price);
-        
-        mip.setEpsilon(DEFAULT_DEMAND_QUERY_EPSILON);
-        mip.setTimeLimit(DEFAULT_DEMAND_QUERY_TIME_LIMIT);
+    protected LinkedHashSet<Bundle> computeBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        GSVMStandardMIP mip = createDemandQueryMIP(prices);
         
         List<? extends Good> bundleSpaceOfInterest;
         if(world.isLegacyGSVM()) {
@@ -184,6 +183,32 @@ public final class GSVMBidder extends SATSBidder {
         if (result.isEmpty()) result.add(Bundle.EMPTY);
         return result;
     }
+
+    /**
+     * Creates the MIP which maximizes this bidder's utility at the given prices.
+     * It can also be exported and solved offline, see {@link org.spectrumauctions.sats.opt.model.ModelMIPExporter}.
+     */
+    public GSVMStandardMIP createDemandQueryMIP(Prices prices) {
+        GSVMStandardMIP mip = new GSVMStandardMIP(world, Lists.newArrayList(this));
+        mip.setMipInstrumentation(getMipInstrumentation());
+        mip.setPurpose(MipInstrumentation.MipPurpose.DEMAND_QUERY.name());
+        Variable priceVar = new Variable("p", VarType.DOUBLE, 0, MIP.MAX_VALUE);
+        mip.getMIP().add(priceVar);
+        mip.getMIP().addObjectiveTerm(-1, priceVar);
+        Constraint price = new Constraint(CompareType.EQ, 0);
+        price.addTerm(-1, priceVar);
+        for (GSVMLicense license : world.getLicenses()) {
+            Map<Integer, Variable> xVariables = mip.getXVariables(this, license);
+            for (Variable xVariable : xVariables.values()) {
+                price.addTerm(prices.getPrice(Bundle.of(license)).getAmount().doubleValue(), xVariable);
+            }
+        }
+        mip.getMIP().add(price);
+        
+        mip.setEpsilon(DEFAULT_DEMAND_QUERY_EPSILON);
+        mip.setTimeLimit(DEFAULT_DEMAND_QUERY_TIME_LIMIT);
+        return mip;
+    }
     
     @Override
     public AllocationLimit getAllocationLimit() {
@@ -10,6 +10,7 @@ import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * @author Fabio Isler
@@ -22,7 +23,7 @@ public final class GSVMWorld extends World {
 
     private final GSVMCircle nationalCircle;
     private final GSVMCircle regionalCircle;
-    private transient ImmutableList<GSVMLicense> licenseList;
+    private transient volatile ImmutableList<GSVMLicense> licenseList;
     /**
      *  In earlier versions of SATS (earlier than 0.7.0), the original model was interpreted differently than it is today.
      *  Back then, when asking a bidder what her value is for bundle X, the synergy factor increased with any good in X.
@@ -66,13 +67,14 @@ public final class GSVMWorld extends World {
      */
     @Override
     public ImmutableList<GSVMLicense> getLicenses() {
-        if (licenseList == null) {
+        ImmutableList<GSVMLicense> result = licenseList;
+        if (result == null) {
             ImmutableList.Builder<GSVMLicense> builder = ImmutableList.builder();
             builder.add(nationalCircle.getLicenses());
             builder.add(regionalCircle.getLicenses());
-            licenseList = builder.build();
+            licenseList = result = builder.build();
         }
-        return licenseList;
+        return result;
     }
 
     /* (non-Javadoc)
@@ -97,24 +99,27 @@ public final class GSVMWorld extends World {
                                              RNGSupplier populationRNG) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<GSVMBidder> bidders = new ArrayList<>();
+        List<Function<RNGSupplier, GSVMBidder>> bidderFactories = new ArrayList<>();
         if (regionalSetups != null) {
             int position = 0;
             for (GSVMRegionalBidderSetup setup : regionalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new GSVMBidder(setup, this, position++, currentId++, population, populationRNG));
+                    int bidderPosition = position++;
+                    long id = currentId++;
+                    bidderFactories.add(rng -> new GSVMBidder(setup, this, bidderPosition, id, population, rng));
                 }
             }
         }
         if (nationalSetups != null) {
             for (GSVMBidderSetup setup : nationalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new GSVMBidder(setup, this, -1, currentId++, population, populationRNG));
+                    long id = currentId++;
+                    bidderFactories.add(rng -> new GSVMBidder(setup, this, -1, id, population, rng));
                 }
             }
         }
-        Preconditions.checkArgument(bidders.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
-        return bidders;
+        Preconditions.checkArgument(bidderFactories.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
+        return createBidders(bidderFactories, 1, populationRNG);
     }
 
 }
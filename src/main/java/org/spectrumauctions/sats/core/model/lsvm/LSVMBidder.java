@@ -19,6 +19,7 @@ import org.spectrumauctions.sats.core.model.SATSBidder;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
+import org.spectrumauctions.sats.opt.model.lsvm.LSVMDemandQuery;
 import org.spectrumauctions.sats.opt.model.lsvm.LSVMStandardMIP;
 
 import java.math.BigDecimal;
@@ -65,7 +66,7 @@ public final class LSVMBidder extends SATSBidder {
     }
 
     @Override
-    public BigDecimal calculateValue(Bundle bundle) {
+    protected BigDecimal computeValue(Bundle bundle) {
         double value = 0;
         Set<LSVMLicense> licences;
         if(world.isLegacyLSVM())
@@ -164,7 +165,50 @@ public final class LSVMBidder extends SATSBidder {
     }
 
     @Override
-    public LinkedHashSet<Bundle> getBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+    protected LinkedHashSet<Bundle> computeBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        List<Bundle> bestBundles;
+        if (isEnumerationDemandQueryApplicable()) {
+            bestBundles = new LSVMDemandQuery(this, prices).getBestBundles(maxNumberOfBundles);
+        } else {
+            bestBundles = getBestBundlesFromMIP(prices, maxNumberOfBundles, allowNegative);
+        }
+        LinkedHashSet<Bundle> result = bestBundles.stream()
+                .filter(bundle -> allowNegative || getUtility(bundle, prices).signum() > -1)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (result.isEmpty()) result.add(Bundle.EMPTY);
+        return result;
+    }
+
+    /**
+     * The proximity of regional bidders in the non-legacy LSVM is small enough to enumerate all its subsets.
+     * National bidders and bidders in the legacy LSVM (which value licenses outside of their proximity
+     * for connecting subpackages) are handled by the MIP.
+     */
+    private boolean isEnumerationDemandQueryApplicable() {
+        return !world.isLegacyLSVM()
+                && ((LSVMBidderSetup) getSetup()).getProximitySize() != -1
+                && proximity.size() <= LSVMDemandQuery.MAX_PROXIMITY_SIZE;
+    }
+
+    private List<Bundle> getBestBundlesFromMIP(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        LSVMStandardMIP mip = createDemandQueryMIP(prices);
+        if(this.getWorld().isLegacyLSVM()) {
+        	maxNumberOfBundles = Math.min(maxNumberOfBundles, (int) Math.pow(2, this.getWorld().getNumberOfGoods()));
+        } else {
+        	maxNumberOfBundles = Math.min(maxNumberOfBundles, (int) Math.pow(2, this.getProximity().size()));
+        }
+        
+        List<Allocation> optimalAllocations = mip.getBestAllocations(maxNumberOfBundles, allowNegative);
+        return optimalAllocations.stream()
+                .map(allocation -> allocation.allocationOf(this).getBundle())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the MIP which maximizes this bidder's utility at the given prices.
+     * It can also be exported and solved offline, see {@link org.spectrumauctions.sats.opt.model.ModelMIPExporter}.
+     */
+    public LSVMStandardMIP createDemandQueryMIP(Prices prices) {
         LSVMStandardMIP mip = new LSVMStandardMIP(world, Lists.newArrayList(this));
         mip.setMipInstrumentation(getMipInstrumentation());
         mip.setPurpose(MipInstrumentation.MipPurpose.DEMAND_QUERY.name());
@@ -184,21 +228,7 @@ public final class LSVMBidder extends SATSBidder {
         
         mip.setEpsilon(DEFAULT_DEMAND_QUERY_EPSILON);
         mip.setTimeLimit(DEFAULT_DEMAND_QUERY_TIME_LIMIT);
-        
-        if(this.getWorld().isLegacyLSVM()) {
-        	maxNumberOfBundles = Math.min(maxNumberOfBundles, (int) Math.pow(2, this.getWorld().getNumberOfGoods()));
-        } else {
-        	maxNumberOfBundles = Math.min(maxNumberOfBundles, (int) Math.pow(2, this.getProximity().size()));
-        }
-        
-        List<Allocation> optimalAllocations = mip.getBestAllocations(maxNumberOfBundles, allowNegative);
-
-        LinkedHashSet<Bundle> result = optimalAllocations.stream()
-                .map(allocation -> allocation.allocationOf(this).getBundle())
-                .filter(bundle -> allowNegative || getUtility(bundle, prices).signum() > -1)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-        if (result.isEmpty()) result.add(Bundle.EMPTY);
-        return result;
+        return mip;
     }
 
     @Override
@@ -25,7 +25,7 @@ public class LSVMGrid implements Serializable {
     private final int numberOfRows;
     private final int numberOfColumns;
     private transient LSVMWorld world;
-    private transient ImmutableList<LSVMLicense> licenseList = null;
+    private transient volatile ImmutableList<LSVMLicense> licenseList = null;
 
     public LSVMGrid(LSVMWorld world, LSVMWorldSetup worldSetup, UniformDistributionRNG rng) {
         this.world = world;
@@ -46,16 +46,17 @@ public class LSVMGrid implements Serializable {
     }
 
     public ImmutableList<LSVMLicense> getLicenses() {
-        if (licenseList == null) {
+        ImmutableList<LSVMLicense> result = licenseList;
+        if (result == null) {
             ImmutableList.Builder<LSVMLicense> builder = ImmutableList.builder();
             for (int i = 0; i < this.numberOfRows; i++) {
                 for (int j = 0; j < this.numberOfColumns; j++) {
                     builder.add(licenses[i][j]);
                 }
             }
-            licenseList = builder.build();
+            licenseList = result = builder.build();
         }
-        return licenseList;
+        return result;
     }
 
     /**
@@ -11,6 +11,7 @@ import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * @author Fabio Isler
@@ -77,12 +78,13 @@ public final class LSVMWorld extends World {
     public List<LSVMBidder> createPopulation(List<LSVMBidderSetup> setups, RNGSupplier populationRNG) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<LSVMBidder> bidders = new ArrayList<>();
+        List<Function<RNGSupplier, LSVMBidder>> bidderFactories = new ArrayList<>();
         for (LSVMBidderSetup setup : setups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new LSVMBidder(setup, this, currentId++, population, populationRNG));
+                long id = currentId++;
+                bidderFactories.add(rng -> new LSVMBidder(setup, this, id, population, rng));
             }
         }
-        return bidders;
+        return createBidders(bidderFactories, 2, populationRNG);
     }
 }
@@ -32,6 +32,7 @@ import org.spectrumauctions.sats.core.model.*;
 import org.spectrumauctions.sats.core.util.math.ContinuousPiecewiseLinearFunction;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVMDemandQuery;
 import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
 
 import java.math.BigDecimal;
@@ -83,6 +84,15 @@ public abstract class MRVMBidder extends SATSBidder {
     @Setter
     private AllocationLimit allocationLimit = AllocationLimit.NO;
 
+    /**
+     * If set to true, demand queries are answered by solving an {@link MRVM_MIP} instead of using the
+     * exact dynamic program in {@link MRVMDemandQuery}.
+     */
+    @EqualsAndHashCode.Exclude
+    @Getter
+    @Setter
+    private boolean useMIPForDemandQueries = false;
+
 
     MRVMBidder(long id, long populationId, MRVMWorld world, MRVMBidderSetup setup, UniformDistributionRNG rng, AllocationLimit limit) {
         super(setup, populationId, id, world.getId());
@@ -172,7 +182,7 @@ public abstract class MRVMBidder extends SATSBidder {
     public abstract Map<MRVMRegionsMap.Region, BigDecimal> gammaFactors(Set<MRVMLicense> bundle);
 
     @Override
-    public BigDecimal calculateValue(Bundle bundle) {
+    protected BigDecimal computeValue(Bundle bundle) {
         if (bundle.getBundleEntries().isEmpty()) {
             return BigDecimal.ZERO;
         }
@@ -239,8 +249,38 @@ public abstract class MRVMBidder extends SATSBidder {
         return beta.get(region.getId());
     }
 
+    /**
+     * Demand queries are solved exactly by a dynamic program (see {@link MRVMDemandQuery}), unless a MIP is
+     * requested or the bidder has allocation limits, which are only handled by the MIP.
+     */
     @Override
-    public LinkedHashSet<Bundle> getBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+    protected LinkedHashSet<Bundle> computeBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        List<Bundle> bestBundles;
+        if (!useMIPForDemandQueries && getAllocationLimit() == AllocationLimit.NO) {
+            bestBundles = new MRVMDemandQuery(this, prices).getBestBundles(maxNumberOfBundles);
+        } else {
+            bestBundles = getBestBundlesFromMIP(prices, maxNumberOfBundles, allowNegative);
+        }
+        LinkedHashSet<Bundle> result = bestBundles.stream()
+                .filter(bundle -> allowNegative || getUtility(bundle, prices).signum() > -1)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (result.isEmpty()) result.add(Bundle.EMPTY);
+        return result;
+    }
+
+    private List<Bundle> getBestBundlesFromMIP(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        MRVM_MIP mip = createDemandQueryMIP(prices);
+        List<Allocation> optimalAllocations = mip.getBestAllocations(maxNumberOfBundles, allowNegative);
+        return optimalAllocations.stream()
+                .map(allocation -> allocation.allocationOf(this).getBundle())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the MIP which maximizes this bidder's utility at the given prices.
+     * It can also be exported and solved offline, see {@link org.spectrumauctions.sats.opt.model.ModelMIPExporter}.
+     */
+    public MRVM_MIP createDemandQueryMIP(Prices prices) {
         MRVM_MIP mip = new MRVM_MIP(Sets.newHashSet(this));
         mip.setMipInstrumentation(getMipInstrumentation());
         mip.setPurpose(MipInstrumentation.MipPurpose.DEMAND_QUERY.name());
@@ -261,14 +301,7 @@ public abstract class MRVMBidder extends SATSBidder {
         mip.setTimeLimit(DEFAULT_DEMAND_QUERY_TIME_LIMIT);
         
         this.bidderTypeSpecificDemandQueryMIPAdjustments(mip);
-
-        List<Allocation> optimalAllocations = mip.getBestAllocations(maxNumberOfBundles, allowNegative);
-
-        LinkedHashSet<Bundle> result = optimalAllocations.stream()
-                .map(allocation -> allocation.allocationOf(this).getBundle())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-        if (result.isEmpty()) result.add(Bundle.EMPTY);
-        return result;
+        return mip;
     }
     
     /**
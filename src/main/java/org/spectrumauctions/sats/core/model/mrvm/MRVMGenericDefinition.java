@@ -24,7 +24,7 @@ public final class MRVMGenericDefinition extends GenericGood {
     private final MRVMBand band;
     private final MRVMRegionsMap.Region region;
 
-    private transient ImmutableList<MRVMLicense> licenses;
+    private transient volatile ImmutableList<MRVMLicense> licenses;
 
     public MRVMGenericDefinition(MRVMBand band, MRVMRegionsMap.Region region) {
         super("region: " + region.toString() + ", band: " + band.getName(), band.getWorldId());
@@ -59,16 +59,17 @@ public final class MRVMGenericDefinition extends GenericGood {
 
     @Override
     public List<MRVMLicense> containedGoods() {
-        if (licenses == null) {
+        ImmutableList<MRVMLicense> result = licenses;
+        if (result == null) {
             ImmutableList.Builder<MRVMLicense> licBuilder = new ImmutableList.Builder<>();
             for (MRVMLicense lic : band.containedGoods()) {
                 if (lic.getRegion().equals(region)) {
                     licBuilder.add(lic);
                 }
             }
-            this.licenses = licBuilder.build();
+            this.licenses = result = licBuilder.build();
         }
-        return licenses;
+        return result;
     }
 
     @Override
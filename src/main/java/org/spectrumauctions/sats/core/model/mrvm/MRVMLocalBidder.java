@@ -30,7 +30,7 @@ public final class MRVMLocalBidder extends MRVMBidder {
      * Caches the gamma factors.<br>
      * This is only instantiated at its first use.
      */
-    private transient Map<MRVMRegionsMap.Region, BigDecimal> gammaFactorCache = null;
+    private transient volatile Map<MRVMRegionsMap.Region, BigDecimal> gammaFactorCache = null;
 
     /**
      * Stores the ids of all regions for which this bidder is interested
@@ -86,10 +86,18 @@ public final class MRVMLocalBidder extends MRVMBidder {
      */
     @Override
     public Map<MRVMRegionsMap.Region, BigDecimal> gammaFactors(Set<MRVMLicense> bundle) {
-        if (gammaFactorCache == null) {
-            gammaFactorCache = mapGammaFactors(getWorld(), regionsOfInterest);
+        Map<MRVMRegionsMap.Region, BigDecimal> result = gammaFactorCache;
+        if (result == null) {
+            gammaFactorCache = result = Collections.unmodifiableMap(mapGammaFactors(getWorld(), regionsOfInterest));
         }
-        return Collections.unmodifiableMap(gammaFactorCache);
+        return result;
+    }
+
+    /**
+     * @return whether a demand query may assign licenses outside of the regions of interest to this bidder
+     */
+    public boolean isAllowAssigningLicensesWithZeroBasevalueInDemandQuery() {
+        return allowAssigningLicensesWithZeroBasevalueInDemandQuery;
     }
 
     @Override
@@ -25,7 +25,11 @@ public class MRVMRegionsMap implements Serializable {
 
     private static final long serialVersionUID = -7539511827334949347L;
     private final Graph<Region, DefaultEdge> adjacencyGraph;
-    private transient FloydWarshallShortestPaths<Region, DefaultEdge> floyedWarshallDistances = null;
+    /**
+     * FloydWarshallShortestPaths computes the distances lazily and is not thread-safe,
+     * hence it is only published once all distances are computed.
+     */
+    private transient volatile FloydWarshallShortestPaths<Region, DefaultEdge> floyedWarshallDistances = null;
 
 
     public MRVMRegionsMap(MRVMWorldSetup worldStructure, RNGSupplier rngSupplier) {
@@ -57,10 +61,19 @@ public class MRVMRegionsMap implements Serializable {
 
 
     private FloydWarshallShortestPaths<Region, DefaultEdge> getFloyedWarshallDistances() {
-        if (floyedWarshallDistances == null) {
-            floyedWarshallDistances = new FloydWarshallShortestPaths<>(adjacencyGraph);
+        FloydWarshallShortestPaths<Region, DefaultEdge> result = floyedWarshallDistances;
+        if (result == null) {
+            synchronized (this) {
+                result = floyedWarshallDistances;
+                if (result == null) {
+                    result = new FloydWarshallShortestPaths<>(adjacencyGraph);
+                    // Triggers the computation of the distance matrix
+                    result.getShortestPathsCount();
+                    floyedWarshallDistances = result;
+                }
+            }
         }
-        return floyedWarshallDistances;
+        return result;
     }
 
     /**
@@ -16,6 +16,7 @@ import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 /**
  * @author Michael Weiss
@@ -31,20 +32,42 @@ public final class MRVMWorld extends World implements GenericWorld {
     private final MRVMRegionsMap regionsMap;
     private final HashSet<MRVMBand> bands;
 
-    private transient BigDecimal maximalRegionalCapacity = null;
-    private transient Map<MRVMRegionsMap.Region, Map<MRVMBand, MRVMGenericDefinition>> genericDefinitions = new HashMap<>();
+    private transient volatile BigDecimal maximalRegionalCapacity = null;
+    /**
+     * Created lazily, as this field is not serialized
+     */
+    private transient volatile Map<MRVMRegionsMap.Region, Map<MRVMBand, MRVMGenericDefinition>> genericDefinitions = null;
 
     public MRVMWorld(MRVMWorldSetup worldSetup, RNGSupplier rngSupplier) {
         super(MODEL_NAME);
         regionsMap = new MRVMRegionsMap(worldSetup, rngSupplier);
         bands = MRVMBand.createBands(this, worldSetup, regionsMap, rngSupplier.getUniformDistributionRNG());
-        for (MRVMRegionsMap.Region region : getRegionsMap().getRegions()) {
-            genericDefinitions.put(region, new HashMap<>());
-            for (MRVMBand band : getBands()) {
-                genericDefinitions.get(region).put(band, new MRVMGenericDefinition(band, region));
+        getGenericDefinitions();
+        store();
+    }
+
+    /**
+     * The generic definitions are created at most once, such that they are identical for all threads
+     */
+    private Map<MRVMRegionsMap.Region, Map<MRVMBand, MRVMGenericDefinition>> getGenericDefinitions() {
+        Map<MRVMRegionsMap.Region, Map<MRVMBand, MRVMGenericDefinition>> result = genericDefinitions;
+        if (result == null) {
+            synchronized (this) {
+                result = genericDefinitions;
+                if (result == null) {
+                    Map<MRVMRegionsMap.Region, Map<MRVMBand, MRVMGenericDefinition>> definitions = new HashMap<>();
+                    for (MRVMRegionsMap.Region region : getRegionsMap().getRegions()) {
+                        Map<MRVMBand, MRVMGenericDefinition> definitionsOfRegion = new HashMap<>();
+                        for (MRVMBand band : getBands()) {
+                            definitionsOfRegion.put(band, new MRVMGenericDefinition(band, region));
+                        }
+                        definitions.put(region, Collections.unmodifiableMap(definitionsOfRegion));
+                    }
+                    genericDefinitions = result = Collections.unmodifiableMap(definitions);
+                }
             }
         }
-        store();
+        return result;
     }
 
     /**
@@ -180,11 +203,12 @@ public final class MRVMWorld extends World implements GenericWorld {
      * The result is cached, hence, calling the method multiple time is not costly.
      */
     public BigDecimal getMaximumRegionalCapacity() {
-        if (maximalRegionalCapacity == null) {
+        BigDecimal result = maximalRegionalCapacity;
+        if (result == null) {
             MRVMRegionsMap.Region anyRegion = regionsMap.getRegions().iterator().next();
-            maximalRegionalCapacity = c(anyRegion, new HashSet<>(getLicenses()));
+            maximalRegionalCapacity = result = c(anyRegion, new HashSet<>(getLicenses()));
         }
-        return maximalRegionalCapacity;
+        return result;
     }
 
 
@@ -251,47 +275,72 @@ public final class MRVMWorld extends World implements GenericWorld {
                                              Collection<MRVMNationalBidderSetup> nationalSetups,
                                              RNGSupplier rngSupplier) {
         long population = openNewPopulation();
-        List<MRVMBidder> bidders = new ArrayList<>();
+        List<Function<RNGSupplier, MRVMBidder>> bidderFactories = new ArrayList<>();
         int idCount = 0;
         if (localSetups != null) {
             for (MRVMLocalBidderSetup setup : localSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new MRVMLocalBidder(idCount++, population, this, setup, rngSupplier.getUniformDistributionRNG(), AllocationLimit.NO));
+                    int id = idCount++;
+                    bidderFactories.add(rng -> new MRVMLocalBidder(id, population, this, setup, rng.getUniformDistributionRNG(), AllocationLimit.NO));
                 }
             }
         }
         if (regionalSetups != null) {
             for (MRVMRegionalBidderSetup setup : regionalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new MRVMRegionalBidder(idCount++, population, this, setup, rngSupplier.getUniformDistributionRNG(), AllocationLimit.NO));
+                    int id = idCount++;
+                    bidderFactories.add(rng -> new MRVMRegionalBidder(id, population, this, setup, rng.getUniformDistributionRNG(), AllocationLimit.NO));
                 }
             }
         }
         if (nationalSetups != null) {
             for (MRVMNationalBidderSetup setup : nationalSetups) {
                 for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                    bidders.add(new MRVMNationalBidder(idCount++, population, this, setup, rngSupplier.getUniformDistributionRNG(), AllocationLimit.NO));
+                    int id = idCount++;
+                    bidderFactories.add(rng -> new MRVMNationalBidder(id, population, this, setup, rng.getUniformDistributionRNG(), AllocationLimit.NO));
                 }
             }
         }
-        Preconditions.checkArgument(bidders.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
-        return bidders;
+        Preconditions.checkArgument(bidderFactories.size() > 0, "At least one bidder setup with a strictly positive number of bidders is required to generate population");
+        return createBidders(bidderFactories, 1, rngSupplier);
+    }
+
+    /**
+     * @see World#prepareConcurrentAccess()
+     */
+    @Override
+    public void prepareConcurrentAccess() {
+        super.prepareConcurrentAccess();
+        getMaximumRegionalCapacity();
+        getAllGenericDefinitions().forEach(MRVMGenericDefinition::containedGoods);
+        for (MRVMRegionsMap.Region region : regionsMap.getRegions()) {
+            regionsMap.getLongestShortestPath(region);
+        }
     }
 
     @Override
     public List<MRVMGenericDefinition> getAllGenericDefinitions() {
         List<MRVMGenericDefinition> defs = new ArrayList<>();
         for (MRVMRegionsMap.Region region : getRegionsMap().getRegions()) {
-            defs.addAll(genericDefinitions.get(region).values());
+            defs.addAll(getGenericDefinitions().get(region).values());
         }
         return defs;
     }
 
+    /**
+     * @return the generic definition of the given band in the given region
+     */
+    public MRVMGenericDefinition getGenericDefinition(MRVMRegionsMap.Region region, MRVMBand band) {
+        Preconditions.checkArgument(getGenericDefinitions().containsKey(region));
+        Preconditions.checkArgument(getGenericDefinitions().get(region).containsKey(band));
+        return getGenericDefinitions().get(region).get(band);
+    }
+
     @Override
     public GenericGood getGenericDefinitionOf(License license) {
         MRVMLicense mrvmLicense = (MRVMLicense) license;
-        Preconditions.checkArgument(genericDefinitions.containsKey(mrvmLicense.getRegion()));
-        Preconditions.checkArgument(genericDefinitions.get(mrvmLicense.getRegion()).containsKey(mrvmLicense.getBand()));
-        return genericDefinitions.get(mrvmLicense.getRegion()).get(mrvmLicense.getBand());
+        Preconditions.checkArgument(getGenericDefinitions().containsKey(mrvmLicense.getRegion()));
+        Preconditions.checkArgument(getGenericDefinitions().get(mrvmLicense.getRegion()).containsKey(mrvmLicense.getBand()));
+        return getGenericDefinitions().get(mrvmLicense.getRegion()).get(mrvmLicense.getBand());
     }
 }
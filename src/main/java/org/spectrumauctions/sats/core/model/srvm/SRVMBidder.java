@@ -2,12 +2,21 @@ package org.spectrumauctions.sats.core.model.srvm;
 
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+import edu.harvard.econcs.jopt.solver.mip.CompareType;
+import edu.harvard.econcs.jopt.solver.mip.Constraint;
+import edu.harvard.econcs.jopt.solver.mip.MIP;
+import edu.harvard.econcs.jopt.solver.mip.VarType;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
 import lombok.EqualsAndHashCode;
-import org.apache.commons.lang3.NotImplementedException;
+import lombok.Getter;
+import lombok.Setter;
+import org.marketdesignresearch.mechlib.core.Allocation;
 import org.marketdesignresearch.mechlib.core.Bundle;
 import org.marketdesignresearch.mechlib.core.BundleEntry;
 import org.marketdesignresearch.mechlib.core.Good;
 import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.marketdesignresearch.mechlib.instrumentation.MipInstrumentation;
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
 import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericSizeDecreasing;
 import org.spectrumauctions.sats.core.bidlang.generic.FlatSizeIterators.GenericSizeIncreasing;
@@ -19,6 +28,8 @@ import org.spectrumauctions.sats.core.bidlang.xor.IncreasingSizeOrderedXOR;
 import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
 import org.spectrumauctions.sats.core.model.*;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
+import org.spectrumauctions.sats.opt.model.srvm.SRVMDemandQuery;
+import org.spectrumauctions.sats.opt.model.srvm.SRVM_MIP;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -30,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @author Michael Weiss
@@ -53,6 +65,15 @@ public final class SRVMBidder extends SATSBidder {
      */
     private final BigDecimal interbandSynergyValue;
 
+    /**
+     * If set to true, demand queries are answered by solving an {@link SRVM_MIP} instead of using the
+     * exact enumeration in {@link SRVMDemandQuery}.
+     */
+    @EqualsAndHashCode.Exclude
+    @Getter
+    @Setter
+    private boolean useMIPForDemandQueries = false;
+
     SRVMBidder(SRVMBidderSetup setup, SRVMWorld world, long currentId, long population, RNGSupplier rngSupplier) {
         super(setup, population, currentId, world.getId());
         this.world = world;
@@ -124,7 +145,7 @@ public final class SRVMBidder extends SATSBidder {
     }
 
     @Override
-    public BigDecimal calculateValue(Bundle bundle) {
+    protected BigDecimal computeValue(Bundle bundle) {
         if (bundle.getBundleEntries().isEmpty()) return BigDecimal.ZERO;
         // First, if there are only single licenses, construct the generic map
         Map<Good, Integer> combined = new HashMap<>();
@@ -237,8 +258,44 @@ public final class SRVMBidder extends SATSBidder {
 
 
     @Override
-    public LinkedHashSet<Bundle> getBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
-        throw new NotImplementedException("Demand Query to be implemented");
+    protected LinkedHashSet<Bundle> computeBestBundles(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        List<Bundle> bestBundles;
+        if (useMIPForDemandQueries) {
+            bestBundles = getBestBundlesFromMIP(prices, maxNumberOfBundles, allowNegative);
+        } else {
+            bestBundles = new SRVMDemandQuery(this, prices).getBestBundles(maxNumberOfBundles);
+        }
+        LinkedHashSet<Bundle> result = bestBundles.stream()
+                .filter(bundle -> allowNegative || getUtility(bundle, prices).signum() > -1)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (result.isEmpty()) result.add(Bundle.EMPTY);
+        return result;
+    }
+
+    private List<Bundle> getBestBundlesFromMIP(Prices prices, int maxNumberOfBundles, boolean allowNegative) {
+        SRVM_MIP mip = new SRVM_MIP(Sets.newHashSet(this));
+        mip.setMipInstrumentation(getMipInstrumentation());
+        mip.setPurpose(MipInstrumentation.MipPurpose.DEMAND_QUERY.name());
+
+        double scalingFactor = mip.getWorldPartialMip().getScalingFactor();
+        Variable priceVar = new Variable("p", VarType.DOUBLE, 0, MIP.MAX_VALUE);
+        mip.addVariable(priceVar);
+        mip.addObjectiveTerm(-1, priceVar);
+        Constraint price = new Constraint(CompareType.EQ, 0);
+        price.addTerm(-1, priceVar);
+        for (SRVMBand band : getWorld().getBands()) {
+            Variable xVariable = mip.getWorldPartialMip().getXVariable(this, band);
+            price.addTerm(prices.getPrice(Bundle.of(band)).getAmount().doubleValue() / scalingFactor, xVariable);
+        }
+        mip.addConstraint(price);
+
+        mip.setEpsilon(DEFAULT_DEMAND_QUERY_EPSILON);
+        mip.setTimeLimit(DEFAULT_DEMAND_QUERY_TIME_LIMIT);
+
+        List<Allocation> optimalAllocations = mip.getBestAllocations(maxNumberOfBundles, allowNegative);
+        return optimalAllocations.stream()
+                .map(allocation -> allocation.allocationOf(this).getBundle())
+                .collect(Collectors.toList());
     }
 
 }
@@ -15,6 +15,7 @@ import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * @author Michael Weiss
@@ -25,8 +26,8 @@ public final class SRVMWorld extends World implements GenericWorld {
     private static final long serialVersionUID = 1766287015715986936L;
     private final List<SRVMBand> bands;
 
-    private transient Integer numberOfGoods = null;
-    private transient List<SRVMLicense> licenses = null;
+    private transient volatile Integer numberOfGoods = null;
+    private transient volatile ImmutableList<SRVMLicense> licenses = null;
 
     public SRVMWorld(SRVMWorldSetup setup, RNGSupplier rngSupplier) {
         super("Single-Region Value Model");
@@ -40,14 +41,15 @@ public final class SRVMWorld extends World implements GenericWorld {
      */
     @Override
     public int getNumberOfGoods() {
-        if (numberOfGoods == null) {
+        Integer result = numberOfGoods;
+        if (result == null) {
             int count = 0;
             for (SRVMBand band : bands) {
                 count += band.getLicenses().size();
             }
-            numberOfGoods = count;
+            numberOfGoods = result = count;
         }
-        return numberOfGoods;
+        return result;
     }
 
     /**
@@ -56,14 +58,15 @@ public final class SRVMWorld extends World implements GenericWorld {
      */
     @Override
     public ImmutableList<SRVMLicense> getLicenses() {
-        if (licenses == null) {
+        ImmutableList<SRVMLicense> result = licenses;
+        if (result == null) {
             ImmutableList.Builder<SRVMLicense> builder = ImmutableList.builder();
             for (SRVMBand band : bands) {
                 builder.addAll(band.getLicenses());
             }
-            this.licenses = builder.build();
+            this.licenses = result = builder.build();
         }
-        return ImmutableList.copyOf(licenses);
+        return result;
     }
 
     public ImmutableList<SRVMBand> getBands() {
@@ -73,13 +76,14 @@ public final class SRVMWorld extends World implements GenericWorld {
     public ImmutableList<SRVMBidder> createPopulation(Collection<SRVMBidderSetup> bidderSetups, RNGSupplier rngSupplier) {
         long population = openNewPopulation();
         long currentId = 0;
-        List<SRVMBidder> bidders = new ArrayList<>();
+        List<Function<RNGSupplier, SRVMBidder>> bidderFactories = new ArrayList<>();
         for (SRVMBidderSetup setup : bidderSetups) {
             for (int i = 0; i < setup.getNumberOfBidders(); i++) {
-                bidders.add(new SRVMBidder(setup, this, currentId++, population, rngSupplier));
+                long id = currentId++;
+                bidderFactories.add(rng -> new SRVMBidder(setup, this, id, population, rng));
             }
         }
-        return ImmutableList.copyOf(bidders);
+        return ImmutableList.copyOf(createBidders(bidderFactories, 5, rngSupplier));
     }
 
 
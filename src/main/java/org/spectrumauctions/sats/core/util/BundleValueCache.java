@@ -0,0 +1,112 @@
+package org.spectrumauctions.sats.core.util;
+
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.spectrumauctions.sats.core.model.License;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A thread-safe, size-bounded cache of the values of bundles, used by
+ * {@link org.spectrumauctions.sats.core.model.SATSBidder#enableValueCache(int)}.
+ * The entries are kept in a {@link ClockCache}. Bundles of licenses with small ids are keyed by the bitset of
+ * their ids, other bundles by the bundle itself.
+ */
+public final class BundleValueCache {
+
+    /**
+     * Licenses with larger ids are not encoded as bitset
+     */
+    private static final long MAX_ENCODED_ID = 1 << 16;
+
+    private final ClockCache<Object, BigDecimal> cache;
+
+    public BundleValueCache(int maximumSize) {
+        this.cache = new ClockCache<>(maximumSize);
+    }
+
+    /**
+     * @return the cached value of the bundle, or null if it is not cached. Counts as hit or miss.
+     */
+    public BigDecimal get(Bundle bundle) {
+        return cache.get(keyOf(bundle));
+    }
+
+    /**
+     * Caches the value of the bundle, evicting another entry if the cache is full.
+     * If the bundle is already cached, the cached value is kept.
+     */
+    public void put(Bundle bundle, BigDecimal value) {
+        cache.put(keyOf(bundle), value);
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    public double getHitRate() {
+        return cache.getHitRate();
+    }
+
+    @Override
+    public String toString() {
+        return "BundleValueCache" + cache;
+    }
+
+    private static Object keyOf(Bundle bundle) {
+        BitSet ids = new BitSet();
+        for (BundleEntry entry : bundle.getBundleEntries()) {
+            if (!(entry.getGood() instanceof License) || entry.getAmount() != 1) return bundle;
+            long id = ((License) entry.getGood()).getLongId();
+            if (id < 0 || id >= MAX_ENCODED_ID) return bundle;
+            ids.set((int) id);
+        }
+        return new LicenseIds(ids.toLongArray());
+    }
+
+    private static final class LicenseIds {
+        private final long[] words;
+        private final int hashCode;
+
+        private LicenseIds(long[] words) {
+            this.words = words;
+            this.hashCode = Arrays.hashCode(words);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LicenseIds && Arrays.equals(words, ((LicenseIds) o).words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
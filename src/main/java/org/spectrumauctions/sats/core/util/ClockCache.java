@@ -0,0 +1,144 @@
+package org.spectrumauctions.sats.core.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, size-bounded cache, e.g., of the values of bundles (see {@link BundleValueCache}).
+ * <ul>
+ * <li>Lookups are lock-free. Insertions are serialized, which is cheap compared to the calculation of a value.</li>
+ * <li>Once full, entries are evicted with the CLOCK (second chance) policy: Every entry has a reference bit, which is
+ * set on a hit. The clock hand skips (and clears) referenced entries and evicts the first unreferenced one.</li>
+ * </ul>
+ * The clock grows with the number of entries, so a large maximum size costs no memory until it is used.
+ * Keys must not be modified after they were added.
+ */
+public final class ClockCache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<K, Node<K, V>> entries;
+    private final Object lock = new Object();
+    private Node<K, V>[] clock;
+    private int size = 0;
+    private int hand = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ClockCache(int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "%s is not a valid cache size", maximumSize);
+        this.maximumSize = maximumSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maximumSize, INITIAL_CAPACITY));
+        this.clock = newClock(Math.min(maximumSize, INITIAL_CAPACITY));
+    }
+
+    /**
+     * @return the cached value, or null if it is not cached. Counts as hit or miss.
+     */
+    public V get(K key) {
+        Node<K, V> node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        node.referenced = true;
+        hits.increment();
+        return node.value;
+    }
+
+    /**
+     * Caches the value, evicting another entry if the cache is full.
+     * If the key is already cached, the cached value is kept.
+     */
+    public void put(K key, V value) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(value);
+        synchronized (lock) {
+            if (entries.containsKey(key)) return;
+            Node<K, V> node = new Node<>(key, value);
+            if (size < maximumSize) {
+                if (size == clock.length) {
+                    clock = Arrays.copyOf(clock, (int) Math.min(2L * clock.length, maximumSize));
+                }
+                clock[size++] = node;
+            } else {
+                while (clock[hand].referenced) {
+                    clock[hand].referenced = false;
+                    hand = (hand + 1) % maximumSize;
+                }
+                entries.remove(clock[hand].key);
+                evictions.increment();
+                clock[hand] = node;
+                hand = (hand + 1) % maximumSize;
+            }
+            entries.put(key, node);
+        }
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            clock = newClock(Math.min(maximumSize, INITIAL_CAPACITY));
+            size = 0;
+            hand = 0;
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "[size=" + size() + "/" + maximumSize + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "]";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newClock(int capacity) {
+        return new Node[capacity];
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private volatile boolean referenced = false;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.spectrumauctions.sats.core.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class ConcurrencyUtils {
+
+    private ConcurrencyUtils() {
+    }
+
+    /**
+     * Applies the function to all items, on a dedicated {@link ForkJoinPool} if more than one thread is requested.
+     *
+     * @return the results, in the order of the items
+     */
+    public static <T, R> List<R> mapConcurrently(List<T> items, Function<? super T, ? extends R> function, int numberOfThreads) {
+        Preconditions.checkArgument(numberOfThreads > 0);
+        if (numberOfThreads == 1 || items.size() <= 1) {
+            return items.stream().map(function).collect(Collectors.toList());
+        }
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            return pool.invoke(ForkJoinTask.adapt(() -> items.parallelStream().map(function).collect(Collectors.<R>toList())));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
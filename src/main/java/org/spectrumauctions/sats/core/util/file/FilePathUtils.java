@@ -11,6 +11,9 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,6 +37,10 @@ public class FilePathUtils {
     private final java.io.File folder;
     private static final String FILE_TYPE_BIDDER = ".bidder.json";
     private static final String FILE_TYPE_WORLD = ".world.json";
+    /**
+     * Temporary files start with this prefix and are ignored when the files of a folder are listed
+     */
+    private static final String TEMPORARY_FILE_PREFIX = ".";
     private static final int BIDDER_ID_LENGTH = 5;
     private static final int POPULATION_ID_LENGTH = 5;
     private static final int WORLD_ID_LENGTH = 5;
@@ -139,7 +146,7 @@ public class FilePathUtils {
         List<File> subFiles = Arrays.asList(subFilesArray);
         List<Long> ids = new ArrayList<>();
         for (File subFile : subFiles) {
-            if (!subFile.isDirectory()) {
+            if (!subFile.isDirectory() && !subFile.getName().startsWith(TEMPORARY_FILE_PREFIX)) {
                 String[] fileName = subFile.getName().split("\\.");
                 String name = fileName[0];
                 if (subFile.getName().contains(FILE_TYPE_BIDDER)) {
@@ -166,9 +173,27 @@ public class FilePathUtils {
         return fileContent;
     }
 
+    /**
+     * Writes the content to a temporary file first, which then replaces the file.
+     * Concurrent writes of the same file (e.g., when similar bidders are drawn in parallel) thus never interleave.
+     * The temporary file is hidden and does not carry the file type, such that it is neither listed as bidder
+     * nor as world file, even if it is left behind by a crash.
+     */
     public void writeStringToFile(File file, String content) {
         try {
-            FileUtils.write(file, content);
+            FileUtils.forceMkdirParent(file);
+            String id = file.getName().split("\\.")[0];
+            File temporaryFile = File.createTempFile(TEMPORARY_FILE_PREFIX + id + "-", ".tmp", file.getAbsoluteFile().getParentFile());
+            try {
+                FileUtils.write(temporaryFile, content);
+                try {
+                    Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporaryFile.toPath());
+            }
         } catch (IOException e) {
             throw new FileException(e);
         }
@@ -109,7 +109,7 @@ public class InMemoryInstanceHandler extends InstanceHandler {
      * @see InstanceHandler#getNextWorldId()
      */
     @Override
-    public long getNextWorldId() {
+    public synchronized long getNextWorldId() {
         return nextWorldId++;
     }
 
@@ -117,7 +117,7 @@ public class InMemoryInstanceHandler extends InstanceHandler {
      * @see InstanceHandler#getNextPopulationId(long)
      */
     @Override
-    public long getNextPopulationId(long worldId) {
+    public synchronized long getNextPopulationId(long worldId) {
         return nextPopulationId++;
     }
 
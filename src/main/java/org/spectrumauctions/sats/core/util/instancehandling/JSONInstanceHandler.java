@@ -142,7 +142,7 @@ public class JSONInstanceHandler extends InstanceHandler {
      * @see InstanceHandler#getNextWorldId()
      */
     @Override
-    public long getNextWorldId() {
+    public synchronized long getNextWorldId() {
         long idCandidate = worldIdCache;
         idCandidate = recGetAndReserveNewWorldId(idCandidate);
         worldIdCache = idCandidate + 1;
@@ -166,7 +166,7 @@ public class JSONInstanceHandler extends InstanceHandler {
      * @see InstanceHandler#getNextPopulationId(long)
      */
     @Override
-    public long getNextPopulationId(long worldId) {
+    public synchronized long getNextPopulationId(long worldId) {
         //TODO check if world exists in file system
         Long idCandidate = populationIdCache.remove(worldId);
         if (idCandidate == null) {
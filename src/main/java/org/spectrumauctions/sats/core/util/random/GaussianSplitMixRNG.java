@@ -0,0 +1,40 @@
+package org.spectrumauctions.sats.core.util.random;
+
+/**
+ * A {@link GaussianDistributionRNG} based on the {@link SplitMix64} generator, using the polar method
+ * (as {@link java.util.Random#nextGaussian()}). Instances must not be shared among threads.
+ */
+public class GaussianSplitMixRNG implements GaussianDistributionRNG {
+
+    private final SplitMix64 rng;
+    private double nextNextGaussian;
+    private boolean haveNextNextGaussian = false;
+
+    public GaussianSplitMixRNG(long seed) {
+        this.rng = new SplitMix64(seed);
+    }
+
+    @Override
+    public double nextGaussian() {
+        if (haveNextNextGaussian) {
+            haveNextNextGaussian = false;
+            return nextNextGaussian;
+        }
+        double v1, v2, s;
+        do {
+            v1 = 2 * rng.nextDouble() - 1;
+            v2 = 2 * rng.nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextNextGaussian = v2 * multiplier;
+        haveNextNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    @Override
+    public double nextGaussian(double mean, double standardDeviation) {
+        return mean + standardDeviation * nextGaussian();
+    }
+
+}
@@ -72,4 +72,17 @@ public class JavaUtilRNGSupplier implements RNGSupplier {
         return new GaussianJavaUtilRandomWrapper(seed);
     }
 
+    /**
+     * The generators are seeded by the seed generator, independent of their distribution, so the seeds of the
+     * reserved generators are drawn upfront.
+     */
+    @Override
+    public ReservedRNGSupplier reserve(int numberOfGenerators) {
+        long[] seeds = new long[numberOfGenerators];
+        for (int i = 0; i < numberOfGenerators; i++) {
+            seeds[i] = seedGenerator.nextLong();
+        }
+        return new ReservedRNGSupplier(this, numberOfGenerators, (gaussian, index) -> seeds[index]);
+    }
+
 }
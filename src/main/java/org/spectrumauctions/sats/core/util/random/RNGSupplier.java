@@ -26,4 +26,16 @@ public interface RNGSupplier extends Serializable {
 
     GaussianDistributionRNG getGaussianDistributionRNG();
 
+    /**
+     * Reserves the next generators of this supplier: The returned supplier hands out the same generators as the next
+     * numberOfGenerators calls of {@link #getUniformDistributionRNG()} and {@link #getGaussianDistributionRNG()} of
+     * this supplier would have, and this supplier continues after them.
+     * This allows to draw from the reserved generators in any order, e.g., concurrently.
+     *
+     * @throws UnsupportedOperationException if this supplier does not support reservations
+     */
+    default ReservedRNGSupplier reserve(int numberOfGenerators) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support reserving generators");
+    }
+
 }
@@ -0,0 +1,69 @@
+package org.spectrumauctions.sats.core.util.random;
+
+import com.google.common.base.Preconditions;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out the generators which were reserved from another supplier, see {@link RNGSupplier#reserve(int)}.
+ * Handing out more generators than were reserved is an error, as they would not be the generators the other
+ * supplier would have handed out.
+ */
+public final class ReservedRNGSupplier implements RNGSupplier {
+
+    private static final long serialVersionUID = -3541768327040871126L;
+
+    /**
+     * Determines the seed of the index-th reserved generator, which may depend on its distribution
+     */
+    interface SeedSource extends Serializable {
+        long seedOf(boolean gaussian, int index);
+    }
+
+    private final RNGSupplier parent;
+    private final int numberOfGenerators;
+    private final SeedSource seedSource;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReservedRNGSupplier(RNGSupplier parent, int numberOfGenerators, SeedSource seedSource) {
+        Preconditions.checkArgument(numberOfGenerators >= 0);
+        this.parent = parent;
+        this.numberOfGenerators = numberOfGenerators;
+        this.seedSource = seedSource;
+    }
+
+    @Override
+    public UniformDistributionRNG getUniformDistributionRNG(long seed) {
+        return parent.getUniformDistributionRNG(seed);
+    }
+
+    @Override
+    public UniformDistributionRNG getUniformDistributionRNG() {
+        return parent.getUniformDistributionRNG(seedSource.seedOf(false, nextIndex()));
+    }
+
+    @Override
+    public GaussianDistributionRNG getGaussianDistributionRNG(long seed) {
+        return parent.getGaussianDistributionRNG(seed);
+    }
+
+    @Override
+    public GaussianDistributionRNG getGaussianDistributionRNG() {
+        return parent.getGaussianDistributionRNG(seedSource.seedOf(true, nextIndex()));
+    }
+
+    /**
+     * @return the number of reserved generators which were not handed out yet
+     */
+    public int getRemainingGenerators() {
+        return numberOfGenerators - Math.min(next.get(), numberOfGenerators);
+    }
+
+    private int nextIndex() {
+        int index = next.getAndIncrement();
+        Preconditions.checkState(index < numberOfGenerators, "Only %s generators were reserved", numberOfGenerators);
+        return index;
+    }
+
+}
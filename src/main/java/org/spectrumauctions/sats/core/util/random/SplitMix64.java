@@ -0,0 +1,61 @@
+package org.spectrumauctions.sats.core.util.random;
+
+import java.io.Serializable;
+
+/**
+ * The SplitMix64 generator (Steele, Lea and Flood, 2014), as used by {@link java.util.SplittableRandom}.
+ * In contrast to {@link java.util.SplittableRandom}, it is serializable. Its state is a counter, which makes it cheap
+ * to derive independent streams by mixing seeds with keys, see {@link #mix64(long)}.
+ * Instances are not thread-safe.
+ */
+final class SplitMix64 implements Serializable {
+
+    private static final long serialVersionUID = -1451838950314571541L;
+
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * @return a uniformly distributed integer between 0 (inclusive) and bound (exclusive)
+     */
+    int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        int r = nextInt();
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+        // Rejection sampling as in SplittableRandom, to avoid a bias towards small values
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1) ;
+        return r;
+    }
+
+    double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * The finalizer of MurmurHash3 as improved by Stafford (variant 13), used by SplitMix64.
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
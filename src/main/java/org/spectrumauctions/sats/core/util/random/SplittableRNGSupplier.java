@@ -0,0 +1,129 @@
+package org.spectrumauctions.sats.core.util.random;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link RNGSupplier} whose random number generators are derived from a seed and a path of keys, instead of being
+ * seeded sequentially by one shared generator as in the {@link JavaUtilRNGSupplier}.
+ * <p>
+ * {@link #split(long...)} derives an independent supplier for a sub-task, e.g., one per bidder:
+ * <pre>
+ *     SplittableRNGSupplier root = new SplittableRNGSupplier(seed);
+ *     RNGSupplier worldRNG = root.split("world");
+ *     RNGSupplier bidderRNG = root.split("bidders").split(bidderId);
+ * </pre>
+ * The generators of a supplier only depend on its seed, its path and the number of generators it has handed out
+ * before, but not on other suppliers. Sub-tasks can therefore run on any number of threads and still produce
+ * identical results, as long as every sub-task uses its own split supplier.
+ * <p>
+ * The generators are based on {@link SplitMix64} and are not synchronized, i.e., each generator must only be used by
+ * one thread at a time. Handing out generators is thread-safe.
+ */
+public class SplittableRNGSupplier implements RNGSupplier {
+
+    private static final long serialVersionUID = 2675129104985460184L;
+
+    private static final long UNIFORM = 0x6a09e667f3bcc908L;
+    private static final long GAUSSIAN = 0xbb67ae8584caa73bL;
+
+    private final long seed;
+    private final long[] path;
+    /**
+     * The key of this supplier, derived from the seed and the path
+     */
+    private final long key;
+    private final AtomicLong counter = new AtomicLong();
+
+    public SplittableRNGSupplier(long seed) {
+        this(seed, new long[0]);
+    }
+
+    private SplittableRNGSupplier(long seed, long[] path) {
+        this.seed = seed;
+        this.path = path;
+        long key = SplitMix64.mix64(seed);
+        for (long element : path) {
+            key = combine(key, element);
+        }
+        this.key = key;
+    }
+
+    /**
+     * @param keys the keys to append to the path of this supplier
+     * @return a new supplier, whose generators are independent of the generators of this supplier
+     */
+    public SplittableRNGSupplier split(long... keys) {
+        long[] childPath = Arrays.copyOf(path, path.length + keys.length);
+        System.arraycopy(keys, 0, childPath, path.length, keys.length);
+        return new SplittableRNGSupplier(seed, childPath);
+    }
+
+    /**
+     * @param key the key to append to the path of this supplier, e.g., "world"
+     * @return a new supplier, whose generators are independent of the generators of this supplier
+     * @see #split(long...)
+     */
+    public SplittableRNGSupplier split(String key) {
+        Preconditions.checkNotNull(key);
+        // FNV-1a, which unlike String#hashCode has 64 bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return split(hash);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long[] getPath() {
+        return path.clone();
+    }
+
+    @Override
+    public UniformDistributionRNG getUniformDistributionRNG(long seed) {
+        return new UniformSplitMixRNG(seed);
+    }
+
+    @Override
+    public UniformDistributionRNG getUniformDistributionRNG() {
+        return new UniformSplitMixRNG(nextStreamSeed(UNIFORM));
+    }
+
+    @Override
+    public GaussianDistributionRNG getGaussianDistributionRNG(long seed) {
+        return new GaussianSplitMixRNG(seed);
+    }
+
+    @Override
+    public GaussianDistributionRNG getGaussianDistributionRNG() {
+        return new GaussianSplitMixRNG(nextStreamSeed(GAUSSIAN));
+    }
+
+    @Override
+    public ReservedRNGSupplier reserve(int numberOfGenerators) {
+        Preconditions.checkArgument(numberOfGenerators >= 0);
+        long first = counter.getAndAdd(numberOfGenerators);
+        long key = this.key;
+        return new ReservedRNGSupplier(this, numberOfGenerators,
+                (gaussian, index) -> streamSeed(key, gaussian ? GAUSSIAN : UNIFORM, first + index));
+    }
+
+    private long nextStreamSeed(long distribution) {
+        return streamSeed(key, distribution, counter.getAndIncrement());
+    }
+
+    private static long streamSeed(long key, long distribution, long index) {
+        return combine(combine(key, distribution), index);
+    }
+
+    private static long combine(long key, long element) {
+        return SplitMix64.mix64(key ^ SplitMix64.mix64(element + SplitMix64.GOLDEN_GAMMA));
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.spectrumauctions.sats.core.util.random;
+
+import java.math.BigDecimal;
+
+/**
+ * A {@link UniformDistributionRNG} based on the {@link SplitMix64} generator.
+ * In contrast to the {@link UniformJavaUtilRandomWrapper}, it does not synchronize. Instances must therefore not be
+ * shared among threads; use a {@link SplittableRNGSupplier} to create one instance per task instead.
+ */
+public class UniformSplitMixRNG implements UniformDistributionRNG {
+
+    private static final long serialVersionUID = 6064306180573640425L;
+
+    private final SplitMix64 rng;
+
+    public UniformSplitMixRNG(long seed) {
+        this.rng = new SplitMix64(seed);
+    }
+
+    @Override
+    public int nextInt() {
+        return rng.nextInt();
+    }
+
+    @Override
+    public int nextInt(int upperLimit) {
+        return rng.nextInt(upperLimit);
+    }
+
+    @Override
+    public int nextInt(int lowerLimit, int upperLimit) {
+        if (upperLimit == Integer.MAX_VALUE)
+            upperLimit--;
+        return rng.nextInt((upperLimit - lowerLimit) + 1) + lowerLimit;
+    }
+
+    @Override
+    public int nextInt(IntegerInterval interval) {
+        return nextInt(interval.getMinValue(), interval.getMaxValue());
+    }
+
+    @Override
+    public long nextLong() {
+        return rng.nextLong();
+    }
+
+    @Override
+    public double nextDouble() {
+        return rng.nextDouble();
+    }
+
+    @Override
+    public double nextDouble(double lowerLimit, double upperLimit) {
+        return rng.nextDouble() * (upperLimit - lowerLimit) + lowerLimit;
+    }
+
+    @Override
+    public double nextDouble(DoubleInterval interval) {
+        return nextDouble(interval.getMinValue(), interval.getMaxValue());
+    }
+
+    @Override
+    public BigDecimal nextBigDecimal() {
+        return BigDecimal.valueOf(nextDouble());
+    }
+
+    @Override
+    public BigDecimal nextBigDecimal(double lowerLimit, double upperLimit) {
+        return BigDecimal.valueOf(nextDouble(lowerLimit, upperLimit));
+    }
+
+    @Override
+    public BigDecimal nextBigDecimal(DoubleInterval interval) {
+        return BigDecimal.valueOf(nextDouble(interval));
+    }
+
+}
@@ -0,0 +1,371 @@
+package org.spectrumauctions.sats.mechanism.domains;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.BidderAllocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.bid.bundle.BundleExactValueBids;
+import org.marketdesignresearch.mechlib.core.bidder.Bidder;
+import org.marketdesignresearch.mechlib.metainfo.MetaInfo;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.util.CacheMap;
+import org.spectrumauctions.sats.core.util.file.FileException;
+import org.spectrumauctions.sats.core.util.file.FilePathUtils;
+import org.spectrumauctions.sats.core.util.file.gson.GsonWrapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Caches efficient allocations of {@link ModelDomain}s, such that repeated experiments on the same instance
+ * do not have to solve the winner determination problem again.
+ * <p>
+ * The allocations are identified by a {@link Key}, i.e., by the model, the world and population seeds, the model
+ * parameters and the SATS version. They are kept in an in-memory LRU layer and, optionally, in an on-disk layer
+ * which by default is located next to the files of the {@link org.spectrumauctions.sats.core.util.instancehandling.JSONInstanceHandler}.
+ * Cached allocations are stored by bidder id and good name, and are resolved against the bidders and goods of the
+ * requesting domain, so they can be reused by domains which were recreated from the same seeds.
+ * <p>
+ * As the key is supplied by the caller, every cached allocation also stores a fingerprint of the instance it was
+ * calculated for (see {@link #fingerprintOf(ModelDomain)}). An allocation is only returned for a domain with the same
+ * fingerprint, such that a wrong or stale key results in a miss instead of the allocation of another instance.
+ */
+@Slf4j
+public class EfficientAllocationCache {
+
+    /**
+     * The version of SATS, which is part of every {@link Key}, as allocations might change between versions
+     */
+    public static final String SATS_VERSION = readSatsVersion();
+
+    private static final String FILE_TYPE_ALLOCATION = ".allocation.json";
+    private static final int DEFAULT_MEMORY_CAPACITY = 100;
+
+    private static EfficientAllocationCache defaultCache;
+
+    private final Map<Key, StoredAllocation> memory;
+    private final File folder;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param memoryCapacity the number of allocations kept in memory
+     * @param folder the folder of the on-disk layer, or null if the allocations should only be cached in memory
+     */
+    public EfficientAllocationCache(int memoryCapacity, File folder) {
+        Preconditions.checkArgument(memoryCapacity >= 0);
+        this.memory = new CacheMap<>(memoryCapacity);
+        this.folder = folder;
+    }
+
+    /**
+     * Get the default cache, which keeps the last 100 allocations in memory and persists all allocations
+     * in the <i>allocations</i> sub folder of {@link FilePathUtils#FOLDER}.
+     * @return the default efficient allocation cache
+     */
+    public static synchronized EfficientAllocationCache getDefaultCache() {
+        if (defaultCache == null) {
+            defaultCache = new EfficientAllocationCache(DEFAULT_MEMORY_CAPACITY, new File(FilePathUtils.FOLDER, "allocations"));
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Looks up the efficient allocation of the domain, first in memory and then on disk.
+     * @param key the key of the domain instance
+     * @param domain the domain whose bidders and goods the cached allocation is resolved against
+     * @return the cached allocation, or null if there is no (usable) allocation of this instance for this key
+     */
+    public Allocation get(@NonNull Key key, @NonNull ModelDomain<?> domain) {
+        String fingerprint = null;
+        StoredAllocation stored;
+        synchronized (memory) {
+            stored = memory.get(key);
+        }
+        if (stored != null) {
+            fingerprint = fingerprintOf(domain);
+            Allocation allocation = stored.resolve(domain, fingerprint);
+            if (allocation != null) {
+                memoryHits.incrementAndGet();
+                return allocation;
+            }
+        }
+        stored = read(key);
+        if (stored != null) {
+            if (fingerprint == null) fingerprint = fingerprintOf(domain);
+            Allocation allocation = stored.resolve(domain, fingerprint);
+            if (allocation != null) {
+                synchronized (memory) {
+                    memory.put(key, stored);
+                }
+                diskHits.incrementAndGet();
+                return allocation;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the efficient allocation of a domain instance in memory and, if configured, on disk.
+     * @param domain the domain whose efficient allocation this is, used to fingerprint the instance
+     */
+    public void put(@NonNull Key key, @NonNull ModelDomain<?> domain, @NonNull Allocation allocation) {
+        StoredAllocation stored = StoredAllocation.of(key, fingerprintOf(domain), allocation);
+        synchronized (memory) {
+            memory.put(key, stored);
+        }
+        write(key, stored);
+    }
+
+    /**
+     * Removes all allocations from the in-memory layer. The on-disk layer is not affected.
+     */
+    public void clearMemory() {
+        synchronized (memory) {
+            memory.clear();
+        }
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * @return the number of lookups which were served from memory or from disk
+     */
+    public long getHits() {
+        return memoryHits.get() + diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the file in which the allocation with this key is persisted, or null if there is no on-disk layer
+     */
+    public File getFile(Key key) {
+        if (folder == null) return null;
+        String hash = Hashing.sha256().hashString(key.toString(), StandardCharsets.UTF_8).toString().substring(0, 16);
+        String model = key.getModel().replaceAll("[^A-Za-z0-9_.-]", "_");
+        return new File(folder, model + "_" + key.getWorldSeed() + "_" + key.getPopulationSeed() + "_" + hash + FILE_TYPE_ALLOCATION);
+    }
+
+    /**
+     * Fingerprints the instance of a domain by probing the bidders' values: For every bidder (by id), its values
+     * for every single allocatable good and for all of them together are hashed. Instances created from other seeds
+     * or with other parameters differ in these values, even if their bidder ids and good names are the same.
+     *
+     * @return the hex encoded fingerprint
+     */
+    public static String fingerprintOf(ModelDomain<?> domain) {
+        List<Good> goods = domain.getAllocatableGoods().stream()
+                .sorted(Comparator.comparing(Good::getName))
+                .collect(Collectors.toList());
+        Map<Good, Integer> allGoods = new LinkedHashMap<>();
+        goods.forEach(good -> allGoods.put(good, good.getQuantity()));
+        Bundle all = new Bundle(allGoods);
+        List<SATSBidder> bidders = domain.getBidders().stream()
+                .sorted(Comparator.comparingLong(SATSBidder::getLongId))
+                .collect(Collectors.toList());
+
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (SATSBidder bidder : bidders) {
+            hasher.putLong(bidder.getLongId());
+            putValue(hasher, bidder.calculateValue(all));
+            for (Good good : goods) {
+                putValue(hasher, bidder.calculateValue(Bundle.of(good)));
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putValue(Hasher hasher, BigDecimal value) {
+        hasher.putString(value.stripTrailingZeros().toPlainString(), StandardCharsets.UTF_8);
+    }
+
+    private StoredAllocation read(Key key) {
+        File file = getFile(key);
+        if (file == null || !file.isFile()) return null;
+        try {
+            String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            StoredAllocation stored = gson().fromJson(json, StoredAllocation.class);
+            if (stored == null || !key.equals(stored.getKey())) {
+                log.warn("Ignoring cached allocation in {}, as it does not belong to {}", file, key);
+                return null;
+            }
+            return stored;
+        } catch (IOException | JsonParseException e) {
+            log.warn("Could not read cached allocation from {}", file, e);
+            return null;
+        }
+    }
+
+    private void write(Key key, StoredAllocation stored) {
+        File file = getFile(key);
+        if (file == null) return;
+        try {
+            Files.createDirectories(folder.toPath());
+            // Write to a temporary file first, such that concurrent processes never read partially written files
+            Path tmp = Files.createTempFile(folder.toPath(), file.getName(), ".tmp");
+            Files.write(tmp, gson().toJson(stored).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new FileException(e);
+        }
+    }
+
+    private static Gson gson() {
+        return new GsonWrapper().getGson();
+    }
+
+    private static String readSatsVersion() {
+        try (InputStream in = EfficientAllocationCache.class.getResourceAsStream("/sats.properties")) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                String version = properties.getProperty("version");
+                if (version != null && !version.startsWith("${")) return version;
+            }
+        } catch (IOException e) {
+            log.warn("Could not read the SATS version", e);
+        }
+        String version = EfficientAllocationCache.class.getPackage().getImplementationVersion();
+        return version == null ? "unknown" : version;
+    }
+
+    /**
+     * Identifies a domain instance.
+     */
+    @Value
+    public static class Key {
+        /**
+         * The name of the model, e.g., GSVM
+         */
+        String model;
+        long worldSeed;
+        long populationSeed;
+        /**
+         * A description of all non-default model parameters, e.g., the number of bidders per type
+         */
+        String parameters;
+        String satsVersion;
+
+        /**
+         * Creates a key for the current {@link #SATS_VERSION}.
+         */
+        public static Key of(@NonNull String model, long worldSeed, long populationSeed, @NonNull String parameters) {
+            return new Key(model, worldSeed, populationSeed, parameters, SATS_VERSION);
+        }
+    }
+
+    /**
+     * The representation of an allocation in the cache, which does not reference any bidder or good instances.
+     */
+    @Value
+    private static class StoredAllocation {
+        Key key;
+        /**
+         * The fingerprint of the instance, see {@link #fingerprintOf(ModelDomain)}
+         */
+        String fingerprint;
+        List<StoredBidderAllocation> bidderAllocations;
+
+        private static StoredAllocation of(Key key, String fingerprint, Allocation allocation) {
+            List<StoredBidderAllocation> bidderAllocations = new ArrayList<>();
+            for (Map.Entry<Bidder, BidderAllocation> entry : allocation.getTradesMap().entrySet()) {
+                Preconditions.checkArgument(entry.getKey() instanceof SATSBidder, "Only allocations to SATS bidders can be cached");
+                Map<String, Integer> goods = new LinkedHashMap<>();
+                entry.getValue().getBundle().getBundleEntries().stream()
+                        .sorted(Comparator.comparing(bundleEntry -> bundleEntry.getGood().getName()))
+                        .forEach(bundleEntry -> goods.put(bundleEntry.getGood().getName(), bundleEntry.getAmount()));
+                bidderAllocations.add(new StoredBidderAllocation(((SATSBidder) entry.getKey()).getLongId(), entry.getValue().getValue(), goods));
+            }
+            bidderAllocations.sort(Comparator.comparingLong(StoredBidderAllocation::getBidderId));
+            return new StoredAllocation(key, fingerprint, bidderAllocations);
+        }
+
+        /**
+         * @return the allocation for the bidders and goods of the domain, or null if the allocation belongs to
+         * another instance or if some bidder or good is unknown
+         */
+        private Allocation resolve(ModelDomain<?> domain, String domainFingerprint) {
+            if (!domainFingerprint.equals(fingerprint)) {
+                log.warn("Ignoring cached allocation {}, as it was calculated for another instance", key);
+                return null;
+            }
+            Map<Long, SATSBidder> bidders = new HashMap<>();
+            domain.getBidders().forEach(bidder -> bidders.put(bidder.getLongId(), bidder));
+            Map<String, Good> goods = new HashMap<>();
+            domain.getAllocatableGoods().forEach(good -> goods.put(good.getName(), good));
+
+            Map<SATSBidder, BidderAllocation> allocationMap = new LinkedHashMap<>();
+            for (StoredBidderAllocation bidderAllocation : bidderAllocations) {
+                SATSBidder bidder = bidders.get(bidderAllocation.getBidderId());
+                if (bidder == null) {
+                    log.warn("Cached allocation {} contains unknown bidder {}", key, bidderAllocation.getBidderId());
+                    return null;
+                }
+                List<BundleEntry> entries = new ArrayList<>();
+                for (Map.Entry<String, Integer> entry : bidderAllocation.getGoods().entrySet()) {
+                    Good good = goods.get(entry.getKey());
+                    if (good == null) {
+                        log.warn("Cached allocation {} contains unknown good {}", key, entry.getKey());
+                        return null;
+                    }
+                    entries.add(new BundleEntry(good, entry.getValue()));
+                }
+                Bundle bundle = entries.isEmpty() ? Bundle.EMPTY : new Bundle(new HashSet<>(entries));
+                allocationMap.put(bidder, new BidderAllocation(bidderAllocation.getValue(), bundle, new HashSet<>()));
+            }
+            MetaInfo metaInfo = new MetaInfo();
+            metaInfo.setNumberOfMIPs(0);
+            return new Allocation(allocationMap, new BundleExactValueBids(), metaInfo);
+        }
+    }
+
+    @Value
+    private static class StoredBidderAllocation {
+        long bidderId;
+        BigDecimal value;
+        Map<String, Integer> goods;
+    }
+
+}
@@ -13,16 +13,30 @@ import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
 import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
 import org.spectrumauctions.sats.opt.model.ModelMIP;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMBranchAndBound;
 import org.spectrumauctions.sats.opt.model.gsvm.GSVMStandardMIP;
 
+import lombok.Getter;
+import lombok.Setter;
+
 public class GSVMDomain extends ModelDomain<GSVMBidder> {
 
+	/**
+	 * If set to true, the solver-free {@link GSVMBranchAndBound} is used instead of the {@link GSVMStandardMIP},
+	 * e.g., on machines without CPLEX.
+	 */
+	@Getter @Setter
+	private boolean useBranchAndBound = false;
+
 	public GSVMDomain(List<GSVMBidder> bidders) {
 		super(bidders);
 	}
 
 	@Override
 	public ModelMIP getMIP() {
+		if (useBranchAndBound) {
+			return new GSVMBranchAndBound(getBidders().get(0).getWorld(), getBidders());
+		}
 		return new GSVMStandardMIP(getBidders().get(0).getWorld(), getBidders());
 	}
 
@@ -1,5 +1,6 @@
 package org.spectrumauctions.sats.mechanism.domains;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
@@ -68,6 +69,12 @@ public class MRVMDomain extends ModelDomain<MRVMBidder> {
             return getBidders().iterator().next().getWorld().getLicenses();
         }
 	}
+
+	@Override
+	protected Collection<? extends Good> getAllocatableGoods() {
+		// The MRVM_MIP allocates generic definitions, also in the non-generic setting
+		return getBidders().iterator().next().getWorld().getAllGenericDefinitions();
+	}
 	
 	@Override
 	public BiddingLanguage createPriceSamplingBiddingLanguage(RNGSupplier rngSupplier, SATSBidder bidder, int numberOfSamples)
@@ -1,10 +1,15 @@
 package org.spectrumauctions.sats.mechanism.domains;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.commons.math3.stat.regression.SimpleRegression;
@@ -20,12 +25,19 @@ import org.marketdesignresearch.mechlib.core.price.Price;
 import org.marketdesignresearch.mechlib.core.price.Prices;
 import org.marketdesignresearch.mechlib.instrumentation.MipInstrumentation;
 import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+import org.spectrumauctions.sats.core.instrumentation.ValueQueryInstrumentation;
+import org.spectrumauctions.sats.core.instrumentation.ValueQueryStatistics;
 import org.spectrumauctions.sats.core.model.SATSBidder;
 import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.World;
 import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
 import org.spectrumauctions.sats.core.util.random.RNGSupplier;
+import org.spectrumauctions.sats.core.util.random.UniformDistributionRNG;
 import org.spectrumauctions.sats.opt.model.ModelMIP;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -41,6 +53,9 @@ public abstract class ModelDomain<T extends SATSBidder> implements Domain {
 
     private transient Allocation efficientAllocation;
 
+    private transient EfficientAllocationCache efficientAllocationCache;
+    private transient EfficientAllocationCache.Key efficientAllocationCacheKey;
+
     public abstract ModelMIP getMIP();
     
     private boolean generic;
@@ -53,6 +68,12 @@ public abstract class ModelDomain<T extends SATSBidder> implements Domain {
     private double priceGenerationFraction = 0.01;
     @Setter
     private long priceGenerationSeed = System.currentTimeMillis();
+    /**
+     * The executor on which the samples of {@link #proposeStartingPrices()} are drawn, or null to draw them on the
+     * calling thread
+     */
+    @Setter
+    private transient Executor priceGenerationExecutor;
 
     public ModelDomain(List<T> bidders) {
         this.bidders = bidders;
@@ -60,14 +81,40 @@ public abstract class ModelDomain<T extends SATSBidder> implements Domain {
 
     @Override
     public Allocation getEfficientAllocation() {
+        if (!hasEfficientAllocationCalculated() && efficientAllocationCache != null) {
+            efficientAllocation = efficientAllocationCache.get(efficientAllocationCacheKey, this);
+        }
         if (!hasEfficientAllocationCalculated()) {
             getMIP().setMipInstrumentation(getMipInstrumentation());
             getMIP().setPurpose(MipInstrumentation.MipPurpose.ALLOCATION.name());
             efficientAllocation = getMIP().getAllocation();
+            if (efficientAllocationCache != null) {
+                efficientAllocationCache.put(efficientAllocationCacheKey, this, efficientAllocation);
+            }
         }
         return efficientAllocation;
     }
 
+    /**
+     * Looks up the efficient allocation in the cache before solving the MIP, and stores newly calculated
+     * efficient allocations in the cache.
+     * @param cache the cache, e.g., {@link EfficientAllocationCache#getDefaultCache()}
+     * @param key the key identifying the instance of this domain. Cached allocations of other instances
+     *            under the same key are not used (see {@link EfficientAllocationCache#fingerprintOf(ModelDomain)}).
+     */
+    public void setEfficientAllocationCache(EfficientAllocationCache cache, EfficientAllocationCache.Key key) {
+        Preconditions.checkArgument((cache == null) == (key == null), "Either both or none of cache and key must be set");
+        this.efficientAllocationCache = cache;
+        this.efficientAllocationCacheKey = key;
+    }
+
+    /**
+     * @return the goods which may appear in the efficient allocation, used to resolve cached allocations
+     */
+    protected Collection<? extends Good> getAllocatableGoods() {
+        return getGoods();
+    }
+
     @Override
     public boolean hasEfficientAllocationCalculated() {
         return efficientAllocation != null;
@@ -87,8 +134,41 @@ public abstract class ModelDomain<T extends SATSBidder> implements Domain {
         this.mipInstrumentation = mipInstrumentation;
         getBidders().forEach(bidder -> bidder.setMipInstrumentation(mipInstrumentation));
     }
+
+    private transient ValueQueryInstrumentation valueQueryInstrumentation = ValueQueryInstrumentation.NO_OP;
+
+    public ValueQueryInstrumentation getValueQueryInstrumentation() {
+        return valueQueryInstrumentation == null ? ValueQueryInstrumentation.NO_OP : valueQueryInstrumentation;
+    }
+
+    /**
+     * Sets the instrumentation of the value queries of all bidders of this domain, including the similar bidders
+     * drawn to propose starting prices. To see where a simulation spends its time, pass a shared
+     * {@link ValueQueryStatistics} instance, which aggregates the queries of all bidders.
+     */
+    public void setValueQueryInstrumentation(ValueQueryInstrumentation valueQueryInstrumentation) {
+        this.valueQueryInstrumentation = Preconditions.checkNotNull(valueQueryInstrumentation);
+        getBidders().forEach(bidder -> bidder.setValueQueryInstrumentation(valueQueryInstrumentation));
+    }
+
+    /**
+     * Enables a value cache for every bidder of this domain, such that bundles which are queried repeatedly over
+     * the rounds of a mechanism are only evaluated once. See {@link SATSBidder#enableValueCache(int)}.
+     *
+     * @param maximumSize the maximal number of cached values per bidder
+     */
+    public void enableValueCaches(int maximumSize) {
+        getBidders().forEach(bidder -> bidder.enableValueCache(maximumSize));
+    }
     // endregion
 
+    /**
+     * Proposes starting prices by sampling bids of similar bidders.<br>
+     * Every sample of alternate bidders is drawn with its own seed, derived from the priceGenerationSeed, and
+     * accumulates into its own regressions, which are merged in the order of the samples. The proposed prices
+     * therefore only depend on the priceGenerationSeed, but not on the {@link #setPriceGenerationExecutor(Executor)
+     * executor} on which the samples are drawn.
+     */
     @Override
 	public Prices proposeStartingPrices() {
     	try {
@@ -99,23 +179,20 @@ public abstract class ModelDomain<T extends SATSBidder> implements Domain {
                 regressions.put(genericDefinition, regression);
             }
 
-            RNGSupplier rngSupplier = new JavaUtilRNGSupplier(priceGenerationSeed);
+            UniformDistributionRNG seedGenerator = new JavaUtilRNGSupplier(priceGenerationSeed).getUniformDistributionRNG();
+            Executor executor = priceGenerationExecutor == null ? Runnable::run : priceGenerationExecutor;
+            if (priceGenerationExecutor != null) {
+                bidders.stream().map(SATSBidder::getWorld).distinct().forEach(World::prepareConcurrentAccess);
+            }
+            List<CompletableFuture<Map<Good, SimpleRegression>>> samples = new ArrayList<>();
             for (int i = 0; i < priceGenerationNumberOfWorldSamples; i++) {
-            	
-                List<SATSBidder> alternateBidders = bidders.stream().map(b -> b.drawSimilarBidder(rngSupplier)).collect(Collectors.toList());
-                for (SATSBidder bidder : alternateBidders) {
-                	Iterator<BundleValue> bidIterator = createPriceSamplingBiddingLanguage(rngSupplier, bidder, this.getPriceGenerationBidsPerBidder()).iterator();
-                    while (bidIterator.hasNext()) {
-                        BundleValue bid = bidIterator.next();
-                        for(BundleEntry entry : bid.getBundle().getBundleEntries()) {
-                        	double y = bid.getAmount().doubleValue() * entry.getAmount() / bid.getBundle().getTotalAmount();
-                        	regressions.get(entry.getGood()).addData((double)entry.getAmount(),y);
-                        }
-                    }
-                }
+                RNGSupplier rngSupplier = new JavaUtilRNGSupplier(seedGenerator.nextLong());
+                samples.add(CompletableFuture.supplyAsync(() -> samplePriceRegressions(rngSupplier), executor));
             }
-           
-            
+            for (CompletableFuture<Map<Good, SimpleRegression>> sample : samples) {
+                sample.join().forEach((good, regression) -> regressions.get(good).append(regression));
+            }
+
             double min = Double.MAX_VALUE;
             Map<Good, Price> priceMap = new HashMap<>();
             
@@ -137,7 +214,11 @@ public abstract class ModelDomain<T extends SATSBidder> implements Domain {
             }
             return new LinearPrices(priceMap);
 
-        } catch (UnsupportedBiddingLanguageException e) {
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof UnsupportedBiddingLanguageException)) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
+            }
             // Catching this error here, because it's very unlikely to happen and we don't want to bother
             // the user with handling this error. We just log it and don't set the starting prices.
         	// TODO
@@ -148,6 +229,33 @@ public abstract class ModelDomain<T extends SATSBidder> implements Domain {
         return null;
     }
 
+    /**
+     * Draws one sample of alternate bidders and adds their sampled bids to a new regression per good.
+     */
+    private Map<Good, SimpleRegression> samplePriceRegressions(RNGSupplier rngSupplier) {
+        try {
+            Map<Good, SimpleRegression> regressions = new HashMap<>();
+            for (Good good : this.getGoods()) {
+                regressions.put(good, new SimpleRegression(false));
+            }
+            List<SATSBidder> alternateBidders = bidders.stream().map(b -> b.drawSimilarBidder(rngSupplier)).collect(Collectors.toList());
+            alternateBidders.forEach(b -> b.setValueQueryInstrumentation(getValueQueryInstrumentation()));
+            for (SATSBidder bidder : alternateBidders) {
+                Iterator<BundleValue> bidIterator = createPriceSamplingBiddingLanguage(rngSupplier, bidder, this.getPriceGenerationBidsPerBidder()).iterator();
+                while (bidIterator.hasNext()) {
+                    BundleValue bid = bidIterator.next();
+                    for(BundleEntry entry : bid.getBundle().getBundleEntries()) {
+                        double y = bid.getAmount().doubleValue() * entry.getAmount() / bid.getBundle().getTotalAmount();
+                        regressions.get(entry.getGood()).addData((double)entry.getAmount(),y);
+                    }
+                }
+            }
+            return regressions;
+        } catch (UnsupportedBiddingLanguageException e) {
+            throw new CompletionException(e);
+        }
+    }
+
 	public abstract BiddingLanguage createPriceSamplingBiddingLanguage(RNGSupplier rngSupplier, SATSBidder bidder, int numberOfSamples)
 			throws UnsupportedBiddingLanguageException;
 
@@ -0,0 +1,215 @@
+package org.spectrumauctions.sats.opt.domain;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.Setter;
+import org.marketdesignresearch.mechlib.core.Allocation;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * An upper bound on the social welfare of an instance, computed without a MIP solver.
+ * <p>
+ * The supply constraints of the (generic) goods are relaxed with non-negative prices: For any prices,
+ * the revenue of selling the complete supply plus the sum of the bidders' maximal utilities at these prices is an
+ * upper bound on the welfare of every feasible allocation (weak duality). The lowest such bound is the value of the
+ * LP relaxation in which every bidder's value function is replaced by its concave envelope.
+ * <p>
+ * The initial prices clear the market in which every good is sold on its own and the bidders' values for it are
+ * replaced by their concave envelopes. They are then improved with a projected subgradient method.
+ * Every evaluated bound is valid, the iterations only tighten it; the lowest bound found is returned.
+ */
+public abstract class LagrangianUpperBound {
+
+    /**
+     * Relative margin which is added to the bound to account for floating point errors
+     */
+    private static final double CERTIFICATION_MARGIN = 1e-9;
+    /**
+     * The step size of the subgradient method aims at a bound which is this much lower than the best bound so far
+     */
+    private static final double TARGET_IMPROVEMENT = 0.05;
+    private static final double MIN_STEP_SCALE = 1e-4;
+
+    private final int[] supply;
+
+    /**
+     * The maximal number of subgradient iterations, i.e., of bound evaluations
+     */
+    @Getter @Setter
+    private int maxIterations = 50;
+    /**
+     * The number of iterations without improvement after which the step size is halved
+     */
+    @Getter @Setter
+    private int patience = 3;
+
+    private double upperBound = Double.NaN;
+    private double[] bestPrices;
+    @Getter
+    private int iterations;
+
+    protected LagrangianUpperBound(int[] supply) {
+        this.supply = supply.clone();
+        Arrays.stream(this.supply).forEach(s -> Preconditions.checkArgument(s >= 0));
+    }
+
+    protected abstract int getNumberOfBidders();
+
+    /**
+     * Calculates the maximal utility of a bidder at the given prices, using an upper bound of the bidder's
+     * value function. The utility is never negative, as the empty bundle is always possible.
+     *
+     * @param prices the price per unit of every good
+     * @param demand the quantities of the utility-maximizing bundle are added to this array
+     * @return the maximal utility
+     */
+    protected abstract double maximalUtility(int bidder, double[] prices, int[] demand);
+
+    /**
+     * @return (an upper bound of) the value of the bidder for the given quantity of a good on its own
+     */
+    protected abstract double standaloneValue(int bidder, int good, int quantity);
+
+    /**
+     * Called once for every evaluation of the bound, before {@link #maximalUtility(int, double[], int[])} is called
+     * for all bidders. Allows to precompute price-dependent terms which are common to all bidders.
+     */
+    protected void setPrices(double[] prices) {
+    }
+
+    /**
+     * @return a certified upper bound on the social welfare of any feasible allocation
+     */
+    public BigDecimal getUpperBound() {
+        if (Double.isNaN(upperBound)) {
+            calculate();
+        }
+        return BigDecimal.valueOf(upperBound);
+    }
+
+    /**
+     * @return the prices per unit of the goods which resulted in the lowest upper bound
+     */
+    public double[] getPrices() {
+        getUpperBound();
+        return bestPrices.clone();
+    }
+
+    /**
+     * Reports how far the upper bound is from the value of an allocation, e.g., from the efficient allocation
+     * if a solver is available.
+     *
+     * @return the difference between the upper bound and the allocation's value, relative to the allocation's value
+     */
+    public double getRelativeGap(Allocation allocation) {
+        double value = allocation.getTotalAllocationValue().doubleValue();
+        return (getUpperBound().doubleValue() - value) / value;
+    }
+
+    private void calculate() {
+        double[] prices = initialPrices();
+        double best = Double.POSITIVE_INFINITY;
+        double stepScale = 1;
+        int withoutImprovement = 0;
+        iterations = 0;
+        while (iterations < maxIterations) {
+            iterations++;
+            int[] demand = new int[supply.length];
+            double bound = evaluate(prices, demand);
+            if (bound < best) {
+                best = bound;
+                bestPrices = prices.clone();
+                withoutImprovement = 0;
+            } else if (++withoutImprovement >= patience) {
+                stepScale /= 2;
+                withoutImprovement = 0;
+                if (stepScale < MIN_STEP_SCALE) break;
+            }
+            double[] subgradient = new double[supply.length];
+            double squaredNorm = 0;
+            for (int g = 0; g < supply.length; g++) {
+                subgradient[g] = supply[g] - demand[g];
+                // Projection: Prices of zero can not be lowered any further
+                if (prices[g] <= 0 && subgradient[g] > 0) subgradient[g] = 0;
+                squaredNorm += subgradient[g] * subgradient[g];
+            }
+            if (squaredNorm == 0) {
+                // No good is over-demanded, and all goods with a positive price are sold: the prices are optimal
+                break;
+            }
+            double step = stepScale * (bound - (1 - TARGET_IMPROVEMENT) * best) / squaredNorm;
+            for (int g = 0; g < supply.length; g++) {
+                prices[g] = Math.max(0, prices[g] - step * subgradient[g]);
+            }
+        }
+        upperBound = best + Math.abs(best) * CERTIFICATION_MARGIN;
+    }
+
+    private double evaluate(double[] prices, int[] demand) {
+        setPrices(prices);
+        double bound = 0;
+        for (int g = 0; g < supply.length; g++) {
+            bound += prices[g] * supply[g];
+        }
+        for (int bidder = 0; bidder < getNumberOfBidders(); bidder++) {
+            bound += maximalUtility(bidder, prices, demand);
+        }
+        return bound;
+    }
+
+    /**
+     * The initial price of a good is the price at which the market for this good alone clears,
+     * if every bidder's value for the good is replaced by its concave envelope.
+     */
+    private double[] initialPrices() {
+        double[] prices = new double[supply.length];
+        for (int g = 0; g < supply.length; g++) {
+            if (supply[g] == 0) continue;
+            double[] marginals = new double[getNumberOfBidders() * supply[g]];
+            for (int bidder = 0; bidder < getNumberOfBidders(); bidder++) {
+                double[] values = new double[supply[g] + 1];
+                for (int q = 1; q <= supply[g]; q++) {
+                    values[q] = standaloneValue(bidder, g, q);
+                }
+                System.arraycopy(concaveEnvelopeMarginals(values), 0, marginals, bidder * supply[g], supply[g]);
+            }
+            Arrays.sort(marginals);
+            // The supply[g]-th highest marginal value
+            prices[g] = marginals.length == 0 ? 0 : Math.max(0, marginals[marginals.length - supply[g]]);
+        }
+        return prices;
+    }
+
+    /**
+     * Calculates the marginal values per unit of the concave envelope of a value function.
+     *
+     * @param values the values for 0, 1, ..., n units, where the value for 0 units is the origin of the envelope
+     * @return the n marginal values of the smallest concave function which is at least as high as all values,
+     * in non-increasing order
+     */
+    static double[] concaveEnvelopeMarginals(double[] values) {
+        int n = values.length - 1;
+        // Indices of the corner points of the upper hull
+        int[] hull = new int[values.length];
+        int size = 0;
+        for (int q = 0; q <= n; q++) {
+            while (size >= 2 && slope(values, hull[size - 2], hull[size - 1]) <= slope(values, hull[size - 2], q)) {
+                size--;
+            }
+            hull[size++] = q;
+        }
+        double[] marginals = new double[n];
+        for (int h = 1; h < size; h++) {
+            double slope = slope(values, hull[h - 1], hull[h]);
+            Arrays.fill(marginals, hull[h - 1], hull[h], slope);
+        }
+        return marginals;
+    }
+
+    private static double slope(double[] values, int from, int to) {
+        return (values[to] - values[from]) / (to - from);
+    }
+
+}
@@ -10,7 +10,7 @@ import edu.harvard.econcs.jopt.solver.mip.Constraint;
 import edu.harvard.econcs.jopt.solver.mip.MIP;
 import edu.harvard.econcs.jopt.solver.mip.Variable;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -29,8 +29,8 @@ public class PartialMIP {
 
     protected PartialMIP() {
         super();
-        this.manuallyAddedVariables = new HashSet<>();
-        this.manuallyAddedConstraints = new HashSet<>();
+        this.manuallyAddedVariables = new LinkedHashSet<>();
+        this.manuallyAddedConstraints = new LinkedHashSet<>();
     }
 
     /**
@@ -67,7 +67,7 @@ public class PartialMIP {
     }
 
     public Set<Variable> getVariables() {
-        Set<Variable> vars = new HashSet<>();
+        Set<Variable> vars = new LinkedHashSet<>();
         vars.addAll(manuallyAddedVariables);
         return vars;
     }
@@ -0,0 +1,29 @@
+package org.spectrumauctions.sats.opt.domain;
+
+/**
+ * The MIP formulations of continuous piecewise linear functions supported by {@link PiecewiseLinearPartialMIP},
+ * for a function with k linear parts.
+ */
+public enum PiecewiseLinearEncoding {
+
+    /**
+     * One binary Z_i and one conditional input condX_i per linear part: k binaries, k continuous variables
+     * and 2k + 3 constraints. This is the default.
+     */
+    MULTIPLE_CHOICE,
+
+    /**
+     * The input is a convex combination of the corner points, with one weight lambda_j per corner point.
+     * Adjacency of the positive weights (which an SOS2 constraint would express) is enforced with one binary per
+     * linear part, as SOS constraints are not available in the solver interface:
+     * k binaries, k + 1 continuous variables and k + 5 constraints.
+     */
+    CONVEX_COMBINATION,
+
+    /**
+     * The convex combination encoding with a logarithmic number of binaries, based on a Gray code of the linear parts:
+     * ceil(log2(k)) binaries, k + 1 continuous variables and 2 * ceil(log2(k)) + 3 constraints.
+     */
+    LOGARITHMIC
+
+}
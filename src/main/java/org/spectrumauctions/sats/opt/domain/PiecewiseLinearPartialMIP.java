@@ -5,6 +5,7 @@
  */
 package org.spectrumauctions.sats.opt.domain;
 
+import com.google.common.base.Preconditions;
 import edu.harvard.econcs.jopt.solver.IMIP;
 import edu.harvard.econcs.jopt.solver.mip.CompareType;
 import edu.harvard.econcs.jopt.solver.mip.Constraint;
@@ -18,11 +19,14 @@ import org.spectrumauctions.sats.core.util.random.DoubleInterval;
 import java.math.BigDecimal;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
+ * Encodes a continuous piecewise linear function Y = f(X) in a MIP.
+ * The formulation is chosen by the {@link PiecewiseLinearEncoding}.
+ *
  * @author Michael Weiss
  *
  */
@@ -30,6 +34,8 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
 
     private final String linearPieceVariableName = "_Z";
     private final String conditionalXVariableName = "_condX";
+    private final String lambdaVariableName = "_lambda";
+    private final String grayCodeVariableName = "_G";
 
     /**
      * A boolean auxiliary variable Z_i, 
@@ -53,6 +59,21 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
      */
     private List<Variable> conditionalXVariable;
 
+    /**
+     * A double auxiliary variable lambda_j in [0, 1], one for each corner point of the piecewise linear function,
+     * used by the encodings which express the input as convex combination of two adjacent corner points.
+     * Indexed by {0, 1, ..., k}.
+     */
+    private List<Variable> lambdaVariable;
+
+    /**
+     * A boolean auxiliary variable G_l for each bit of the Gray code of the linear parts,
+     * used by the {@link PiecewiseLinearEncoding#LOGARITHMIC} encoding.
+     * Note, the indexing of the variable name is in {1, 2, ..., ceil(log2(k))}.
+     */
+    private List<Variable> grayCodeVariable;
+
+    private final PiecewiseLinearEncoding encoding;
     private ContinuousPiecewiseLinearFunction func;
     private Variable functionInput;
     private Variable functionOutput;
@@ -64,7 +85,17 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
                                      Variable functionInput,
                                      Variable functionOutput,
                                      String auxiliaryPartialName) {
+        this(func, functionInput, functionOutput, auxiliaryPartialName, PiecewiseLinearEncoding.MULTIPLE_CHOICE);
+    }
+
+    public PiecewiseLinearPartialMIP(ContinuousPiecewiseLinearFunction func,
+                                     Variable functionInput,
+                                     Variable functionOutput,
+                                     String auxiliaryPartialName,
+                                     PiecewiseLinearEncoding encoding) {
         super();
+        Preconditions.checkNotNull(encoding);
+        this.encoding = encoding;
         this.func = func;
         this.functionInput = functionInput;
         this.functionOutput = functionOutput;
@@ -84,14 +115,46 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
     private void initAuxiliaryVariables() {
         this.linearPieceVariable = new ArrayList<>();
         this.conditionalXVariable = new ArrayList<Variable>();
+        this.lambdaVariable = new ArrayList<>();
+        this.grayCodeVariable = new ArrayList<>();
         List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = func.getCornerPoints();
-        for (int i = 1; i < cornerPoints.size(); i++) {
-            String varName = auxiliaryPartialName.concat(linearPieceVariableName).concat(String.valueOf(i));
-            this.linearPieceVariable.add(new Variable(varName, VarType.BOOLEAN, 0, 1));
-
-            varName = auxiliaryPartialName.concat(conditionalXVariableName).concat(String.valueOf(i));
-            this.conditionalXVariable.add(new Variable(varName, VarType.DOUBLE, this.functionInput.getLowerBound(), functionInput.getUpperBound()));
+        if (encoding != PiecewiseLinearEncoding.LOGARITHMIC) {
+            for (int i = 1; i < cornerPoints.size(); i++) {
+                String varName = auxiliaryPartialName.concat(linearPieceVariableName).concat(String.valueOf(i));
+                this.linearPieceVariable.add(new Variable(varName, VarType.BOOLEAN, 0, 1));
+            }
+        }
+        if (encoding == PiecewiseLinearEncoding.MULTIPLE_CHOICE) {
+            for (int i = 1; i < cornerPoints.size(); i++) {
+                String varName = auxiliaryPartialName.concat(conditionalXVariableName).concat(String.valueOf(i));
+                this.conditionalXVariable.add(new Variable(varName, VarType.DOUBLE, this.functionInput.getLowerBound(), functionInput.getUpperBound()));
+            }
+            return;
+        }
+        for (int j = 0; j < cornerPoints.size(); j++) {
+            String varName = auxiliaryPartialName.concat(lambdaVariableName).concat(String.valueOf(j));
+            this.lambdaVariable.add(new Variable(varName, VarType.DOUBLE, 0, 1));
         }
+        if (encoding == PiecewiseLinearEncoding.LOGARITHMIC) {
+            for (int l = 1; l <= numberOfGrayCodeBits(cornerPoints.size() - 1); l++) {
+                String varName = auxiliaryPartialName.concat(grayCodeVariableName).concat(String.valueOf(l));
+                this.grayCodeVariable.add(new Variable(varName, VarType.BOOLEAN, 0, 1));
+            }
+        }
+    }
+
+    /**
+     * @return ceil(log2(numberOfPieces))
+     */
+    private static int numberOfGrayCodeBits(int numberOfPieces) {
+        return numberOfPieces <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(numberOfPieces - 1);
+    }
+
+    /**
+     * @return the Gray code of the linear part with the given number in {1, 2, ..., k}
+     */
+    private static int grayCode(int piecenumber) {
+        return (piecenumber - 1) ^ ((piecenumber - 1) >> 1);
     }
 
 
@@ -101,7 +164,18 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
      * @return
      */
     public Set<Constraint> constrainAuxiliaryVariables() {
-        Set<Constraint> result = new HashSet<>();
+        switch (encoding) {
+            case CONVEX_COMBINATION:
+                return constrainConvexCombinationVariables();
+            case LOGARITHMIC:
+                return constrainLogarithmicVariables();
+            default:
+                return constrainMultipleChoiceVariables();
+        }
+    }
+
+    private Set<Constraint> constrainMultipleChoiceVariables() {
+        Set<Constraint> result = new LinkedHashSet<>();
         List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = func.getCornerPoints();
         // Ensure CornerX_{i-1} * Z_i <= condX_i <= CornerX_i * Z_i
         for (int i = 1; i < cornerPoints.size(); i++) {
@@ -134,6 +208,83 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
         return result;
     }
 
+    /**
+     * Ensures that the input X is a convex combination of two adjacent corner points:
+     * Exactly one Z_i = 1, and only lambda_{i-1} and lambda_i may be positive if Z_i = 1.
+     */
+    private Set<Constraint> constrainConvexCombinationVariables() {
+        Set<Constraint> result = constrainLambdaVariables();
+        int pieces = func.getCornerPoints().size() - 1;
+        Constraint zCount = new Constraint(CompareType.EQ, 1);
+        for (int i = 1; i <= pieces; i++) {
+            zCount.addTerm(1, getZVar(i));
+        }
+        result.add(zCount);
+        // lambda_j <= Z_j + Z_{j+1}, for the linear parts adjacent to corner point j
+        for (int j = 0; j <= pieces; j++) {
+            Constraint adjacency = new Constraint(CompareType.LEQ, 0);
+            adjacency.addTerm(1, lambdaVariable.get(j));
+            if (j >= 1) adjacency.addTerm(-1, getZVar(j));
+            if (j < pieces) adjacency.addTerm(-1, getZVar(j + 1));
+            result.add(adjacency);
+        }
+        return result;
+    }
+
+    /**
+     * Ensures that the input X is a convex combination of two adjacent corner points, using ceil(log2(k)) binaries
+     * (Vielma and Nemhauser, 2011): The linear parts are numbered by a Gray code, such that adjacent parts differ in
+     * exactly one bit. For every bit l, the corner points adjacent only to parts with bit l set can only be used
+     * if G_l = 1, and the ones adjacent only to parts with bit l unset can only be used if G_l = 0.
+     */
+    private Set<Constraint> constrainLogarithmicVariables() {
+        Set<Constraint> result = constrainLambdaVariables();
+        int pieces = func.getCornerPoints().size() - 1;
+        for (int l = 0; l < grayCodeVariable.size(); l++) {
+            Constraint ifSet = new Constraint(CompareType.LEQ, 0);
+            ifSet.addTerm(-1, grayCodeVariable.get(l));
+            Constraint ifUnset = new Constraint(CompareType.LEQ, 1);
+            ifUnset.addTerm(1, grayCodeVariable.get(l));
+            for (int j = 0; j <= pieces; j++) {
+                boolean anySet = false;
+                boolean anyUnset = false;
+                for (int i = Math.max(1, j); i <= Math.min(pieces, j + 1); i++) {
+                    if ((grayCode(i) & (1 << l)) != 0) {
+                        anySet = true;
+                    } else {
+                        anyUnset = true;
+                    }
+                }
+                if (!anyUnset) {
+                    ifSet.addTerm(1, lambdaVariable.get(j));
+                } else if (!anySet) {
+                    ifUnset.addTerm(1, lambdaVariable.get(j));
+                }
+            }
+            result.add(ifSet);
+            result.add(ifUnset);
+        }
+        return result;
+    }
+
+    /**
+     * Ensures that the lambdas sum up to one, and that X = \sum_j cornerX_j * lambda_j
+     */
+    private Set<Constraint> constrainLambdaVariables() {
+        Set<Constraint> result = new LinkedHashSet<>();
+        List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = func.getCornerPoints();
+        Constraint lambdaSum = new Constraint(CompareType.EQ, 1);
+        Constraint xSum = new Constraint(CompareType.EQ, 0);
+        xSum.addTerm(-1, functionInput);
+        for (int j = 0; j < cornerPoints.size(); j++) {
+            lambdaSum.addTerm(1, lambdaVariable.get(j));
+            xSum.addTerm(cornerPoints.get(j).getKey().doubleValue(), lambdaVariable.get(j));
+        }
+        result.add(lambdaSum);
+        result.add(xSum);
+        return result;
+    }
+
     /**
      * Encodes the actual continuous piecewise linear function, i.e., the following term:<br>
      * Y = \sum_{i =1}^r cornerY_{i-1}Z_i + slope(i) * condX_i  - slope(i) * cornerX_{i-1} * Z_i
@@ -146,6 +297,13 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
         Constraint c = new Constraint(CompareType.EQ, 0);
         c.addTerm(-1, functionOutput);
         List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = func.getCornerPoints();
+        if (encoding != PiecewiseLinearEncoding.MULTIPLE_CHOICE) {
+            // Y = \sum_j cornerY_j * lambda_j
+            for (int j = 0; j < cornerPoints.size(); j++) {
+                c.addTerm(cornerPoints.get(j).getValue().doubleValue(), lambdaVariable.get(j));
+            }
+            return c;
+        }
         for (int i = 1; i < cornerPoints.size(); i++) {
             BigDecimal lowerX = cornerPoints.get(i - 1).getKey();
             BigDecimal higherX = cornerPoints.get(i).getKey();
@@ -182,13 +340,40 @@ public final class PiecewiseLinearPartialMIP extends PartialMIP {
 
     @Override
     public Set<Variable> getVariables() {
-        Set<Variable> vars = new HashSet<>();
+        Set<Variable> vars = new LinkedHashSet<>();
         vars.addAll(super.getVariables());
         vars.addAll(linearPieceVariable);
         vars.addAll(conditionalXVariable);
+        vars.addAll(grayCodeVariable);
+        vars.addAll(lambdaVariable);
         return vars;
     }
 
+    public PiecewiseLinearEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * @return the number of boolean auxiliary variables of the encoding
+     */
+    public int getNumberOfBinaryVariables() {
+        return linearPieceVariable.size() + grayCodeVariable.size();
+    }
+
+    /**
+     * @return the number of auxiliary variables of the encoding
+     */
+    public int getNumberOfAuxiliaryVariables() {
+        return getVariables().size();
+    }
+
+    /**
+     * @return the number of constraints of the encoding, including the one defining the function output
+     */
+    public int getNumberOfConstraints() {
+        return constrainAuxiliaryVariables().size() + 1;
+    }
+
     @Override
     public void appendConstraintsToMip(IMIP mip) {
         super.appendConstraintsToMip(mip);
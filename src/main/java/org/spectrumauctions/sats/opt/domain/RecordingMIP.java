@@ -0,0 +1,59 @@
+package org.spectrumauctions.sats.opt.domain;
+
+import edu.harvard.econcs.jopt.solver.IMIP;
+import edu.harvard.econcs.jopt.solver.mip.Constraint;
+import edu.harvard.econcs.jopt.solver.mip.LinearTerm;
+import edu.harvard.econcs.jopt.solver.mip.MIP;
+import edu.harvard.econcs.jopt.solver.mip.QuadraticTerm;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A {@link MIP} which records the variables, constraints and objective terms added to it, such that they can be
+ * replayed in the same order into another {@link IMIP}.
+ * <p>
+ * This allows to append {@link PartialMIP}s to thread-local buffers concurrently, and to merge the buffers
+ * into the actual MIP afterwards in a fixed order, resulting in the same MIP as a sequential build.
+ */
+public class RecordingMIP extends MIP {
+
+    private final List<Consumer<IMIP>> operations = new ArrayList<>();
+
+    @Override
+    public String add(Variable var) {
+        String result = super.add(var);
+        operations.add(mip -> mip.add(var));
+        return result;
+    }
+
+    @Override
+    public void add(Constraint constraint) {
+        super.add(constraint);
+        operations.add(mip -> mip.add(constraint));
+    }
+
+    @Override
+    public void addObjectiveTerm(LinearTerm term) {
+        super.addObjectiveTerm(term);
+        operations.add(mip -> mip.addObjectiveTerm(term));
+    }
+
+    @Override
+    public void addObjectiveTerm(QuadraticTerm term) {
+        super.addObjectiveTerm(term);
+        operations.add(mip -> mip.addObjectiveTerm(term));
+    }
+
+    /**
+     * Adds everything that was added to this buffer to the given MIP, in the same order.
+     */
+    public void replayOn(IMIP mip) {
+        for (Consumer<IMIP> operation : operations) {
+            operation.accept(mip);
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package org.spectrumauctions.sats.opt.model;
+
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+
+/**
+ * A variable of a {@link ModelMIP} whose value encodes whether (or how many of) a good is allocated to a bidder.
+ */
+@Getter
+@EqualsAndHashCode
+public final class AllocationVariable {
+
+    private final Variable variable;
+    private final SATSBidder bidder;
+    private final Good good;
+
+    public AllocationVariable(Variable variable, SATSBidder bidder, Good good) {
+        this.variable = variable;
+        this.bidder = bidder;
+        this.good = good;
+    }
+
+}
@@ -0,0 +1,472 @@
+package org.spectrumauctions.sats.opt.model;
+
+import com.google.common.base.Preconditions;
+import edu.harvard.econcs.jopt.solver.ISolution;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import lombok.Getter;
+import lombok.Setter;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.BidderAllocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.allocationlimits.AllocationLimit;
+import org.marketdesignresearch.mechlib.core.allocationlimits.AllocationLimitConstraint;
+import org.marketdesignresearch.mechlib.core.bid.bundle.BundleExactValueBids;
+import org.marketdesignresearch.mechlib.core.bidder.Bidder;
+import org.marketdesignresearch.mechlib.metainfo.MetaInfo;
+import org.spectrumauctions.sats.core.model.GenericGood;
+import org.spectrumauctions.sats.core.model.License;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.util.ClockCache;
+import org.spectrumauctions.sats.core.util.ConcurrencyUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A solver-free heuristic winner determination, which works for the bidders of every model, as it only uses the
+ * bidders' value functions ({@link SATSBidder#calculateValue(Bundle)}) on bundles of licenses.
+ * It can be used wherever a {@link ModelMIP} is used when a single, good feasible allocation is sufficient,
+ * and its allocation can be passed to a MIP as a warm start (see {@link ModelMIP#setWarmStart(Allocation)}).
+ * <p>
+ * First, an allocation is constructed greedily: The license and bidder with the highest marginal value are
+ * matched, until no license has a positive marginal value for any bidder. Then, a number of independent local
+ * searches improve this allocation. The first one starts from the greedy allocation, the others from a random
+ * perturbation of it. Every local search repeatedly applies improving moves (a license is moved to another
+ * bidder or left unallocated) and swaps (two licenses of different bidders are exchanged), in a random order.
+ * The local searches run in parallel; the best allocation is returned, ties are broken by the index of the search.
+ * <p>
+ * Every local search uses its own random number generator, seeded with the seed of this winner determination and
+ * its index. The outcome is therefore deterministic and independent of the number of threads,
+ * as long as the time limit is not reached.
+ */
+public class HeuristicWinnerDetermination extends ModelMIP {
+
+    private static final double IMPROVEMENT_TOLERANCE = 1e-9;
+
+    public enum Neighborhood {
+        /**
+         * A license is moved to another bidder, or is left unallocated
+         */
+        MOVE,
+        /**
+         * Two licenses of different bidders are exchanged
+         */
+        SWAP
+    }
+
+    private final List<? extends SATSBidder> bidders;
+    private final List<? extends License> licenses;
+
+    /**
+     * valueCaches.get(i) maps bundles (as sets of license indices) to the value of the i-th bidder.
+     * Only kept while solving.
+     */
+    private volatile List<ClockCache<BitSet, Double>> valueCaches;
+
+    @Getter @Setter
+    private long seed = 0;
+    /**
+     * The number of local searches, including the one starting from the greedy allocation
+     */
+    @Getter @Setter
+    private int numberOfRestarts = 8;
+    /**
+     * The fraction of licenses which are randomly reallocated for the perturbed starting allocations
+     */
+    @Getter @Setter
+    private double perturbationStrength = 0.2;
+    /**
+     * The maximal number of passes over the neighborhoods in every local search
+     */
+    @Getter @Setter
+    private int maxLocalSearchIterations = 100;
+    @Getter @Setter
+    private Set<Neighborhood> neighborhoods = EnumSet.allOf(Neighborhood.class);
+    @Getter
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+    /**
+     * The maximal number of bundle values which are cached per bidder while solving
+     */
+    @Getter
+    private int valueCacheSize = 1 << 15;
+
+    public HeuristicWinnerDetermination(List<? extends SATSBidder> bidders) {
+        Preconditions.checkArgument(!bidders.isEmpty());
+        this.bidders = bidders;
+        this.licenses = bidders.get(0).getWorld().getLicenses();
+    }
+
+    /**
+     * Sets the number of local searches which run in parallel. Defaults to the number of available processors.
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        Preconditions.checkArgument(numberOfThreads > 0);
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Sets the maximal number of bundle values which are cached per bidder while solving. Once a cache is full,
+     * values are evicted (see {@link ClockCache}), such that the memory used by a local search is bounded.
+     */
+    public void setValueCacheSize(int valueCacheSize) {
+        Preconditions.checkArgument(valueCacheSize > 0);
+        this.valueCacheSize = valueCacheSize;
+    }
+
+    @Override
+    protected Allocation solveWinnerDetermination() {
+        Preconditions.checkArgument(numberOfRestarts > 0);
+        long start = System.currentTimeMillis();
+        double deadline = start + getTimeLimit() * 1000;
+        valueCaches = bidders.stream().map(b -> new ClockCache<BitSet, Double>(valueCacheSize)).collect(Collectors.toList());
+        int[] best;
+        try {
+            int[] greedy = greedyAllocation();
+            List<Integer> restarts = IntStream.range(0, numberOfRestarts).boxed().collect(Collectors.toList());
+            List<int[]> results = ConcurrencyUtils.mapConcurrently(restarts, restart -> localSearch(greedy, restart, deadline), numberOfThreads);
+
+            best = results.get(0);
+            double bestValue = totalValue(best);
+            for (int[] result : results) {
+                double value = totalValue(result);
+                if (value > bestValue + IMPROVEMENT_TOLERANCE) {
+                    best = result;
+                    bestValue = value;
+                }
+            }
+        } finally {
+            valueCaches = null;
+        }
+
+        Map<Bidder, BidderAllocation> allocationMap = new LinkedHashMap<>();
+        for (int i = 0; i < bidders.size(); i++) {
+            Bundle bundle = toBundle(bundleOf(best, i));
+            if (Bundle.EMPTY.equals(bundle)) continue;
+            BigDecimal value = bidders.get(i).calculateValue(bundle);
+            if (value.signum() > 0) {
+                allocationMap.put(bidders.get(i), new BidderAllocation(value, bundle, new LinkedHashSet<>()));
+            }
+        }
+        MetaInfo metaInfo = new MetaInfo();
+        metaInfo.setMipSolveTime(System.currentTimeMillis() - start);
+        return new Allocation(allocationMap, new BundleExactValueBids(), metaInfo);
+    }
+
+    // ------- Construction ------- //
+
+    /**
+     * @return for every license the index of the bidder it is allocated to, or -1
+     */
+    private int[] greedyAllocation() {
+        int[] owners = new int[licenses.size()];
+        Arrays.fill(owners, -1);
+        List<BitSet> bundles = new ArrayList<>();
+        double[] currentValues = new double[bidders.size()];
+        double[][] marginals = new double[bidders.size()][licenses.size()];
+        for (int i = 0; i < bidders.size(); i++) {
+            bundles.add(new BitSet());
+            updateMarginals(i, bundles.get(i), 0, owners, marginals[i]);
+        }
+        while (true) {
+            int bestBidder = -1;
+            int bestLicense = -1;
+            double best = IMPROVEMENT_TOLERANCE;
+            for (int i = 0; i < bidders.size(); i++) {
+                for (int j = 0; j < licenses.size(); j++) {
+                    if (owners[j] < 0 && marginals[i][j] > best) {
+                        best = marginals[i][j];
+                        bestBidder = i;
+                        bestLicense = j;
+                    }
+                }
+            }
+            if (bestBidder < 0) return owners;
+            owners[bestLicense] = bestBidder;
+            bundles.get(bestBidder).set(bestLicense);
+            currentValues[bestBidder] += best;
+            updateMarginals(bestBidder, bundles.get(bestBidder), currentValues[bestBidder], owners, marginals[bestBidder]);
+        }
+    }
+
+    private void updateMarginals(int bidder, BitSet bundle, double currentValue, int[] owners, double[] marginals) {
+        for (int j = 0; j < licenses.size(); j++) {
+            if (owners[j] >= 0) continue;
+            BitSet extended = (BitSet) bundle.clone();
+            extended.set(j);
+            marginals[j] = value(bidder, extended) - currentValue;
+        }
+    }
+
+    // ------- Local search ------- //
+
+    private int[] localSearch(int[] greedy, int restart, double deadline) {
+        Random random = new Random(seed * 1_000_003L + restart);
+        int[] owners = greedy.clone();
+        if (restart > 0) {
+            perturb(owners, random);
+        }
+        List<BitSet> bundles = new ArrayList<>();
+        for (int i = 0; i < bidders.size(); i++) {
+            bundles.add(bundleOf(owners, i));
+        }
+        double[] currentValues = new double[bidders.size()];
+        for (int i = 0; i < bidders.size(); i++) {
+            currentValues[i] = value(i, bundles.get(i));
+        }
+
+        List<Integer> licenseOrder = IntStream.range(0, licenses.size()).boxed().collect(Collectors.toList());
+        List<Integer> bidderOrder = IntStream.range(-1, bidders.size()).boxed().collect(Collectors.toList());
+        for (int iteration = 0; iteration < maxLocalSearchIterations && System.currentTimeMillis() < deadline; iteration++) {
+            Collections.shuffle(licenseOrder, random);
+            Collections.shuffle(bidderOrder, random);
+            boolean improved = false;
+            if (neighborhoods.contains(Neighborhood.MOVE)) {
+                improved = improveByMoves(owners, bundles, currentValues, licenseOrder, bidderOrder);
+            }
+            if (neighborhoods.contains(Neighborhood.SWAP)) {
+                improved |= improveBySwaps(owners, bundles, currentValues, licenseOrder);
+            }
+            if (!improved) break;
+        }
+        return owners;
+    }
+
+    private boolean improveByMoves(int[] owners, List<BitSet> bundles, double[] currentValues,
+                                   List<Integer> licenseOrder, List<Integer> bidderOrder) {
+        boolean improved = false;
+        for (int j : licenseOrder) {
+            int owner = owners[j];
+            double ownerValueWithout = 0;
+            BitSet ownerBundleWithout = null;
+            if (owner >= 0) {
+                ownerBundleWithout = (BitSet) bundles.get(owner).clone();
+                ownerBundleWithout.clear(j);
+                ownerValueWithout = value(owner, ownerBundleWithout);
+            }
+            for (int k : bidderOrder) {
+                if (k == owner) continue;
+                double delta = owner >= 0 ? ownerValueWithout - currentValues[owner] : 0;
+                BitSet receiverBundle = null;
+                double receiverValue = 0;
+                if (k >= 0) {
+                    receiverBundle = (BitSet) bundles.get(k).clone();
+                    receiverBundle.set(j);
+                    receiverValue = value(k, receiverBundle);
+                    delta += receiverValue - currentValues[k];
+                }
+                if (delta > IMPROVEMENT_TOLERANCE) {
+                    if (owner >= 0) {
+                        bundles.set(owner, ownerBundleWithout);
+                        currentValues[owner] = ownerValueWithout;
+                    }
+                    if (k >= 0) {
+                        bundles.set(k, receiverBundle);
+                        currentValues[k] = receiverValue;
+                    }
+                    owners[j] = k;
+                    improved = true;
+                    break;
+                }
+            }
+        }
+        return improved;
+    }
+
+    private boolean improveBySwaps(int[] owners, List<BitSet> bundles, double[] currentValues, List<Integer> licenseOrder) {
+        boolean improved = false;
+        for (int a = 0; a < licenseOrder.size(); a++) {
+            int j = licenseOrder.get(a);
+            for (int b = a + 1; b < licenseOrder.size(); b++) {
+                int l = licenseOrder.get(b);
+                int ownerJ = owners[j];
+                int ownerL = owners[l];
+                // Swaps with unallocated licenses are moves
+                if (ownerJ < 0 || ownerL < 0 || ownerJ == ownerL) continue;
+                BitSet bundleJ = (BitSet) bundles.get(ownerJ).clone();
+                bundleJ.clear(j);
+                bundleJ.set(l);
+                BitSet bundleL = (BitSet) bundles.get(ownerL).clone();
+                bundleL.clear(l);
+                bundleL.set(j);
+                double valueJ = value(ownerJ, bundleJ);
+                double valueL = value(ownerL, bundleL);
+                if (valueJ + valueL - currentValues[ownerJ] - currentValues[ownerL] > IMPROVEMENT_TOLERANCE) {
+                    bundles.set(ownerJ, bundleJ);
+                    bundles.set(ownerL, bundleL);
+                    currentValues[ownerJ] = valueJ;
+                    currentValues[ownerL] = valueL;
+                    owners[j] = ownerL;
+                    owners[l] = ownerJ;
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Reallocates a fraction of the licenses to random bidders (or leaves them unallocated),
+     * as long as the resulting bundles respect the allocation limits
+     */
+    private void perturb(int[] owners, Random random) {
+        int count = (int) Math.ceil(perturbationStrength * licenses.size());
+        for (int n = 0; n < count; n++) {
+            int j = random.nextInt(licenses.size());
+            int k = random.nextInt(bidders.size() + 1) - 1;
+            if (k >= 0) {
+                BitSet bundle = bundleOf(owners, k);
+                bundle.set(j);
+                if (!isFeasible(k, bundle)) continue;
+            }
+            owners[j] = k;
+        }
+    }
+
+    // ------- Values ------- //
+
+    /**
+     * @return the value of the bidder for the bundle, or negative infinity if the bundle violates its allocation limit
+     */
+    private double value(int bidder, BitSet bundle) {
+        if (bundle.isEmpty()) return 0;
+        ClockCache<BitSet, Double> cache = valueCaches.get(bidder);
+        Double cached = cache.get(bundle);
+        if (cached != null) return cached;
+        double value = isFeasible(bidder, bundle)
+                ? bidders.get(bidder).calculateValue(toBundle(bundle)).doubleValue()
+                : Double.NEGATIVE_INFINITY;
+        cache.put((BitSet) bundle.clone(), value);
+        return value;
+    }
+
+    /**
+     * Constraints on goods only are evaluated directly; the validation of the allocation limit itself solves a MIP
+     * and is only used for constraints with additional variables.
+     */
+    private boolean isFeasible(int bidder, BitSet bundle) {
+        AllocationLimit limit = bidders.get(bidder).getAllocationLimit();
+        if (limit == AllocationLimit.NO) return true;
+        if (!limit.getAdditionalVariables().isEmpty()) return limit.validate(toBundle(bundle));
+        for (AllocationLimitConstraint constraint : limit.getConstraints()) {
+            double lhs = 0;
+            for (AllocationLimitConstraint.AllocationLimitLinearTerm term : constraint.getLinearTerms()) {
+                if (!(term instanceof AllocationLimitConstraint.LinearGoodTerm)) return limit.validate(toBundle(bundle));
+                lhs += term.getCoefficient() * quantity(((AllocationLimitConstraint.LinearGoodTerm) term).getGood(), bundle);
+            }
+            double rhs = constraint.getConstant();
+            switch (constraint.getType()) {
+                case LEQ:
+                    if (lhs > rhs + IMPROVEMENT_TOLERANCE) return false;
+                    break;
+                case GEQ:
+                    if (lhs < rhs - IMPROVEMENT_TOLERANCE) return false;
+                    break;
+                default:
+                    if (Math.abs(lhs - rhs) > IMPROVEMENT_TOLERANCE) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of licenses of the bundle which are the good or contained in it, if it is generic
+     */
+    private int quantity(Good good, BitSet bundle) {
+        int quantity = 0;
+        for (int j = bundle.nextSetBit(0); j >= 0; j = bundle.nextSetBit(j + 1)) {
+            License license = licenses.get(j);
+            if (license.equals(good)
+                    || good instanceof GenericGood && ((GenericGood) good).containedGoods().contains(license)) {
+                quantity++;
+            }
+        }
+        return quantity;
+    }
+
+    private double totalValue(int[] owners) {
+        double total = 0;
+        for (int i = 0; i < bidders.size(); i++) {
+            total += value(i, bundleOf(owners, i));
+        }
+        return total;
+    }
+
+    private static BitSet bundleOf(int[] owners, int bidder) {
+        BitSet bundle = new BitSet();
+        for (int j = 0; j < owners.length; j++) {
+            if (owners[j] == bidder) bundle.set(j);
+        }
+        return bundle;
+    }
+
+    private Bundle toBundle(BitSet bundle) {
+        if (bundle.isEmpty()) return Bundle.EMPTY;
+        return Bundle.of(bundle.stream().mapToObj(licenses::get).collect(Collectors.toList()));
+    }
+
+    // ------- ModelMIP ------- //
+
+    /**
+     * Only k = 1 is supported. The heuristic allocation is not necessarily optimal, so there is no meaningful
+     * k-th best allocation.
+     */
+    @Override
+    public List<Allocation> getBestAllocations(int k, boolean allowNegative) {
+        if (k == 1) return Collections.singletonList(getAllocation());
+        throw new UnsupportedOperationException("The heuristic winner determination only finds a single allocation");
+    }
+
+    @Override
+    public List<Allocation> getIntermediateSolutions() {
+        throw new UnsupportedOperationException("The heuristic winner determination does not keep intermediate solutions");
+    }
+
+    @Override
+    protected Allocation adaptMIPResult(ISolution mipResult) {
+        throw new UnsupportedOperationException("The heuristic winner determination does not solve a MIP");
+    }
+
+    @Override
+    public ModelMIP getMIPWithout(Bidder bidder) {
+        Preconditions.checkArgument(bidders.contains(bidder));
+        return copyWith(bidders.stream().filter(b -> !b.equals(bidder)).collect(Collectors.toList()));
+    }
+
+    @Override
+    public ModelMIP copyOf() {
+        return copyWith(bidders);
+    }
+
+    private HeuristicWinnerDetermination copyWith(List<? extends SATSBidder> bidders) {
+        HeuristicWinnerDetermination result = new HeuristicWinnerDetermination(bidders);
+        result.setSeed(seed);
+        result.setNumberOfRestarts(numberOfRestarts);
+        result.setPerturbationStrength(perturbationStrength);
+        result.setMaxLocalSearchIterations(maxLocalSearchIterations);
+        result.setNeighborhoods(neighborhoods);
+        result.setNumberOfThreads(numberOfThreads);
+        result.setValueCacheSize(valueCacheSize);
+        result.setTimeLimit(getTimeLimit());
+        return result;
+    }
+
+    @Override
+    protected Collection<Collection<Variable>> getVariablesOfInterest() {
+        return Collections.emptyList();
+    }
+
+}
@@ -0,0 +1,27 @@
+package org.spectrumauctions.sats.opt.model;
+
+/**
+ * The standard file formats to which a {@link ModelMIP} can be exported with a {@link ModelMIPExporter}.
+ */
+public enum MIPFileFormat {
+
+    /**
+     * The CPLEX LP format
+     */
+    LP("lp"),
+    /**
+     * The free MPS format
+     */
+    MPS("mps");
+
+    private final String fileExtension;
+
+    MIPFileFormat(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+}
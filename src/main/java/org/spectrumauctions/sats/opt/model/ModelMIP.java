@@ -1,15 +1,36 @@
 package org.spectrumauctions.sats.opt.model;
 
+import com.google.common.base.Preconditions;
 import edu.harvard.econcs.jopt.solver.IMIP;
+import edu.harvard.econcs.jopt.solver.IMIPResult;
 import edu.harvard.econcs.jopt.solver.ISolution;
+import edu.harvard.econcs.jopt.solver.SolveParam;
 import edu.harvard.econcs.jopt.solver.mip.MIP;
+import edu.harvard.econcs.jopt.solver.mip.PoolSolution;
+import edu.harvard.econcs.jopt.solver.mip.VarType;
 import edu.harvard.econcs.jopt.solver.mip.Variable;
 import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.marketdesignresearch.mechlib.core.Good;
 import org.marketdesignresearch.mechlib.core.bidder.Bidder;
 import org.marketdesignresearch.mechlib.instrumentation.MipInstrumentation;
 import org.marketdesignresearch.mechlib.winnerdetermination.WinnerDetermination;
+import org.spectrumauctions.sats.core.model.GenericGood;
+import org.spectrumauctions.sats.core.model.SATSBidder;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * @author Fabio Isler
@@ -29,11 +50,111 @@ public abstract class ModelMIP extends WinnerDetermination {
 
     private IMIP mip = new MIP();
 
+    /**
+     * The allocation variables per bidder, used to decode pooled solutions (see {@link PooledAllocation}).
+     * Only built when first needed.
+     */
+    private transient Map<SATSBidder, List<AllocationVariable>> allocationVariableIndex;
+
     @Override
     public IMIP getMIP() {
         return mip;
     }
 
+    public int getNumberOfVariables() {
+        return getMIP().getNumVars();
+    }
+
+    public int getNumberOfBinaryVariables() {
+        return (int) getMIP().getVars().values().stream().filter(v -> v.getType() == VarType.BOOLEAN).count();
+    }
+
+    public int getNumberOfConstraints() {
+        return getMIP().getNumConstraints();
+    }
+
+    /**
+     * @return the variables which encode the allocation of goods to bidders,
+     * used to map an exported MIP back to the bidders and goods (see {@link ModelMIPExporter}).
+     */
+    public List<AllocationVariable> getAllocationVariables() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Proposes an allocation as starting solution to the solver, e.g., the allocation found by a
+     * {@link HeuristicWinnerDetermination}. The values of all {@link #getAllocationVariables()} are proposed;
+     * allocations of licenses are counted towards the generic goods they belong to.
+     *
+     * @param allocation an allocation of the goods of this MIP to its bidders
+     */
+    public void setWarmStart(Allocation allocation) {
+        getMIP().clearProposedValues();
+        for (AllocationVariable allocationVariable : getAllocationVariables()) {
+            Bundle bundle = allocation.allocationOf(allocationVariable.getBidder()).getBundle();
+            int quantity = 0;
+            for (BundleEntry entry : bundle.getBundleEntries()) {
+                Good good = allocationVariable.getGood();
+                if (entry.getGood().equals(good)
+                        || (good instanceof GenericGood && ((GenericGood) good).containedGoods().contains(entry.getGood()))) {
+                    quantity += entry.getAmount();
+                }
+            }
+            Variable variable = allocationVariable.getVariable();
+            if (variable.getType() == VarType.BOOLEAN) {
+                getMIP().proposeValue(variable, quantity > 0);
+            } else if (variable.getType() == VarType.INT) {
+                getMIP().proposeValue(variable, quantity);
+            } else {
+                getMIP().proposeValue(variable, (double) quantity);
+            }
+        }
+    }
+
+    /**
+     * Decodes the pooled solutions of a result of solving this MIP (e.g., after setting
+     * {@link SolveParam#SOLUTION_POOL_CAPACITY}), best first and without duplicates.
+     * Unlike {@link WinnerDetermination#getBestAllocations(int, boolean)}, which decodes all solutions, the solutions
+     * are only decoded as far as they are consumed (see {@link PooledAllocation}), so a caller can stop early,
+     * e.g., after the first solution that satisfies some condition. The solutions share the values evaluated for
+     * their bundles.
+     *
+     * @param result the result of solving {@link #getMIP()}
+     * @return the pooled solutions, best first
+     */
+    public Stream<PooledAllocation> streamSolutions(IMIPResult result) {
+        Preconditions.checkState(!getAllocationVariables().isEmpty(),
+                "Decoding solutions requires the allocation variables of the MIP");
+        Queue<PoolSolution> pool = result.getPoolSolutions();
+        if (pool == null) return Stream.empty();
+        Map<SATSBidder, Map<Bundle, BigDecimal>> values = new ConcurrentHashMap<>();
+        return pool.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.comparingDouble(PoolSolution::getObjectiveValue).reversed())
+                .map(solution -> new PooledAllocation(this, solution, values));
+    }
+
+    /**
+     * Evaluates the value of a bidder for a bundle of a pooled solution. Only called on demand, and at most once per
+     * bidder and bundle of the same solution pool: A bidder's bundle often recurs in several pooled solutions, which
+     * share the evaluated value (see {@link PooledAllocation}).
+     */
+    protected BigDecimal evaluate(SATSBidder bidder, Bundle bundle) {
+        return bidder.calculateValue(bundle);
+    }
+
+    synchronized Map<SATSBidder, List<AllocationVariable>> getAllocationVariableIndex() {
+        if (allocationVariableIndex == null) {
+            Map<SATSBidder, List<AllocationVariable>> index = new LinkedHashMap<>();
+            for (AllocationVariable allocationVariable : getAllocationVariables()) {
+                index.computeIfAbsent(allocationVariable.getBidder(), b -> new ArrayList<>()).add(allocationVariable);
+            }
+            allocationVariableIndex = index;
+        }
+        return allocationVariableIndex;
+    }
+
     /**
      * ModelMIPs have to explicitly set variables of interest
      */
@@ -0,0 +1,331 @@
+package org.spectrumauctions.sats.opt.model;
+
+import com.google.common.base.Preconditions;
+import edu.harvard.econcs.jopt.solver.IMIP;
+import edu.harvard.econcs.jopt.solver.mip.CompareType;
+import edu.harvard.econcs.jopt.solver.mip.Constraint;
+import edu.harvard.econcs.jopt.solver.mip.LinearTerm;
+import edu.harvard.econcs.jopt.solver.mip.MIP;
+import edu.harvard.econcs.jopt.solver.mip.VarType;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes the {@link IMIP} of a {@link ModelMIP} to a standard LP or MPS file, such that it can be solved
+ * offline by any external solver, together with a variable mapping file.
+ * <p>
+ * Variable names are made compatible with both file formats (which e.g. forbid brackets or commas), so the names
+ * in the model file may differ from the names in the MIP. The variable mapping file is a tab separated file which
+ * maps each name in the model file to the name in the MIP and, for the allocation variables
+ * (see {@link ModelMIP#getAllocationVariables()}), to the bidder id and the good name.
+ * The {@link ModelMIPSolutionImporter} uses it to turn the solution file of the external solver into an allocation.
+ */
+public class ModelMIPExporter {
+
+    static final String MAPPING_FILE_EXTENSION = "varmap.tsv";
+    static final String MAPPING_FILE_HEADER = "fileName\tmipName\tbidderId\tgood";
+
+    private static final int MAX_LINE_LENGTH = 200;
+    private static final int MAX_NAME_LENGTH = 240;
+
+    private final ModelMIP modelMIP;
+    private final IMIP mip;
+    /**
+     * The variables of the MIP, sorted by name
+     */
+    private final Map<String, Variable> variables;
+    /**
+     * The names of the variables in the exported files, by their names in the MIP
+     */
+    private final Map<String, String> fileNames;
+
+    public ModelMIPExporter(ModelMIP modelMIP) {
+        Preconditions.checkNotNull(modelMIP);
+        this.modelMIP = modelMIP;
+        this.mip = modelMIP.getMIP();
+        Preconditions.checkArgument(mip.getQuadraticObjectiveTerms().isEmpty(), "Quadratic objectives can not be exported");
+        this.variables = new TreeMap<>(mip.getVars());
+        this.fileNames = createFileNames(variables.keySet());
+    }
+
+    /**
+     * Writes the model file name.lp (or name.mps) and the variable mapping file name.varmap.tsv to the directory.
+     *
+     * @return the path of the model file
+     */
+    public Path export(Path directory, String name, MIPFileFormat format) throws IOException {
+        Files.createDirectories(directory);
+        Path modelFile = directory.resolve(name + "." + format.getFileExtension());
+        writeModel(modelFile, format);
+        writeVariableMapping(directory.resolve(name + "." + MAPPING_FILE_EXTENSION));
+        return modelFile;
+    }
+
+    public void writeModel(Path file, MIPFileFormat format) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format == MIPFileFormat.LP) {
+                writeLP(writer);
+            } else {
+                writeMPS(writer);
+            }
+        }
+    }
+
+    public void writeVariableMapping(Path file) throws IOException {
+        Map<String, AllocationVariable> allocationVariables = new HashMap<>();
+        for (AllocationVariable allocationVariable : modelMIP.getAllocationVariables()) {
+            allocationVariables.put(allocationVariable.getVariable().getName(), allocationVariable);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(MAPPING_FILE_HEADER);
+            writer.newLine();
+            for (Map.Entry<String, String> entry : fileNames.entrySet()) {
+                writer.write(entry.getValue());
+                writer.write('\t');
+                writer.write(entry.getKey());
+                AllocationVariable allocationVariable = allocationVariables.get(entry.getKey());
+                if (allocationVariable != null) {
+                    writer.write('\t');
+                    writer.write(String.valueOf(allocationVariable.getBidder().getLongId()));
+                    writer.write('\t');
+                    writer.write(allocationVariable.getGood().getName());
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @return the name of the variable in the exported files
+     */
+    public String getFileName(Variable variable) {
+        return getFileName(variable.getName());
+    }
+
+    private String getFileName(String mipName) {
+        String name = fileNames.get(mipName);
+        Preconditions.checkArgument(name != null, "Variable %s is not part of the MIP", mipName);
+        return name;
+    }
+
+    private void writeLP(Writer writer) throws IOException {
+        writer.write("\\ Generated by SATS from " + modelMIP.getClass().getSimpleName() + "\n");
+        writer.write(mip.isObjectiveMax() ? "Maximize\n" : "Minimize\n");
+        writer.write(" obj:");
+        writeLPTerms(writer, aggregate(mip.getLinearObjectiveTerms()), 5);
+        writer.write("\n");
+        writer.write("Subject To\n");
+        List<Constraint> constraints = mip.getConstraints();
+        for (int i = 0; i < constraints.size(); i++) {
+            Constraint constraint = constraints.get(i);
+            checkLinear(constraint);
+            String prefix = " c" + (i + 1) + ":";
+            writer.write(prefix);
+            Map<String, Double> terms = aggregate(constraint.getLinearTerms());
+            if (terms.isEmpty()) {
+                // A constraint without terms still has to mention a variable
+                terms = Collections.singletonMap(variables.keySet().iterator().next(), 0d);
+            }
+            int length = writeLPTerms(writer, terms, prefix.length());
+            String rhs = " " + lpOperator(constraint.getType()) + " " + format(constraint.getConstant());
+            if (length + rhs.length() > MAX_LINE_LENGTH) writer.write("\n   ");
+            writer.write(rhs);
+            writer.write("\n");
+        }
+        writer.write("Bounds\n");
+        for (Variable variable : variables.values()) {
+            String lower = isInfinite(variable.getLowerBound()) ? "-inf" : format(variable.getLowerBound());
+            String upper = isInfinite(variable.getUpperBound()) ? "+inf" : format(variable.getUpperBound());
+            writer.write(" " + lower + " <= " + getFileName(variable) + " <= " + upper + "\n");
+        }
+        writeLPSection(writer, "Binaries", VarType.BOOLEAN);
+        writeLPSection(writer, "Generals", VarType.INT);
+        writer.write("End\n");
+    }
+
+    private int writeLPTerms(Writer writer, Map<String, Double> terms, int lineLength) throws IOException {
+        for (Map.Entry<String, Double> term : terms.entrySet()) {
+            double coefficient = term.getValue();
+            String text = (coefficient < 0 ? " - " : " + ") + format(Math.abs(coefficient)) + " " + getFileName(term.getKey());
+            if (lineLength + text.length() > MAX_LINE_LENGTH) {
+                writer.write("\n  ");
+                lineLength = 2;
+            }
+            writer.write(text);
+            lineLength += text.length();
+        }
+        return lineLength;
+    }
+
+    private void writeLPSection(Writer writer, String section, VarType type) throws IOException {
+        boolean first = true;
+        for (Variable variable : variables.values()) {
+            if (variable.getType() != type) continue;
+            if (first) {
+                writer.write(section + "\n");
+                first = false;
+            }
+            writer.write(" " + getFileName(variable) + "\n");
+        }
+    }
+
+    private void writeMPS(Writer writer) throws IOException {
+        String name = modelMIP.getClass().getSimpleName();
+        writer.write("NAME " + name + "\n");
+        writer.write("OBJSENSE\n");
+        writer.write(mip.isObjectiveMax() ? "    MAX\n" : "    MIN\n");
+        writer.write("ROWS\n");
+        writer.write(" N obj\n");
+        List<Constraint> constraints = mip.getConstraints();
+        // The coefficients are written column by column
+        Map<String, List<String>> columns = new HashMap<>();
+        for (Map.Entry<String, Double> term : aggregate(mip.getLinearObjectiveTerms()).entrySet()) {
+            columns.computeIfAbsent(term.getKey(), v -> new ArrayList<>()).add("obj " + format(term.getValue()));
+        }
+        for (int i = 0; i < constraints.size(); i++) {
+            Constraint constraint = constraints.get(i);
+            checkLinear(constraint);
+            String row = "c" + (i + 1);
+            writer.write(" " + mpsRowType(constraint.getType()) + " " + row + "\n");
+            for (Map.Entry<String, Double> term : aggregate(constraint.getLinearTerms()).entrySet()) {
+                columns.computeIfAbsent(term.getKey(), v -> new ArrayList<>()).add(row + " " + format(term.getValue()));
+            }
+        }
+        writer.write("COLUMNS\n");
+        boolean integerSection = false;
+        int markers = 0;
+        for (boolean integer : new boolean[]{false, true}) {
+            for (Variable variable : variables.values()) {
+                if ((variable.getType() != VarType.DOUBLE) != integer) continue;
+                if (integer && !integerSection) {
+                    writer.write("    M" + (++markers) + " 'MARKER' 'INTORG'\n");
+                    integerSection = true;
+                }
+                String column = getFileName(variable);
+                List<String> entries = columns.getOrDefault(variable.getName(), Collections.emptyList());
+                if (entries.isEmpty()) {
+                    // Variables which appear nowhere still have to be declared
+                    writer.write("    " + column + " obj 0\n");
+                }
+                for (String coefficient : entries) {
+                    writer.write("    " + column + " " + coefficient + "\n");
+                }
+            }
+        }
+        if (integerSection) {
+            writer.write("    M" + (++markers) + " 'MARKER' 'INTEND'\n");
+        }
+        writer.write("RHS\n");
+        for (int i = 0; i < constraints.size(); i++) {
+            double constant = constraints.get(i).getConstant();
+            if (constant != 0) {
+                writer.write("    RHS c" + (i + 1) + " " + format(constant) + "\n");
+            }
+        }
+        writer.write("BOUNDS\n");
+        for (Variable variable : variables.values()) {
+            String column = getFileName(variable);
+            double lower = variable.getLowerBound();
+            double upper = variable.getUpperBound();
+            if (variable.getType() == VarType.BOOLEAN && lower == 0 && upper == 1) {
+                writer.write(" BV BND " + column + "\n");
+            } else if (isInfinite(lower) && isInfinite(upper)) {
+                writer.write(" FR BND " + column + "\n");
+            } else if (lower == upper) {
+                writer.write(" FX BND " + column + " " + format(lower) + "\n");
+            } else {
+                writer.write(isInfinite(lower) ? " MI BND " + column + "\n" : " LO BND " + column + " " + format(lower) + "\n");
+                writer.write(isInfinite(upper) ? " PL BND " + column + "\n" : " UP BND " + column + " " + format(upper) + "\n");
+            }
+        }
+        writer.write("ENDATA\n");
+    }
+
+    /**
+     * Sums up the coefficients of terms with the same variable, as they must be unique in MPS files.
+     */
+    private static Map<String, Double> aggregate(Iterable<LinearTerm> terms) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (LinearTerm term : terms) {
+            result.merge(term.getVarName(), term.getCoefficient(), Double::sum);
+        }
+        return result;
+    }
+
+    private static void checkLinear(Constraint constraint) {
+        Preconditions.checkArgument(!constraint.hasQuadraticTerms(), "Quadratic constraints can not be exported");
+    }
+
+    private static String lpOperator(CompareType type) {
+        switch (type) {
+            case LEQ:
+                return "<=";
+            case GEQ:
+                return ">=";
+            default:
+                return "=";
+        }
+    }
+
+    private static String mpsRowType(CompareType type) {
+        switch (type) {
+            case LEQ:
+                return "L";
+            case GEQ:
+                return "G";
+            default:
+                return "E";
+        }
+    }
+
+    private static boolean isInfinite(double bound) {
+        return Math.abs(bound) >= MIP.MAX_VALUE;
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * Replaces all characters except letters, digits, underscores and dots by underscores, and makes the names unique.
+     */
+    private static Map<String, String> createFileNames(Collection<String> mipNames) {
+        Map<String, String> result = new LinkedHashMap<>();
+        Set<String> used = new HashSet<>();
+        for (String mipName : mipNames) {
+            String name = mipName.replaceAll("[^A-Za-z0-9_.]", "_");
+            if (name.isEmpty() || !Character.isLetter(name.charAt(0)) || name.charAt(0) == 'e' || name.charAt(0) == 'E') {
+                name = "v_" + name;
+            }
+            if (name.length() > MAX_NAME_LENGTH) {
+                name = name.substring(0, MAX_NAME_LENGTH);
+            }
+            String unique = name;
+            for (int i = 1; !used.add(unique); i++) {
+                unique = name + "_" + i;
+            }
+            result.put(mipName, unique);
+        }
+        return result;
+    }
+
+}
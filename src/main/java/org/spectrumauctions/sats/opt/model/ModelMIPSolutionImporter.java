@@ -0,0 +1,139 @@
+package org.spectrumauctions.sats.opt.model;
+
+import com.google.common.base.Preconditions;
+import edu.harvard.econcs.jopt.solver.IMIP;
+import edu.harvard.econcs.jopt.solver.ISolution;
+import edu.harvard.econcs.jopt.solver.mip.LinearTerm;
+import edu.harvard.econcs.jopt.solver.mip.PoolSolution;
+import edu.harvard.econcs.jopt.solver.mip.VarType;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import org.marketdesignresearch.mechlib.core.Allocation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the solution file of an external solver for a MIP exported with a {@link ModelMIPExporter},
+ * and turns it into an {@link Allocation} of the {@link ModelMIP}.
+ * <p>
+ * The following solution file formats are supported:
+ * <ul>
+ * <li>CPLEX XML solution files, with one {@code <variable name="..." value="..."/>} element per variable</li>
+ * <li>Text files with one {@code name value} line per variable, as written by e.g. Gurobi, SCIP or HiGHS</li>
+ * <li>Text files with one {@code index name value ...} line per variable, as written by e.g. CBC</li>
+ * </ul>
+ * Lines which do not refer to a variable of the mapping file (comments, objective value, status) are ignored.
+ * Variables which are missing in the solution file are assumed to be zero. Values of integer and boolean variables
+ * which are within {@link #INTEGRALITY_TOLERANCE} of an integer are rounded to it.
+ * The {@link ModelMIP} must be built from the same bidders as the one which was exported.
+ */
+public class ModelMIPSolutionImporter {
+
+    public static final double INTEGRALITY_TOLERANCE = 1e-6;
+
+    private static final Pattern XML_NAME = Pattern.compile("\\sname=\"([^\"]*)\"");
+    private static final Pattern XML_VALUE = Pattern.compile("\\svalue=\"([^\"]*)\"");
+
+    private final ModelMIP modelMIP;
+
+    public ModelMIPSolutionImporter(ModelMIP modelMIP) {
+        Preconditions.checkNotNull(modelMIP);
+        this.modelMIP = modelMIP;
+    }
+
+    /**
+     * @return the allocation of the solution, as determined by the {@link ModelMIP}
+     */
+    public Allocation importAllocation(Path solutionFile, Path variableMappingFile) throws IOException {
+        return modelMIP.adaptMIPResult(readSolution(solutionFile, variableMappingFile));
+    }
+
+    /**
+     * @return the solution, with the variable names of the MIP
+     */
+    public ISolution readSolution(Path solutionFile, Path variableMappingFile) throws IOException {
+        IMIP mip = modelMIP.getMIP();
+        Map<String, String> mipNames = readVariableMapping(variableMappingFile);
+        Map<String, Double> values = new HashMap<>();
+        for (String mipName : mip.getVars().keySet()) {
+            values.put(mipName, 0d);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(solutionFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                readValue(line, mipNames, values);
+            }
+        }
+        for (Variable variable : mip.getVars().values()) {
+            double value = values.get(variable.getName());
+            if (variable.getType() != VarType.DOUBLE && Math.abs(value - Math.rint(value)) <= INTEGRALITY_TOLERANCE) {
+                values.put(variable.getName(), Math.rint(value));
+            }
+        }
+        double objectiveValue = 0;
+        for (LinearTerm term : mip.getLinearObjectiveTerms()) {
+            objectiveValue += term.getCoefficient() * values.get(term.getVarName());
+        }
+        return new PoolSolution(objectiveValue, objectiveValue, values);
+    }
+
+    private static void readValue(String line, Map<String, String> mipNames, Map<String, Double> values) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) return;
+        if (trimmed.startsWith("<variable")) {
+            Matcher name = XML_NAME.matcher(trimmed);
+            Matcher value = XML_VALUE.matcher(trimmed);
+            if (name.find() && value.find()) {
+                put(mipNames.get(name.group(1)), value.group(1), values);
+            }
+            return;
+        }
+        if (trimmed.startsWith("**")) {
+            // CBC marks infeasible values
+            trimmed = trimmed.substring(2).trim();
+        }
+        String[] tokens = trimmed.split("\\s+");
+        if (tokens.length >= 2 && mipNames.containsKey(tokens[0])) {
+            put(mipNames.get(tokens[0]), tokens[1], values);
+        } else if (tokens.length >= 3 && mipNames.containsKey(tokens[1]) && tokens[0].matches("\\d+")) {
+            put(mipNames.get(tokens[1]), tokens[2], values);
+        }
+    }
+
+    private static void put(String mipName, String value, Map<String, Double> values) {
+        if (mipName == null) return;
+        try {
+            values.put(mipName, Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value " + value + " of variable " + mipName, e);
+        }
+    }
+
+    /**
+     * @return the names in the MIP, by the names in the exported files
+     */
+    private Map<String, String> readVariableMapping(Path variableMappingFile) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(variableMappingFile, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            Preconditions.checkArgument(ModelMIPExporter.MAPPING_FILE_HEADER.equals(line), "Not a variable mapping file: %s", variableMappingFile);
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] columns = line.split("\t");
+                Preconditions.checkArgument(columns.length >= 2, "Invalid line in variable mapping file: %s", line);
+                Preconditions.checkArgument(modelMIP.getMIP().containsVar(columns[1]),
+                        "Variable %s of the mapping file is not part of the MIP", columns[1]);
+                result.put(columns[0], columns[1]);
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.spectrumauctions.sats.opt.model;
+
+import com.google.common.base.Preconditions;
+import edu.harvard.econcs.jopt.solver.ISolution;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.BidderAllocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.bid.bundle.BundleExactValueBids;
+import org.marketdesignresearch.mechlib.core.bidder.Bidder;
+import org.marketdesignresearch.mechlib.metainfo.MetaInfo;
+import org.spectrumauctions.sats.core.model.GenericGood;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A solution of a {@link ModelMIP}'s solution pool, which is decoded lazily: The bundle of a bidder is only read from
+ * the bidder's allocation variables (see {@link ModelMIP#getAllocationVariables()}) when it is requested, and the
+ * bidder's value for it is only evaluated when requested (see {@link ModelMIP#evaluate(SATSBidder, Bundle)}).
+ * Both are cached; the values are shared with the other solutions of the same pool, as a bidder's bundle often
+ * recurs in several of them.
+ *
+ * @see ModelMIP#streamSolutions(IMIPResult)
+ */
+public final class PooledAllocation {
+
+    private final ModelMIP modelMIP;
+    private final ISolution solution;
+    private final Map<SATSBidder, Bundle> bundles = new HashMap<>();
+    /**
+     * The values of the bidders' bundles, shared by the solutions of a pool
+     */
+    private final Map<SATSBidder, Map<Bundle, BigDecimal>> values;
+
+    PooledAllocation(ModelMIP modelMIP, ISolution solution) {
+        this(modelMIP, solution, new ConcurrentHashMap<>());
+    }
+
+    PooledAllocation(ModelMIP modelMIP, ISolution solution, Map<SATSBidder, Map<Bundle, BigDecimal>> values) {
+        this.modelMIP = modelMIP;
+        this.solution = solution;
+        this.values = values;
+    }
+
+    /**
+     * @return the objective value of this solution, as reported by the solver
+     */
+    public double getObjectiveValue() {
+        return solution.getObjectiveValue();
+    }
+
+    /**
+     * @return the bidders of the MIP, whether they are allocated anything in this solution or not
+     */
+    public Set<SATSBidder> getBidders() {
+        return Collections.unmodifiableSet(modelMIP.getAllocationVariableIndex().keySet());
+    }
+
+    /**
+     * @return the bundle allocated to the bidder in this solution
+     */
+    public synchronized Bundle getBundle(Bidder bidder) {
+        List<AllocationVariable> variables = modelMIP.getAllocationVariableIndex().get(bidder);
+        Preconditions.checkArgument(variables != null, "Bidder %s is not part of this MIP", bidder);
+        return bundles.computeIfAbsent((SATSBidder) bidder, b -> decode(variables));
+    }
+
+    /**
+     * @return the bidder's value for the bundle allocated to it in this solution
+     */
+    public synchronized BigDecimal getValue(Bidder bidder) {
+        Bundle bundle = getBundle(bidder);
+        if (Bundle.EMPTY.equals(bundle)) return BigDecimal.ZERO;
+        SATSBidder satsBidder = (SATSBidder) bidder;
+        return values.computeIfAbsent(satsBidder, b -> new ConcurrentHashMap<>())
+                .computeIfAbsent(bundle, b -> modelMIP.evaluate(satsBidder, b));
+    }
+
+    /**
+     * Decodes all bidders' bundles and evaluates their values.
+     *
+     * @return the allocation of this solution
+     */
+    public Allocation toAllocation() {
+        Map<Bidder, BidderAllocation> allocationMap = new LinkedHashMap<>();
+        for (SATSBidder bidder : getBidders()) {
+            Bundle bundle = getBundle(bidder);
+            if (!Bundle.EMPTY.equals(bundle)) {
+                allocationMap.put(bidder, new BidderAllocation(getValue(bidder), bundle, new LinkedHashSet<>()));
+            }
+        }
+        MetaInfo metaInfo = new MetaInfo();
+        metaInfo.setNumberOfMIPs(1);
+        metaInfo.setMipSolveTime(solution.getSolveTime());
+        return new Allocation(allocationMap, new BundleExactValueBids(), metaInfo);
+    }
+
+    /**
+     * Goods with several allocation variables (e.g., one per synergy level) are allocated if any of them is set.
+     * Quantities are only summed up for generic goods.
+     */
+    private Bundle decode(List<AllocationVariable> variables) {
+        Map<Good, Integer> quantities = new LinkedHashMap<>();
+        for (AllocationVariable variable : variables) {
+            int quantity = (int) Math.round(solution.getValue(variable.getVariable()));
+            if (quantity > 0) {
+                Good good = variable.getGood();
+                quantities.merge(good, quantity, good instanceof GenericGood ? Integer::sum : Math::max);
+            }
+        }
+        if (quantities.isEmpty()) return Bundle.EMPTY;
+        Set<BundleEntry> entries = new LinkedHashSet<>();
+        quantities.forEach((good, quantity) -> entries.add(new BundleEntry(good, good instanceof GenericGood ? quantity : 1)));
+        return new Bundle(entries);
+    }
+
+}
@@ -0,0 +1,192 @@
+package org.spectrumauctions.sats.opt.model.cats;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MinMaxPriorityQueue;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSLicense;
+import org.spectrumauctions.sats.core.model.cats.CATSWorld;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Solves demand queries for a {@link CATSBidder} in closed form, i.e., without a MIP.
+ * <p>
+ * The value of a CATS bundle is additive in the licenses (common value plus private value, and, with the quadratic
+ * pricing option, the squared common value) plus a term which only depends on the size of the bundle.
+ * Hence, among all bundles of a given size, the one with the highest utility consists of the licenses with the highest
+ * marginal utility. After sorting the licenses once by marginal utility (O(n log n)), the best bundle is found by a
+ * single scan over the prefix sums.
+ * <p>
+ * The k best bundles are enumerated with Lawler's partitioning scheme: Every subproblem fixes some licenses to be
+ * contained or not contained in the bundle and is again solved by the prefix scan over the free licenses.
+ */
+public class CATSDemandQuery {
+
+    private static final byte FREE = 0;
+    private static final byte IN = 1;
+    private static final byte OUT = 2;
+
+    /**
+     * The licenses, sorted by decreasing marginal utility
+     */
+    private final List<CATSLicense> licenses;
+    /**
+     * The marginal utility (i.e., additive value minus price) of the license at the same position in {@link #licenses}
+     */
+    private final double[] marginalUtilities;
+    /**
+     * The size dependent part of the value, indexed by the size of the bundle
+     */
+    private final double[] sizeValues;
+
+    public CATSDemandQuery(CATSBidder bidder, Prices prices) {
+        Preconditions.checkNotNull(bidder);
+        Preconditions.checkNotNull(prices);
+        CATSWorld world = bidder.getWorld();
+        List<CATSLicense> worldLicenses = world.getLicenses();
+        int n = worldLicenses.size();
+        double[] unsortedMarginals = new double[n];
+        for (int i = 0; i < n; i++) {
+            CATSLicense license = worldLicenses.get(i);
+            double value = 0;
+            BigDecimal privateValue = bidder.getPrivateValues().get(license.getLongId());
+            if (privateValue != null) {
+                value += license.getCommonValue();
+                value += privateValue.doubleValue();
+                if (world.getUseQuadraticPricingOption()) {
+                    value += Math.pow(license.getCommonValue(), 2);
+                }
+            }
+            unsortedMarginals[i] = value - prices.getPrice(Bundle.of(license)).getAmount().doubleValue();
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> -unsortedMarginals[i]).thenComparingInt(i -> i));
+        this.licenses = new ArrayList<>(n);
+        this.marginalUtilities = new double[n];
+        for (int i = 0; i < n; i++) {
+            licenses.add(worldLicenses.get(order.get(i)));
+            marginalUtilities[i] = unsortedMarginals[order.get(i)];
+        }
+        this.sizeValues = new double[n + 1];
+        if (!world.getUseQuadraticPricingOption()) {
+            for (int size = 1; size <= n; size++) {
+                sizeValues[size] = Math.pow(size, 1 + world.getAdditivity());
+            }
+        }
+    }
+
+    /**
+     * @return the bundle maximizing the bidder's utility (ties are broken in favor of the smaller bundle)
+     */
+    public Bundle getBestBundle() {
+        return toBundle(solve(new byte[licenses.size()]).contained);
+    }
+
+    /**
+     * @return the utility of the best bundle
+     */
+    public double getBestUtility() {
+        return solve(new byte[licenses.size()]).utility;
+    }
+
+    /**
+     * Enumerates the bundles with the highest utility, in decreasing order of utility.
+     *
+     * @param maxNumberOfBundles the maximal number of bundles to return
+     * @return at most maxNumberOfBundles distinct bundles
+     */
+    public List<Bundle> getBestBundles(int maxNumberOfBundles) {
+        Preconditions.checkArgument(maxNumberOfBundles > 0);
+        List<Bundle> result = new ArrayList<>();
+        MinMaxPriorityQueue<Subproblem> queue = MinMaxPriorityQueue
+                .orderedBy(Comparator.comparingDouble((Subproblem s) -> -s.utility).thenComparingLong(s -> s.sequence))
+                .maximumSize(maxNumberOfBundles)
+                .create();
+        long sequence = 0;
+        Subproblem root = solve(new byte[licenses.size()]);
+        root.sequence = sequence++;
+        queue.add(root);
+        while (!queue.isEmpty() && result.size() < maxNumberOfBundles) {
+            Subproblem current = queue.pollFirst();
+            result.add(toBundle(current.contained));
+            // Lawler partitioning: fix the first free licenses to the current solution and flip the next one
+            byte[] fixation = current.fixation.clone();
+            for (int i = 0; i < fixation.length; i++) {
+                if (current.fixation[i] != FREE) continue;
+                byte[] childFixation = fixation.clone();
+                childFixation[i] = current.contained[i] ? OUT : IN;
+                Subproblem child = solve(childFixation);
+                child.sequence = sequence++;
+                queue.add(child);
+                fixation[i] = current.contained[i] ? IN : OUT;
+            }
+        }
+        return result;
+    }
+
+    private Subproblem solve(byte[] fixation) {
+        double fixedUtility = 0;
+        int fixedCount = 0;
+        for (int i = 0; i < fixation.length; i++) {
+            if (fixation[i] == IN) {
+                fixedUtility += marginalUtilities[i];
+                fixedCount++;
+            }
+        }
+        double bestUtility = fixedUtility + sizeValues[fixedCount];
+        int bestNumberOfFree = 0;
+        double prefix = 0;
+        int numberOfFree = 0;
+        for (int i = 0; i < fixation.length; i++) {
+            if (fixation[i] != FREE) continue;
+            prefix += marginalUtilities[i];
+            numberOfFree++;
+            double utility = fixedUtility + prefix + sizeValues[fixedCount + numberOfFree];
+            if (utility > bestUtility) {
+                bestUtility = utility;
+                bestNumberOfFree = numberOfFree;
+            }
+        }
+        boolean[] contained = new boolean[fixation.length];
+        int free = 0;
+        for (int i = 0; i < fixation.length; i++) {
+            if (fixation[i] == IN) {
+                contained[i] = true;
+            } else if (fixation[i] == FREE && free < bestNumberOfFree) {
+                contained[i] = true;
+                free++;
+            }
+        }
+        return new Subproblem(fixation, contained, bestUtility);
+    }
+
+    private Bundle toBundle(boolean[] contained) {
+        List<CATSLicense> bundle = new ArrayList<>();
+        for (int i = 0; i < contained.length; i++) {
+            if (contained[i]) bundle.add(licenses.get(i));
+        }
+        return bundle.isEmpty() ? Bundle.EMPTY : Bundle.of(bundle);
+    }
+
+    private static final class Subproblem {
+        private final byte[] fixation;
+        private final boolean[] contained;
+        private final double utility;
+        private long sequence;
+
+        private Subproblem(byte[] fixation, boolean[] contained, double utility) {
+            this.fixation = fixation;
+            this.contained = contained;
+            this.utility = utility;
+        }
+    }
+
+}
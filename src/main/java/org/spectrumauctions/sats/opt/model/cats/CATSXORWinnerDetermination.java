@@ -0,0 +1,488 @@
+package org.spectrumauctions.sats.opt.model.cats;
+
+import com.google.common.base.Preconditions;
+import edu.harvard.econcs.jopt.solver.ISolution;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.BidderAllocation;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.bid.bundle.BundleExactValueBid;
+import org.marketdesignresearch.mechlib.core.bid.bundle.BundleExactValueBids;
+import org.marketdesignresearch.mechlib.core.bid.bundle.BundleExactValuePair;
+import org.marketdesignresearch.mechlib.core.bidder.Bidder;
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
+import org.marketdesignresearch.mechlib.metainfo.MetaInfo;
+import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSLicense;
+import org.spectrumauctions.sats.opt.model.ModelMIP;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A solver-free winner determination for the XOR bids of CATS bidders, e.g., as generated by {@link CatsXOR}.
+ * The bid sets are the same as the ones written by the CatsExporter, so they can be solved without an external solver.
+ * <p>
+ * Every bid is represented by the bitset of its licenses, and every bid by a bitset of the bids it conflicts with
+ * (the bids of the same bidder and the bids sharing a license). Bids with a non-positive value and bids which are
+ * dominated by a bid of the same bidder (a subset of the licenses for at least the same value) are removed upfront.
+ * <p>
+ * The search branches on the remaining bids by decreasing value: Either the bid is accepted (and all conflicting bids
+ * are removed from the candidates) or it is rejected. A node is pruned if its value plus an upper bound on the
+ * remaining candidates cannot improve the incumbent by more than the relative gap (see {@link #setEpsilon(double)}).
+ * The upper bound is the minimum of two LP-free relaxations:
+ * <ul>
+ * <li>Every bidder wins its most valuable candidate bid.</li>
+ * <li>Every license is fractionally sold at the highest value per license among the candidate bids containing it.</li>
+ * </ul>
+ * The first levels of the search tree are explored in parallel on a {@link ForkJoinPool}. If a time limit is set
+ * (see {@link #setTimeLimit(double)}), the best allocation found until then is returned.
+ * With a gap of zero and without a time limit, the outcome does not depend on the number of threads.
+ */
+public class CATSXORWinnerDetermination extends ModelMIP {
+
+    /**
+     * Subtrees below this depth are explored sequentially by the task that reached them
+     */
+    private static final int PARALLEL_DEPTH = 12;
+    /**
+     * Absolute tolerance on the upper bounds, which are sums of doubles in a different order than the node values
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    private final Map<CATSBidder, List<BundleValue>> bids;
+
+    private final List<CATSLicense> licenses;
+    private final Map<Good, Integer> licenseIndices;
+    /**
+     * The non-dominated bids with a positive value, by decreasing value
+     */
+    private final List<Bid> bidList;
+    private final int numberOfBidders;
+    /**
+     * conflicts[b] is the set of bids which cannot be accepted together with bid b (including b itself)
+     */
+    private final long[][] conflicts;
+
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+    private double epsilon = 1e-6;
+
+    private Incumbent incumbent;
+    private long deadline;
+    private volatile boolean timeLimitReached;
+
+    /**
+     * Collects the bids of every value function via {@link CatsXOR#getCATSXORBids()}.
+     */
+    public CATSXORWinnerDetermination(Collection<CatsXOR> valueFunctions) {
+        this(collectBids(valueFunctions));
+    }
+
+    public CATSXORWinnerDetermination(Map<CATSBidder, ? extends Collection<BundleValue>> bids) {
+        Preconditions.checkArgument(!bids.isEmpty());
+        this.bids = new LinkedHashMap<>();
+        bids.forEach((bidder, values) -> this.bids.put(bidder, new ArrayList<>(values)));
+        this.licenses = bids.keySet().iterator().next().getWorld().getLicenses();
+        this.licenseIndices = new HashMap<>();
+        for (int j = 0; j < licenses.size(); j++) {
+            licenseIndices.put(licenses.get(j), j);
+        }
+
+        List<CATSBidder> bidders = new ArrayList<>(this.bids.keySet());
+        bidders.sort(Comparator.comparingLong(CATSBidder::getLongId));
+        this.numberOfBidders = bidders.size();
+        List<Bid> candidates = new ArrayList<>();
+        for (int i = 0; i < bidders.size(); i++) {
+            CATSBidder bidder = bidders.get(i);
+            List<Bid> bidderBids = new ArrayList<>();
+            for (BundleValue bundleValue : this.bids.get(bidder)) {
+                if (bundleValue.getAmount().signum() > 0 && !bundleValue.getBundle().getBundleEntries().isEmpty()) {
+                    bidderBids.add(new Bid(bidder, i, bundleValue, toBitset(bundleValue)));
+                }
+            }
+            bidderBids.sort(Bid.ORDER);
+            for (int b = 0; b < bidderBids.size(); b++) {
+                if (!isDominated(bidderBids.get(b), bidderBids.subList(0, b))) {
+                    candidates.add(bidderBids.get(b));
+                }
+            }
+        }
+        candidates.sort(Bid.ORDER);
+        this.bidList = candidates;
+
+        int n = bidList.size();
+        this.conflicts = new long[n][words(n)];
+        for (int a = 0; a < n; a++) {
+            for (int b = a; b < n; b++) {
+                if (bidList.get(a).bidderIndex == bidList.get(b).bidderIndex || intersect(bidList.get(a).licenses, bidList.get(b).licenses)) {
+                    set(conflicts[a], b);
+                    set(conflicts[b], a);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the parallelism of the search. Defaults to the number of available processors.
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        Preconditions.checkArgument(numberOfThreads > 0);
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Sets the relative gap: Subtrees which cannot improve the incumbent by more than this fraction are pruned.
+     * Defaults to 1e-6, like for the MIPs.
+     */
+    @Override
+    public void setEpsilon(double epsilon) {
+        Preconditions.checkArgument(epsilon >= 0);
+        super.setEpsilon(epsilon);
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * @return whether the last search was stopped by the time limit, in which case the allocation may be suboptimal
+     */
+    public boolean isTimeLimitReached() {
+        return timeLimitReached;
+    }
+
+    @Override
+    protected Allocation solveWinnerDetermination() {
+        long start = System.currentTimeMillis();
+        deadline = getTimeLimit() > 0 ? start + (long) (getTimeLimit() * 1000) : Long.MAX_VALUE;
+        timeLimitReached = false;
+        incumbent = greedy();
+
+        long[] all = new long[words(bidList.size())];
+        for (int b = 0; b < bidList.size(); b++) {
+            set(all, b);
+        }
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            pool.invoke(new SearchTask(all, 0, null, 0));
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<Bidder, BidderAllocation> allocationMap = new LinkedHashMap<>();
+        for (int b : incumbent.bids) {
+            Bid bid = bidList.get(b);
+            allocationMap.put(bid.bidder, new BidderAllocation(bid.bundleValue.getAmount(), bid.bundleValue.getBundle(),
+                    Collections.singleton(bid.toPair())));
+        }
+        Map<Bidder, BundleExactValueBid> bidMap = new LinkedHashMap<>();
+        this.bids.forEach((bidder, values) -> {
+            LinkedHashSet<BundleExactValuePair> pairs = new LinkedHashSet<>();
+            values.forEach(value -> pairs.add(value.toBid(UnaryOperator.identity())));
+            bidMap.put(bidder, new BundleExactValueBid(pairs));
+        });
+
+        MetaInfo metaInfo = new MetaInfo();
+        metaInfo.setMipSolveTime(System.currentTimeMillis() - start);
+        return new Allocation(allocationMap, new BundleExactValueBids(bidMap), metaInfo);
+    }
+
+    /**
+     * Only k = 1 is supported, as bids are discarded as soon as they cannot improve the incumbent.
+     */
+    @Override
+    public List<Allocation> getBestAllocations(int k, boolean allowNegative) {
+        if (k == 1) return Collections.singletonList(getAllocation());
+        throw new UnsupportedOperationException("The CATS XOR winner determination only finds a single optimal allocation");
+    }
+
+    @Override
+    public List<Allocation> getIntermediateSolutions() {
+        throw new UnsupportedOperationException("The CATS XOR winner determination does not keep intermediate solutions");
+    }
+
+    @Override
+    protected Allocation adaptMIPResult(ISolution mipResult) {
+        throw new UnsupportedOperationException("The CATS XOR winner determination does not solve a MIP");
+    }
+
+    @Override
+    public ModelMIP getMIPWithout(Bidder bidder) {
+        Preconditions.checkArgument(bids.containsKey(bidder));
+        Map<CATSBidder, List<BundleValue>> reduced = new LinkedHashMap<>(bids);
+        reduced.remove(bidder);
+        return withSameParameters(new CATSXORWinnerDetermination(reduced));
+    }
+
+    @Override
+    public ModelMIP copyOf() {
+        return withSameParameters(new CATSXORWinnerDetermination(bids));
+    }
+
+    @Override
+    protected Collection<Collection<Variable>> getVariablesOfInterest() {
+        return Collections.emptyList();
+    }
+
+    private CATSXORWinnerDetermination withSameParameters(CATSXORWinnerDetermination result) {
+        result.setNumberOfThreads(numberOfThreads);
+        result.setEpsilon(epsilon);
+        result.setTimeLimit(getTimeLimit());
+        return result;
+    }
+
+    // ------- Search ------- //
+
+    /**
+     * Accepts the bids in order of decreasing value as long as they do not conflict, as initial incumbent.
+     */
+    private Incumbent greedy() {
+        long[] candidates = new long[words(bidList.size())];
+        for (int b = 0; b < bidList.size(); b++) {
+            set(candidates, b);
+        }
+        List<Integer> accepted = new ArrayList<>();
+        double value = 0;
+        for (int b = nextSetBit(candidates, 0); b >= 0; b = nextSetBit(candidates, b + 1)) {
+            accepted.add(b);
+            value += bidList.get(b).value;
+            andNot(candidates, conflicts[b]);
+        }
+        return new Incumbent(value, accepted.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * An admissible upper bound on the value of the candidate bids
+     */
+    private double upperBound(long[] candidates) {
+        double[] bestPerBidder = new double[numberOfBidders];
+        double[] bestPerLicense = new double[licenses.size()];
+        for (int b = nextSetBit(candidates, 0); b >= 0; b = nextSetBit(candidates, b + 1)) {
+            Bid bid = bidList.get(b);
+            bestPerBidder[bid.bidderIndex] = Math.max(bestPerBidder[bid.bidderIndex], bid.value);
+            for (int j : bid.licenseIndices) {
+                bestPerLicense[j] = Math.max(bestPerLicense[j], bid.density);
+            }
+        }
+        double perBidder = Arrays.stream(bestPerBidder).sum();
+        double perLicense = Arrays.stream(bestPerLicense).sum();
+        return Math.min(perBidder, perLicense) + TOLERANCE;
+    }
+
+    private boolean canBePruned(double bound) {
+        double threshold = incumbentValue();
+        return epsilon > 0 ? bound <= threshold * (1 + epsilon) : bound < threshold;
+    }
+
+    private synchronized double incumbentValue() {
+        return incumbent.value;
+    }
+
+    private synchronized void offer(double value, Accepted accepted) {
+        int[] acceptedBids = Accepted.toArray(accepted);
+        if (value > incumbent.value || (value == incumbent.value && Arrays.compare(acceptedBids, incumbent.bids) < 0)) {
+            incumbent = new Incumbent(value, acceptedBids);
+        }
+    }
+
+    private final class SearchTask extends RecursiveAction {
+        private final long[] candidates;
+        private final double value;
+        private final Accepted accepted;
+        private final int depth;
+
+        private SearchTask(long[] candidates, double value, Accepted accepted, int depth) {
+            this.candidates = candidates;
+            this.value = value;
+            this.accepted = accepted;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            search(candidates, value, accepted, depth);
+        }
+
+        private void search(long[] candidates, double value, Accepted accepted, int depth) {
+            if (System.currentTimeMillis() > deadline) {
+                timeLimitReached = true;
+                return;
+            }
+            int b = nextSetBit(candidates, 0);
+            if (b < 0) {
+                offer(value, accepted);
+                return;
+            }
+            if (canBePruned(value + upperBound(candidates))) return;
+
+            Bid bid = bidList.get(b);
+            long[] withBid = candidates.clone();
+            andNot(withBid, conflicts[b]);
+            long[] withoutBid = candidates.clone();
+            clear(withoutBid, b);
+            Accepted withBidAccepted = new Accepted(b, accepted);
+            if (depth < PARALLEL_DEPTH) {
+                invokeAll(new SearchTask(withBid, value + bid.value, withBidAccepted, depth + 1),
+                        new SearchTask(withoutBid, value, accepted, depth + 1));
+            } else {
+                search(withBid, value + bid.value, withBidAccepted, depth + 1);
+                search(withoutBid, value, accepted, depth + 1);
+            }
+        }
+    }
+
+    // ------- Bitsets ------- //
+
+    private long[] toBitset(BundleValue bundleValue) {
+        long[] bitset = new long[words(licenses.size())];
+        for (Good good : bundleValue.getBundle().getSingleQuantityGoods()) {
+            Integer index = licenseIndices.get(good);
+            Preconditions.checkArgument(index != null, "Good %s is not a license of this CATS world", good);
+            set(bitset, index);
+        }
+        return bitset;
+    }
+
+    private static boolean isDominated(Bid bid, List<Bid> betterBids) {
+        for (Bid other : betterBids) {
+            if (other.value >= bid.value && isSubset(other.licenses, bid.licenses)) return true;
+        }
+        return false;
+    }
+
+    private static int words(int bits) {
+        return (bits + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static void set(long[] bitset, int index) {
+        bitset[index / Long.SIZE] |= 1L << index;
+    }
+
+    private static void clear(long[] bitset, int index) {
+        bitset[index / Long.SIZE] &= ~(1L << index);
+    }
+
+    private static void andNot(long[] bitset, long[] other) {
+        for (int w = 0; w < bitset.length; w++) {
+            bitset[w] &= ~other[w];
+        }
+    }
+
+    private static boolean intersect(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & b[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean isSubset(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & ~b[w]) != 0) return false;
+        }
+        return true;
+    }
+
+    private static int nextSetBit(long[] bitset, int from) {
+        int w = from / Long.SIZE;
+        if (w >= bitset.length) return -1;
+        long word = bitset[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return w * Long.SIZE + Long.numberOfTrailingZeros(word);
+            if (++w == bitset.length) return -1;
+            word = bitset[w];
+        }
+    }
+
+    private static int compareBitsets(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if (a[w] != b[w]) return Long.compareUnsigned(Long.reverse(a[w]), Long.reverse(b[w]));
+        }
+        return 0;
+    }
+
+    private static Map<CATSBidder, List<BundleValue>> collectBids(Collection<CatsXOR> valueFunctions) {
+        Map<CATSBidder, List<BundleValue>> result = new LinkedHashMap<>();
+        for (CatsXOR valueFunction : valueFunctions) {
+            result.put(valueFunction.getBidder(), new ArrayList<>(valueFunction.getCATSXORBids()));
+        }
+        return result;
+    }
+
+    private static final class Bid {
+        /**
+         * By decreasing value, then by bidder and licenses, which makes the search order independent of the
+         * iteration order of the bid sets
+         */
+        private static final Comparator<Bid> ORDER = Comparator
+                .comparingDouble((Bid bid) -> -bid.value)
+                .thenComparingInt(bid -> bid.bidderIndex)
+                .thenComparing((a, b) -> compareBitsets(a.licenses, b.licenses));
+
+        private final CATSBidder bidder;
+        private final int bidderIndex;
+        private final BundleValue bundleValue;
+        private final long[] licenses;
+        private final int[] licenseIndices;
+        private final double value;
+        private final double density;
+
+        private Bid(CATSBidder bidder, int bidderIndex, BundleValue bundleValue, long[] licenses) {
+            this.bidder = bidder;
+            this.bidderIndex = bidderIndex;
+            this.bundleValue = bundleValue;
+            this.licenses = licenses;
+            List<Integer> indices = new ArrayList<>();
+            for (int j = nextSetBit(licenses, 0); j >= 0; j = nextSetBit(licenses, j + 1)) {
+                indices.add(j);
+            }
+            this.licenseIndices = indices.stream().mapToInt(Integer::intValue).toArray();
+            this.value = bundleValue.getAmount().doubleValue();
+            this.density = value / licenseIndices.length;
+        }
+
+        private BundleExactValuePair toPair() {
+            return bundleValue.toBid(UnaryOperator.identity());
+        }
+    }
+
+    /**
+     * The accepted bids of a node, as a linked list shared with its ancestors
+     */
+    private static final class Accepted {
+        private final int bid;
+        private final Accepted previous;
+
+        private Accepted(int bid, Accepted previous) {
+            this.bid = bid;
+            this.previous = previous;
+        }
+
+        private static int[] toArray(Accepted accepted) {
+            List<Integer> result = new ArrayList<>();
+            for (Accepted a = accepted; a != null; a = a.previous) {
+                result.add(a.bid);
+            }
+            return result.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+    }
+
+    private static final class Incumbent {
+        private final double value;
+        private final int[] bids;
+
+        private Incumbent(double value, int[] bids) {
+            this.value = value;
+            this.bids = bids;
+        }
+    }
+
+}
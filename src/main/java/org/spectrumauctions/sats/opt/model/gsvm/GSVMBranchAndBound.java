@@ -0,0 +1,456 @@
+package org.spectrumauctions.sats.opt.model.gsvm;
+
+import com.google.common.base.Preconditions;
+import edu.harvard.econcs.jopt.solver.ISolution;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.BidderAllocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.allocationlimits.AllocationLimit;
+import org.marketdesignresearch.mechlib.core.allocationlimits.BundleSizeAllocationLimit;
+import org.marketdesignresearch.mechlib.core.allocationlimits.BundleSizeAndGoodAllocationLimit;
+import org.marketdesignresearch.mechlib.core.allocationlimits.GoodAllocationLimit;
+import org.marketdesignresearch.mechlib.core.bid.bundle.BundleExactValueBids;
+import org.marketdesignresearch.mechlib.core.bidder.Bidder;
+import org.marketdesignresearch.mechlib.metainfo.MetaInfo;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMLicense;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMWorld;
+import org.spectrumauctions.sats.opt.model.ModelMIP;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * A solver-free winner determination for GSVM, which can be used wherever a {@link GSVMStandardMIP} is used
+ * (e.g., in the GSVMDomain or for VCG payments), but does not require CPLEX.
+ * <p>
+ * The bidders are processed one after another. For every bidder, all bundles of the licenses which are still
+ * available and which it is allowed to win are enumerated (as bitmasks over the licenses), and the remaining licenses
+ * are recursively allocated to the remaining bidders. The optimal value of such a subproblem only depends on the
+ * bidder and the set of available licenses which are of interest to the remaining bidders, so it is memoized.
+ * The last bidder is solved in closed form: It wins its most valuable available licenses (up to its bundle size limit).
+ * <p>
+ * The bundles of the first bidder (the one with the most licenses of interest, i.e., the national bidder) are the
+ * branches of the search. They are explored in parallel on a {@link ForkJoinPool} sharing the memoization table,
+ * and pruned with an admissible upper bound derived from the GSVM value function: the minimum of the sum of the
+ * stand-alone optima of the remaining bidders and the sum over the available licenses of the highest base value
+ * multiplied by the highest synergy markup the respective bidder can still reach.
+ * The outcome is deterministic and does not depend on the number of threads.
+ * <p>
+ * The synergy factors are taken from the bidders (see {@link GSVMBidder#getSynergyFactor(int)}). A bidder is only
+ * allocated licenses which count towards its synergy, which in the legacy GSVM are all licenses.
+ */
+public class GSVMBranchAndBound extends ModelMIP {
+
+    private final GSVMWorld world;
+    private final List<GSVMBidder> population;
+    private final List<GSVMLicense> licenses;
+
+    /**
+     * The bidders in the order in which they are processed, the last one being solved in closed form
+     */
+    private final List<GSVMBidder> order;
+    /**
+     * values[i][j] is the base value of the i-th bidder (in processing order) for the j-th license
+     */
+    private final double[][] values;
+    /**
+     * synergyFactors[i][s] is the synergy factor of the i-th bidder for a bundle of s licenses
+     */
+    private final double[][] synergyFactors;
+    /**
+     * allowed[i] is the set of licenses the i-th bidder may win
+     */
+    private final long[] allowed;
+    /**
+     * sizeLimits[i] is the maximal number of licenses the i-th bidder may win
+     */
+    private final int[] sizeLimits;
+    /**
+     * interestedFrom[i] is the set of licenses any of the bidders i, i+1, ... may win
+     */
+    private final long[] interestedFrom;
+    /**
+     * byValue[i] contains the allowed licenses of the i-th bidder, by decreasing value
+     */
+    private final int[][] byValue;
+
+    private final List<Map<Long, Node>> memo;
+
+    /**
+     * The value of the best complete allocation found so far (as double bits), shared by all root tasks
+     */
+    private final AtomicLong incumbent = new AtomicLong(Double.doubleToLongBits(0));
+
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
+    public GSVMBranchAndBound(List<GSVMBidder> population) {
+        this(population.iterator().next().getWorld(), population);
+    }
+
+    public GSVMBranchAndBound(GSVMWorld world, List<GSVMBidder> population) {
+        Preconditions.checkNotNull(world);
+        Preconditions.checkArgument(!population.isEmpty());
+        Preconditions.checkArgument(world.getLicenses().size() < Long.SIZE,
+                "The branch and bound winner determination supports at most 63 licenses");
+        this.world = world;
+        this.population = population;
+        this.licenses = world.getLicenses();
+
+        int n = licenses.size();
+        Map<GSVMBidder, Long> allowedMap = new LinkedHashMap<>();
+        Map<GSVMBidder, Integer> sizeLimitMap = new LinkedHashMap<>();
+        for (GSVMBidder bidder : population) {
+            long mask = 0;
+            for (int j = 0; j < n; j++) {
+                if (bidder.countsTowardsSynergy(licenses.get(j))) {
+                    mask |= 1L << j;
+                }
+            }
+            int sizeLimit = n;
+            AllocationLimit limit = bidder.getAllocationLimit();
+            if (limit instanceof BundleSizeAllocationLimit) {
+                sizeLimit = ((BundleSizeAllocationLimit) limit).getBundleSizeLimit();
+            } else if (limit instanceof GoodAllocationLimit) {
+                mask &= maskOf(((GoodAllocationLimit) limit).getLimitedGoods());
+            } else if (limit instanceof BundleSizeAndGoodAllocationLimit) {
+                sizeLimit = ((BundleSizeAndGoodAllocationLimit) limit).getBundleSizeLimit();
+                mask &= maskOf(((BundleSizeAndGoodAllocationLimit) limit).getLimitedGoods());
+            } else if (limit != AllocationLimit.NO) {
+                throw new IllegalArgumentException("Allocation limit " + limit + " is not supported by the branch and bound winner determination");
+            }
+            allowedMap.put(bidder, mask);
+            sizeLimitMap.put(bidder, sizeLimit);
+        }
+
+        // The bidder with the most licenses of interest is branched on first (in parallel). The others follow in a
+        // chain of maximal overlap with their predecessor, which keeps the memoization keys of later bidders small.
+        List<GSVMBidder> remaining = new ArrayList<>(population);
+        remaining.sort(Comparator.comparingInt((GSVMBidder b) -> -Long.bitCount(allowedMap.get(b))).thenComparingLong(GSVMBidder::getLongId));
+        this.order = new ArrayList<>();
+        order.add(remaining.remove(0));
+        while (!remaining.isEmpty()) {
+            long previous = allowedMap.get(order.get(order.size() - 1));
+            GSVMBidder next = remaining.get(0);
+            for (GSVMBidder candidate : remaining) {
+                if (Long.bitCount(allowedMap.get(candidate) & previous) > Long.bitCount(allowedMap.get(next) & previous)) {
+                    next = candidate;
+                }
+            }
+            remaining.remove(next);
+            order.add(next);
+        }
+
+        int m = order.size();
+        this.values = new double[m][n];
+        this.synergyFactors = new double[m][n + 1];
+        this.allowed = new long[m];
+        this.sizeLimits = new int[m];
+        this.byValue = new int[m][];
+        this.interestedFrom = new long[m + 1];
+        this.memo = new ArrayList<>();
+        for (int i = 0; i < m; i++) {
+            GSVMBidder bidder = order.get(i);
+            for (int j = 0; j < n; j++) {
+                values[i][j] = bidder.getBaseValues().getOrDefault(licenses.get(j).getLongId(), BigDecimal.ZERO).doubleValue();
+            }
+            for (int size = 0; size <= n; size++) {
+                synergyFactors[i][size] = bidder.getSynergyFactor(size);
+            }
+            allowed[i] = allowedMap.get(bidder);
+            sizeLimits[i] = sizeLimitMap.get(bidder);
+            final double[] bidderValues = values[i];
+            byValue[i] = indicesOf(allowed[i]).stream()
+                    .sorted(Comparator.comparingDouble((Integer j) -> -bidderValues[j]).thenComparingInt(j -> j))
+                    .mapToInt(Integer::intValue).toArray();
+            memo.add(new ConcurrentHashMap<>());
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            interestedFrom[i] = interestedFrom[i + 1] | allowed[i];
+        }
+    }
+
+    /**
+     * Sets the parallelism of the search. Defaults to the number of available processors.
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        Preconditions.checkArgument(numberOfThreads > 0);
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    @Override
+    protected Allocation solveWinnerDetermination() {
+        long start = System.currentTimeMillis();
+        long all = interestedFrom[0];
+        Node root;
+        if (order.size() == 1) {
+            root = closedForm(0, all);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+            try {
+                root = pool.invoke(new RootTask(all));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        Map<Bidder, BidderAllocation> allocationMap = new LinkedHashMap<>();
+        Map<GSVMBidder, Long> bundles = new LinkedHashMap<>();
+        long available = all;
+        Node node = root;
+        for (int i = 0; i < order.size(); i++) {
+            bundles.put(order.get(i), node.bundle);
+            available &= ~node.bundle;
+            if (i + 1 < order.size()) {
+                node = best(i + 1, available);
+            }
+        }
+        for (GSVMBidder bidder : population) {
+            Bundle bundle = toBundle(bundles.get(bidder));
+            BigDecimal value = bidder.calculateValue(bundle);
+            if (!Bundle.EMPTY.equals(bundle) && value.signum() > 0) {
+                allocationMap.put(bidder, new BidderAllocation(value, bundle, new LinkedHashSet<>()));
+            }
+        }
+
+        MetaInfo metaInfo = new MetaInfo();
+        metaInfo.setMipSolveTime(System.currentTimeMillis() - start);
+        return new Allocation(allocationMap, new BundleExactValueBids(), metaInfo);
+    }
+
+    /**
+     * Only k = 1 is supported: The search prunes every branch which cannot beat the incumbent, so it does not find
+     * the second best allocation.
+     */
+    @Override
+    public List<Allocation> getBestAllocations(int k, boolean allowNegative) {
+        if (k == 1) return Collections.singletonList(getAllocation());
+        throw new UnsupportedOperationException("The branch and bound winner determination only finds a single optimal allocation");
+    }
+
+    @Override
+    public List<Allocation> getIntermediateSolutions() {
+        throw new UnsupportedOperationException("The branch and bound winner determination does not keep intermediate solutions");
+    }
+
+    @Override
+    protected Allocation adaptMIPResult(ISolution mipResult) {
+        throw new UnsupportedOperationException("The branch and bound winner determination does not solve a MIP");
+    }
+
+    @Override
+    public ModelMIP getMIPWithout(Bidder bidder) {
+        GSVMBidder gsvmBidder = (GSVMBidder) bidder;
+        Preconditions.checkArgument(population.contains(gsvmBidder));
+        GSVMBranchAndBound result = new GSVMBranchAndBound(world, population.stream().filter(b -> !b.equals(gsvmBidder)).collect(Collectors.toList()));
+        result.setNumberOfThreads(numberOfThreads);
+        return result;
+    }
+
+    @Override
+    public ModelMIP copyOf() {
+        GSVMBranchAndBound result = new GSVMBranchAndBound(world, population);
+        result.setNumberOfThreads(numberOfThreads);
+        return result;
+    }
+
+    @Override
+    protected Collection<Collection<Variable>> getVariablesOfInterest() {
+        return Collections.emptyList();
+    }
+
+    // ------- Search ------- //
+
+    /**
+     * @return the optimal allocation of the available licenses to the bidders i, i+1, ..., of which only the bundle
+     * of bidder i is stored
+     */
+    private Node best(int i, long available) {
+        if (i == order.size() - 1) return closedForm(i, available);
+        long key = available & interestedFrom[i];
+        Node cached = memo.get(i).get(key);
+        if (cached != null) return cached;
+
+        Node result = new Node(0, 0);
+        boolean found = false;
+        long candidates = key & allowed[i];
+        long bundle = candidates;
+        while (true) {
+            if (Long.bitCount(bundle) <= sizeLimits[i]) {
+                double value = value(i, bundle);
+                long rest = key & ~bundle;
+                double total = value + best(i + 1, rest).value;
+                if (!found || total > result.value) {
+                    result = new Node(total, bundle);
+                    found = true;
+                }
+            }
+            if (bundle == 0) break;
+            bundle = (bundle - 1) & candidates;
+        }
+        memo.get(i).putIfAbsent(key, result);
+        return result;
+    }
+
+    /**
+     * The last bidder wins its most valuable available licenses. As all base values are non-negative and the
+     * synergy factor does not decrease with the size of the bundle, adding a license never decreases its value.
+     */
+    private Node closedForm(int i, long available) {
+        long bundle = 0;
+        int count = 0;
+        for (int j : byValue[i]) {
+            if (count >= sizeLimits[i]) break;
+            if ((available & (1L << j)) != 0) {
+                bundle |= 1L << j;
+                count++;
+            }
+        }
+        return new Node(value(i, bundle), bundle);
+    }
+
+    private double value(int i, long bundle) {
+        if (bundle == 0) return 0;
+        double sum = 0;
+        for (long rest = bundle; rest != 0; rest &= rest - 1) {
+            sum += values[i][Long.numberOfTrailingZeros(rest)];
+        }
+        // As in GSVMBidder: all licenses of the bundle count towards the synergy, as they are allowed
+        return sum + sum * synergyFactors[i][Long.bitCount(bundle)];
+    }
+
+    /**
+     * An admissible upper bound on the value the bidders i, i+1, ... can achieve with the available licenses.
+     */
+    private double upperBound(int i, long available) {
+        int m = order.size();
+        if (i >= m) return 0;
+        double standAlone = 0;
+        double[] maxMarkup = new double[m];
+        for (int k = i; k < m; k++) {
+            Node node = closedForm(k, available);
+            standAlone += node.value;
+            maxMarkup[k] = 1 + synergyFactors[k][Long.bitCount(node.bundle)];
+        }
+        double perLicense = 0;
+        for (long rest = available & interestedFrom[i]; rest != 0; rest &= rest - 1) {
+            int j = Long.numberOfTrailingZeros(rest);
+            double best = 0;
+            for (int k = i; k < m; k++) {
+                if ((allowed[k] & (1L << j)) != 0) {
+                    best = Math.max(best, values[k][j] * maxMarkup[k]);
+                }
+            }
+            perLicense += best;
+        }
+        return Math.min(standAlone, perLicense);
+    }
+
+    private long maskOf(List<? extends Good> goods) {
+        long mask = 0;
+        for (int j = 0; j < licenses.size(); j++) {
+            if (goods.contains(licenses.get(j))) mask |= 1L << j;
+        }
+        return mask;
+    }
+
+    private static List<Integer> indicesOf(long mask) {
+        List<Integer> result = new ArrayList<>();
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            result.add(Long.numberOfTrailingZeros(rest));
+        }
+        return result;
+    }
+
+    private Bundle toBundle(long mask) {
+        List<GSVMLicense> bundle = new ArrayList<>();
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            bundle.add(licenses.get(Long.numberOfTrailingZeros(rest)));
+        }
+        return bundle.isEmpty() ? Bundle.EMPTY : Bundle.of(bundle);
+    }
+
+    private static final class Node {
+        private final double value;
+        private final long bundle;
+
+        private Node(double value, long bundle) {
+            this.value = value;
+            this.bundle = bundle;
+        }
+    }
+
+    /**
+     * Explores the bundles of the first bidder in parallel. Every bundle is a separate task, so idle workers steal
+     * the remaining bundles from busy ones.
+     */
+    private final class RootTask extends RecursiveTask<Node> {
+        private final long available;
+
+        private RootTask(long available) {
+            this.available = available;
+        }
+
+        @Override
+        protected Node compute() {
+            List<BundleTask> tasks = new ArrayList<>();
+            long candidates = available & allowed[0];
+            long bundle = candidates;
+            while (true) {
+                if (Long.bitCount(bundle) <= sizeLimits[0]) {
+                    tasks.add(new BundleTask(bundle, available & ~bundle));
+                }
+                if (bundle == 0) break;
+                bundle = (bundle - 1) & candidates;
+            }
+            invokeAll(tasks);
+            // Same tie-breaking as in the sequential search: the first bundle in enumeration order wins
+            Node result = null;
+            for (BundleTask task : tasks) {
+                Node node = task.join();
+                if (result == null || node.value > result.value) {
+                    result = node;
+                }
+            }
+            return result;
+        }
+    }
+
+    private final class BundleTask extends RecursiveTask<Node> {
+        private final long bundle;
+        private final long rest;
+
+        private BundleTask(long bundle, long rest) {
+            this.bundle = bundle;
+            this.rest = rest;
+        }
+
+        @Override
+        protected Node compute() {
+            double value = value(0, bundle);
+            // Only prune bundles which are strictly worse, such that ties are resolved deterministically
+            if (value + upperBound(1, rest) < Double.longBitsToDouble(incumbent.get())) {
+                return new Node(Double.NEGATIVE_INFINITY, bundle);
+            }
+            Node node = new Node(value + best(1, rest).value, bundle);
+            incumbent.accumulateAndGet(Double.doubleToLongBits(node.value),
+                    (a, b) -> Double.longBitsToDouble(a) >= Double.longBitsToDouble(b) ? a : b);
+            return node;
+        }
+    }
+
+}
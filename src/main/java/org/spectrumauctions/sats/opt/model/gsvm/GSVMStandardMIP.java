@@ -2,7 +2,9 @@ package org.spectrumauctions.sats.opt.model.gsvm;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -22,6 +24,7 @@ import org.marketdesignresearch.mechlib.metainfo.MetaInfo;
 import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
 import org.spectrumauctions.sats.core.model.gsvm.GSVMLicense;
 import org.spectrumauctions.sats.core.model.gsvm.GSVMWorld;
+import org.spectrumauctions.sats.opt.model.AllocationVariable;
 import org.spectrumauctions.sats.opt.model.ModelMIP;
 
 import com.google.common.base.Preconditions;
@@ -34,12 +37,19 @@ import edu.harvard.econcs.jopt.solver.mip.Variable;
 
 public class GSVMStandardMIP extends ModelMIP {
 
-    private Map<GSVMBidder, Map<GSVMLicense, Map<Integer, Variable>>> gMap;
-	private Map<GSVMBidder, Map<GSVMLicense, Double>> valueMap;
-	private Map<GSVMBidder, Integer> tauHatMap;
+	/**
+	 * gVariables[i][j][tau] belongs to the i-th bidder of the population and the j-th license of the world.
+	 * It is null if the bidder cannot be assigned the license.
+	 */
+	private Variable[][][] gVariables;
+	private double[][] values;
+	private int[] tauHat;
+	private Map<Long, Integer> bidderIndices;
+	private Map<Long, Integer> licenseIndices;
 	private Collection<Collection<Variable>> variableSetsOfInterest = new LinkedHashSet<>();
 
 	private List<GSVMBidder> population;
+	private List<GSVMLicense> licenses;
 	private GSVMWorld world;
 
 	private boolean allowAssigningLicensesWithZeroBasevalue;
@@ -50,10 +60,9 @@ public class GSVMStandardMIP extends ModelMIP {
 
 	public GSVMStandardMIP(GSVMWorld world, List<GSVMBidder> population) {
 		this.allowAssigningLicensesWithZeroBasevalue = world.isLegacyGSVM();
-		this.population = population;
+		this.population = new ArrayList<>(population);
 		this.world = world;
-		tauHatMap = new LinkedHashMap<>();
-		valueMap = new LinkedHashMap<>();
+		this.licenses = world.getLicenses();
 		this.getMIP().setObjectiveMax(true);
 		initValues();
 		initVariables();
@@ -77,13 +86,14 @@ public class GSVMStandardMIP extends ModelMIP {
 
 		Map<Bidder, BidderAllocation> allocationMap = new LinkedHashMap<>();
 
-		for (GSVMBidder bidder : population) {
+		for (int i = 0; i < population.size(); i++) {
+			GSVMBidder bidder = population.get(i);
             Set<GSVMLicense> licenseSet = new LinkedHashSet<>();
-            for (GSVMLicense license : world.getLicenses()) {
-                if (allowAssigningLicensesWithZeroBasevalue || valueMap.get(bidder).get(license) > 0) {
-                    for (int tau = 0; tau < tauHatMap.get(bidder); tau++) {
-                        if (solution.getValue(gMap.get(bidder).get(license).get(tau)) == 1) {
-                            licenseSet.add(license);
+            for (int j = 0; j < licenses.size(); j++) {
+                if (gVariables[i][j] != null) {
+                    for (Variable variable : gVariables[i][j]) {
+                        if (solution.getValue(variable) == 1) {
+                            licenseSet.add(licenses.get(j));
                         }
                     }
                 }
@@ -102,16 +112,30 @@ public class GSVMStandardMIP extends ModelMIP {
 	}
 
 	public Map<Integer, Variable> getXVariables(GSVMBidder bidder, GSVMLicense license) {
-		for (GSVMBidder b : population) {
-			if (b.equals(bidder)) {
-				for (GSVMLicense l : world.getLicenses()) {
-					if (l.equals(license) && gMap.get(b).containsKey(l)) {
-						return gMap.get(b).get(l);
-					}
+		Map<Integer, Variable> result = new LinkedHashMap<>();
+		Integer i = bidderIndices.get(bidder.getLongId());
+		Integer j = licenseIndices.get(license.getLongId());
+		if (i == null || j == null || gVariables[i][j] == null) return result;
+		if (population.get(i) != bidder && !population.get(i).equals(bidder)) return result;
+		if (!licenses.get(j).equals(license)) return result;
+		for (int tau = 0; tau < gVariables[i][j].length; tau++) {
+			result.put(tau, gVariables[i][j][tau]);
+		}
+		return result;
+	}
+
+	@Override
+	public List<AllocationVariable> getAllocationVariables() {
+		List<AllocationVariable> result = new ArrayList<>();
+		for (int i = 0; i < population.size(); i++) {
+			for (int j = 0; j < licenses.size(); j++) {
+				if (gVariables[i][j] == null) continue;
+				for (Variable variable : gVariables[i][j]) {
+					result.add(new AllocationVariable(variable, population.get(i), licenses.get(j)));
 				}
 			}
 		}
-		return new LinkedHashMap<>();
+		return result;
 	}
 
 	@Override
@@ -127,11 +151,11 @@ public class GSVMStandardMIP extends ModelMIP {
 	private void build() {
 
         // build objective term
-        for (GSVMBidder bidder : population) {
-	        for (GSVMLicense license : world.getLicenses()) {
-                if (allowAssigningLicensesWithZeroBasevalue || valueMap.get(bidder).get(license) > 0) {
-                    for (int tau = 0; tau < tauHatMap.get(bidder); tau++) {
-                        this.getMIP().addObjectiveTerm(calculateComplementarityMarkup(tau + 1) * valueMap.get(bidder).get(license), gMap.get(bidder).get(license).get(tau));
+        for (int i = 0; i < population.size(); i++) {
+	        for (int j = 0; j < licenses.size(); j++) {
+                if (gVariables[i][j] != null) {
+                    for (int tau = 0; tau < tauHat[i]; tau++) {
+                        this.getMIP().addObjectiveTerm(calculateComplementarityMarkup(tau + 1) * values[i][j], gVariables[i][j][tau]);
                     }
                 }
             }
@@ -139,12 +163,12 @@ public class GSVMStandardMIP extends ModelMIP {
 
 
 		// build Supply/Eval Constraint (1)
-		for (GSVMLicense license : world.getLicenses()) {
-			Constraint constraint = new Constraint(CompareType.LEQ, 1, "SupplyConstraint license=" + license.getLongId());
-			for (GSVMBidder bidder : population) {
-				if (allowAssigningLicensesWithZeroBasevalue || valueMap.get(bidder).get(license) > 0) {
-					for (int tau = 0; tau < tauHatMap.get(bidder); tau++) {
-						constraint.addTerm(1, gMap.get(bidder).get(license).get(tau));
+		for (int j = 0; j < licenses.size(); j++) {
+			Constraint constraint = new Constraint(CompareType.LEQ, 1, "SupplyConstraint license=" + licenses.get(j).getLongId());
+			for (int i = 0; i < population.size(); i++) {
+				if (gVariables[i][j] != null) {
+					for (int tau = 0; tau < tauHat[i]; tau++) {
+						constraint.addTerm(1, gVariables[i][j][tau]);
 					}
 				}
 			}
@@ -152,22 +176,22 @@ public class GSVMStandardMIP extends ModelMIP {
 		}
 
 		// build Tau Constraint (2)
-		for (GSVMLicense j : world.getLicenses()) {
-			for (GSVMBidder bidder : population) {
+		for (int j = 0; j < licenses.size(); j++) {
+			for (int i = 0; i < population.size(); i++) {
 				Constraint constraint = new Constraint(CompareType.GEQ, 0);
 				// build left part: Number of items agent i is allocated
-				for (GSVMLicense k : world.getLicenses()) {
-					if (allowAssigningLicensesWithZeroBasevalue || valueMap.get(bidder).get(k) > 0) {
-						for (int tau = 0; tau < tauHatMap.get(bidder); tau++) {
-							constraint.addTerm(1, gMap.get(bidder).get(k).get(tau));
+				for (int k = 0; k < licenses.size(); k++) {
+					if (gVariables[i][k] != null) {
+						for (int tau = 0; tau < tauHat[i]; tau++) {
+							constraint.addTerm(1, gVariables[i][k][tau]);
 						}
 					}
 				}
 				// build right part: Activate tau that matches the number of
 				// allocated items
-				for (int tau = 0; tau < tauHatMap.get(bidder); tau++) {
-					if (allowAssigningLicensesWithZeroBasevalue || valueMap.get(bidder).get(j) > 0) {
-						constraint.addTerm(-(tau + 1), gMap.get(bidder).get(j).get(tau));
+				for (int tau = 0; tau < tauHat[i]; tau++) {
+					if (gVariables[i][j] != null) {
+						constraint.addTerm(-(tau + 1), gVariables[i][j][tau]);
 					}
 				}
 				this.getMIP().add(constraint);
@@ -175,27 +199,39 @@ public class GSVMStandardMIP extends ModelMIP {
 		}
 		
 		// add allocation limits
-		for(GSVMBidder bidder : this.population) {
-			Map<Good, List<Variable>> bidderVariables = gMap.get(bidder).entrySet().stream().collect(Collectors.toMap(e->e.getKey(), e-> new ArrayList<>(e.getValue().values()), (e1, e2) -> e1, LinkedHashMap::new));
-			for(AllocationLimitConstraint alc : bidder.getAllocationLimit().getConstraints()) {
+		for (int i = 0; i < population.size(); i++) {
+			Map<Good, List<Variable>> bidderVariables = new LinkedHashMap<>();
+			for (int j = 0; j < licenses.size(); j++) {
+				if (gVariables[i][j] != null) {
+					bidderVariables.put(licenses.get(j), Arrays.asList(gVariables[i][j]));
+				}
+			}
+			for(AllocationLimitConstraint alc : population.get(i).getAllocationLimit().getConstraints()) {
 				this.getMIP().add(alc.createCPLEXConstraintWithMultiVarsPerGood(bidderVariables));
 			}
 		}
 	}
 	
 	private void initValues() {
-
-	    for (GSVMBidder bidder : population) {
-	        valueMap.put(bidder, new LinkedHashMap<>());
+		bidderIndices = new HashMap<>();
+		licenseIndices = new HashMap<>();
+		for (int j = 0; j < licenses.size(); j++) {
+			licenseIndices.put(licenses.get(j).getLongId(), j);
+		}
+		values = new double[population.size()][licenses.size()];
+		tauHat = new int[population.size()];
+	    for (int i = 0; i < population.size(); i++) {
+	    	GSVMBidder bidder = population.get(i);
+	    	bidderIndices.put(bidder.getLongId(), i);
             int tauCounter = 0;
-            for (GSVMLicense license : world.getLicenses()) {
-                BigDecimal val = bidder.getBaseValues().getOrDefault(license.getLongId(), BigDecimal.ZERO);
+            for (int j = 0; j < licenses.size(); j++) {
+                BigDecimal val = bidder.getBaseValues().getOrDefault(licenses.get(j).getLongId(), BigDecimal.ZERO);
                 if (allowAssigningLicensesWithZeroBasevalue || val.doubleValue() > 0) {
                     tauCounter++;
                 }
-                valueMap.get(bidder).put(license, val.doubleValue());
+                values[i][j] = val.doubleValue();
             }
-            tauHatMap.put(bidder, tauCounter);
+            tauHat[i] = tauCounter;
         }
 	}
 
@@ -210,17 +246,18 @@ public class GSVMStandardMIP extends ModelMIP {
 	}
 
 	private void initVariables() {
-		gMap = new LinkedHashMap<>();
-		for (GSVMBidder bidder : population) {
-		    gMap.put(bidder, new LinkedHashMap<>());
-			for (GSVMLicense license : world.getLicenses()) {
-				if (allowAssigningLicensesWithZeroBasevalue || valueMap.get(bidder).get(license) > 0) {
+		gVariables = new Variable[population.size()][licenses.size()][];
+		for (int i = 0; i < population.size(); i++) {
+			GSVMBidder bidder = population.get(i);
+			for (int j = 0; j < licenses.size(); j++) {
+				if (allowAssigningLicensesWithZeroBasevalue || values[i][j] > 0) {
+					GSVMLicense license = licenses.get(j);
 					Collection<Variable> xVariables = new LinkedHashSet<>();
-					gMap.get(bidder).put(license, new LinkedHashMap<>());
-					for (int tau = 0; tau < tauHatMap.get(bidder); tau++) {
+					gVariables[i][j] = new Variable[tauHat[i]];
+					for (int tau = 0; tau < tauHat[i]; tau++) {
 					    Variable var = new Variable("g_i[" + (int) bidder.getLongId() + "]j[" + (int) license.getLongId() + "]t[" + tau + "]", VarType.BOOLEAN, 0, 1);
 						getMIP().add(var);
-						gMap.get(bidder).get(license).put(tau, var);
+						gVariables[i][j][tau] = var;
 						xVariables.add(var);
 					}
 					variableSetsOfInterest.add(xVariables);
@@ -0,0 +1,157 @@
+package org.spectrumauctions.sats.opt.model.lsvm;
+
+import com.google.common.base.Preconditions;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMGrid;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMLicense;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Solves demand queries for a regional {@link LSVMBidder} in the non-legacy LSVM by enumerating all subsets of
+ * its proximity, without a MIP.
+ * <p>
+ * In the non-legacy LSVM, licenses outside of the proximity have no value for a bidder, so only the at most
+ * 2^|proximity| subsets of the proximity have to be considered (2^11 for the default regional bidders).
+ * The subsets are visited in Gray code order, such that the price of the next subset is obtained by adding or
+ * subtracting the price of a single license. The value of a subset is computed on bitmasks: The maximally connected
+ * subpackages are grown from adjacency masks of the proximity licenses.
+ * The best bundles are kept in a heap bounded by the requested number of bundles.
+ */
+public class LSVMDemandQuery {
+
+    /**
+     * The largest proximity for which the enumeration is used (2^20 subsets)
+     */
+    public static final int MAX_PROXIMITY_SIZE = 20;
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingDouble((Entry e) -> -e.utility)
+            .thenComparingInt(e -> Integer.bitCount(e.mask))
+            .thenComparingInt(e -> e.mask);
+
+    private final LSVMBidder bidder;
+    private final List<LSVMLicense> licenses;
+    private final double[] itemValues;
+    private final double[] prices;
+    /**
+     * adjacency[i] has bit j set iff the i-th and the j-th proximity license are neighbors
+     */
+    private final int[] adjacency;
+
+    public LSVMDemandQuery(LSVMBidder bidder, Prices prices) {
+        Preconditions.checkNotNull(bidder);
+        Preconditions.checkNotNull(prices);
+        Preconditions.checkArgument(!bidder.getWorld().isLegacyLSVM(),
+                "The enumeration demand query is only valid for the non-legacy LSVM");
+        Preconditions.checkArgument(bidder.getProximity().size() <= MAX_PROXIMITY_SIZE,
+                "The proximity of the bidder is too large for the enumeration demand query");
+        this.bidder = bidder;
+        this.licenses = new ArrayList<>(bidder.getProximity());
+        int n = licenses.size();
+        this.itemValues = new double[n];
+        this.prices = new double[n];
+        this.adjacency = new int[n];
+        LSVMGrid grid = bidder.getWorld().getGrid();
+        for (int i = 0; i < n; i++) {
+            LSVMLicense license = licenses.get(i);
+            itemValues[i] = bidder.getBaseValues().get(license.getLongId()).doubleValue();
+            this.prices[i] = prices.getPrice(Bundle.of(license)).getAmount().doubleValue();
+            for (int j = 0; j < n; j++) {
+                if (grid.isNeighbor(license, licenses.get(j))) {
+                    adjacency[i] |= 1 << j;
+                }
+            }
+        }
+    }
+
+    /**
+     * Enumerates the bundles with the highest utility, in decreasing order of utility.
+     *
+     * @param maxNumberOfBundles the maximal number of bundles to return
+     * @return at most maxNumberOfBundles distinct bundles, all of which are subsets of the bidder's proximity
+     */
+    public List<Bundle> getBestBundles(int maxNumberOfBundles) {
+        Preconditions.checkArgument(maxNumberOfBundles > 0);
+        // The head of the heap is the worst of the currently best bundles
+        PriorityQueue<Entry> heap = new PriorityQueue<>(BEST_FIRST.reversed());
+        int n = licenses.size();
+        int mask = 0;
+        double price = 0;
+        for (int i = 0; i < (1 << n); i++) {
+            if (i > 0) {
+                int flipped = Integer.numberOfTrailingZeros(i);
+                mask ^= 1 << flipped;
+                price += (mask & (1 << flipped)) != 0 ? prices[flipped] : -prices[flipped];
+            }
+            Entry entry = new Entry(mask, value(mask) - price);
+            if (heap.size() < maxNumberOfBundles) {
+                heap.add(entry);
+            } else if (BEST_FIRST.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Entry> best = new ArrayList<>(heap);
+        best.sort(BEST_FIRST);
+        List<Bundle> result = new ArrayList<>();
+        for (Entry entry : best) {
+            result.add(toBundle(entry.mask));
+        }
+        return result;
+    }
+
+    /**
+     * @return the bundle maximizing the bidder's utility
+     */
+    public Bundle getBestBundle() {
+        return getBestBundles(1).get(0);
+    }
+
+    private double value(int mask) {
+        double value = 0;
+        int remaining = mask;
+        while (remaining != 0) {
+            int component = Integer.lowestOneBit(remaining);
+            int grown = component;
+            do {
+                component = grown;
+                for (int rest = component; rest != 0; rest &= rest - 1) {
+                    grown |= adjacency[Integer.numberOfTrailingZeros(rest)] & mask;
+                }
+            } while (grown != component);
+            double sum = 0;
+            for (int rest = component; rest != 0; rest &= rest - 1) {
+                sum += itemValues[Integer.numberOfTrailingZeros(rest)];
+            }
+            value += bidder.calculateFactor(Integer.bitCount(component)) * sum;
+            remaining &= ~component;
+        }
+        return value;
+    }
+
+    private Bundle toBundle(int mask) {
+        if (mask == 0) return Bundle.EMPTY;
+        List<LSVMLicense> bundle = new ArrayList<>();
+        for (int rest = mask; rest != 0; rest &= rest - 1) {
+            bundle.add(licenses.get(Integer.numberOfTrailingZeros(rest)));
+        }
+        return Bundle.of(bundle);
+    }
+
+    private static final class Entry {
+        private final int mask;
+        private final double utility;
+
+        private Entry(int mask, double utility) {
+            this.mask = mask;
+            this.utility = utility;
+        }
+    }
+
+}
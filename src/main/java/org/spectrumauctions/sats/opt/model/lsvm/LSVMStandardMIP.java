@@ -25,6 +25,7 @@ import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
 import org.spectrumauctions.sats.core.model.lsvm.LSVMGrid;
 import org.spectrumauctions.sats.core.model.lsvm.LSVMLicense;
 import org.spectrumauctions.sats.core.model.lsvm.LSVMWorld;
+import org.spectrumauctions.sats.opt.model.AllocationVariable;
 import org.spectrumauctions.sats.opt.model.ModelMIP;
 
 import java.math.BigDecimal;
@@ -34,58 +35,119 @@ import java.util.stream.Collectors;
 /**
  * This class implements a mip finding the efficient allocation in an instance
  * of the Local-Synergy Value Model
+ * <p>
+ * In the non-legacy LSVM, a compact formulation is used by default: Bidders only value the licenses in their
+ * proximity, so variables are only created for these licenses, for component sizes up to the size of the proximity,
+ * and for the path lengths of the minimal paths within the proximity. The per-edge supply constraints are dropped,
+ * as they are implied by the license supply constraints. The full formulation can still be selected with
+ * {@link #LSVMStandardMIP(LSVMWorld, List, boolean)}.
  *
  * @author Nicolas Küchler
  */
 public class LSVMStandardMIP extends ModelMIP {
 
-	private Map<LSVMBidder, Map<LSVMLicense, Double>> valueMap;
+	/**
+	 * values[i][j] is the base value of the i-th bidder of the population for the j-th license of the world
+	 */
+	private double[][] values;
 
 	private List<LSVMBidder> population;
 
 	private LSVMWorld world;
 
-	private Map<LSVMBidder, Map<LSVMLicense, Map<Integer, Variable>>> aVariables;
+	private List<LSVMLicense> licenses;
+	private Map<Long, Integer> bidderIndices;
+	private Map<Long, Integer> licenseIndices;
+	/**
+	 * neighbours.get(j) are the neighbours of the j-th license of the world
+	 */
+	private List<Set<LSVMLicense>> neighbours;
+
+	/**
+	 * aVariables[i][j][tau] belongs to the i-th bidder of the population and the j-th license of the world.
+	 * It is null if no variables are created for this license.
+	 */
+	private Variable[][][] aVariables;
 	private Map<LSVMBidder, Map<Edge, Map<Integer, Variable>>> eVariables;
 
 	private Collection<Collection<Variable>> variableSetsOfInterest = new HashSet<>();
 
 	private Map<Edge, Set<Integer>> validPathLengths = new HashMap<>();
 
+	private final boolean compact;
+	/**
+	 * The licenses for which variables are created, per bidder
+	 */
+	private Map<LSVMBidder, List<LSVMLicense>> licensesOf;
+	/**
+	 * The edges (with their valid path lengths) for which variables are created, per bidder
+	 */
+	private Map<LSVMBidder, Map<Edge, Set<Integer>>> edgesOf;
+
+	private final long buildTime;
+
 	public LSVMStandardMIP(List<LSVMBidder> population) {
 		this(population.iterator().next().getWorld(), population);
 	}
 
 	public LSVMStandardMIP(LSVMWorld world, List<LSVMBidder> population) {
+		this(world, population, !world.isLegacyLSVM());
+	}
+
+	/**
+	 * @param compact whether to use the compact formulation, which is only valid in the non-legacy LSVM
+	 */
+	public LSVMStandardMIP(LSVMWorld world, List<LSVMBidder> population, boolean compact) {
+		Preconditions.checkArgument(!compact || !world.isLegacyLSVM(),
+				"In the legacy LSVM, licenses outside of the proximity can connect components. Use the full formulation.");
+		long start = System.currentTimeMillis();
 		this.world = world;
 		this.population = population;
+		this.compact = compact;
+		this.licenses = world.getLicenses();
 
 		// init MIP
 		getMIP().setObjectiveMax(true);
 		getMIP().setSolveParam(SolveParam.TIME_LIMIT, 3600.0);
 
+		initIndices();
 		initBaseValues();
+		initLicenses();
 		initA();
 		initEdge();
 		initE();
 
 		buildObjectiveTerm();
 		buildSupplyEvalConstraints();
-		buildEdgeSupplyConstraints();
+		if (!compact) {
+			buildEdgeSupplyConstraints();
+		}
 		buildNeighbourConstraints();
 		buildEdgeConstraints();
 		buildTauConstraints();
 		buildAllocationLimits();
-		if(!this.world.isLegacyLSVM()) {
+		if(!compact && !this.world.isLegacyLSVM()) {
 			buildLicenceRestrictions();
 		}
+		this.buildTime = System.currentTimeMillis() - start;
+	}
+
+	public boolean isCompact() {
+		return compact;
+	}
+
+	/**
+	 * @return the time it took to build the MIP, in milliseconds
+	 */
+	public long getBuildTime() {
+		return buildTime;
 	}
 
 	@Override
 	public ModelMIP getMIPWithout(Bidder bidder) {
 		LSVMBidder lsvmBidder = (LSVMBidder) bidder;
 		Preconditions.checkArgument(population.contains(lsvmBidder));
-		return new LSVMStandardMIP(population.stream().filter(b -> !b.equals(lsvmBidder)).collect(Collectors.toList()));
+		return new LSVMStandardMIP(world, population.stream().filter(b -> !b.equals(lsvmBidder)).collect(Collectors.toList()), compact);
 	}
 
 	@Override
@@ -93,12 +155,14 @@ public class LSVMStandardMIP extends ModelMIP {
 
 		Map<Bidder, BidderAllocation> allocationMap = new HashMap<>();
 
-		for (LSVMBidder bidder : population) {
+		for (int i = 0; i < population.size(); i++) {
+			LSVMBidder bidder = population.get(i);
 			Set<LSVMLicense> licenseSet = new HashSet<>();
-            for (LSVMLicense license : world.getLicenses()) {
-                for (int tau = 0; tau < world.getLicenses().size(); tau++) {
-                    if (solution.getValue(aVariables.get(bidder).get(license).get(tau)) > 0) {
-                        licenseSet.add(license);
+            for (int j = 0; j < licenses.size(); j++) {
+                if (aVariables[i][j] == null) continue;
+                for (Variable variable : aVariables[i][j]) {
+                    if (solution.getValue(variable) > 0) {
+                        licenseSet.add(licenses.get(j));
                     }
                 }
             }
@@ -116,21 +180,39 @@ public class LSVMStandardMIP extends ModelMIP {
 	}
 
     public Map<Integer, Variable> getXVariables(LSVMBidder bidder, LSVMLicense license) {
-        for (LSVMBidder b : population) {
-            if (b.equals(bidder)) {
-                for (LSVMLicense l : world.getLicenses()) {
-                    if (l.equals(license)) {
-                        return aVariables.get(b).get(l);
-                    }
+        Map<Integer, Variable> result = new HashMap<>();
+        Integer i = bidderIndices.get(bidder.getLongId());
+        Integer j = licenseIndices.get(license.getLongId());
+        if (i == null || j == null || aVariables[i][j] == null) return result;
+        if (population.get(i) != bidder && !population.get(i).equals(bidder)) return result;
+        if (!licenses.get(j).equals(license)) return result;
+        for (int tau = 0; tau < aVariables[i][j].length; tau++) {
+            result.put(tau, aVariables[i][j][tau]);
+        }
+        return result;
+    }
+
+    @Override
+    public List<AllocationVariable> getAllocationVariables() {
+        List<AllocationVariable> result = new ArrayList<>();
+        for (int i = 0; i < population.size(); i++) {
+            for (int j = 0; j < licenses.size(); j++) {
+                if (aVariables[i][j] == null) continue;
+                for (Variable variable : aVariables[i][j]) {
+                    result.add(new AllocationVariable(variable, population.get(i), licenses.get(j)));
                 }
             }
         }
-        return new HashMap<>();
+        return result;
+    }
+
+    private Variable[] aVariables(int bidderIndex, LSVMLicense license) {
+        return aVariables[bidderIndex][licenseIndices.get(license.getLongId())];
     }
 
 	@Override
 	public ModelMIP copyOf() {
-		return new LSVMStandardMIP(population);
+		return new LSVMStandardMIP(world, population, compact);
 	}
 
 	@Override
@@ -145,25 +227,30 @@ public class LSVMStandardMIP extends ModelMIP {
 
 
 	private void buildObjectiveTerm() {
-		for (LSVMBidder bidder : population) {
-            for (LSVMLicense license : world.getLicenses()) {
-                for (int tau = 0; tau < world.getLicenses().size(); tau++) {
-                    double value = calculateComplementarityMarkup(tau + 1, bidder) * valueMap.get(bidder).get(license);
-                    getMIP().addObjectiveTerm(value, aVariables.get(bidder).get(license).get(tau));
+		for (int i = 0; i < population.size(); i++) {
+			LSVMBidder bidder = population.get(i);
+            for (int j = 0; j < licenses.size(); j++) {
+                if (aVariables[i][j] == null) continue;
+                for (int tau = 0; tau < aVariables[i][j].length; tau++) {
+                    double value = calculateComplementarityMarkup(tau + 1, bidder) * values[i][j];
+                    getMIP().addObjectiveTerm(value, aVariables[i][j][tau]);
                 }
             }
 		}
 	}
 
 	private void buildSupplyEvalConstraints() {
-		for (LSVMLicense license : world.getLicenses()) {
+		for (int j = 0; j < licenses.size(); j++) {
 			Constraint constraint = new Constraint(CompareType.LEQ, 1);
-			for (LSVMBidder bidder : population) {
-                for (int tau = 0; tau < world.getLicenses().size(); tau++) {
-                    constraint.addTerm(1, aVariables.get(bidder).get(license).get(tau));
+			for (int i = 0; i < population.size(); i++) {
+				if (aVariables[i][j] == null) continue;
+                for (Variable variable : aVariables[i][j]) {
+                    constraint.addTerm(1, variable);
                 }
 			}
-			getMIP().add(constraint);
+			if (constraint.hasLinearTerms()) {
+				getMIP().add(constraint);
+			}
 		}
 	}
 
@@ -183,17 +270,18 @@ public class LSVMStandardMIP extends ModelMIP {
 
 	private void buildNeighbourConstraints() {
 		for (LSVMBidder bidder : population) {
-            for (Map.Entry<Edge, Set<Integer>> entry : validPathLengths.entrySet()) {
+            Map<Edge, Set<Integer>> edges = edgesOf.get(bidder);
+            for (Map.Entry<Edge, Set<Integer>> entry : edges.entrySet()) {
                 Edge edge = entry.getKey();
-                for (int c = 1; c < world.getLicenses().size(); c++) { // only for c > 1
+                for (int c = 1; c < licensesOf.get(bidder).size(); c++) { // only for c > 1
                     if (entry.getValue().contains(c + 1)) {
                         Constraint constraint = new Constraint(CompareType.GEQ, 0);
                         constraint.addTerm(-1, eVariables.get(bidder).get(edge).get(c));
+                        LSVMLicense y = gMax(edge);
                         for (LSVMLicense x : n(gMin(edge))) {
-                            LSVMLicense y = gMax(edge);
                             if (!x.equals(y)) {
                                 Edge e = fInv(x, y);
-                                if (validPathLengths.get(e).contains(c)) {
+                                if (edges.containsKey(e) && edges.get(e).contains(c)) {
                                     constraint.addTerm(1, eVariables.get(bidder).get(e).get(c - 1));
                                 }
                             }
@@ -206,18 +294,19 @@ public class LSVMStandardMIP extends ModelMIP {
 	}
 
 	private void buildEdgeConstraints() {
-		for (LSVMBidder bidder : population) {
-            for (Map.Entry<Edge, Set<Integer>> entry : validPathLengths.entrySet()) {
+		for (int i = 0; i < population.size(); i++) {
+			LSVMBidder bidder = population.get(i);
+            for (Map.Entry<Edge, Set<Integer>> entry : edgesOf.get(bidder).entrySet()) {
                 Edge edge = entry.getKey();
                 Constraint constraint = new Constraint(CompareType.GEQ, 0);
-                for (int c = 0; c < world.getLicenses().size(); c++) {
+                for (int c = 0; c < licensesOf.get(bidder).size(); c++) {
                     if (entry.getValue().contains(c + 1)) {
                         constraint.addTerm(-2, eVariables.get(bidder).get(edge).get(c));
                     }
                 }
                 for (LSVMLicense license : f(edge)) {
-                    for (int tau = 0; tau < world.getLicenses().size(); tau++) {
-                        constraint.addTerm(1, aVariables.get(bidder).get(license).get(tau));
+                    for (Variable variable : aVariables(i, license)) {
+                        constraint.addTerm(1, variable);
                     }
                 }
                 getMIP().add(constraint);
@@ -226,18 +315,23 @@ public class LSVMStandardMIP extends ModelMIP {
 	}
 
 	private void buildTauConstraints() {
-		for (LSVMBidder bidder : population) {
-            for (LSVMLicense license : world.getLicenses()) {
+		for (int i = 0; i < population.size(); i++) {
+			LSVMBidder bidder = population.get(i);
+            List<LSVMLicense> licenses = licensesOf.get(bidder);
+            Map<Edge, Set<Integer>> edges = edgesOf.get(bidder);
+            for (LSVMLicense license : licenses) {
                 Constraint constraint = new Constraint(CompareType.LEQ, 1);
-                for (int tau = 0; tau < world.getLicenses().size(); tau++) {
-                    constraint.addTerm(tau + 1, aVariables.get(bidder).get(license).get(tau));
+                Variable[] variables = aVariables(i, license);
+                for (int tau = 0; tau < variables.length; tau++) {
+                    constraint.addTerm(tau + 1, variables[tau]);
                 }
 
-                for (LSVMLicense other : world.getLicenses()) {
+                for (LSVMLicense other : licenses) {
                     if (!other.equals(license)) {
-                        for (int c = 0; c < world.getLicenses().size(); c++) {
-                            Edge edge = fInv(other, license);
-                            if (validPathLengths.get(edge).contains(c + 1)) {
+                        Edge edge = fInv(other, license);
+                        if (!edges.containsKey(edge)) continue;
+                        for (int c = 0; c < licenses.size(); c++) {
+                            if (edges.get(edge).contains(c + 1)) {
                                 constraint.addTerm(-1, eVariables.get(bidder).get(edge).get(c));
                             }
                         }
@@ -249,48 +343,82 @@ public class LSVMStandardMIP extends ModelMIP {
 	}
 	
 	private void buildLicenceRestrictions() {
-		for (LSVMBidder bidder : population) {
-			for (LSVMLicense license : world.getLicenses()) {
-	        	Map<Integer, Variable> xVariables = this.getXVariables(bidder, license);
-	        	for (Variable xVariable : xVariables.values()) {
-	        		if(!bidder.getProximity().contains(license)) {
-	        			xVariable.setUpperBound(0);
-	        		}
+		for (int i = 0; i < population.size(); i++) {
+			Set<LSVMLicense> proximity = population.get(i).getProximity();
+			for (int j = 0; j < licenses.size(); j++) {
+	        	if (aVariables[i][j] == null || proximity.contains(licenses.get(j))) continue;
+	        	for (Variable xVariable : aVariables[i][j]) {
+	        		xVariable.setUpperBound(0);
 	        	}
-
 	        }
 		}
 	}
 
+	private void initIndices() {
+		bidderIndices = new HashMap<>();
+		for (int i = 0; i < population.size(); i++) {
+			bidderIndices.put(population.get(i).getLongId(), i);
+		}
+		licenseIndices = new HashMap<>();
+		for (int j = 0; j < licenses.size(); j++) {
+			licenseIndices.put(licenses.get(j).getLongId(), j);
+		}
+		LSVMGrid grid = world.getGrid();
+		neighbours = new ArrayList<>();
+		for (LSVMLicense license : licenses) {
+			neighbours.add(licenses.stream().filter(x -> grid.isNeighbor(x, license)).collect(Collectors.toSet()));
+		}
+	}
+
 	private void initBaseValues() {
-	    valueMap = new HashMap<>();
-		for (LSVMBidder bidder : population) {
-		    valueMap.put(bidder, new HashMap<>());
-            for (LSVMLicense license : world.getLicenses()) {
-                valueMap.get(bidder).put(license, bidder.getBaseValues().getOrDefault(license.getLongId(), BigDecimal.ZERO).doubleValue());
+	    values = new double[population.size()][licenses.size()];
+		for (int i = 0; i < population.size(); i++) {
+            for (int j = 0; j < licenses.size(); j++) {
+                values[i][j] = population.get(i).getBaseValues().getOrDefault(licenses.get(j).getLongId(), BigDecimal.ZERO).doubleValue();
             }
 		}
 	}
 
 	private void initA() {
-	    aVariables = new HashMap<>();
-		for (LSVMBidder bidder : population) {
-		    aVariables.put(bidder, new HashMap<>());
-            for (LSVMLicense license : world.getLicenses()) {
+	    aVariables = new Variable[population.size()][licenses.size()][];
+		for (int i = 0; i < population.size(); i++) {
+			LSVMBidder bidder = population.get(i);
+			int numberOfTaus = licensesOf.get(bidder).size();
+            for (LSVMLicense license : licensesOf.get(bidder)) {
             	Collection<Variable> xVariables = new HashSet<>();
-                aVariables.get(bidder).put(license, new HashMap<>());
-                for (int tau = 0; tau < world.getLicenses().size(); tau++) {
+            	Variable[] variables = new Variable[numberOfTaus];
+                for (int tau = 0; tau < numberOfTaus; tau++) {
                     Variable var = new Variable(String.format("A_i[%d]j[%d]tau[%d]", (int) bidder.getLongId(), (int) license.getLongId(), tau), VarType.BOOLEAN, 0, 1);
                     getMIP().add(var);
-                    aVariables.get(bidder).get(license).put(tau, var);
+                    variables[tau] = var;
                     xVariables.add(var);
                 }
+                aVariables[i][licenseIndices.get(license.getLongId())] = variables;
                 variableSetsOfInterest.add(xVariables);
             }
 		}
 	}
 
+	private void initLicenses() {
+		licensesOf = new HashMap<>();
+		for (LSVMBidder bidder : population) {
+			if (compact) {
+				licensesOf.put(bidder, world.getLicenses().stream().filter(bidder.getProximity()::contains).collect(Collectors.toList()));
+			} else {
+				licensesOf.put(bidder, world.getLicenses());
+			}
+		}
+	}
+
 	private void initEdge() {
+		edgesOf = new HashMap<>();
+		if (compact) {
+			Map<List<LSVMLicense>, Map<Edge, Set<Integer>>> byProximity = new HashMap<>();
+			for (LSVMBidder bidder : population) {
+				edgesOf.put(bidder, byProximity.computeIfAbsent(licensesOf.get(bidder), this::buildValidPathLengths));
+			}
+			return;
+		}
 		for (LSVMLicense l1 : world.getLicenses()) {
 			for (LSVMLicense l2 : world.getLicenses()) {
                 Edge edge = new Edge(l1, l2);
@@ -299,6 +427,56 @@ public class LSVMStandardMIP extends ModelMIP {
                 }
 			}
 		}
+		for (LSVMBidder bidder : population) {
+			edgesOf.put(bidder, validPathLengths);
+		}
+	}
+
+	/**
+	 * Finds the lengths of the minimal paths (paths which do not contain the licenses of another path) between any two
+	 * connected licenses, using only the given licenses. Pairs which are not connected get no edge.
+	 */
+	private Map<Edge, Set<Integer>> buildValidPathLengths(List<LSVMLicense> licenses) {
+		Preconditions.checkArgument(licenses.size() < Long.SIZE, "The compact formulation supports proximities of at most 63 licenses");
+		int size = licenses.size();
+		long[] adjacency = new long[size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (world.getGrid().isNeighbor(licenses.get(i), licenses.get(j))) {
+					adjacency[i] |= 1L << j;
+				}
+			}
+		}
+		Map<Edge, Set<Integer>> result = new HashMap<>();
+		for (int source = 0; source < size; source++) {
+			for (int target = source + 1; target < size; target++) {
+				List<Long> paths = new ArrayList<>();
+				collectPaths(adjacency, source, target, 1L << source, paths);
+				paths.sort(Comparator.comparingInt(Long::bitCount));
+				List<Long> minimal = new ArrayList<>();
+				for (long path : paths) {
+					if (minimal.stream().noneMatch(other -> (other & ~path) == 0)) {
+						minimal.add(path);
+					}
+				}
+				if (!minimal.isEmpty()) {
+					result.put(new Edge(licenses.get(source), licenses.get(target)),
+							minimal.stream().map(path -> Long.bitCount(path) - 1).collect(Collectors.toSet()));
+				}
+			}
+		}
+		return result;
+	}
+
+	private static void collectPaths(long[] adjacency, int current, int target, long visited, List<Long> paths) {
+		if (current == target) {
+			paths.add(visited);
+			return;
+		}
+		for (long next = adjacency[current] & ~visited; next != 0; next &= next - 1) {
+			int license = Long.numberOfTrailingZeros(next);
+			collectPaths(adjacency, license, target, visited | (1L << license), paths);
+		}
 	}
 
 	private void buildValidPathLength(Edge edge) {
@@ -320,9 +498,12 @@ public class LSVMStandardMIP extends ModelMIP {
 	}
 	
 	private void buildAllocationLimits() {
-		for(LSVMBidder bidder : this.population) {
-			Map<Good, List<Variable>> bidderVariables = aVariables.get(bidder).entrySet().stream().collect(Collectors.toMap(e->e.getKey(), e-> new ArrayList<>(e.getValue().values()), (e1, e2) -> e1, LinkedHashMap::new));
-			for(AllocationLimitConstraint alc : bidder.getAllocationLimit().getConstraints()) {
+		for (int i = 0; i < population.size(); i++) {
+			Map<Good, List<Variable>> bidderVariables = new LinkedHashMap<>();
+			for (int j = 0; j < licenses.size(); j++) {
+				bidderVariables.put(licenses.get(j), aVariables[i][j] == null ? new ArrayList<>() : Arrays.asList(aVariables[i][j]));
+			}
+			for(AllocationLimitConstraint alc : population.get(i).getAllocationLimit().getConstraints()) {
 				this.getMIP().add(alc.createCPLEXConstraintWithMultiVarsPerGood(bidderVariables));
 			}
 		}
@@ -332,9 +513,9 @@ public class LSVMStandardMIP extends ModelMIP {
 	    eVariables = new HashMap<>();
 		for (LSVMBidder bidder : population) {
 		    eVariables.put(bidder, new HashMap<>());
-            for (Map.Entry<Edge, Set<Integer>> entry : validPathLengths.entrySet()) {
+            for (Map.Entry<Edge, Set<Integer>> entry : edgesOf.get(bidder).entrySet()) {
                 eVariables.get(bidder).put(entry.getKey(), new HashMap<>());
-                for (int c = 0; c < world.getLicenses().size(); c++) {
+                for (int c = 0; c < licensesOf.get(bidder).size(); c++) {
                     if (entry.getValue().contains(c + 1)) {
                         Variable var = new Variable(String.format("E_i[%d]e[%s]c[%d]", (int) bidder.getLongId(), entry.getKey(), c), VarType.BOOLEAN, 0, 1);
                         getMIP().add(var);
@@ -375,10 +556,7 @@ public class LSVMStandardMIP extends ModelMIP {
 	}
 
 	private Set<LSVMLicense> n(LSVMLicense license) {
-		LSVMGrid grid = world.getGrid();
-		return world.getLicenses().stream().filter(x -> grid.isNeighbor(x, license))
-				.collect(Collectors.toSet());
-
+		return neighbours.get(licenseIndices.get(license.getLongId()));
 	}
 
 	private Set<LSVMLicense> f(Edge e) {
@@ -386,12 +564,7 @@ public class LSVMStandardMIP extends ModelMIP {
 	}
 
 	private Edge fInv(LSVMLicense l1, LSVMLicense l2) {
-		for (Edge edge : validPathLengths.keySet()) {
-			if ((edge.l1 == l1 && edge.l2 == l2) || (edge.l1 == l2 && edge.l2 == l1)) {
-				return edge;
-			}
-		}
-		throw new IllegalStateException("Error: fInv edge not found");
+		return new Edge(l1, l2);
 	}
 
 	@EqualsAndHashCode
@@ -15,6 +15,7 @@ import org.spectrumauctions.sats.core.model.mrvm.MRVMRegionsMap.Region;
 import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
 import org.spectrumauctions.sats.core.util.math.ContinuousPiecewiseLinearFunction;
 import org.spectrumauctions.sats.opt.domain.PartialMIP;
+import org.spectrumauctions.sats.opt.domain.PiecewiseLinearEncoding;
 import org.spectrumauctions.sats.opt.domain.PiecewiseLinearPartialMIP;
 
 import java.math.BigDecimal;
@@ -42,6 +43,7 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
     private final MRVMBidder bidder;
 
     private final double scaling;
+    private PiecewiseLinearEncoding piecewiseLinearEncoding = PiecewiseLinearEncoding.MULTIPLE_CHOICE;
 
     public MRVMBidderPartialMIP(MRVMBidder bidder, double scalingFactor, MRVMWorldPartialMip worldMip) {
         this.bidder = bidder;
@@ -50,6 +52,19 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
         initVariables();
     }
 
+    public PiecewiseLinearEncoding getPiecewiseLinearEncoding() {
+        return piecewiseLinearEncoding;
+    }
+
+    /**
+     * Sets the encoding of the piecewise linear functions in this partial MIP.
+     * Must be called before the partial MIP is appended to a MIP.
+     */
+    public void setPiecewiseLinearEncoding(PiecewiseLinearEncoding piecewiseLinearEncoding) {
+        Preconditions.checkNotNull(piecewiseLinearEncoding);
+        this.piecewiseLinearEncoding = piecewiseLinearEncoding;
+    }
+
     private void initVariables() {
         this.omegaVariables = createOmegaVariables();
         this.cVariables = createCVariables();
@@ -158,7 +173,7 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
     }
 
     Set<PartialMIP> generateSVConstraints() {
-        Set<PartialMIP> result = new HashSet<>();
+        Set<PartialMIP> result = new LinkedHashSet<>();
 
         for (Region region : bidder.getWorld().getRegionsMap().getRegions()) {
             Variable svInput = getCVariable(region);
@@ -170,7 +185,8 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
                     sv,
                     svInput,
                     svOutput,
-                    helperVariablesPrefix);
+                    helperVariablesPrefix,
+                    piecewiseLinearEncoding);
             result.add(piecewiseLinearPartialMIP);
         }
         return result;
@@ -189,7 +205,7 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
      * @return
      */
     Set<Constraint> generateOmegaConstraints() {
-        Set<Constraint> result = new HashSet<>();
+        Set<Constraint> result = new LinkedHashSet<>();
         for (Region region : bidder.getWorld().getRegionsMap().getRegions()) {
             double beta = bidder.getBeta(region).doubleValue();
             double population = region.getPopulation();
@@ -211,7 +227,7 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
      * @return
      */
     Set<Constraint> generateCConstraints() {
-        Set<Constraint> result = new HashSet<>();
+        Set<Constraint> result = new LinkedHashSet<>();
         for (Region region : bidder.getWorld().getRegionsMap().getRegions()) {
             Constraint regionalCConstraint = new Constraint(CompareType.EQ, 0);
             regionalCConstraint.addTerm(-1, getCVariable(region));
@@ -225,7 +241,7 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
 
 
     Set<PartialMIP> generateCapConstraints() {
-        Set<PartialMIP> result = new HashSet<>();
+        Set<PartialMIP> result = new LinkedHashSet<>();
         for (MRVMBand band : bidder.getWorld().getBands()) {
             ContinuousPiecewiseLinearFunction func = capLinearFunction(band);
             for (Region region : bidder.getWorld().getRegionsMap().getRegions()) {
@@ -238,7 +254,8 @@ public abstract class MRVMBidderPartialMIP extends PartialMIP {
                         new PiecewiseLinearPartialMIP(func,
                                 input,
                                 output,
-                                auxiliaryVariableName);
+                                auxiliaryVariableName,
+                                piecewiseLinearEncoding);
                 result.add(partialMip);
             }
         }
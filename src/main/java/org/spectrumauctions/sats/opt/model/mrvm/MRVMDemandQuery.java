@@ -0,0 +1,251 @@
+package org.spectrumauctions.sats.opt.model.mrvm;
+
+import com.google.common.base.Preconditions;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBand;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMLocalBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMNationalBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMRegionsMap;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.util.math.ContinuousPiecewiseLinearFunction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Solves demand queries for an {@link MRVMBidder} exactly, without a MIP.
+ * <p>
+ * The value of an MRVM bundle only depends on the quantity per band in every region: It is the sum over the regions
+ * of the regional (omega) values, each multiplied with the bidder's gamma factor for that region.
+ * <ul>
+ * <li>For local and regional bidders, the gamma factors do not depend on the bundle. The utility is therefore
+ * separable over the regions, and a dynamic program over the regions keeps the k best partial bundles.</li>
+ * <li>For national bidders, the gamma factor only depends on the number of uncovered regions. For every such
+ * number t (up to the bidder's k<sub>max</sub>, beyond which gamma is constant), the same dynamic program runs with
+ * the gamma factor of t and additionally keeps track of the number of uncovered regions, such that only bundles
+ * with exactly t uncovered regions (or at least k<sub>max</sub>) are found.</li>
+ * </ul>
+ * In every region, all quantity vectors of the bands are enumerated, i.e., a region has
+ * &prod;<sub>b</sub>(lots<sub>b</sub> + 1) choices. The k best bundles are the k best bundles over all cases.
+ * Prices are evaluated on bundles of {@link org.spectrumauctions.sats.core.model.mrvm.MRVMGenericDefinition}s,
+ * once per region, i.e., they are assumed to be additive over the regions (as for linear prices).
+ */
+public class MRVMDemandQuery {
+
+    private final MRVMBidder bidder;
+    private final MRVMWorld world;
+    private final List<MRVMRegionsMap.Region> regions;
+    private final List<MRVMBand> bands;
+    /**
+     * quantities[c][b] is the quantity of band b in the regional choice c, where choice 0 is the empty choice
+     */
+    private final int[][] quantities;
+    /**
+     * values[r][c] is the regional (omega) value of the choice c in region r, without the gamma factor
+     */
+    private final double[][] values;
+    /**
+     * costs[r][c] is the price of the choice c in region r
+     */
+    private final double[][] costs;
+    /**
+     * allowed[r] is false if the bidder must not be assigned any licenses in region r
+     */
+    private final boolean[] allowed;
+    private final Comparator<Candidate> order = Comparator
+            .comparingDouble((Candidate c) -> -c.utility)
+            .thenComparing(c -> c.choices, this::compareChoices);
+
+    public MRVMDemandQuery(MRVMBidder bidder, Prices prices) {
+        Preconditions.checkNotNull(bidder);
+        Preconditions.checkNotNull(prices);
+        this.bidder = bidder;
+        this.world = bidder.getWorld();
+        this.regions = new ArrayList<>(world.getRegionsMap().getRegions());
+        regions.sort(Comparator.comparingInt(MRVMRegionsMap.Region::getId));
+        this.bands = new ArrayList<>(world.getBands());
+        bands.sort(Comparator.comparing(MRVMBand::getName));
+
+        int numberOfChoices = 1;
+        for (MRVMBand band : bands) {
+            numberOfChoices *= band.getNumberOfLots() + 1;
+        }
+        this.quantities = new int[numberOfChoices][bands.size()];
+        BigDecimal[] capacities = new BigDecimal[numberOfChoices];
+        for (int c = 0; c < numberOfChoices; c++) {
+            int remainder = c;
+            capacities[c] = BigDecimal.ZERO;
+            for (int b = 0; b < bands.size(); b++) {
+                MRVMBand band = bands.get(b);
+                quantities[c][b] = remainder % (band.getNumberOfLots() + 1);
+                remainder /= band.getNumberOfLots() + 1;
+                capacities[c] = capacities[c].add(MRVMWorld.capOfBand(band, quantities[c][b]));
+            }
+        }
+
+        this.values = new double[regions.size()][numberOfChoices];
+        this.costs = new double[regions.size()][numberOfChoices];
+        this.allowed = new boolean[regions.size()];
+        for (int r = 0; r < regions.size(); r++) {
+            MRVMRegionsMap.Region region = regions.get(r);
+            allowed[r] = !(bidder instanceof MRVMLocalBidder)
+                    || ((MRVMLocalBidder) bidder).isAllowAssigningLicensesWithZeroBasevalueInDemandQuery()
+                    || bidder.gammaFactor(region, Collections.emptySet()).signum() > 0;
+            ContinuousPiecewiseLinearFunction svFunction = bidder.svFunction(region);
+            for (int c = 1; c < numberOfChoices; c++) {
+                values[r][c] = bidder.omegaFactor(region, svFunction.getY(capacities[c])).doubleValue();
+                costs[r][c] = prices.getPrice(toRegionalBundle(region, quantities[c])).getAmount().doubleValue();
+            }
+        }
+    }
+
+    /**
+     * Enumerates the bundles with the highest utility, in decreasing order of utility.
+     *
+     * @param maxNumberOfBundles the maximal number of bundles to return
+     * @return at most maxNumberOfBundles distinct bundles, consisting of
+     * {@link org.spectrumauctions.sats.core.model.mrvm.MRVMGenericDefinition}s
+     */
+    public List<Bundle> getBestBundles(int maxNumberOfBundles) {
+        Preconditions.checkArgument(maxNumberOfBundles > 0);
+        List<Candidate> candidates = new ArrayList<>();
+        if (bidder instanceof MRVMNationalBidder) {
+            MRVMNationalBidder nationalBidder = (MRVMNationalBidder) bidder;
+            int maxUncovered = Math.min(regions.size(), nationalBidder.getKMax());
+            for (int uncovered = 0; uncovered <= maxUncovered; uncovered++) {
+                double[] gammaFactors = new double[regions.size()];
+                Arrays.fill(gammaFactors, nationalBidder.getGamma(uncovered).doubleValue());
+                candidates.addAll(kBest(maxNumberOfBundles, gammaFactors, uncovered, uncovered == nationalBidder.getKMax()));
+            }
+        } else {
+            double[] gammaFactors = new double[regions.size()];
+            for (int r = 0; r < regions.size(); r++) {
+                gammaFactors[r] = bidder.gammaFactor(regions.get(r), Collections.emptySet()).doubleValue();
+            }
+            // With a target of 0 and capping, the number of uncovered regions is not tracked
+            candidates.addAll(kBest(maxNumberOfBundles, gammaFactors, 0, true));
+        }
+
+        candidates.sort(order);
+        List<Bundle> result = new ArrayList<>();
+        for (int i = 0; i < candidates.size() && i < maxNumberOfBundles; i++) {
+            result.add(toBundle(candidates.get(i).choices));
+        }
+        return result;
+    }
+
+    /**
+     * @return the bundle maximizing the bidder's utility
+     */
+    public Bundle getBestBundle() {
+        return getBestBundles(1).get(0);
+    }
+
+    /**
+     * Dynamic program over the regions, where the state is the number of uncovered regions so far.
+     *
+     * @param k            the number of bundles to keep per state
+     * @param gammaFactors the gamma factor per region
+     * @param target       the number of uncovered regions of the returned bundles
+     * @param capped       whether bundles with more than target uncovered regions are counted towards the target
+     * @return the k best bundles with the target number of uncovered regions
+     */
+    private List<Candidate> kBest(int k, double[] gammaFactors, int target, boolean capped) {
+        // partials.get(s) holds the k best partial bundles with s uncovered regions
+        List<List<Candidate>> partials = new ArrayList<>();
+        for (int s = 0; s <= target; s++) {
+            partials.add(new ArrayList<>());
+        }
+        partials.get(0).add(new Candidate(new int[0], 0));
+        for (int r = 0; r < regions.size(); r++) {
+            List<List<Candidate>> next = new ArrayList<>();
+            for (int s = 0; s <= target; s++) {
+                next.add(new ArrayList<>());
+            }
+            int numberOfChoices = allowed[r] ? quantities.length : 1;
+            for (int s = 0; s <= target; s++) {
+                for (Candidate partial : partials.get(s)) {
+                    for (int c = 0; c < numberOfChoices; c++) {
+                        int uncovered = c == 0 ? s + 1 : s;
+                        if (uncovered > target) {
+                            if (!capped) continue;
+                            uncovered = target;
+                        }
+                        int[] choices = new int[r + 1];
+                        System.arraycopy(partial.choices, 0, choices, 0, r);
+                        choices[r] = c;
+                        double utility = partial.utility + gammaFactors[r] * values[r][c] - costs[r][c];
+                        next.get(uncovered).add(new Candidate(choices, utility));
+                    }
+                }
+            }
+            for (List<Candidate> partialsOfState : next) {
+                partialsOfState.sort(order);
+                if (partialsOfState.size() > k) {
+                    partialsOfState.subList(k, partialsOfState.size()).clear();
+                }
+            }
+            partials = next;
+        }
+        return partials.get(target);
+    }
+
+    private Bundle toBundle(int[] choices) {
+        Set<BundleEntry> entries = new HashSet<>();
+        for (int r = 0; r < choices.length; r++) {
+            entries.addAll(regionalEntries(regions.get(r), quantities[choices[r]]));
+        }
+        return entries.isEmpty() ? Bundle.EMPTY : new Bundle(entries);
+    }
+
+    private Bundle toRegionalBundle(MRVMRegionsMap.Region region, int[] quantities) {
+        return new Bundle(regionalEntries(region, quantities));
+    }
+
+    private Set<BundleEntry> regionalEntries(MRVMRegionsMap.Region region, int[] quantities) {
+        Set<BundleEntry> entries = new HashSet<>();
+        for (int b = 0; b < quantities.length; b++) {
+            if (quantities[b] > 0) {
+                entries.add(new BundleEntry(world.getGenericDefinition(region, bands.get(b)), quantities[b]));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Orders bundles with equal utility by their number of licenses, then lexicographically
+     */
+    private int compareChoices(int[] a, int[] b) {
+        int sizeA = 0;
+        int sizeB = 0;
+        for (int r = 0; r < a.length; r++) {
+            for (int quantity : quantities[a[r]]) sizeA += quantity;
+            for (int quantity : quantities[b[r]]) sizeB += quantity;
+        }
+        if (sizeA != sizeB) return Integer.compare(sizeA, sizeB);
+        for (int r = 0; r < a.length; r++) {
+            if (a[r] != b[r]) return Integer.compare(a[r], b[r]);
+        }
+        return 0;
+    }
+
+    private static final class Candidate {
+        private final int[] choices;
+        private final double utility;
+
+        private Candidate(int[] choices, double utility) {
+            this.choices = choices;
+            this.utility = utility;
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+package org.spectrumauctions.sats.opt.model.mrvm;
+
+import com.google.common.base.Preconditions;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBand;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMNationalBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMRegionsMap;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.opt.domain.LagrangianUpperBound;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A solver-free upper bound on the social welfare of an MRVM instance, see {@link LagrangianUpperBound}.
+ * <p>
+ * The goods are the generic definitions, i.e., the bands per region. The value of a bidder is bounded by
+ * replacing its gamma factors with their maximum over all bundles, which makes the value additively separable
+ * over the regions. The bidder's utility maximization at given prices then decomposes into one problem per region,
+ * which is solved by enumerating all quantity vectors of the bands in that region.
+ */
+public class MRVMUpperBound extends LagrangianUpperBound {
+
+    private final List<MRVMRegionsMap.Region> regions;
+    private final List<MRVMBand> bands;
+    private final int numberOfBidders;
+
+    /**
+     * quantities[c][b] is the quantity of band b in the regional bundle c
+     */
+    private final int[][] quantities;
+    /**
+     * singleBandBundles[b][q] is the index of the regional bundle with q licenses of band b only
+     */
+    private final int[][] singleBandBundles;
+    /**
+     * values[i][r][c] is the upper bound on the value of bidder i for the regional bundle c in region r,
+     * or null if the bidder has no value for region r
+     */
+    private final double[][][] values;
+    /**
+     * costs[r][c] is the cost of the regional bundle c in region r at the current prices
+     */
+    private final double[][] costs;
+
+    public MRVMUpperBound(Collection<MRVMBidder> bidders) {
+        this(bidders, bidders.iterator().next().getWorld());
+    }
+
+    private MRVMUpperBound(Collection<MRVMBidder> bidders, MRVMWorld world) {
+        super(supply(world));
+        Preconditions.checkArgument(!bidders.isEmpty());
+        this.regions = sortedRegions(world);
+        this.bands = sortedBands(world);
+        this.numberOfBidders = bidders.size();
+
+        int numberOfBundles = 1;
+        for (MRVMBand band : bands) {
+            numberOfBundles *= band.getNumberOfLots() + 1;
+        }
+        this.quantities = new int[numberOfBundles][bands.size()];
+        this.singleBandBundles = new int[bands.size()][];
+        for (int b = 0; b < bands.size(); b++) {
+            singleBandBundles[b] = new int[bands.get(b).getNumberOfLots() + 1];
+        }
+        double[] capacities = new double[numberOfBundles];
+        for (int c = 0; c < numberOfBundles; c++) {
+            int remainder = c;
+            int nonZero = 0;
+            for (int b = 0; b < bands.size(); b++) {
+                MRVMBand band = bands.get(b);
+                quantities[c][b] = remainder % (band.getNumberOfLots() + 1);
+                remainder /= band.getNumberOfLots() + 1;
+                capacities[c] += MRVMWorld.capOfBand(band, quantities[c][b]).doubleValue();
+                if (quantities[c][b] > 0) nonZero++;
+            }
+            for (int b = 0; b < bands.size(); b++) {
+                if (nonZero == 0 || (nonZero == 1 && quantities[c][b] > 0)) {
+                    singleBandBundles[b][quantities[c][b]] = c;
+                }
+            }
+        }
+
+        this.values = new double[numberOfBidders][][];
+        int i = 0;
+        for (MRVMBidder bidder : bidders) {
+            values[i++] = regionalValues(bidder, capacities);
+        }
+        this.costs = new double[regions.size()][numberOfBundles];
+    }
+
+    private double[][] regionalValues(MRVMBidder bidder, double[] capacities) {
+        double[][] result = new double[regions.size()][];
+        for (int r = 0; r < regions.size(); r++) {
+            MRVMRegionsMap.Region region = regions.get(r);
+            double weight = maximalGammaFactor(bidder, region)
+                    * bidder.getBeta(region).doubleValue() * region.getPopulation();
+            if (weight <= 0) continue;
+            List<SimpleImmutableEntry<BigDecimal, BigDecimal>> cornerPoints = bidder.svFunction(region).getCornerPoints();
+            double[] x = new double[cornerPoints.size()];
+            double[] y = new double[cornerPoints.size()];
+            for (int p = 0; p < cornerPoints.size(); p++) {
+                x[p] = cornerPoints.get(p).getKey().doubleValue();
+                y[p] = cornerPoints.get(p).getValue().doubleValue();
+            }
+            result[r] = new double[capacities.length];
+            for (int c = 0; c < capacities.length; c++) {
+                result[r][c] = weight * interpolate(x, y, capacities[c]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the highest gamma factor the bidder can have in the region, for any bundle
+     */
+    private static double maximalGammaFactor(MRVMBidder bidder, MRVMRegionsMap.Region region) {
+        if (bidder instanceof MRVMNationalBidder) {
+            MRVMNationalBidder nationalBidder = (MRVMNationalBidder) bidder;
+            double max = 0;
+            for (int uncoveredRegions = 0; uncoveredRegions <= nationalBidder.getKMax(); uncoveredRegions++) {
+                max = Math.max(max, nationalBidder.getGamma(uncoveredRegions).doubleValue());
+            }
+            return max;
+        }
+        // The gamma factors of local and regional bidders do not depend on the bundle
+        return bidder.gammaFactor(region, Collections.emptySet()).doubleValue();
+    }
+
+    private static double interpolate(double[] x, double[] y, double value) {
+        if (value <= x[0]) return y[0];
+        for (int p = 1; p < x.length; p++) {
+            if (value <= x[p]) {
+                return y[p - 1] + (y[p] - y[p - 1]) * (value - x[p - 1]) / (x[p] - x[p - 1]);
+            }
+        }
+        return y[y.length - 1];
+    }
+
+    @Override
+    protected int getNumberOfBidders() {
+        return numberOfBidders;
+    }
+
+    @Override
+    protected void setPrices(double[] prices) {
+        for (int r = 0; r < regions.size(); r++) {
+            for (int c = 0; c < quantities.length; c++) {
+                double cost = 0;
+                for (int b = 0; b < bands.size(); b++) {
+                    cost += prices[good(r, b)] * quantities[c][b];
+                }
+                costs[r][c] = cost;
+            }
+        }
+    }
+
+    @Override
+    protected double maximalUtility(int bidder, double[] prices, int[] demand) {
+        double utility = 0;
+        for (int r = 0; r < regions.size(); r++) {
+            double[] regionalValues = values[bidder][r];
+            if (regionalValues == null) continue;
+            double[] regionalCosts = costs[r];
+            int bestBundle = 0;
+            double best = 0;
+            for (int c = 1; c < regionalValues.length; c++) {
+                double regionalUtility = regionalValues[c] - regionalCosts[c];
+                if (regionalUtility > best) {
+                    best = regionalUtility;
+                    bestBundle = c;
+                }
+            }
+            utility += best;
+            for (int b = 0; b < bands.size(); b++) {
+                demand[good(r, b)] += quantities[bestBundle][b];
+            }
+        }
+        return utility;
+    }
+
+    @Override
+    protected double standaloneValue(int bidder, int good, int quantity) {
+        double[] regionalValues = values[bidder][good / bands.size()];
+        return regionalValues == null ? 0 : regionalValues[singleBandBundles[good % bands.size()][quantity]];
+    }
+
+    /**
+     * @return the index of the generic definition of the band in the region, as used in {@link #getPrices()}
+     */
+    public int good(int region, int band) {
+        return region * bands.size() + band;
+    }
+
+    /**
+     * @return the regions, in the order used by {@link #good(int, int)}
+     */
+    public List<MRVMRegionsMap.Region> getRegions() {
+        return Collections.unmodifiableList(regions);
+    }
+
+    /**
+     * @return the bands, in the order used by {@link #good(int, int)}
+     */
+    public List<MRVMBand> getBands() {
+        return Collections.unmodifiableList(bands);
+    }
+
+    private static List<MRVMRegionsMap.Region> sortedRegions(MRVMWorld world) {
+        List<MRVMRegionsMap.Region> regions = new ArrayList<>(world.getRegionsMap().getRegions());
+        regions.sort(Comparator.comparingInt(MRVMRegionsMap.Region::getId));
+        return regions;
+    }
+
+    private static List<MRVMBand> sortedBands(MRVMWorld world) {
+        List<MRVMBand> bands = new ArrayList<>(world.getBands());
+        bands.sort(Comparator.comparing(MRVMBand::getName));
+        return bands;
+    }
+
+    private static int[] supply(MRVMWorld world) {
+        List<MRVMRegionsMap.Region> regions = sortedRegions(world);
+        List<MRVMBand> bands = sortedBands(world);
+        int[] supply = new int[regions.size() * bands.size()];
+        for (int r = 0; r < regions.size(); r++) {
+            for (int b = 0; b < bands.size(); b++) {
+                supply[r * bands.size() + b] = bands.get(b).getNumberOfLots();
+            }
+        }
+        return supply;
+    }
+
+}
@@ -33,12 +33,22 @@ public class MRVMWorldPartialMip extends PartialMIP {
     public final static String xVariablePrefix = "X_";
     public final static String valueVariablePrefix = "v_";
 
-    private final Map<MRVMBidder, Map<MRVMRegionsMap.Region, Map<MRVMBand, Variable>>> xVariables;
-    private final Map<MRVMBidder, Variable> valueVariables;
+    /**
+     * xVariables[i][r][b] belongs to the i-th bidder, the r-th region and the b-th band,
+     * as given by {@link #bidderIndices}, {@link #regionIndices} and {@link #bandIndices}
+     */
+    private final Variable[][][] xVariables;
+    private final Variable[] valueVariables;
 
     private final double biggestPossibleValue;
 
     private final Set<MRVMBidder> bidders;
+    private final List<MRVMBidder> bidderList;
+    private final List<Region> regions;
+    private final List<MRVMBand> bands;
+    private final Map<Long, Integer> bidderIndices = new HashMap<>();
+    private final Map<Integer, Integer> regionIndices = new HashMap<>();
+    private final Map<String, Integer> bandIndices = new HashMap<>();
     private final MRVMWorld world;
 
     /**
@@ -52,8 +62,20 @@ public class MRVMWorldPartialMip extends PartialMIP {
         Preconditions.checkArgument(biggestPossibleValue <= MIP.MAX_VALUE);
         this.biggestPossibleValue = biggestPossibleValue;
         this.bidders = Collections.unmodifiableSet(new HashSet<>(bidders2));
+        this.bidderList = new ArrayList<>(bidders);
         world = bidders2.iterator().next().getWorld();
         Preconditions.checkNotNull(world);
+        this.regions = new ArrayList<>(world.getRegionsMap().getRegions());
+        this.bands = new ArrayList<>(world.getBands());
+        for (int i = 0; i < bidderList.size(); i++) {
+            bidderIndices.put(bidderList.get(i).getLongId(), i);
+        }
+        for (int r = 0; r < regions.size(); r++) {
+            regionIndices.put(regions.get(r).getId(), r);
+        }
+        for (int b = 0; b < bands.size(); b++) {
+            bandIndices.put(bands.get(b).getName(), b);
+        }
 
         xVariables = initXVariables();
         valueVariables = initValueVariables();
@@ -63,15 +85,13 @@ public class MRVMWorldPartialMip extends PartialMIP {
      * @return
      */
     private Set<Constraint> createNumberOfLicensesConstraints() {
-        Set<Constraint> result = new HashSet<>();
-        //TODO Replace with faster implementation, possibly change key-ordering of xVariables
-        for (MRVMBand band : world.getBands()) {
-            int lots = band.getNumberOfLots();
-            for (Region region : world.getRegionsMap().getRegions()) {
+        Set<Constraint> result = new LinkedHashSet<>();
+        for (int b = 0; b < bands.size(); b++) {
+            int lots = bands.get(b).getNumberOfLots();
+            for (int r = 0; r < regions.size(); r++) {
                 Constraint numberOfLotsConstraint = new Constraint(CompareType.LEQ, lots);
-                for (MRVMBidder bidder : bidders) {
-                    Variable xVar = getXVariable(bidder, region, band);
-                    numberOfLotsConstraint.addTerm(1, xVar);
+                for (Variable[][] bidderVariables : xVariables) {
+                    numberOfLotsConstraint.addTerm(1, bidderVariables[r][b]);
                 }
                 result.add(numberOfLotsConstraint);
             }
@@ -80,33 +100,26 @@ public class MRVMWorldPartialMip extends PartialMIP {
 
     }
 
-    private Map<MRVMBidder, Variable> initValueVariables() {
-        Map<MRVMBidder, Variable> result = new HashMap<>();
-        for (MRVMBidder bidder : bidders) {
-            String varName = valueVariablePrefix + "_" + bidder.getLongId();
-            Variable var = new Variable(varName, VarType.DOUBLE, 0, MIP.MAX_VALUE);
-            result.put(bidder, var);
+    private Variable[] initValueVariables() {
+        Variable[] result = new Variable[bidderList.size()];
+        for (int i = 0; i < bidderList.size(); i++) {
+            String varName = valueVariablePrefix + "_" + bidderList.get(i).getLongId();
+            result[i] = new Variable(varName, VarType.DOUBLE, 0, MIP.MAX_VALUE);
         }
-        return Collections.unmodifiableMap(result);
+        return result;
     }
 
-    private Map<MRVMBidder, Map<Region, Map<MRVMBand, Variable>>> initXVariables() {
-        Map<MRVMBidder, Map<Region, Map<MRVMBand, Variable>>> result = new HashMap<>();
-
-        for (MRVMBidder bidder : bidders) {
-            Map<Region, Map<MRVMBand, Variable>> biddersMap = new HashMap<>();
-            for (Region region : world.getRegionsMap().getRegions()) {
-                Map<MRVMBand, Variable> bandMap = new HashMap<>();
-                for (MRVMBand band : world.getBands()) {
-                    String varName = xVariablePrefix.concat(MRVMBidderPartialMIP.createIndex(bidder, region, band));
-                    Variable var = new Variable(varName, VarType.INT, 0, band.getNumberOfLots());
-                    bandMap.put(band, var);
+    private Variable[][][] initXVariables() {
+        Variable[][][] result = new Variable[bidderList.size()][regions.size()][bands.size()];
+        for (int i = 0; i < bidderList.size(); i++) {
+            for (int r = 0; r < regions.size(); r++) {
+                for (int b = 0; b < bands.size(); b++) {
+                    String varName = xVariablePrefix.concat(MRVMBidderPartialMIP.createIndex(bidderList.get(i), regions.get(r), bands.get(b)));
+                    result[i][r][b] = new Variable(varName, VarType.INT, 0, bands.get(b).getNumberOfLots());
                 }
-                biddersMap.put(region, Collections.unmodifiableMap(bandMap));
             }
-            result.put(bidder, Collections.unmodifiableMap(biddersMap));
         }
-        return Collections.unmodifiableMap(result);
+        return result;
     }
 
     private void appendObjectiveToMip(IMIP mip) {
@@ -115,7 +128,7 @@ public class MRVMWorldPartialMip extends PartialMIP {
         if (!mip.getObjectiveTerms().isEmpty()) {
             logger.warn("There are already existing objective values, when there's still supposed to be none");
         }
-        for (Variable var : valueVariables.values()) {
+        for (Variable var : valueVariables) {
             mip.addObjectiveTerm(1, var);
         }
     }
@@ -145,12 +158,12 @@ public class MRVMWorldPartialMip extends PartialMIP {
     @Override
     public void appendVariablesToMip(IMIP mip) {
         super.appendVariablesToMip(mip);
-        for (Variable var : valueVariables.values()) {
+        for (Variable var : valueVariables) {
             mip.add(var);
         }
-        for (Map<Region, Map<MRVMBand, Variable>> middleMap : xVariables.values()) {
-            for (Map<MRVMBand, Variable> innerMap : middleMap.values()) {
-                for (Variable var : innerMap.values()) {
+        for (Variable[][] bidderVariables : xVariables) {
+            for (Variable[] regionVariables : bidderVariables) {
+                for (Variable var : regionVariables) {
                     mip.add(var);
                 }
             }
@@ -161,28 +174,36 @@ public class MRVMWorldPartialMip extends PartialMIP {
      * @throws NullPointerException if the requested variable is not stored.
      */
     public Variable getXVariable(MRVMBidder bidder, Region region, MRVMBand band) {
-        Variable var = xVariables.get(bidder).get(region).get(band);
-        if (var == null) {
+        Integer r = regionIndices.get(region.getId());
+        Integer b = bandIndices.get(band.getName());
+        if (r == null || b == null) {
             throw new NullPointerException();
         }
-        return var;
+        return xVariables[bidderIndex(bidder)][r][b];
     }
 
     public Set<Variable> getXVariables(MRVMBidder bidder) {
-        Set<Variable> variables = new HashSet<>();
-        for (Map.Entry<Region, Map<MRVMBand, Variable>> entry : xVariables.get(bidder).entrySet()) {
-                variables.addAll(entry.getValue().values());
+        Set<Variable> variables = new LinkedHashSet<>();
+        for (Variable[] regionVariables : xVariables[bidderIndex(bidder)]) {
+            variables.addAll(Arrays.asList(regionVariables));
         }
         return variables;
     }
 
 
     public Variable getValueVariable(MRVMBidder bidder) {
-        Variable var = valueVariables.get(bidder);
-        if (var == null) {
+        return valueVariables[bidderIndex(bidder)];
+    }
+
+    /**
+     * @throws NullPointerException if the bidder is not part of this MIP.
+     */
+    private int bidderIndex(MRVMBidder bidder) {
+        Integer i = bidderIndices.get(bidder.getLongId());
+        if (i == null || (bidderList.get(i) != bidder && !bidderList.get(i).equals(bidder))) {
             throw new NullPointerException();
         }
-        return var;
+        return i;
     }
 
     /**
@@ -8,6 +8,7 @@ package org.spectrumauctions.sats.opt.model.mrvm;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
 import com.google.common.math.DoubleMath;
+import edu.harvard.econcs.jopt.solver.IMIP;
 import edu.harvard.econcs.jopt.solver.ISolution;
 import edu.harvard.econcs.jopt.solver.mip.Constraint;
 import edu.harvard.econcs.jopt.solver.mip.MIP;
@@ -31,6 +32,10 @@ import org.spectrumauctions.sats.core.model.GenericGood;
 import org.spectrumauctions.sats.core.model.License;
 import org.spectrumauctions.sats.core.model.mrvm.*;
 import org.spectrumauctions.sats.core.model.mrvm.MRVMRegionsMap.Region;
+import org.spectrumauctions.sats.core.util.ConcurrencyUtils;
+import org.spectrumauctions.sats.opt.domain.PiecewiseLinearEncoding;
+import org.spectrumauctions.sats.opt.domain.RecordingMIP;
+import org.spectrumauctions.sats.opt.model.AllocationVariable;
 import org.spectrumauctions.sats.opt.model.ModelMIP;
 
 import java.math.BigDecimal;
@@ -56,40 +61,92 @@ public class MRVM_MIP extends ModelMIP {
     private MRVMWorld world;
     private Collection<MRVMBidder> bidders;
     private double scalingFactor;
+    private final int numberOfThreads;
+    private final PiecewiseLinearEncoding piecewiseLinearEncoding;
 
+    /**
+     * Builds the partial MIPs of the bidders sequentially, see {@link #MRVM_MIP(Collection, int)}.
+     */
     public MRVM_MIP(Collection<MRVMBidder> bidders) {
+        this(bidders, 1);
+    }
+
+    /**
+     * The partial MIPs of the bidders are built concurrently on the given number of threads,
+     * and then added to the MIP in the iteration order of the bidders.
+     * The resulting MIP does not depend on the number of threads.
+     */
+    public MRVM_MIP(Collection<MRVMBidder> bidders, int numberOfThreads) {
+        this(bidders, PiecewiseLinearEncoding.MULTIPLE_CHOICE, numberOfThreads);
+    }
+
+    /**
+     * @param piecewiseLinearEncoding the MIP formulation of the bidders' piecewise linear value components
+     */
+    public MRVM_MIP(Collection<MRVMBidder> bidders, PiecewiseLinearEncoding piecewiseLinearEncoding, int numberOfThreads) {
         Preconditions.checkNotNull(bidders);
+        Preconditions.checkNotNull(piecewiseLinearEncoding);
         Preconditions.checkArgument(bidders.size() > 0);
+        Preconditions.checkArgument(numberOfThreads > 0);
         world = bidders.iterator().next().getWorld();
-        scalingFactor = Scalor.scalingFactor(bidders);
-        double biggestPossibleValue = Scalor.biggestUnscaledPossibleValue(bidders).doubleValue() / scalingFactor;
+        this.numberOfThreads = numberOfThreads;
+        this.piecewiseLinearEncoding = piecewiseLinearEncoding;
+        initializeSharedWorldData(world);
+        BigDecimal biggestUnscaledPossibleValue = Scalor.biggestUnscaledPossibleValue(bidders, numberOfThreads);
+        scalingFactor = Scalor.scalingFactor(bidders, biggestUnscaledPossibleValue);
+        double biggestPossibleValue = biggestUnscaledPossibleValue.doubleValue() / scalingFactor;
         this.bidders = bidders;
         this.worldPartialMip = new MRVMWorldPartialMip(
                 bidders,
                 biggestPossibleValue);
         worldPartialMip.appendToMip(getMIP());
         bidderPartialMips = new HashMap<>();
-        for (MRVMBidder bidder : bidders) {
-            MRVMBidderPartialMIP bidderPartialMIP;
-            if (bidder instanceof MRVMNationalBidder) {
-                MRVMNationalBidder globalBidder = (MRVMNationalBidder) bidder;
-                bidderPartialMIP = new MRVMNationalBidderPartialMip(globalBidder, scalingFactor, worldPartialMip);
-            } else if (bidder instanceof MRVMLocalBidder) {
-                MRVMLocalBidder globalBidder = (MRVMLocalBidder) bidder;
-                bidderPartialMIP = new MRVMLocalBidderPartialMip(globalBidder, scalingFactor, worldPartialMip);
-            } else {
-                MRVMRegionalBidder globalBidder = (MRVMRegionalBidder) bidder;
-                bidderPartialMIP = new MRVMRegionalBidderPartialMip(globalBidder, scalingFactor, worldPartialMip);
-            }
-            bidderPartialMIP.appendToMip(getMIP());
-            bidderPartialMips.put(bidder, bidderPartialMIP);
-            
-            addAllocationLimit(bidder);
+        List<MRVMBidder> bidderList = new ArrayList<>(bidders);
+        List<Map.Entry<MRVMBidderPartialMIP, RecordingMIP>> built =
+                ConcurrencyUtils.mapConcurrently(bidderList, this::buildBidderPartialMip, numberOfThreads);
+        for (int i = 0; i < bidderList.size(); i++) {
+            built.get(i).getValue().replayOn(getMIP());
+            bidderPartialMips.put(bidderList.get(i), built.get(i).getKey());
+        }
+    }
+
+    /**
+     * The world caches some derived data lazily. It is computed here up front, such that the bidders' partial MIPs
+     * can be built concurrently.
+     */
+    private static void initializeSharedWorldData(MRVMWorld world) {
+        world.getMaximumRegionalCapacity();
+        world.getAllGenericDefinitions().forEach(MRVMGenericDefinition::containedGoods);
+        Iterator<Region> regions = world.getRegionsMap().getRegions().iterator();
+        if (world.getRegionsMap().getNumberOfRegions() > 1) {
+            world.getRegionsMap().getDistance(regions.next(), regions.next());
         }
     }
 
-	private void addAllocationLimit(MRVMBidder bidder) {
-		bidder.getAllocationLimit().getAdditionalVariables().forEach(this::addVariable);
+    /**
+     * Builds the partial MIP and the allocation limit of a bidder into a thread-local buffer.
+     */
+    private Map.Entry<MRVMBidderPartialMIP, RecordingMIP> buildBidderPartialMip(MRVMBidder bidder) {
+        MRVMBidderPartialMIP bidderPartialMIP;
+        if (bidder instanceof MRVMNationalBidder) {
+            MRVMNationalBidder globalBidder = (MRVMNationalBidder) bidder;
+            bidderPartialMIP = new MRVMNationalBidderPartialMip(globalBidder, scalingFactor, worldPartialMip);
+        } else if (bidder instanceof MRVMLocalBidder) {
+            MRVMLocalBidder globalBidder = (MRVMLocalBidder) bidder;
+            bidderPartialMIP = new MRVMLocalBidderPartialMip(globalBidder, scalingFactor, worldPartialMip);
+        } else {
+            MRVMRegionalBidder globalBidder = (MRVMRegionalBidder) bidder;
+            bidderPartialMIP = new MRVMRegionalBidderPartialMip(globalBidder, scalingFactor, worldPartialMip);
+        }
+        bidderPartialMIP.setPiecewiseLinearEncoding(piecewiseLinearEncoding);
+        RecordingMIP buffer = new RecordingMIP();
+        bidderPartialMIP.appendToMip(buffer);
+        addAllocationLimit(bidder, buffer);
+        return new AbstractMap.SimpleImmutableEntry<>(bidderPartialMIP, buffer);
+    }
+
+	private void addAllocationLimit(MRVMBidder bidder, IMIP mip) {
+		bidder.getAllocationLimit().getAdditionalVariables().forEach(mip::add);
 		for(AllocationLimitConstraint constraint : bidder.getAllocationLimit().getConstraints()) {
 			Constraint allocationConstraint = new Constraint(constraint.getType(), constraint.getConstant());
 			
@@ -122,7 +179,7 @@ public class MRVM_MIP extends ModelMIP {
 				}
 			}
          
-			this.addConstraint(allocationConstraint);
+			mip.add(allocationConstraint);
 		}
 	}
 
@@ -144,7 +201,7 @@ public class MRVM_MIP extends ModelMIP {
     public MRVM_MIP getMIPWithout(Bidder bidder) {
         MRVMBidder mrvmBidder = (MRVMBidder) bidder;
         Preconditions.checkArgument(bidders.contains(mrvmBidder));
-        return new MRVM_MIP(bidders.stream().filter(b -> !b.equals(mrvmBidder)).collect(Collectors.toSet()));
+        return new MRVM_MIP(bidders.stream().filter(b -> !b.equals(mrvmBidder)).collect(Collectors.toSet()), piecewiseLinearEncoding, numberOfThreads);
     }
 
     /* (non-Javadoc)
@@ -171,7 +228,7 @@ public class MRVM_MIP extends ModelMIP {
                     double doubleQuantity = solution.getValue(xVar);
                     int quantity = (int) Math.round(doubleQuantity);
                     if (quantity > 0) {
-                        MRVMGenericDefinition def = world.getAllGenericDefinitions().stream().filter(g -> g.getBand().equals(band) && g.getRegion().equals(region)).findFirst().get();
+                        MRVMGenericDefinition def = world.getGenericDefinition(region, band);
                         bundleEntries.add(new BundleEntry(def, quantity));
                     }
                 }
@@ -202,7 +259,7 @@ public class MRVM_MIP extends ModelMIP {
 
     @Override
     public ModelMIP copyOf() {
-        return new MRVM_MIP(bidders);
+        return new MRVM_MIP(bidders, piecewiseLinearEncoding, numberOfThreads);
     }
 
     @Override
@@ -214,6 +271,26 @@ public class MRVM_MIP extends ModelMIP {
         return variablesOfInterest;
     }
 
+    @Override
+    public List<AllocationVariable> getAllocationVariables() {
+        List<AllocationVariable> result = new ArrayList<>();
+        List<MRVMBidder> sortedBidders = new ArrayList<>(bidders);
+        sortedBidders.sort(Comparator.comparingLong(MRVMBidder::getLongId));
+        for (MRVMBidder bidder : sortedBidders) {
+            for (Region region : world.getRegionsMap().getRegions()) {
+                for (MRVMBand band : world.getBands()) {
+                    result.add(new AllocationVariable(worldPartialMip.getXVariable(bidder, region, band),
+                            bidder, world.getGenericDefinition(region, band)));
+                }
+            }
+        }
+        return result;
+    }
+
+    public PiecewiseLinearEncoding getPiecewiseLinearEncoding() {
+        return piecewiseLinearEncoding;
+    }
+
     public MRVMWorldPartialMip getWorldPartialMip() {
         return worldPartialMip;
     }
@@ -6,11 +6,14 @@ import org.apache.logging.log4j.Logger;
 import org.marketdesignresearch.mechlib.core.Bundle;
 import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
 import org.spectrumauctions.sats.core.model.mrvm.MRVMRegionsMap;
+import org.spectrumauctions.sats.core.util.ConcurrencyUtils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -24,8 +27,15 @@ public class Scalor {
 
 
     public static double scalingFactor(Collection<MRVMBidder> bidders){
+        return scalingFactor(bidders, biggestUnscaledPossibleValue(bidders));
+    }
+
+    /**
+     * @param biggestUnscaledPossibleValue the result of {@link #biggestUnscaledPossibleValue(Collection)}
+     */
+    public static double scalingFactor(Collection<MRVMBidder> bidders, BigDecimal biggestUnscaledPossibleValue){
         double proposedSVScaling = calculateSVScalingFactor(bidders);
-        double proposedOmegaScaling = calculateOmegaScalingFactor(bidders);
+        double proposedOmegaScaling = calculateOmegaScalingFactor(biggestUnscaledPossibleValue);
         if(proposedOmegaScaling > proposedSVScaling){
             return proposedOmegaScaling;
         }else{
@@ -51,8 +61,7 @@ public class Scalor {
         return Math.round(proposedScalingFactor.doubleValue())+1;
     }
 
-    private static double calculateOmegaScalingFactor(Collection<MRVMBidder> bidders) {
-        BigDecimal maxVal = biggestUnscaledPossibleValue(bidders);
+    private static double calculateOmegaScalingFactor(BigDecimal maxVal) {
         if (maxVal.compareTo(highestValidVal) < 0) {
             return 1;
         } else {
@@ -67,9 +76,18 @@ public class Scalor {
      * @return
      */
     public static BigDecimal biggestUnscaledPossibleValue(Collection<MRVMBidder> bidders) {
+        return biggestUnscaledPossibleValue(bidders, 1);
+    }
+
+    /**
+     * Returns the biggest possible value any of the passed bidders can have.
+     * The values of the bidders are calculated concurrently on the given number of threads.
+     */
+    public static BigDecimal biggestUnscaledPossibleValue(Collection<MRVMBidder> bidders, int numberOfThreads) {
+        List<BigDecimal> values = ConcurrencyUtils.mapConcurrently(new ArrayList<>(bidders),
+                bidder -> bidder.calculateValue(Bundle.of(bidder.getWorld().getLicenses())), numberOfThreads);
         BigDecimal biggestValue = BigDecimal.ZERO;
-        for (MRVMBidder bidder : bidders) {
-            BigDecimal val = bidder.calculateValue(Bundle.of(bidder.getWorld().getLicenses()));
+        for (BigDecimal val : values) {
             if (val.compareTo(biggestValue) > 0) {
                 biggestValue = val;
             }
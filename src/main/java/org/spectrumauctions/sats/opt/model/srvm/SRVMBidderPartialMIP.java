@@ -13,11 +13,12 @@ import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
 import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
 import org.spectrumauctions.sats.core.util.math.ContinuousPiecewiseLinearFunction;
 import org.spectrumauctions.sats.opt.domain.PartialMIP;
+import org.spectrumauctions.sats.opt.domain.PiecewiseLinearEncoding;
 import org.spectrumauctions.sats.opt.domain.PiecewiseLinearPartialMIP;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,6 +39,7 @@ public class SRVMBidderPartialMIP extends PartialMIP {
     private Map<SRVMBand, Variable> gammaVariables;
     protected final SRVMWorldPartialMip worldPartialMip;
     private final SRVMBidder bidder;
+    private PiecewiseLinearEncoding piecewiseLinearEncoding = PiecewiseLinearEncoding.MULTIPLE_CHOICE;
 
     public SRVMBidderPartialMIP(SRVMBidder bidder, SRVMWorldPartialMip worldMip) {
         this.bidder = bidder;
@@ -45,6 +47,19 @@ public class SRVMBidderPartialMIP extends PartialMIP {
         initVariables();
     }
 
+    public PiecewiseLinearEncoding getPiecewiseLinearEncoding() {
+        return piecewiseLinearEncoding;
+    }
+
+    /**
+     * Sets the encoding of the piecewise linear functions in this partial MIP.
+     * Must be called before the partial MIP is appended to a MIP.
+     */
+    public void setPiecewiseLinearEncoding(PiecewiseLinearEncoding piecewiseLinearEncoding) {
+        Preconditions.checkNotNull(piecewiseLinearEncoding);
+        this.piecewiseLinearEncoding = piecewiseLinearEncoding;
+    }
+
     private void initVariables() {
         this.zVariables = createZVariables();
         this.wVariable = new Variable(wVariablePrefix + "_" + bidder.getLongId(), VarType.BOOLEAN, 0, 1);
@@ -138,7 +153,7 @@ public class SRVMBidderPartialMIP extends PartialMIP {
      * @return
      */
     Set<Constraint> generatezConstraints() {
-        Set<Constraint> result = new HashSet<>();
+        Set<Constraint> result = new LinkedHashSet<>();
         for (SRVMBand band : bidder.getWorld().getBands()) {
             Variable x = worldPartialMip.getXVariable(bidder, band);
             // Add Z_i_b >= 1/n_b * X_b constraint
@@ -157,7 +172,7 @@ public class SRVMBidderPartialMIP extends PartialMIP {
 
     Set<Constraint> generatewConstraints() {
         int sumNb = bidder.getWorld().getBands().size();
-        Set<Constraint> result = new HashSet<>();
+        Set<Constraint> result = new LinkedHashSet<>();
         Constraint wgeq = new Constraint(CompareType.LEQ, 1.0 / sumNb);
         wgeq.addTerm(-1, getwVariable());
         Constraint wleq = new Constraint(CompareType.GEQ, 0);
@@ -177,7 +192,7 @@ public class SRVMBidderPartialMIP extends PartialMIP {
      * @return
      */
     Set<Constraint> generateInterBandSynergyConstraints() {
-        Set<Constraint> result = new HashSet<>();
+        Set<Constraint> result = new LinkedHashSet<>();
         for (SRVMBand band : bidder.getWorld().getBands()) {
             Variable vm = worldPartialMip.getVmVariable(bidder, band);
             // Add C.10
@@ -208,7 +223,7 @@ public class SRVMBidderPartialMIP extends PartialMIP {
     }
 
     Set<Constraint> generateValueConstraints() {
-        Set<Constraint> result = new HashSet<>();
+        Set<Constraint> result = new LinkedHashSet<>();
         for (SRVMBand band : bidder.getWorld().getBands()) {
             double baseValue = getBaseValue(bidder, band);
             // Add C.17
@@ -223,7 +238,7 @@ public class SRVMBidderPartialMIP extends PartialMIP {
     }
 
     Set<PartialMIP> generatePiecewiseLinearFunctionConstraints() {
-        Set<PartialMIP> result = new HashSet<>();
+        Set<PartialMIP> result = new LinkedHashSet<>();
         for (SRVMBand band : bidder.getWorld().getBands()) {
             // Add C.14
             ContinuousPiecewiseLinearFunction funcAlpha = alpha(band);
@@ -233,7 +248,8 @@ public class SRVMBidderPartialMIP extends PartialMIP {
                     new PiecewiseLinearPartialMIP(funcAlpha,
                             inputAlpha,
                             outputAlpha,
-                            "aux_alpha_helper_" + createIndex(bidder, band) + "_");
+                            "aux_alpha_helper_" + createIndex(bidder, band) + "_",
+                            piecewiseLinearEncoding);
             result.add(partialMipAlpha);
 
             // Add C.15
@@ -244,7 +260,8 @@ public class SRVMBidderPartialMIP extends PartialMIP {
                     new PiecewiseLinearPartialMIP(funcBeta,
                             inputBeta,
                             outputBeta,
-                            "aux_beta_helper_" + createIndex(bidder, band) + "_");
+                            "aux_beta_helper_" + createIndex(bidder, band) + "_",
+                            piecewiseLinearEncoding);
             result.add(partialMipBeta);
 
             // Add C.16
@@ -255,7 +272,8 @@ public class SRVMBidderPartialMIP extends PartialMIP {
                     new PiecewiseLinearPartialMIP(funcGamma,
                             inputGamma,
                             outputGamma,
-                            "aux_gamma_helper_" + createIndex(bidder, band) + "_");
+                            "aux_gamma_helper_" + createIndex(bidder, band) + "_",
+                            piecewiseLinearEncoding);
             result.add(partialMipGamma);
         }
         return result;
@@ -0,0 +1,179 @@
+package org.spectrumauctions.sats.opt.model.srvm;
+
+import com.google.common.base.Preconditions;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Solves demand queries for an {@link SRVMBidder} exactly, without a MIP.
+ * <p>
+ * The value of an SRVM bundle only depends on the quantity per band: It is the sum of the band values,
+ * multiplied by the interband synergy value if at least two bands are represented in the bundle.
+ * The demand query is therefore split into two cases:
+ * <ul>
+ * <li>At most one band is represented: Every quantity of every band is evaluated on its own.</li>
+ * <li>At least two bands are represented: A dynamic program over the bands keeps, for every number of represented
+ * bands (0, 1 or at least 2), the k best partial quantity vectors, where every band value is weighted with the
+ * interband synergy value.</li>
+ * </ul>
+ * The k best bundles are the k best bundles of the union of both cases.
+ * Prices are evaluated on bundles of {@link SRVMBand}s, i.e., on generic goods.
+ */
+public class SRVMDemandQuery {
+
+    private static final Comparator<Candidate> ORDER = Comparator
+            .comparingDouble((Candidate c) -> -c.utility)
+            .thenComparing(c -> c.quantities, SRVMDemandQuery::compareQuantities);
+
+    private final List<SRVMBand> bands;
+    /**
+     * values[b][q] is the value of q licenses of band b, without interband synergies
+     */
+    private final double[][] values;
+    /**
+     * costs[b][q] is the price of q licenses of band b
+     */
+    private final double[][] costs;
+    private final double interbandSynergyValue;
+
+    public SRVMDemandQuery(SRVMBidder bidder, Prices prices) {
+        Preconditions.checkNotNull(bidder);
+        Preconditions.checkNotNull(prices);
+        this.bands = bidder.getWorld().getBands();
+        this.values = new double[bands.size()][];
+        this.costs = new double[bands.size()][];
+        for (int b = 0; b < bands.size(); b++) {
+            SRVMBand band = bands.get(b);
+            values[b] = new double[band.getQuantity() + 1];
+            costs[b] = new double[band.getQuantity() + 1];
+            for (int q = 1; q <= band.getQuantity(); q++) {
+                Bundle bundle = bundleOf(band, q);
+                values[b][q] = bidder.calculateValue(bundle).doubleValue();
+                costs[b][q] = prices.getPrice(bundle).getAmount().doubleValue();
+            }
+        }
+        this.interbandSynergyValue = bidder.getInterbandSynergyValue().doubleValue();
+    }
+
+    /**
+     * Enumerates the bundles with the highest utility, in decreasing order of utility.
+     *
+     * @param maxNumberOfBundles the maximal number of bundles to return
+     * @return at most maxNumberOfBundles distinct bundles, consisting of {@link SRVMBand}s
+     */
+    public List<Bundle> getBestBundles(int maxNumberOfBundles) {
+        Preconditions.checkArgument(maxNumberOfBundles > 0);
+        List<Candidate> candidates = new ArrayList<>();
+        // Case 1: No interband synergies, at most one band is represented
+        candidates.add(new Candidate(new int[bands.size()], 0, 0));
+        for (int b = 0; b < bands.size(); b++) {
+            for (int q = 1; q < values[b].length; q++) {
+                int[] quantities = new int[bands.size()];
+                quantities[b] = q;
+                candidates.add(new Candidate(quantities, 1, values[b][q] - costs[b][q]));
+            }
+        }
+        // Case 2: Interband synergies, at least two bands are represented
+        candidates.addAll(bestWithInterbandSynergies(maxNumberOfBundles));
+
+        candidates.sort(ORDER);
+        List<Bundle> result = new ArrayList<>();
+        for (int i = 0; i < candidates.size() && i < maxNumberOfBundles; i++) {
+            result.add(toBundle(candidates.get(i).quantities));
+        }
+        return result;
+    }
+
+    /**
+     * @return the bundle maximizing the bidder's utility
+     */
+    public Bundle getBestBundle() {
+        return getBestBundles(1).get(0);
+    }
+
+    private List<Candidate> bestWithInterbandSynergies(int k) {
+        // partials.get(s) holds the k best partial solutions in which min(s, 2) bands are represented
+        List<List<Candidate>> partials = new ArrayList<>();
+        for (int s = 0; s <= 2; s++) {
+            partials.add(new ArrayList<>());
+        }
+        partials.get(0).add(new Candidate(new int[bands.size()], 0, 0));
+        for (int b = 0; b < bands.size(); b++) {
+            List<List<Candidate>> next = new ArrayList<>();
+            for (int s = 0; s <= 2; s++) {
+                next.add(new ArrayList<>());
+            }
+            for (List<Candidate> partialsOfState : partials) {
+                for (Candidate partial : partialsOfState) {
+                    for (int q = 0; q < values[b].length; q++) {
+                        int[] quantities = partial.quantities.clone();
+                        quantities[b] = q;
+                        int represented = Math.min(2, partial.represented + (q > 0 ? 1 : 0));
+                        double utility = partial.utility + interbandSynergyValue * values[b][q] - costs[b][q];
+                        next.get(represented).add(new Candidate(quantities, represented, utility));
+                    }
+                }
+            }
+            for (List<Candidate> partialsOfState : next) {
+                partialsOfState.sort(ORDER);
+                if (partialsOfState.size() > k) {
+                    partialsOfState.subList(k, partialsOfState.size()).clear();
+                }
+            }
+            partials = next;
+        }
+        return partials.get(2);
+    }
+
+    private Bundle toBundle(int[] quantities) {
+        Set<BundleEntry> entries = new HashSet<>();
+        for (int b = 0; b < quantities.length; b++) {
+            if (quantities[b] > 0) {
+                entries.add(new BundleEntry(bands.get(b), quantities[b]));
+            }
+        }
+        return entries.isEmpty() ? Bundle.EMPTY : new Bundle(entries);
+    }
+
+    private static Bundle bundleOf(SRVMBand band, int quantity) {
+        Set<BundleEntry> entries = new HashSet<>();
+        entries.add(new BundleEntry(band, quantity));
+        return new Bundle(entries);
+    }
+
+    private static int compareQuantities(int[] a, int[] b) {
+        int sizeA = 0;
+        int sizeB = 0;
+        for (int i = 0; i < a.length; i++) {
+            sizeA += a[i];
+            sizeB += b[i];
+        }
+        if (sizeA != sizeB) return Integer.compare(sizeA, sizeB);
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) return Integer.compare(a[i], b[i]);
+        }
+        return 0;
+    }
+
+    private static final class Candidate {
+        private final int[] quantities;
+        private final int represented;
+        private final double utility;
+
+        private Candidate(int[] quantities, int represented, double utility) {
+            this.quantities = quantities;
+            this.represented = represented;
+            this.utility = utility;
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.spectrumauctions.sats.opt.model.srvm;
+
+import com.google.common.base.Preconditions;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.opt.domain.LagrangianUpperBound;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A solver-free upper bound on the social welfare of an SRVM instance, see {@link LagrangianUpperBound}.
+ * <p>
+ * The goods are the bands. As the value of an SRVM bundle only depends on the quantity per band,
+ * the bidders' utility maximization at given prices is solved exactly:
+ * Either at most one band is represented, or at least two bands are represented and every band value is
+ * multiplied with the interband synergy value.
+ */
+public class SRVMUpperBound extends LagrangianUpperBound {
+
+    private final List<SRVMBand> bands;
+    /**
+     * values[i][b][q] is the value of bidder i for q licenses of band b, without interband synergies
+     */
+    private final double[][][] values;
+    private final double[] interbandSynergyValues;
+
+    public SRVMUpperBound(Collection<SRVMBidder> bidders) {
+        this(bidders, bidders.iterator().next().getWorld().getBands());
+    }
+
+    private SRVMUpperBound(Collection<SRVMBidder> bidders, List<SRVMBand> bands) {
+        super(bands.stream().mapToInt(SRVMBand::getQuantity).toArray());
+        Preconditions.checkArgument(!bidders.isEmpty());
+        this.bands = bands;
+        this.values = new double[bidders.size()][bands.size()][];
+        this.interbandSynergyValues = new double[bidders.size()];
+        int i = 0;
+        for (SRVMBidder bidder : bidders) {
+            for (int b = 0; b < bands.size(); b++) {
+                SRVMBand band = bands.get(b);
+                values[i][b] = new double[band.getQuantity() + 1];
+                for (int q = 1; q <= band.getQuantity(); q++) {
+                    values[i][b][q] = bidder.calculateValue(new Bundle(Collections.singleton(new BundleEntry(band, q)))).doubleValue();
+                }
+            }
+            interbandSynergyValues[i] = bidder.getInterbandSynergyValue().doubleValue();
+            i++;
+        }
+    }
+
+    @Override
+    protected int getNumberOfBidders() {
+        return values.length;
+    }
+
+    @Override
+    protected double maximalUtility(int bidder, double[] prices, int[] demand) {
+        // At most one band is represented
+        double bestSingle = 0;
+        int bestSingleBand = -1;
+        int bestSingleQuantity = 0;
+        // At least two bands are represented: the best positive quantity per band, with interband synergies
+        double[] bestPerBand = new double[bands.size()];
+        int[] bestQuantityPerBand = new int[bands.size()];
+        for (int b = 0; b < bands.size(); b++) {
+            bestPerBand[b] = Double.NEGATIVE_INFINITY;
+            for (int q = 1; q < values[bidder][b].length; q++) {
+                double single = values[bidder][b][q] - prices[b] * q;
+                if (single > bestSingle) {
+                    bestSingle = single;
+                    bestSingleBand = b;
+                    bestSingleQuantity = q;
+                }
+                double withSynergies = interbandSynergyValues[bidder] * values[bidder][b][q] - prices[b] * q;
+                if (withSynergies > bestPerBand[b]) {
+                    bestPerBand[b] = withSynergies;
+                    bestQuantityPerBand[b] = q;
+                }
+            }
+        }
+        // Take all bands with positive utility, but at least the two best ones
+        boolean[] selected = new boolean[bands.size()];
+        double bestMultiple = 0;
+        int numberOfSelected = 0;
+        for (int b = 0; b < bands.size(); b++) {
+            if (bestPerBand[b] > 0) {
+                selected[b] = true;
+                bestMultiple += bestPerBand[b];
+                numberOfSelected++;
+            }
+        }
+        while (numberOfSelected < 2 && numberOfSelected < bands.size()) {
+            int next = -1;
+            for (int b = 0; b < bands.size(); b++) {
+                if (!selected[b] && (next < 0 || bestPerBand[b] > bestPerBand[next])) next = b;
+            }
+            selected[next] = true;
+            bestMultiple += bestPerBand[next];
+            numberOfSelected++;
+        }
+        if (numberOfSelected >= 2 && bestMultiple > bestSingle) {
+            for (int b = 0; b < bands.size(); b++) {
+                if (selected[b]) demand[b] += bestQuantityPerBand[b];
+            }
+            return bestMultiple;
+        }
+        if (bestSingleBand >= 0) {
+            demand[bestSingleBand] += bestSingleQuantity;
+        }
+        return bestSingle;
+    }
+
+    @Override
+    protected double standaloneValue(int bidder, int good, int quantity) {
+        return values[bidder][good][quantity];
+    }
+
+    /**
+     * @return the bands, in the order used by {@link #getPrices()}
+     */
+    public List<SRVMBand> getBands() {
+        return Collections.unmodifiableList(bands);
+    }
+
+}
@@ -27,13 +27,20 @@ public class SRVMWorldPartialMip extends PartialMIP {
     public final static String vmVariablePrefix = "VM";
     public final static String voVariablePrefix = "VO";
 
-    private final Map<SRVMBidder, Map<SRVMBand, Variable>> xVariables;
-    private final Map<SRVMBidder, Map<SRVMBand, Variable>> vmVariables;
-    private final Map<SRVMBidder, Map<SRVMBand, Variable>> voVariables;
+    /**
+     * The variables are indexed by bidder and band, as given by {@link #bidderIndices} and {@link #bandIndices}
+     */
+    private final Variable[][] xVariables;
+    private final Variable[][] vmVariables;
+    private final Variable[][] voVariables;
 
     private final double biggestPossibleValue;
 
     private final Set<SRVMBidder> bidders;
+    private final List<SRVMBidder> bidderList;
+    private final List<SRVMBand> bands;
+    private final Map<Long, Integer> bidderIndices = new HashMap<>();
+    private final Map<String, Integer> bandIndices = new HashMap<>();
     private final SRVMWorld world;
     private final double scalingFactor;
 
@@ -50,8 +57,16 @@ public class SRVMWorldPartialMip extends PartialMIP {
         this.biggestPossibleValue = biggestPossibleValue;
         this.scalingFactor = scalingFactor;
         this.bidders = Collections.unmodifiableSet(new HashSet<>(bidders2));
+        this.bidderList = new ArrayList<>(bidders);
         world = bidders2.iterator().next().getWorld();
         Preconditions.checkNotNull(world);
+        this.bands = new ArrayList<>(world.getBands());
+        for (int i = 0; i < bidderList.size(); i++) {
+            bidderIndices.put(bidderList.get(i).getLongId(), i);
+        }
+        for (int b = 0; b < bands.size(); b++) {
+            bandIndices.put(bands.get(b).getName(), b);
+        }
 
         xVariables = initXVariables();
         vmVariables = initValueVariables(vmVariablePrefix);
@@ -59,12 +74,11 @@ public class SRVMWorldPartialMip extends PartialMIP {
     }
 
     private Set<Constraint> createNumberOfLotsConstraints() {
-        Set<Constraint> result = new HashSet<>();
-        for (SRVMBand band : world.getBands()) {
-            Constraint numberOfLotsConstraint = new Constraint(CompareType.LEQ, band.getQuantity());
-            for (SRVMBidder bidder : bidders) {
-                Variable xVar = getXVariable(bidder, band);
-                numberOfLotsConstraint.addTerm(1, xVar);
+        Set<Constraint> result = new LinkedHashSet<>();
+        for (int b = 0; b < bands.size(); b++) {
+            Constraint numberOfLotsConstraint = new Constraint(CompareType.LEQ, bands.get(b).getQuantity());
+            for (Variable[] bidderVariables : xVariables) {
+                numberOfLotsConstraint.addTerm(1, bidderVariables[b]);
             }
             result.add(numberOfLotsConstraint);
         }
@@ -72,33 +86,26 @@ public class SRVMWorldPartialMip extends PartialMIP {
 
     }
 
-    private Map<SRVMBidder, Map<SRVMBand, Variable>> initValueVariables(String prefix) {
-        Map<SRVMBidder, Map<SRVMBand, Variable>> result = new HashMap<>();
-        for (SRVMBidder bidder : bidders) {
-            Map<SRVMBand, Variable> temp = new HashMap<>();
-            for (SRVMBand band : world.getBands()) {
-                String varName = prefix + "_" + bidder.getLongId() + "_" + band.getName();
-                Variable var = new Variable(varName, VarType.DOUBLE, 0, MIP.MAX_VALUE);
-                temp.put(band, var);
+    private Variable[][] initValueVariables(String prefix) {
+        Variable[][] result = new Variable[bidderList.size()][bands.size()];
+        for (int i = 0; i < bidderList.size(); i++) {
+            for (int b = 0; b < bands.size(); b++) {
+                String varName = prefix + "_" + bidderList.get(i).getLongId() + "_" + bands.get(b).getName();
+                result[i][b] = new Variable(varName, VarType.DOUBLE, 0, MIP.MAX_VALUE);
             }
-            result.put(bidder, temp);
         }
-        return Collections.unmodifiableMap(result);
+        return result;
     }
 
-    private Map<SRVMBidder, Map<SRVMBand, Variable>> initXVariables() {
-        Map<SRVMBidder, Map<SRVMBand, Variable>> result = new HashMap<>();
-
-        for (SRVMBidder bidder : bidders) {
-            Map<SRVMBand, Variable> bandMap = new HashMap<>();
-            for (SRVMBand band : world.getBands()) {
-                String varName = xVariablePrefix.concat(SRVMBidderPartialMIP.createIndex(bidder, band));
-                Variable var = new Variable(varName, VarType.INT, 0, band.getQuantity());
-                bandMap.put(band, var);
+    private Variable[][] initXVariables() {
+        Variable[][] result = new Variable[bidderList.size()][bands.size()];
+        for (int i = 0; i < bidderList.size(); i++) {
+            for (int b = 0; b < bands.size(); b++) {
+                String varName = xVariablePrefix.concat(SRVMBidderPartialMIP.createIndex(bidderList.get(i), bands.get(b)));
+                result[i][b] = new Variable(varName, VarType.INT, 0, bands.get(b).getQuantity());
             }
-            result.put(bidder, Collections.unmodifiableMap(bandMap));
         }
-        return Collections.unmodifiableMap(result);
+        return result;
     }
 
     private void appendObjectiveToMip(IMIP mip) {
@@ -107,15 +114,15 @@ public class SRVMWorldPartialMip extends PartialMIP {
                 || mip.getObjectiveTerms().size() != 0) {
             //TODO Log Warning
         }
-        for (SRVMBidder bidder : bidders) {
-            double syni = bidder.getInterbandSynergyValue().floatValue();
-            for (SRVMBand band : world.getBands()) {
+        for (int i = 0; i < bidderList.size(); i++) {
+            double syni = bidderList.get(i).getInterbandSynergyValue().floatValue();
+            for (int b = 0; b < bands.size(); b++) {
 
                 // Add VM variables
-                mip.addObjectiveTerm(syni, vmVariables.get(bidder).get(band));
+                mip.addObjectiveTerm(syni, vmVariables[i][b]);
 
                 // Add VO variables
-                mip.addObjectiveTerm(1, voVariables.get(bidder).get(band));
+                mip.addObjectiveTerm(1, voVariables[i][b]);
 
             }
         }
@@ -146,19 +153,11 @@ public class SRVMWorldPartialMip extends PartialMIP {
     @Override
     public void appendVariablesToMip(IMIP mip) {
         super.appendVariablesToMip(mip);
-        for (Map.Entry<SRVMBidder, Map<SRVMBand, Variable>> bidderMapEntry : vmVariables.entrySet()) {
-            for (Map.Entry<SRVMBand, Variable> bandVariableEntry : bidderMapEntry.getValue().entrySet()) {
-                mip.add(bandVariableEntry.getValue());
-            }
-        }
-        for (Map.Entry<SRVMBidder, Map<SRVMBand, Variable>> bidderMapEntry : voVariables.entrySet()) {
-            for (Map.Entry<SRVMBand, Variable> bandVariableEntry : bidderMapEntry.getValue().entrySet()) {
-                mip.add(bandVariableEntry.getValue());
-            }
-        }
-        for (Map<SRVMBand, Variable> innerMap : xVariables.values()) {
-            for (Variable var : innerMap.values()) {
-                mip.add(var);
+        for (Variable[][] variables : Arrays.asList(vmVariables, voVariables, xVariables)) {
+            for (Variable[] bidderVariables : variables) {
+                for (Variable var : bidderVariables) {
+                    mip.add(var);
+                }
             }
         }
     }
@@ -167,28 +166,28 @@ public class SRVMWorldPartialMip extends PartialMIP {
      * @throws NullPointerException if the requested variable is not stored.
      */
     public Variable getXVariable(SRVMBidder bidder, SRVMBand band) {
-        Variable var = xVariables.get(bidder).get(band);
-        if (var == null) {
-            throw new NullPointerException();
-        }
-        return var;
+        return get(xVariables, bidder, band);
     }
 
 
     public Variable getVmVariable(SRVMBidder bidder, SRVMBand band) {
-        Variable var = vmVariables.get(bidder).get(band);
-        if (var == null) {
-            throw new NullPointerException();
-        }
-        return var;
+        return get(vmVariables, bidder, band);
     }
 
     public Variable getVoVariable(SRVMBidder bidder, SRVMBand band) {
-        Variable var = voVariables.get(bidder).get(band);
-        if (var == null) {
+        return get(voVariables, bidder, band);
+    }
+
+    /**
+     * @throws NullPointerException if the requested variable is not stored.
+     */
+    private Variable get(Variable[][] variables, SRVMBidder bidder, SRVMBand band) {
+        Integer i = bidderIndices.get(bidder.getLongId());
+        Integer b = bandIndices.get(band.getName());
+        if (i == null || b == null || (bidderList.get(i) != bidder && !bidderList.get(i).equals(bidder))) {
             throw new NullPointerException();
         }
-        return var;
+        return variables[i][b];
     }
 
     /**
@@ -28,6 +28,10 @@ import org.marketdesignresearch.mechlib.metainfo.MetaInfo;
 import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
 import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
 import org.spectrumauctions.sats.core.model.srvm.SRVMWorld;
+import org.spectrumauctions.sats.core.util.ConcurrencyUtils;
+import org.spectrumauctions.sats.opt.domain.PiecewiseLinearEncoding;
+import org.spectrumauctions.sats.opt.domain.RecordingMIP;
+import org.spectrumauctions.sats.opt.model.AllocationVariable;
 import org.spectrumauctions.sats.opt.model.ModelMIP;
 
 import java.math.BigDecimal;
@@ -56,30 +60,68 @@ public class SRVM_MIP extends ModelMIP {
     private SRVMWorldPartialMip worldPartialMip;
     private Map<SRVMBidder, SRVMBidderPartialMIP> bidderPartialMips;
     private SRVMWorld world;
+    private final int numberOfThreads;
+    private final PiecewiseLinearEncoding piecewiseLinearEncoding;
 
+    /**
+     * Builds the partial MIPs of the bidders sequentially, see {@link #SRVM_MIP(Collection, int)}.
+     */
     public SRVM_MIP(Collection<SRVMBidder> bidders) {
+        this(bidders, 1);
+    }
+
+    /**
+     * The partial MIPs of the bidders are built concurrently on the given number of threads,
+     * and then added to the MIP in the iteration order of the bidders.
+     * The resulting MIP does not depend on the number of threads.
+     */
+    public SRVM_MIP(Collection<SRVMBidder> bidders, int numberOfThreads) {
+        this(bidders, PiecewiseLinearEncoding.MULTIPLE_CHOICE, numberOfThreads);
+    }
+
+    /**
+     * @param piecewiseLinearEncoding the MIP formulation of the bidders' piecewise linear value components
+     */
+    public SRVM_MIP(Collection<SRVMBidder> bidders, PiecewiseLinearEncoding piecewiseLinearEncoding, int numberOfThreads) {
         Preconditions.checkNotNull(bidders);
+        Preconditions.checkNotNull(piecewiseLinearEncoding);
         Preconditions.checkArgument(bidders.size() > 0);
+        Preconditions.checkArgument(numberOfThreads > 0);
         world = bidders.iterator().next().getWorld();
+        this.numberOfThreads = numberOfThreads;
+        this.piecewiseLinearEncoding = piecewiseLinearEncoding;
+        // Initialize the lazily computed licenses of the world before accessing them concurrently
+        world.getNumberOfGoods();
+        world.getLicenses();
         getMIP().setSolveParam(SolveParam.RELATIVE_OBJ_GAP, 0.001);
-        scalingFactor = calculateScalingFactor(bidders);
-        double biggestPossibleValue = biggestUnscaledPossibleValue(bidders).doubleValue() / scalingFactor;
+        BigDecimal biggestUnscaledPossibleValue = biggestUnscaledPossibleValue(bidders, numberOfThreads);
+        scalingFactor = calculateScalingFactor(biggestUnscaledPossibleValue);
+        double biggestPossibleValue = biggestUnscaledPossibleValue.doubleValue() / scalingFactor;
         this.worldPartialMip = new SRVMWorldPartialMip(
                 bidders,
                 biggestPossibleValue,
                 scalingFactor);
         worldPartialMip.appendToMip(getMIP());
         bidderPartialMips = new HashMap<>();
-        for (SRVMBidder bidder : bidders) {
-            SRVMBidderPartialMIP bidderPartialMIP;
-            bidderPartialMIP = new SRVMBidderPartialMIP(bidder, worldPartialMip);
-            bidderPartialMIP.appendToMip(getMIP());
-            bidderPartialMips.put(bidder, bidderPartialMIP);
+        List<SRVMBidder> bidderList = new ArrayList<>(bidders);
+        List<Map.Entry<SRVMBidderPartialMIP, RecordingMIP>> built = ConcurrencyUtils.mapConcurrently(bidderList, bidder -> {
+            SRVMBidderPartialMIP bidderPartialMIP = new SRVMBidderPartialMIP(bidder, worldPartialMip);
+            bidderPartialMIP.setPiecewiseLinearEncoding(piecewiseLinearEncoding);
+            RecordingMIP buffer = new RecordingMIP();
+            bidderPartialMIP.appendToMip(buffer);
+            return new AbstractMap.SimpleImmutableEntry<>(bidderPartialMIP, buffer);
+        }, numberOfThreads);
+        for (int i = 0; i < bidderList.size(); i++) {
+            built.get(i).getValue().replayOn(getMIP());
+            bidderPartialMips.put(bidderList.get(i), built.get(i).getKey());
         }
     }
 
     public static double calculateScalingFactor(Collection<SRVMBidder> bidders) {
-        BigDecimal maxVal = biggestUnscaledPossibleValue(bidders);
+        return calculateScalingFactor(biggestUnscaledPossibleValue(bidders));
+    }
+
+    private static double calculateScalingFactor(BigDecimal maxVal) {
         if (maxVal.compareTo(highestValidVal) < 0) {
             return 1;
         } else {
@@ -94,9 +136,18 @@ public class SRVM_MIP extends ModelMIP {
      * @return
      */
     public static BigDecimal biggestUnscaledPossibleValue(Collection<SRVMBidder> bidders) {
+        return biggestUnscaledPossibleValue(bidders, 1);
+    }
+
+    /**
+     * Returns the biggest possible value any of the passed bidders can have.
+     * The values of the bidders are calculated concurrently on the given number of threads.
+     */
+    public static BigDecimal biggestUnscaledPossibleValue(Collection<SRVMBidder> bidders, int numberOfThreads) {
+        List<BigDecimal> values = ConcurrencyUtils.mapConcurrently(new ArrayList<>(bidders),
+                bidder -> bidder.calculateValue(Bundle.of(bidder.getWorld().getLicenses())), numberOfThreads);
         BigDecimal biggestValue = BigDecimal.ZERO;
-        for (SRVMBidder bidder : bidders) {
-            BigDecimal val = bidder.calculateValue(Bundle.of(bidder.getWorld().getLicenses()));
+        for (BigDecimal val : values) {
             if (val.compareTo(biggestValue) > 0) {
                 biggestValue = val;
             }
@@ -112,12 +163,16 @@ public class SRVM_MIP extends ModelMIP {
         getMIP().add(variable);
     }
 
+    public void addObjectiveTerm(double coefficient, Variable variable) {
+        getMIP().addObjectiveTerm(coefficient, variable);
+    }
+
 
     @Override
     public ModelMIP getMIPWithout(Bidder bidder) {
         SRVMBidder srvmBidder = (SRVMBidder) bidder;
         Preconditions.checkArgument(bidderPartialMips.containsKey(srvmBidder));
-        return new SRVM_MIP(bidderPartialMips.keySet().stream().filter(b -> !b.equals(srvmBidder)).collect(Collectors.toSet()));
+        return new SRVM_MIP(bidderPartialMips.keySet().stream().filter(b -> !b.equals(srvmBidder)).collect(Collectors.toSet()), piecewiseLinearEncoding, numberOfThreads);
     }
 
     /* (non-Javadoc)
@@ -173,7 +228,7 @@ public class SRVM_MIP extends ModelMIP {
 
     @Override
     public ModelMIP copyOf() {
-        return new SRVM_MIP(bidderPartialMips.keySet());
+        return new SRVM_MIP(bidderPartialMips.keySet(), piecewiseLinearEncoding, numberOfThreads);
     }
 
     @Override
@@ -187,6 +242,23 @@ public class SRVM_MIP extends ModelMIP {
         return variablesOfInterest;
     }
 
+    @Override
+    public List<AllocationVariable> getAllocationVariables() {
+        List<AllocationVariable> result = new ArrayList<>();
+        List<SRVMBidder> sortedBidders = new ArrayList<>(bidderPartialMips.keySet());
+        sortedBidders.sort(Comparator.comparingLong(SRVMBidder::getLongId));
+        for (SRVMBidder bidder : sortedBidders) {
+            for (SRVMBand band : world.getBands()) {
+                result.add(new AllocationVariable(worldPartialMip.getXVariable(bidder, band), bidder, band));
+            }
+        }
+        return result;
+    }
+
+    public PiecewiseLinearEncoding getPiecewiseLinearEncoding() {
+        return piecewiseLinearEncoding;
+    }
+
     public SRVMWorldPartialMip getWorldPartialMip() {
         return worldPartialMip;
     }
@@ -12,6 +12,8 @@ import org.junit.BeforeClass;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.spectrumauctions.sats.core.api.APITest;
+import org.spectrumauctions.sats.core.api.BatchModelCreatorTest;
+import org.spectrumauctions.sats.core.api.ParallelFileWritingTest;
 import org.spectrumauctions.sats.core.bidfile.CatsWriterTest;
 import org.spectrumauctions.sats.core.bidfile.JSONWriterTest;
 import org.spectrumauctions.sats.core.bidlang.generic.SimpleRandomOrder.SimpleRandomOrderTest;
@@ -24,7 +26,10 @@ import org.spectrumauctions.sats.core.examples.ParameterizingModelsExample;
 import org.spectrumauctions.sats.core.examples.SimpleModelAccessorsExample;
 import org.spectrumauctions.sats.core.instancehandling.InMemorySerializerTest;
 import org.spectrumauctions.sats.core.instancehandling.SerializerTest;
+import org.spectrumauctions.sats.core.instrumentation.ValueQueryStatisticsTest;
 import org.spectrumauctions.sats.core.model.DefaultModel;
+import org.spectrumauctions.sats.core.model.ConcurrentQueryTest;
+import org.spectrumauctions.sats.core.model.PopulationExecutorTest;
 import org.spectrumauctions.sats.core.model.bvm.BMRandomnessTest;
 import org.spectrumauctions.sats.core.model.bvm.BMValueTest;
 import org.spectrumauctions.sats.core.model.bvm.SizeOrderedIteratorTest;
@@ -45,7 +50,10 @@ import org.spectrumauctions.sats.core.model.srvm.SRVMBidderTest;
 import org.spectrumauctions.sats.core.model.srvm.SRVMRandomnessTest;
 import org.spectrumauctions.sats.core.model.srvm.SRVMTest;
 import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.BundleValueCacheTest;
 import org.spectrumauctions.sats.core.util.file.FilePathUtils;
+import org.spectrumauctions.sats.core.util.file.FilePathUtilsTest;
+import org.spectrumauctions.sats.core.util.random.SplittableRNGSupplierTest;
 
 import java.io.File;
 import java.io.IOException;
@@ -56,6 +64,8 @@ import java.util.List;
 @Suite.SuiteClasses({
         // API
         APITest.class,
+        BatchModelCreatorTest.class,
+        ParallelFileWritingTest.class,
         // Bidfile
         CatsWriterTest.class,
         JSONWriterTest.class,
@@ -86,6 +96,16 @@ import java.util.List;
         SRVMRandomnessTest.class,
         CATSWorldTest.class,
         CATSBidderTest.class,
+        PopulationExecutorTest.class,
+        ConcurrentQueryTest.class,
+        // Instrumentation
+        ValueQueryStatisticsTest.class,
+        // Random number generation
+        SplittableRNGSupplierTest.class,
+        // Value cache
+        BundleValueCacheTest.class,
+        // Files
+        FilePathUtilsTest.class,
         // Examples
         BiddingLanguagesExample.class,
         ParameterizingModelsExample.class,
@@ -0,0 +1,96 @@
+package org.spectrumauctions.sats.core.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.bidfile.CatsWriterTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchModelCreatorTest {
+
+    private static final File BATCH_FOLDER = new File(CatsWriterTest.EXPORT_TEST_FOLDER_NAME, "batch");
+
+    @Test
+    public void testParallelBatchEqualsSequentialBatch() throws IOException, IllegalConfigException {
+        File sequentialFolder = new File(BATCH_FOLDER, "sequential");
+        File parallelFolder = new File(BATCH_FOLDER, "parallel");
+        FileUtils.deleteQuietly(sequentialFolder);
+        FileUtils.deleteQuietly(parallelFolder);
+        List<BatchModelCreator.InstanceSeeds> seeds = BatchModelCreator.seedRange(100, 105);
+
+        PathResult sequential = new BatchModelCreator(builder(), seeds, 1).generateResults(sequentialFolder);
+        PathResult parallel = new BatchModelCreator(builder(), seeds, 4).generateResults(parallelFolder);
+
+        Assert.assertEquals(seeds.size(), parallel.getValueFiles().size());
+        JsonArray index = new JsonParser().parse(FileUtils.readFileToString(parallel.getIndexFile(), StandardCharsets.UTF_8)).getAsJsonArray();
+        JsonArray sequentialIndex = new JsonParser().parse(FileUtils.readFileToString(sequential.getIndexFile(), StandardCharsets.UTF_8)).getAsJsonArray();
+        Assert.assertEquals(seeds.size(), index.size());
+        for (int i = 0; i < seeds.size(); i++) {
+            JsonObject entry = index.get(i).getAsJsonObject();
+            Assert.assertEquals(seeds.get(i).getWorldSeed(), entry.get("seed").getAsLong());
+            Assert.assertFalse(entry.has("error"));
+            Assert.assertTrue(entry.has("millis"));
+            JsonArray valueFiles = entry.getAsJsonArray("valueFiles");
+            Assert.assertEquals(sequentialIndex.get(i).getAsJsonObject().getAsJsonArray("valueFiles"), valueFiles);
+            for (int f = 0; f < valueFiles.size(); f++) {
+                File parallelFile = new File(parallelFolder, valueFiles.get(f).getAsString());
+                File sequentialFile = new File(sequentialFolder, valueFiles.get(f).getAsString());
+                Assert.assertTrue(parallelFile.isFile());
+                Assert.assertTrue(FileUtils.contentEquals(sequentialFile, parallelFile));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentInstancesWriteSequentially() {
+        List<BatchModelCreator.InstanceSeeds> seeds = BatchModelCreator.seedRange(100, 103);
+        ModelCreator.Builder builder = builder();
+        builder.setWriterThreads(8);
+
+        new BatchModelCreator(builder, seeds, 4).buildCreators()
+                .forEach(creator -> Assert.assertEquals(1, creator.getWriterThreads()));
+        new BatchModelCreator(builder, seeds, 1).buildCreators()
+                .forEach(creator -> Assert.assertEquals(8, creator.getWriterThreads()));
+        new BatchModelCreator(builder, seeds.subList(0, 1), 4).buildCreators()
+                .forEach(creator -> Assert.assertEquals(8, creator.getWriterThreads()));
+        Assert.assertEquals(8, builder.getWriterThreads());
+    }
+
+    @Test
+    public void testManifest() throws IOException, IllegalConfigException {
+        File manifest = new File(BATCH_FOLDER, "manifest.txt");
+        FileUtils.writeLines(manifest, Arrays.asList("# world and population seeds", "1 2", "", "3,4", "5"));
+        List<BatchModelCreator.InstanceSeeds> seeds = BatchModelCreator.readManifest(manifest);
+        Assert.assertEquals(3, seeds.size());
+        Assert.assertEquals(SeedType.INDIVIDUALSEED, seeds.get(0).getSeedType());
+        Assert.assertEquals(1, seeds.get(0).getWorldSeed());
+        Assert.assertEquals(2, seeds.get(0).getPopulationSeed());
+        Assert.assertEquals("seed-3-4", seeds.get(1).getName());
+        Assert.assertEquals(SeedType.SUPERSEED, seeds.get(2).getSeedType());
+
+        FileUtils.writeLines(manifest, Arrays.asList("1 2 3"));
+        try {
+            BatchModelCreator.readManifest(manifest);
+            Assert.fail("Expected an IllegalConfigException");
+        } catch (IllegalConfigException e) {
+            // expected
+        }
+    }
+
+    private static ModelCreator.Builder builder() {
+        GSVMModelCreator.Builder builder = new GSVMModelCreator.Builder();
+        builder.setFileType(FileType.JSON);
+        builder.setLang(BiddingLanguageEnum.RANDOM);
+        builder.setOneFile(true);
+        return builder;
+    }
+
+}
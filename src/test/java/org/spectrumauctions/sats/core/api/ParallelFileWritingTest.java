@@ -0,0 +1,172 @@
+package org.spectrumauctions.sats.core.api;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spectrumauctions.sats.core.bidfile.CatsWriterTest;
+import org.spectrumauctions.sats.core.bidfile.FileWriter;
+import org.spectrumauctions.sats.core.bidfile.JsonExporter;
+import org.spectrumauctions.sats.core.bidlang.BiddingLanguage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+public class ParallelFileWritingTest {
+
+    private static final File FOLDER = new File(CatsWriterTest.EXPORT_TEST_FOLDER_NAME, "parallelfiles");
+
+    @Test
+    public void testXORFilesEqualSequentialFiles() throws Exception {
+        assertIndependentOfWriterThreads(new GSVMModelCreator.Builder(), FileType.JSON, false);
+    }
+
+    @Test
+    public void testXORQFilesEqualSequentialFiles() throws Exception {
+        assertIndependentOfWriterThreads(new MRVMModelCreator.Builder(), FileType.JSON, true);
+    }
+
+    @Test
+    public void testCATSFilesEqualSequentialFiles() throws Exception {
+        assertIndependentOfWriterThreads(new LSVMModelCreator.Builder(), FileType.CATS, false);
+    }
+
+    @Test
+    public void testConcurrentFileReservation() throws Exception {
+        File folder = new File(FOLDER, "reservation");
+        FileUtils.deleteQuietly(folder);
+        folder.mkdirs();
+        FileWriter writer = new JsonExporter(folder);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<File>>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    List<File> files = new ArrayList<>();
+                    for (int i = 0; i < 10; i++) {
+                        files.add(writer.reserveFile("satsvalue"));
+                    }
+                    return files;
+                }));
+            }
+            Set<String> names = new HashSet<>();
+            for (Future<List<File>> future : futures) {
+                for (File file : future.get()) {
+                    Assert.assertTrue(file.isFile());
+                    Assert.assertTrue("File reserved twice", names.add(file.getName()));
+                }
+            }
+            for (int i = 0; i < 80; i++) {
+                Assert.assertTrue(names.contains("satsvalue" + i + ".json"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        // Files reserved by another writer are skipped as well
+        Assert.assertEquals("satsvalue80.json", new JsonExporter(folder).reserveFile("satsvalue").getName());
+    }
+
+    @Test
+    public void testWritingToFileDelegatesToPrefixMethods() throws Exception {
+        File folder = new File(FOLDER, "delegation");
+        FileUtils.deleteQuietly(folder);
+        folder.mkdirs();
+        // A writer which only implements the abstract methods, as writers outside of SATS do
+        FileWriter writer = new FileWriter(folder) {
+            @Override
+            public File writeMultiBidderXOR(Collection<BiddingLanguage> valueFunctions, int numberOfBids, String filePrefix) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public File writeSingleBidderXOR(BiddingLanguage valueFunction, int numberOfBids, String filePrefix) throws IOException {
+                return write(filePrefix, "xor");
+            }
+
+            @Override
+            public File writeMultiBidderXORQ(Collection<BiddingLanguage> valueFunctions, int numberOfBids, String filePrefix) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public File writeSingleBidderXORQ(BiddingLanguage lang, int numberOfBids, String filePrefix) throws IOException {
+                return write(filePrefix, "xorq");
+            }
+
+            private File write(String filePrefix, String content) throws IOException {
+                File file = nextNonexistingFile(filePrefix).toFile();
+                FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+                return file;
+            }
+
+            @Override
+            protected String filetype() {
+                return "txt";
+            }
+        };
+        File xor = writer.reserveFile("bidder");
+        File xorq = writer.reserveFile("bidder");
+        Assert.assertEquals(xor, writer.writeSingleBidderXOR(null, 1, xor));
+        Assert.assertEquals(xorq, writer.writeSingleBidderXORQ(null, 1, xorq));
+        Assert.assertEquals("xor", FileUtils.readFileToString(xor, StandardCharsets.UTF_8));
+        Assert.assertEquals("xorq", FileUtils.readFileToString(xorq, StandardCharsets.UTF_8));
+        Assert.assertEquals(Arrays.asList("bidder0.txt", "bidder1.txt"), sortedFileNames(folder));
+    }
+
+    private static void assertIndependentOfWriterThreads(ModelCreator.Builder builder, FileType fileType, boolean generic)
+            throws Exception {
+        builder.setFileType(fileType);
+        builder.setGeneric(generic);
+        builder.setOneFile(false);
+        builder.setSeedType(SeedType.SUPERSEED);
+        builder.setSuperSeed(4711L);
+        builder.setBidsPerBidder(20);
+
+        String name = builder.getClass().getEnclosingClass().getSimpleName();
+        builder.setWriterThreads(1);
+        File sequential = generate(builder, new File(FOLDER, name + "-sequential"));
+        builder.setWriterThreads(4);
+        File parallel = generate(builder, new File(FOLDER, name + "-parallel"));
+
+        List<String> fileNames = sortedFileNames(sequential);
+        Assert.assertFalse(fileNames.isEmpty());
+        Assert.assertEquals(fileNames, sortedFileNames(parallel));
+        for (String fileName : fileNames) {
+            List<String> sequentialLines = FileUtils.readLines(new File(sequential, fileName), StandardCharsets.UTF_8);
+            List<String> parallelLines = FileUtils.readLines(new File(parallel, fileName), StandardCharsets.UTF_8);
+            if (fileType == FileType.CATS) {
+                // The header contains the time of writing
+                sequentialLines.removeIf(line -> line.startsWith("%% File generated"));
+                parallelLines.removeIf(line -> line.startsWith("%% File generated"));
+            }
+            Assert.assertEquals(sequentialLines, parallelLines);
+        }
+    }
+
+    private static File generate(ModelCreator.Builder builder, File outputFolder) throws Exception {
+        FileUtils.deleteQuietly(outputFolder);
+        outputFolder.mkdirs();
+        PathResult result = builder.build().generateResult(outputFolder);
+        Assert.assertEquals(1, result.getValueFiles().size());
+        File folder = result.getValueFiles().get(0);
+        Assert.assertTrue(folder.isDirectory());
+        return folder;
+    }
+
+    private static List<String> sortedFileNames(File folder) throws IOException {
+        String[] names = folder.list();
+        if (names == null) throw new IOException("Cannot list " + folder);
+        return Arrays.stream(names).sorted().collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.spectrumauctions.sats.core.instrumentation;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
+import org.marketdesignresearch.mechlib.core.price.LinearPrices;
+import org.marketdesignresearch.mechlib.core.price.Price;
+import org.spectrumauctions.sats.core.bidlang.xor.SizeBasedUniqueRandomXOR;
+import org.spectrumauctions.sats.core.instrumentation.ValueQueryStatistics.QueryType;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.mechanism.domains.MRVMDomain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class ValueQueryStatisticsTest {
+
+    @Test
+    public void testNoInstrumentationByDefault() {
+        MRVMBidder bidder = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(71L)).get(0);
+        Assert.assertSame(ValueQueryInstrumentation.NO_OP, bidder.getValueQueryInstrumentation());
+        Iterator<BundleValue> bids = Collections.emptyIterator();
+        Assert.assertSame(bids, bidder.instrumentBids(null, bids));
+    }
+
+    @Test
+    public void testAggregationInDomain() throws UnsupportedBiddingLanguageException {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(72L));
+        MRVMDomain domain = new MRVMDomain(bidders);
+        ValueQueryStatistics statistics = new ValueQueryStatistics();
+        domain.setValueQueryInstrumentation(statistics);
+        MRVMBidder bidder = bidders.get(0);
+        Assert.assertSame(statistics, bidder.getValueQueryInstrumentation());
+
+        List<Bundle> bundles = new ArrayList<>();
+        bundles.add(Bundle.of(bidder.getWorld().getLicenses().get(0)));
+        bundles.add(Bundle.of(bidder.getWorld().getLicenses().subList(0, 3)));
+        bidder.calculateValues(bundles);
+        Assert.assertEquals(2, statistics.getStatistics(bidder, QueryType.VALUE).getCount());
+        Assert.assertEquals(2, statistics.getStatistics(bidder, QueryType.VALUE).getMeanSize(), 1e-9);
+        Assert.assertEquals(1, statistics.getStatistics(bidder, QueryType.VALUES).getCount());
+
+        SizeBasedUniqueRandomXOR valueFunction = bidder.getValueFunction(SizeBasedUniqueRandomXOR.class, 73L);
+        valueFunction.setIterations(10);
+        valueFunction.iterator().forEachRemaining(bid -> { });
+        Assert.assertEquals(10, statistics.getStatistics(QueryType.BID).getCount());
+
+        Map<Good, Price> priceMap = new HashMap<>();
+        bidder.getWorld().getLicenses().forEach(license -> priceMap.put(license, Price.of(10)));
+        for (MRVMBidder b : bidders) {
+            b.getBestBundles(new LinearPrices(priceMap), 3);
+        }
+        QueryStatistics demandQueries = statistics.getStatistics(QueryType.DEMAND);
+        Assert.assertEquals(bidders.size(), demandQueries.getCount());
+        Assert.assertTrue(demandQueries.getTotalNanos() > 0);
+
+        long perSetupType = statistics.getSetupTypes().stream()
+                .mapToLong(setupType -> statistics.getStatistics(setupType, QueryType.DEMAND).getCount())
+                .sum();
+        Assert.assertEquals(bidders.size(), perSetupType);
+        long[] latencies = demandQueries.getLatencyHistogram();
+        Assert.assertEquals(bidders.size(), Arrays.stream(latencies).sum());
+        Assert.assertTrue(demandQueries.getLatencyQuantile(0.5) <= demandQueries.getLatencyQuantile(0.99));
+        Assert.assertEquals(0, statistics.getStatistics(QueryType.VALUE).getCacheHitRate(), 0);
+
+        statistics.reset();
+        Assert.assertEquals(0, statistics.getStatistics(QueryType.VALUE).getCount());
+    }
+
+}
@@ -0,0 +1,267 @@
+package org.spectrumauctions.sats.core.model;
+
+import com.google.gson.JsonObject;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.bidder.Bidder;
+import org.marketdesignresearch.mechlib.core.bidder.strategy.DemandQueryStrategy;
+import org.marketdesignresearch.mechlib.core.bidder.strategy.InteractionStrategy;
+import org.marketdesignresearch.mechlib.core.price.LinearPrices;
+import org.marketdesignresearch.mechlib.core.price.Price;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.file.gson.GsonWrapper;
+import org.spectrumauctions.sats.core.util.instancehandling.InstanceHandler;
+import org.spectrumauctions.sats.core.util.instancehandling.JSONInstanceHandler;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Queries freshly created (or deserialized) bidders from many threads at once, such that their lazily derived state
+ * is initialized concurrently, and compares the answers with those of an identical population queried sequentially.
+ */
+public class ConcurrentQueryTest {
+
+    private static final int THREADS = 8;
+    private static final int BUNDLES_PER_BIDDER = 20;
+    private static final int REPETITIONS = 5;
+
+    private static ExecutorService pool;
+
+    @BeforeClass
+    public static void setUp() {
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testGSVM() throws Exception {
+        assertConcurrentValuesCorrect(seed -> new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed)));
+    }
+
+    @Test
+    public void testLSVM() throws Exception {
+        assertConcurrentValuesCorrect(seed -> new LocalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed)));
+    }
+
+    @Test
+    public void testSRVM() throws Exception {
+        assertConcurrentValuesCorrect(seed -> new SingleRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed)));
+    }
+
+    @Test
+    public void testCATS() throws Exception {
+        assertConcurrentValuesCorrect(seed -> {
+            CATSRegionModel model = new CATSRegionModel();
+            model.setNumberOfGoods(16);
+            model.setNumberOfBidders(8);
+            return model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed));
+        });
+    }
+
+    @Test
+    public void testMRVM() throws Exception {
+        assertConcurrentValuesCorrect(seed -> new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed)));
+        assertConcurrentDemandQueriesCorrect(seed -> new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed)));
+    }
+
+    @Test
+    public void testDeserializedMRVM() throws Exception {
+        InstanceHandler previousHandler = InstanceHandler.getDefaultHandler();
+        InstanceHandler.setDefaultHandler(JSONInstanceHandler.getInstance());
+        try {
+            MultiRegionModel model = new MultiRegionModel();
+            MRVMWorld world = model.createWorld(8231L);
+            List<MRVMBidder> original = model.createNewPopulation(world, 8232L);
+            long populationId = original.get(0).getPopulation();
+            Function<Long, List<MRVMBidder>> deserialize = seed -> {
+                MRVMWorld deserializedWorld = InstanceHandler.getDefaultHandler().readWorld(MRVMWorld.class, world.getId());
+                return new ArrayList<>(deserializedWorld.restorePopulation(MRVMBidder.class, populationId));
+            };
+            assertConcurrentValuesCorrect(deserialize);
+            assertConcurrentDemandQueriesCorrect(deserialize);
+        } finally {
+            InstanceHandler.setDefaultHandler(previousHandler);
+        }
+    }
+
+    @Test
+    public void testDefaultStrategyCreatedOnce() throws Exception {
+        SATSBidder bidder = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(8241L)).get(0);
+        List<InteractionStrategy> strategies = runConcurrently(() -> bidder.getStrategy(DemandQueryStrategy.class));
+        for (InteractionStrategy strategy : strategies) {
+            Assert.assertSame(strategies.get(0), strategy);
+        }
+    }
+
+    @Test
+    public void testStrategiesOfJsonBidders() throws Exception {
+        GSVMBidder bidder = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(8252L)).get(0);
+        // Bidders of previous versions were persisted without strategies
+        GsonWrapper gson = new GsonWrapper();
+        gson.setWorld(bidder.getWorld());
+        JsonObject json = gson.getGson().toJsonTree(bidder).getAsJsonObject();
+        json.remove("strategies");
+        GSVMBidder deserialized = gson.getGson().fromJson(json, GSVMBidder.class);
+        deserialized.refreshReference(bidder.getWorld());
+        deserialized.setStrategy(new NamedStrategy("custom"));
+        List<NamedStrategy> strategies = runConcurrently(() -> deserialized.getStrategy(NamedStrategy.class));
+        for (NamedStrategy strategy : strategies) {
+            Assert.assertEquals("custom", strategy.name);
+        }
+    }
+
+    private static class NamedStrategy implements InteractionStrategy {
+        private final String name;
+
+        private NamedStrategy(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Set<Class<? extends InteractionStrategy>> getTypes() {
+            return Collections.singleton(NamedStrategy.class);
+        }
+
+        @Override
+        public void setBidder(Bidder bidder) {
+        }
+    }
+
+    /**
+     * Creates the population for the same seed twice: One is queried sequentially, the other concurrently
+     */
+    private void assertConcurrentValuesCorrect(Function<Long, ? extends List<? extends SATSBidder>> populationFactory) throws Exception {
+        long seed = 8211L;
+        List<? extends SATSBidder> sequential = populationFactory.apply(seed);
+        List<? extends SATSBidder> concurrent = populationFactory.apply(seed);
+        Random random = new Random(seed);
+        List<List<Integer>> bundleIndices = new ArrayList<>();
+        for (int i = 0; i < BUNDLES_PER_BIDDER; i++) {
+            List<Integer> indices = new ArrayList<>();
+            for (int j = 0; j < sequential.get(0).getWorld().getNumberOfGoods(); j++) {
+                if (random.nextBoolean()) indices.add(j);
+            }
+            bundleIndices.add(indices);
+        }
+
+        List<BigDecimal> expected = new ArrayList<>();
+        for (SATSBidder bidder : sequential) {
+            for (List<Integer> indices : bundleIndices) {
+                expected.add(bidder.calculateValue(toBundle(bidder, indices)));
+            }
+        }
+        List<List<BigDecimal>> actual = runConcurrently(() -> {
+            List<BigDecimal> values = new ArrayList<>();
+            for (SATSBidder bidder : concurrent) {
+                for (List<Integer> indices : bundleIndices) {
+                    values.add(bidder.calculateValue(toBundle(bidder, indices)));
+                }
+            }
+            return values;
+        });
+        for (List<BigDecimal> values : actual) {
+            Assert.assertEquals(expected.size(), values.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(0, expected.get(i).compareTo(values.get(i)));
+            }
+        }
+    }
+
+    private void assertConcurrentDemandQueriesCorrect(Function<Long, List<MRVMBidder>> populationFactory) throws Exception {
+        long seed = 8221L;
+        List<MRVMBidder> sequential = populationFactory.apply(seed);
+        List<MRVMBidder> concurrent = populationFactory.apply(seed);
+        List<List<String>> expected = new ArrayList<>();
+        for (MRVMBidder bidder : sequential) {
+            expected.add(toNames(bidder.getBestBundles(prices(bidder), 3)));
+        }
+        List<List<List<String>>> actual = runConcurrently(() -> {
+            List<List<String>> bestBundles = new ArrayList<>();
+            for (MRVMBidder bidder : concurrent) {
+                bestBundles.add(toNames(bidder.getBestBundles(prices(bidder), 3)));
+            }
+            return bestBundles;
+        });
+        for (List<List<String>> bestBundles : actual) {
+            Assert.assertEquals(expected, bestBundles);
+        }
+    }
+
+    /**
+     * Runs the task on all threads of the pool, starting at the same time, REPETITIONS times each
+     */
+    private <T> List<T> runConcurrently(Callable<T> task) throws InterruptedException, ExecutionException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS * REPETITIONS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static Bundle toBundle(SATSBidder bidder, List<Integer> indices) {
+        if (indices.isEmpty()) return Bundle.EMPTY;
+        List<? extends Good> licenses = bidder.getWorld().getLicenses();
+        return Bundle.of(indices.stream().map(licenses::get).collect(Collectors.toList()));
+    }
+
+    private static LinearPrices prices(MRVMBidder bidder) {
+        Map<Good, Price> priceMap = new HashMap<>();
+        bidder.getWorld().getAllGenericDefinitions().forEach(definition -> priceMap.put(definition, Price.of(1000000)));
+        return new LinearPrices(priceMap);
+    }
+
+    /**
+     * The goods of different instances of the same world are not equal, hence bundles are compared by their goods' names
+     */
+    private static List<String> toNames(Iterable<Bundle> bundles) {
+        List<String> names = new ArrayList<>();
+        for (Bundle bundle : bundles) {
+            names.add(bundle.getBundleEntries().stream()
+                    .map(entry -> entry.getGood().getName() + ":" + entry.getAmount())
+                    .sorted()
+                    .collect(Collectors.joining(",")));
+        }
+        return names;
+    }
+
+}
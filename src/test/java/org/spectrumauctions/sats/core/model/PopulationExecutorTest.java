@@ -0,0 +1,148 @@
+package org.spectrumauctions.sats.core.model;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.spectrumauctions.sats.core.model.bvm.mbvm.MultiBandValueModel;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.core.util.random.RNGSupplier;
+import org.spectrumauctions.sats.core.util.random.SplittableRNGSupplier;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+public class PopulationExecutorTest {
+
+    private static final long WORLD_SEED = 7342L;
+    private static final long POPULATION_SEED = 9123L;
+
+    private static ExecutorService pool;
+
+    @BeforeClass
+    public static void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testGSVM() {
+        assertIndependentOfExecutor(new GlobalSynergyValueModel(), JavaUtilRNGSupplier::new);
+        assertIndependentOfExecutor(new GlobalSynergyValueModel(), SplittableRNGSupplier::new);
+    }
+
+    @Test
+    public void testLSVM() {
+        assertIndependentOfExecutor(new LocalSynergyValueModel(), JavaUtilRNGSupplier::new);
+        assertIndependentOfExecutor(new LocalSynergyValueModel(), SplittableRNGSupplier::new);
+    }
+
+    @Test
+    public void testMRVM() {
+        assertIndependentOfExecutor(new MultiRegionModel(), JavaUtilRNGSupplier::new);
+        assertIndependentOfExecutor(new MultiRegionModel(), SplittableRNGSupplier::new);
+    }
+
+    @Test
+    public void testSRVM() {
+        assertIndependentOfExecutor(new SingleRegionModel(), JavaUtilRNGSupplier::new);
+        assertIndependentOfExecutor(new SingleRegionModel(), SplittableRNGSupplier::new);
+    }
+
+    @Test
+    public void testMBVM() {
+        assertIndependentOfExecutor(new MultiBandValueModel(), JavaUtilRNGSupplier::new);
+    }
+
+    @Test
+    public void testCATS() {
+        CATSRegionModel model = new CATSRegionModel();
+        model.setNumberOfGoods(16);
+        model.setNumberOfBidders(8);
+        assertIndependentOfExecutor(model, JavaUtilRNGSupplier::new);
+        assertIndependentOfExecutor(model, SplittableRNGSupplier::new);
+    }
+
+    @Test
+    public void testSequentialByDefault() {
+        MultiRegionModel model = new MultiRegionModel();
+        MRVMWorld world = model.createWorld(WORLD_SEED);
+        Assert.assertNull(world.getPopulationExecutor());
+        List<? extends SATSBidder> bidders = model.createNewPopulation(world, POPULATION_SEED);
+        world.setPopulationExecutor(pool);
+        world.setPopulationExecutor(null);
+        assertSameValues(bidders, model.createNewPopulation(world, POPULATION_SEED));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionsArePropagated() {
+        World world = new GlobalSynergyValueModel().createWorld(WORLD_SEED);
+        world.setPopulationExecutor(pool);
+        List<Function<RNGSupplier, SATSBidder>> bidderFactories = Collections.singletonList(rng -> {
+            throw new IllegalArgumentException();
+        });
+        world.createBidders(bidderFactories, 0, new JavaUtilRNGSupplier(POPULATION_SEED));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDrawingMoreThanReservedFails() {
+        World world = new GlobalSynergyValueModel().createWorld(WORLD_SEED);
+        world.setPopulationExecutor(pool);
+        List<Function<RNGSupplier, SATSBidder>> bidderFactories = Collections.singletonList(rng -> {
+            rng.getUniformDistributionRNG();
+            rng.getGaussianDistributionRNG();
+            return null;
+        });
+        world.createBidders(bidderFactories, 1, new SplittableRNGSupplier(POPULATION_SEED));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDrawingLessThanReservedFails() {
+        World world = new GlobalSynergyValueModel().createWorld(WORLD_SEED);
+        world.setPopulationExecutor(pool);
+        List<Function<RNGSupplier, SATSBidder>> bidderFactories = Collections.singletonList(rng -> null);
+        world.createBidders(bidderFactories, 1, new JavaUtilRNGSupplier(POPULATION_SEED));
+    }
+
+    private static <W extends World, B extends SATSBidder> void assertIndependentOfExecutor(DefaultModel<W, B> model, Function<Long, RNGSupplier> rng) {
+        W world = model.createWorld(WORLD_SEED);
+        world.setPopulationExecutor(null);
+        List<B> sequential = model.createPopulation(world, rng.apply(POPULATION_SEED));
+        world.setPopulationExecutor(pool);
+        List<B> parallel = model.createPopulation(world, rng.apply(POPULATION_SEED));
+        assertSameValues(sequential, parallel);
+        for (int i = 0; i < sequential.size(); i++) {
+            Assert.assertEquals(sequential.get(i).getLongId(), parallel.get(i).getLongId());
+            Assert.assertSame(world, parallel.get(i).getWorld());
+        }
+    }
+
+    private static void assertSameValues(List<? extends SATSBidder> expected, List<? extends SATSBidder> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SATSBidder bidder = expected.get(i);
+            SATSBidder other = actual.get(i);
+            Assert.assertEquals(bidder.calculateValue(Bundle.of(bidder.getWorld().getLicenses())),
+                    other.calculateValue(Bundle.of(other.getWorld().getLicenses())));
+            for (int l = 0; l < bidder.getWorld().getLicenses().size(); l++) {
+                Assert.assertEquals(bidder.calculateValue(Bundle.of(bidder.getWorld().getLicenses().get(l))),
+                        other.calculateValue(Bundle.of(other.getWorld().getLicenses().get(l))));
+            }
+        }
+    }
+
+}
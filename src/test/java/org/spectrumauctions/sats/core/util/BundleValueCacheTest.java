@@ -0,0 +1,146 @@
+package org.spectrumauctions.sats.core.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.spectrumauctions.sats.core.instrumentation.ValueQueryStatistics;
+import org.spectrumauctions.sats.core.instrumentation.ValueQueryStatistics.QueryType;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMLicense;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMGenericDefinition;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BundleValueCacheTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        GSVMBidder bidder = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(91L)).get(0);
+        Assert.assertNull(bidder.getValueCache());
+        bidder.enableValueCache(10);
+        Assert.assertEquals(10, bidder.getValueCache().getMaximumSize());
+        bidder.disableValueCache();
+        Assert.assertNull(bidder.getValueCache());
+    }
+
+    @Test
+    public void testCachedValuesAreEqual() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(92L));
+        GSVMBidder bidder = bidders.get(0);
+        List<GSVMLicense> licenses = bidder.getWorld().getLicenses();
+        List<BigDecimal> expected = new ArrayList<>();
+        for (int i = 0; i < licenses.size(); i++) {
+            expected.add(bidder.calculateValue(Bundle.of(licenses.subList(0, i + 1))));
+        }
+        ValueQueryStatistics statistics = new ValueQueryStatistics();
+        bidder.setValueQueryInstrumentation(statistics);
+        bidder.enableValueCache(100);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < licenses.size(); i++) {
+                Assert.assertEquals(expected.get(i), bidder.calculateValue(Bundle.of(licenses.subList(0, i + 1))));
+            }
+        }
+        BundleValueCache cache = bidder.getValueCache();
+        Assert.assertEquals(licenses.size(), cache.getMisses());
+        Assert.assertEquals(2 * licenses.size(), cache.getHits());
+        Assert.assertEquals(2. / 3, cache.getHitRate(), 1e-9);
+        Assert.assertEquals(licenses.size(), cache.size());
+        Assert.assertEquals(2 * licenses.size(), statistics.getStatistics(bidder, QueryType.VALUE).getCacheHits());
+    }
+
+    @Test
+    public void testEvictionKeepsReferencedEntries() {
+        GSVMBidder bidder = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(93L)).get(0);
+        List<GSVMLicense> licenses = bidder.getWorld().getLicenses();
+        BundleValueCache cache = new BundleValueCache(2);
+        Bundle first = Bundle.of(licenses.get(0));
+        Bundle second = Bundle.of(licenses.get(1));
+        Bundle third = Bundle.of(licenses.get(2));
+        cache.put(first, BigDecimal.ONE);
+        cache.put(second, BigDecimal.valueOf(2));
+        Assert.assertEquals(BigDecimal.ONE, cache.get(first));
+        cache.put(third, BigDecimal.valueOf(3));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertNull(cache.get(second));
+        Assert.assertEquals(BigDecimal.ONE, cache.get(first));
+        Assert.assertEquals(BigDecimal.valueOf(3), cache.get(third));
+        // Equal bundles share an entry
+        Assert.assertEquals(BigDecimal.ONE, cache.get(Bundle.of(licenses.subList(0, 1))));
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testClockGrowsUpToMaximumSize() {
+        ClockCache<Integer, Integer> cache = new ClockCache<>(50);
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+        Assert.assertEquals(50, cache.size());
+        Assert.assertEquals(0, cache.getEvictions());
+        Assert.assertEquals(Integer.valueOf(0), cache.get(0));
+        cache.put(50, 50);
+        Assert.assertEquals(50, cache.size());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertNull(cache.get(1));
+        Assert.assertEquals(Integer.valueOf(0), cache.get(0));
+        Assert.assertEquals(Integer.valueOf(50), cache.get(50));
+        cache.clear();
+        cache.put(1, 1);
+        Assert.assertEquals(Integer.valueOf(1), cache.get(1));
+    }
+
+    @Test
+    public void testGenericBundles() {
+        MRVMBidder bidder = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(94L)).get(0);
+        List<MRVMGenericDefinition> definitions = bidder.getWorld().getAllGenericDefinitions();
+        bidder.enableValueCache(10);
+        Bundle bundle = Bundle.of(definitions.subList(0, 3));
+        BigDecimal value = bidder.calculateValue(bundle);
+        Assert.assertEquals(value, bidder.calculateValue(Bundle.of(definitions.subList(0, 3))));
+        Assert.assertEquals(1, bidder.getValueCache().getHits());
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        GSVMBidder bidder = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(95L)).get(0);
+        List<GSVMLicense> licenses = bidder.getWorld().getLicenses();
+        List<BigDecimal> expected = new ArrayList<>();
+        for (int i = 0; i < licenses.size(); i++) {
+            expected.add(bidder.calculateValue(Bundle.of(licenses.subList(0, i + 1))));
+        }
+        // Smaller than the number of bundles, such that entries are evicted concurrently
+        bidder.enableValueCache(licenses.size() / 2);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<BigDecimal>>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(pool.submit(() -> {
+                    List<BigDecimal> values = new ArrayList<>();
+                    for (int i = 0; i < licenses.size(); i++) {
+                        values.add(bidder.calculateValue(Bundle.of(licenses.subList(0, i + 1))));
+                    }
+                    return values;
+                }));
+            }
+            for (Future<List<BigDecimal>> future : futures) {
+                Assert.assertEquals(expected, future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertTrue(bidder.getValueCache().size() <= licenses.size() / 2);
+        Assert.assertEquals(16 * licenses.size(), bidder.getValueCache().getHits() + bidder.getValueCache().getMisses());
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.spectrumauctions.sats.core.util.file;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+public class FilePathUtilsTest {
+
+    private static final long WORLD_ID = 99999;
+    private static final long POPULATION_ID = 0;
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(FilePathUtils.getInstance().worldFolderPath(WORLD_ID));
+    }
+
+    @Test
+    public void testWriteLeavesNoTemporaryFile() {
+        FilePathUtils utils = FilePathUtils.getInstance();
+        File file = utils.bidderFilePath(WORLD_ID, POPULATION_ID, 3);
+        utils.writeStringToFile(file, "first");
+        utils.writeStringToFile(file, "second");
+        Assert.assertEquals("second", utils.readFileToString(file));
+        Assert.assertArrayEquals(new String[]{file.getName()}, utils.populationFolderPath(WORLD_ID, POPULATION_ID).list());
+    }
+
+    @Test
+    public void testLeftoverTemporaryFileIsNotListed() throws IOException {
+        FilePathUtils utils = FilePathUtils.getInstance();
+        File file = utils.bidderFilePath(WORLD_ID, POPULATION_ID, 3);
+        utils.writeStringToFile(file, "content");
+        // As left behind if the process dies between writing and moving the temporary file
+        File leftover = new File(file.getParentFile(), ".00004-5829174651.tmp");
+        Assert.assertTrue(leftover.createNewFile());
+        Assert.assertEquals(Collections.singletonList(3L), utils.getBidderIds(WORLD_ID, POPULATION_ID));
+    }
+
+}
@@ -0,0 +1,147 @@
+package org.spectrumauctions.sats.core.util.random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SplittableRNGSupplierTest {
+
+    @Test
+    public void testSameSeedAndPathGiveSameSequence() {
+        UniformDistributionRNG first = new SplittableRNGSupplier(17).split("bidders").split(3).getUniformDistributionRNG();
+        UniformDistributionRNG second = new SplittableRNGSupplier(17).split("bidders").split(3).getUniformDistributionRNG();
+        GaussianDistributionRNG firstGaussian = new SplittableRNGSupplier(17).split(1, 2).getGaussianDistributionRNG();
+        GaussianDistributionRNG secondGaussian = new SplittableRNGSupplier(17).split(1).split(2).getGaussianDistributionRNG();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(first.nextLong(), second.nextLong());
+            Assert.assertEquals(first.nextDouble(), second.nextDouble(), 0);
+            Assert.assertEquals(firstGaussian.nextGaussian(), secondGaussian.nextGaussian(), 0);
+        }
+    }
+
+    @Test
+    public void testDifferentPathsGiveDifferentSequences() {
+        SplittableRNGSupplier root = new SplittableRNGSupplier(17);
+        long[] sequences = {
+                root.getUniformDistributionRNG().nextLong(),
+                root.getUniformDistributionRNG().nextLong(),
+                root.split(1).getUniformDistributionRNG().nextLong(),
+                root.split(2).getUniformDistributionRNG().nextLong(),
+                root.split("world").getUniformDistributionRNG().nextLong(),
+                new SplittableRNGSupplier(18).split(1).getUniformDistributionRNG().nextLong()
+        };
+        for (int i = 0; i < sequences.length; i++) {
+            for (int j = i + 1; j < sequences.length; j++) {
+                Assert.assertNotEquals(sequences[i], sequences[j]);
+            }
+        }
+    }
+
+    @Test
+    public void testReservedGeneratorsEqualNextGenerators() {
+        assertReservedGeneratorsEqualNextGenerators(new SplittableRNGSupplier(17), new SplittableRNGSupplier(17));
+        assertReservedGeneratorsEqualNextGenerators(new JavaUtilRNGSupplier(17), new JavaUtilRNGSupplier(17));
+    }
+
+    private static void assertReservedGeneratorsEqualNextGenerators(RNGSupplier sequential, RNGSupplier reserving) {
+        ReservedRNGSupplier first = reserving.reserve(3);
+        ReservedRNGSupplier second = reserving.reserve(1);
+        long[] expected = {
+                sequential.getUniformDistributionRNG().nextLong(),
+                Double.doubleToLongBits(sequential.getGaussianDistributionRNG().nextGaussian()),
+                sequential.getUniformDistributionRNG().nextLong(),
+                sequential.getUniformDistributionRNG().nextLong(),
+                sequential.getUniformDistributionRNG().nextLong()
+        };
+        // Drawing the second reservation first does not change its generators
+        Assert.assertEquals(expected[3], second.getUniformDistributionRNG().nextLong());
+        Assert.assertEquals(expected[0], first.getUniformDistributionRNG().nextLong());
+        Assert.assertEquals(expected[1], Double.doubleToLongBits(first.getGaussianDistributionRNG().nextGaussian()));
+        Assert.assertEquals(expected[2], first.getUniformDistributionRNG().nextLong());
+        Assert.assertEquals(expected[4], reserving.getUniformDistributionRNG().nextLong());
+        Assert.assertEquals(0, first.getRemainingGenerators());
+        try {
+            first.getUniformDistributionRNG();
+            Assert.fail("Drew more generators than were reserved");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        UniformDistributionRNG rng = new SplittableRNGSupplier(17).getUniformDistributionRNG();
+        for (int i = 0; i < 10000; i++) {
+            int bounded = rng.nextInt(7);
+            Assert.assertTrue(bounded >= 0 && bounded < 7);
+            int inclusive = rng.nextInt(new IntegerInterval(-2, 2));
+            Assert.assertTrue(inclusive >= -2 && inclusive <= 2);
+            double value = rng.nextDouble(new DoubleInterval(0.5, 1.5));
+            Assert.assertTrue(value >= 0.5 && value < 1.5);
+        }
+    }
+
+    @Test
+    public void testParallelSplitsEqualSequentialSplits() throws Exception {
+        SplittableRNGSupplier root = new SplittableRNGSupplier(42);
+        List<Long> sequential = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            sequential.add(draw(root.split(i)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 31; i >= 0; i--) {
+                SplittableRNGSupplier supplier = root.split(i);
+                futures.add(0, executor.submit(() -> draw(supplier)));
+            }
+            for (int i = 0; i < 32; i++) {
+                Assert.assertEquals(sequential.get(i), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPopulationsAreReproducible() {
+        List<GSVMBidder> gsvm = new GlobalSynergyValueModel().createNewWorldAndPopulation(new SplittableRNGSupplier(5));
+        List<GSVMBidder> gsvmAgain = new GlobalSynergyValueModel().createNewWorldAndPopulation(new SplittableRNGSupplier(5));
+        Assert.assertEquals(gsvm.size(), gsvmAgain.size());
+        for (int i = 0; i < gsvm.size(); i++) {
+            Bundle bundle = Bundle.of(gsvm.get(i).getWorld().getLicenses());
+            Bundle bundleAgain = Bundle.of(gsvmAgain.get(i).getWorld().getLicenses());
+            Assert.assertEquals(gsvm.get(i).calculateValue(bundle), gsvmAgain.get(i).calculateValue(bundleAgain));
+        }
+
+        List<MRVMBidder> mrvm = new MultiRegionModel().createNewWorldAndPopulation(new SplittableRNGSupplier(6));
+        List<MRVMBidder> mrvmAgain = new MultiRegionModel().createNewWorldAndPopulation(new SplittableRNGSupplier(6));
+        Assert.assertEquals(mrvm.size(), mrvmAgain.size());
+        for (int i = 0; i < mrvm.size(); i++) {
+            Bundle bundle = Bundle.of(mrvm.get(i).getWorld().getLicenses());
+            Bundle bundleAgain = Bundle.of(mrvmAgain.get(i).getWorld().getLicenses());
+            Assert.assertEquals(mrvm.get(i).calculateValue(bundle), mrvmAgain.get(i).calculateValue(bundleAgain));
+        }
+    }
+
+    private static long draw(RNGSupplier supplier) {
+        UniformDistributionRNG uniform = supplier.getUniformDistributionRNG();
+        GaussianDistributionRNG gaussian = supplier.getGaussianDistributionRNG();
+        long result = 0;
+        for (int i = 0; i < 1000; i++) {
+            result = 31 * result + uniform.nextLong() + Double.doubleToLongBits(gaussian.nextGaussian());
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,146 @@
+package org.spectrumauctions.sats.mechanism.domains;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class EfficientAllocationCacheTest {
+
+    private static final long WORLD_SEED = 42L;
+    private static final long POPULATION_SEED = 43L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testMemoryHit() throws IOException {
+        EfficientAllocationCache cache = new EfficientAllocationCache(10, temporaryFolder.newFolder());
+        EfficientAllocationCache.Key key = EfficientAllocationCache.Key.of("GSVM", WORLD_SEED, POPULATION_SEED, "default");
+
+        GSVMDomain domain = createDomain();
+        domain.setEfficientAllocationCache(cache, key);
+        Allocation allocation = domain.getEfficientAllocation();
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertTrue(cache.getFile(key).isFile());
+
+        GSVMDomain recreated = createDomain();
+        recreated.setEfficientAllocationCache(cache, key);
+        assertSameAllocation(domain, allocation, recreated, recreated.getEfficientAllocation());
+        Assert.assertEquals(1, cache.getMemoryHits());
+        Assert.assertEquals(0, cache.getDiskHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testDiskHit() throws IOException {
+        File folder = temporaryFolder.newFolder();
+        EfficientAllocationCache.Key key = EfficientAllocationCache.Key.of("GSVM", WORLD_SEED, POPULATION_SEED, "default");
+
+        GSVMDomain domain = createDomain();
+        domain.setEfficientAllocationCache(new EfficientAllocationCache(10, folder), key);
+        Allocation allocation = domain.getEfficientAllocation();
+
+        // A new cache on the same folder, e.g., in another process
+        EfficientAllocationCache cache = new EfficientAllocationCache(10, folder);
+        GSVMDomain recreated = createDomain();
+        recreated.setEfficientAllocationCache(cache, key);
+        assertSameAllocation(domain, allocation, recreated, recreated.getEfficientAllocation());
+        Assert.assertEquals(1, cache.getDiskHits());
+        Assert.assertEquals(0, cache.getMisses());
+
+        cache.clearMemory();
+        GSVMDomain again = createDomain();
+        again.setEfficientAllocationCache(cache, key);
+        again.getEfficientAllocation();
+        Assert.assertEquals(2, cache.getDiskHits());
+    }
+
+    @Test
+    public void testDifferentKeysMiss() throws IOException {
+        EfficientAllocationCache cache = new EfficientAllocationCache(10, temporaryFolder.newFolder());
+        EfficientAllocationCache.Key key = EfficientAllocationCache.Key.of("GSVM", WORLD_SEED, POPULATION_SEED, "default");
+        GSVMDomain domain = createDomain();
+        domain.setEfficientAllocationCache(cache, key);
+        domain.getEfficientAllocation();
+
+        EfficientAllocationCache.Key otherVersion = new EfficientAllocationCache.Key("GSVM", WORLD_SEED, POPULATION_SEED, "default", "0.0.1");
+        EfficientAllocationCache.Key otherParameters = EfficientAllocationCache.Key.of("GSVM", WORLD_SEED, POPULATION_SEED, "legacy");
+        Assert.assertNull(cache.get(otherVersion, domain));
+        Assert.assertNull(cache.get(otherParameters, domain));
+        Assert.assertNotEquals(cache.getFile(key), cache.getFile(otherVersion));
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testOtherInstanceWithSameKeyMisses() throws IOException {
+        File folder = temporaryFolder.newFolder();
+        EfficientAllocationCache cache = new EfficientAllocationCache(10, folder);
+        EfficientAllocationCache.Key key = EfficientAllocationCache.Key.of("GSVM", WORLD_SEED, POPULATION_SEED, "default");
+        GSVMDomain domain = createDomain();
+        domain.setEfficientAllocationCache(cache, key);
+        domain.getEfficientAllocation();
+
+        // Same bidder ids and good names, but other values
+        GSVMDomain otherInstance = new GSVMDomain(new GlobalSynergyValueModel().createNewWorldAndPopulation(WORLD_SEED, POPULATION_SEED + 1));
+        otherInstance.setUseBranchAndBound(true);
+        Assert.assertNotEquals(EfficientAllocationCache.fingerprintOf(domain), EfficientAllocationCache.fingerprintOf(otherInstance));
+        Assert.assertNull(cache.get(key, otherInstance));
+        Assert.assertNull(new EfficientAllocationCache(10, folder).get(key, otherInstance));
+        Assert.assertEquals(0, cache.getHits());
+
+        otherInstance.setEfficientAllocationCache(cache, key);
+        Allocation allocation = otherInstance.getEfficientAllocation();
+        // The stale entry was replaced
+        assertSameAllocation(otherInstance, allocation, otherInstance, new EfficientAllocationCache(10, folder).get(key, otherInstance));
+    }
+
+    @Test
+    public void testMemoryOnly() {
+        EfficientAllocationCache cache = new EfficientAllocationCache(1, null);
+        EfficientAllocationCache.Key key = EfficientAllocationCache.Key.of("GSVM", WORLD_SEED, POPULATION_SEED, "default");
+        GSVMDomain domain = createDomain();
+        domain.setEfficientAllocationCache(cache, key);
+        Allocation allocation = domain.getEfficientAllocation();
+        Assert.assertNull(cache.getFile(key));
+        assertSameAllocation(domain, allocation, domain, cache.get(key, domain));
+        Assert.assertEquals(1, cache.getMemoryHits());
+    }
+
+    private static GSVMDomain createDomain() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(WORLD_SEED, POPULATION_SEED);
+        GSVMDomain domain = new GSVMDomain(bidders);
+        domain.setUseBranchAndBound(true);
+        return domain;
+    }
+
+    private static void assertSameAllocation(GSVMDomain expectedDomain, Allocation expected, GSVMDomain actualDomain, Allocation actual) {
+        Assert.assertEquals(0, expected.getTotalAllocationValue().compareTo(actual.getTotalAllocationValue()));
+        for (int i = 0; i < expectedDomain.getBidders().size(); i++) {
+            GSVMBidder expectedBidder = expectedDomain.getBidders().get(i);
+            GSVMBidder actualBidder = actualDomain.getBidders().get(i);
+            Assert.assertEquals(expectedBidder.getLongId(), actualBidder.getLongId());
+            Assert.assertEquals(goodNames(expected.allocationOf(expectedBidder).getBundle()),
+                    goodNames(actual.allocationOf(actualBidder).getBundle()));
+        }
+    }
+
+    private static Set<String> goodNames(Bundle bundle) {
+        return bundle.getSingleQuantityGoods().stream().map(Good::getName).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.spectrumauctions.sats.mechanism.domains;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class StartingPricesTest {
+
+    @Test
+    public void testParallelSamplingEqualsSerialSamplingInMRVM() {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(81L));
+        assertIndependentOfExecutor(new MRVMDomain(bidders));
+    }
+
+    @Test
+    public void testParallelSamplingEqualsSerialSamplingInLSVM() {
+        List<LSVMBidder> bidders = new LocalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(82L));
+        assertIndependentOfExecutor(new LSVMDomain(bidders));
+    }
+
+    private static void assertIndependentOfExecutor(ModelDomain<?> domain) {
+        domain.setPriceGenerationSeed(83L);
+        domain.setPriceGenerationNumberOfWorldSamples(12);
+        domain.setPriceGenerationBidsPerBidder(20);
+        Prices serial = domain.proposeStartingPrices();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            domain.setPriceGenerationExecutor(pool);
+            Prices parallel = domain.proposeStartingPrices();
+            for (Good good : domain.getGoods()) {
+                Assert.assertTrue(serial.getPrice(Bundle.of(good)).getAmount().signum() > 0);
+                Assert.assertEquals(serial.getPrice(Bundle.of(good)).getAmount(), parallel.getPrice(Bundle.of(good)).getAmount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
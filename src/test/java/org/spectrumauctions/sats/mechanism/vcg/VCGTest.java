@@ -14,6 +14,7 @@ import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
 import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
 import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
 import org.spectrumauctions.sats.opt.model.ModelMIP;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMBranchAndBound;
 import org.spectrumauctions.sats.opt.model.gsvm.GSVMStandardMIP;
 import org.spectrumauctions.sats.opt.model.lsvm.LSVMStandardMIP;
 import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
@@ -28,6 +29,12 @@ public class VCGTest {
         testModelVCG(mip);
     }
 
+    @Test
+    public void testGSVMBranchAndBoundVCG() {
+        ModelMIP mip = new GSVMBranchAndBound(new GlobalSynergyValueModel().createNewWorldAndPopulation());
+        testModelVCG(mip);
+    }
+
     @Test
     public void testLSVMVCG() {
         ModelMIP mip = new LSVMStandardMIP(new LocalSynergyValueModel().createNewWorldAndPopulation());
@@ -0,0 +1,56 @@
+package org.spectrumauctions.sats.opt.domain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LagrangianUpperBoundTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testConcaveEnvelopeOfConvexFunction() {
+        // Increasing marginals are averaged out
+        double[] marginals = LagrangianUpperBound.concaveEnvelopeMarginals(new double[]{0, 1, 4, 9});
+        Assert.assertArrayEquals(new double[]{3, 3, 3}, marginals, DELTA);
+    }
+
+    @Test
+    public void testConcaveEnvelopeOfConcaveFunction() {
+        double[] marginals = LagrangianUpperBound.concaveEnvelopeMarginals(new double[]{0, 5, 8, 9, 9});
+        Assert.assertArrayEquals(new double[]{5, 3, 1, 0}, marginals, DELTA);
+    }
+
+    @Test
+    public void testConcaveEnvelopeOfSShapedFunction() {
+        double[] marginals = LagrangianUpperBound.concaveEnvelopeMarginals(new double[]{0, 1, 6, 7, 7.5});
+        Assert.assertArrayEquals(new double[]{3, 3, 1, 0.5}, marginals, DELTA);
+    }
+
+    @Test
+    public void testSingleGoodMarketIsTight() {
+        // Two bidders with additive values of 10 and 6 per unit, 3 units of a single good: optimum is 30
+        double[][] unitValues = {{10}, {6}};
+        LagrangianUpperBound bound = new LagrangianUpperBound(new int[]{3}) {
+            @Override
+            protected int getNumberOfBidders() {
+                return unitValues.length;
+            }
+
+            @Override
+            protected double maximalUtility(int bidder, double[] prices, int[] demand) {
+                if (unitValues[bidder][0] > prices[0]) {
+                    demand[0] += 3;
+                    return 3 * (unitValues[bidder][0] - prices[0]);
+                }
+                return 0;
+            }
+
+            @Override
+            protected double standaloneValue(int bidder, int good, int quantity) {
+                return quantity * unitValues[bidder][good];
+            }
+        };
+        Assert.assertEquals(30, bound.getUpperBound().doubleValue(), 1e-6);
+    }
+
+}
@@ -7,6 +7,8 @@ package org.spectrumauctions.sats.opt.imip;
 
 import edu.harvard.econcs.jopt.solver.IMIPResult;
 import edu.harvard.econcs.jopt.solver.client.SolverClient;
+import edu.harvard.econcs.jopt.solver.mip.CompareType;
+import edu.harvard.econcs.jopt.solver.mip.Constraint;
 import edu.harvard.econcs.jopt.solver.mip.MIP;
 import edu.harvard.econcs.jopt.solver.mip.VarType;
 import edu.harvard.econcs.jopt.solver.mip.Variable;
@@ -15,11 +17,13 @@ import org.apache.logging.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
 import org.spectrumauctions.sats.core.util.math.ContinuousPiecewiseLinearFunction;
+import org.spectrumauctions.sats.opt.domain.PiecewiseLinearEncoding;
 import org.spectrumauctions.sats.opt.domain.PiecewiseLinearPartialMIP;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * @author Michael Weiss
@@ -73,4 +77,88 @@ public class PiecewiseLinearPartialMipTest {
         logger.info("Result:\n" + result.toString());
         Assert.assertEquals(3, result.getObjectiveValue(), 0.00001);
     }
+
+    @Test
+    public void encodingsAreEquivalentAtRandomPoints() {
+        Random random = new Random(42);
+        for (int pieces : new int[]{1, 2, 3, 5, 8}) {
+            ContinuousPiecewiseLinearFunction func = randomFunction(pieces, random);
+            for (int i = 0; i < 5; i++) {
+                double input = random.nextDouble() * pieces;
+                BigDecimal expected = func.getY(BigDecimal.valueOf(input));
+                for (PiecewiseLinearEncoding encoding : PiecewiseLinearEncoding.values()) {
+                    for (boolean max : new boolean[]{true, false}) {
+                        Assert.assertEquals(encoding + " with " + pieces + " pieces at x=" + input,
+                                expected.doubleValue(), solveAt(func, input, encoding, max), 0.0001);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void encodingsHaveSameMaximum() {
+        Map<BigDecimal, BigDecimal> cornerPoints = new HashMap<>();
+        cornerPoints.put(new BigDecimal(0), new BigDecimal(0));
+        cornerPoints.put(new BigDecimal(1), new BigDecimal(1));
+        cornerPoints.put(new BigDecimal(2), new BigDecimal(4));
+        cornerPoints.put(new BigDecimal(3), new BigDecimal(3));
+        ContinuousPiecewiseLinearFunction func = new ContinuousPiecewiseLinearFunction(cornerPoints);
+        for (PiecewiseLinearEncoding encoding : PiecewiseLinearEncoding.values()) {
+            Assert.assertEquals(encoding.toString(), 4, solveAt(func, null, encoding, true), 0.00001);
+        }
+    }
+
+    @Test
+    public void formulationSizes() {
+        ContinuousPiecewiseLinearFunction func = randomFunction(8, new Random(1));
+        Variable x = new Variable("x", VarType.DOUBLE, 0, 8);
+        Variable y = new Variable("y", VarType.DOUBLE, -MIP.MAX_VALUE, MIP.MAX_VALUE);
+        PiecewiseLinearPartialMIP multipleChoice = new PiecewiseLinearPartialMIP(func, x, y, "mc");
+        PiecewiseLinearPartialMIP convexCombination = new PiecewiseLinearPartialMIP(func, x, y, "cc", PiecewiseLinearEncoding.CONVEX_COMBINATION);
+        PiecewiseLinearPartialMIP logarithmic = new PiecewiseLinearPartialMIP(func, x, y, "log", PiecewiseLinearEncoding.LOGARITHMIC);
+
+        Assert.assertEquals(PiecewiseLinearEncoding.MULTIPLE_CHOICE, multipleChoice.getEncoding());
+        Assert.assertEquals(8, multipleChoice.getNumberOfBinaryVariables());
+        Assert.assertEquals(16, multipleChoice.getNumberOfAuxiliaryVariables());
+        Assert.assertEquals(19, multipleChoice.getNumberOfConstraints());
+        Assert.assertEquals(8, convexCombination.getNumberOfBinaryVariables());
+        Assert.assertEquals(17, convexCombination.getNumberOfAuxiliaryVariables());
+        Assert.assertEquals(13, convexCombination.getNumberOfConstraints());
+        Assert.assertEquals(3, logarithmic.getNumberOfBinaryVariables());
+        Assert.assertEquals(12, logarithmic.getNumberOfAuxiliaryVariables());
+        Assert.assertEquals(9, logarithmic.getNumberOfConstraints());
+    }
+
+    private static ContinuousPiecewiseLinearFunction randomFunction(int pieces, Random random) {
+        Map<BigDecimal, BigDecimal> cornerPoints = new HashMap<>();
+        for (int i = 0; i <= pieces; i++) {
+            cornerPoints.put(new BigDecimal(i), BigDecimal.valueOf(random.nextInt(100)));
+        }
+        return new ContinuousPiecewiseLinearFunction(cornerPoints);
+    }
+
+    /**
+     * @param input the fixed function input, or null to leave the input free
+     * @return the optimal function output
+     */
+    private static double solveAt(ContinuousPiecewiseLinearFunction func, Double input, PiecewiseLinearEncoding encoding, boolean max) {
+        double upper = func.getCornerPoints().get(func.getCornerPoints().size() - 1).getKey().doubleValue();
+        Variable x = new Variable("x", VarType.DOUBLE, 0, upper);
+        // Tight bounds on the output, as LP Solve runs into numerical trouble with MIP.MAX_VALUE
+        Variable y = new Variable("y", VarType.DOUBLE, -1000, 1000);
+        PiecewiseLinearPartialMIP mipArtifacts = new PiecewiseLinearPartialMIP(func, x, y, "aux_plf_1", encoding);
+        MIP mip = new MIP();
+        mip.setObjectiveMax(max);
+        mip.addObjectiveTerm(1, y);
+        mip.add(x);
+        mip.add(y);
+        mipArtifacts.appendToMip(mip);
+        if (input != null) {
+            Constraint fixInput = new Constraint(CompareType.EQ, input);
+            fixInput.addTerm(1, x);
+            mip.add(fixInput);
+        }
+        return new SolverClient().solve(mip).getObjectiveValue();
+    }
 }
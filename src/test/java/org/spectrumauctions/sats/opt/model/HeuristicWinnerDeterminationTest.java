@@ -0,0 +1,193 @@
+package org.spectrumauctions.sats.opt.model;
+
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.spectrumauctions.sats.core.model.GenericGood;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMBranchAndBound;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVMUpperBound;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
+import org.spectrumauctions.sats.opt.model.srvm.SRVMUpperBound;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+public class HeuristicWinnerDeterminationTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testCloseToOptimumInGSVM() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(51L));
+        Allocation heuristic = new HeuristicWinnerDetermination(bidders).getAllocation();
+        Allocation optimal = new GSVMBranchAndBound(bidders).getAllocation();
+        assertValid(bidders, heuristic);
+        double ratio = heuristic.getTotalAllocationValue().doubleValue() / optimal.getTotalAllocationValue().doubleValue();
+        log.info("Heuristic achieves {} of the optimal GSVM welfare", ratio);
+        Assert.assertTrue(ratio <= 1 + DELTA);
+        Assert.assertTrue(ratio > 0.9);
+    }
+
+    @Test
+    public void testLocalSearchImprovesGreedy() {
+        List<LSVMBidder> bidders = new LocalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(52L));
+        HeuristicWinnerDetermination greedy = new HeuristicWinnerDetermination(bidders);
+        greedy.setNumberOfRestarts(1);
+        greedy.setMaxLocalSearchIterations(0);
+        HeuristicWinnerDetermination localSearch = new HeuristicWinnerDetermination(bidders);
+        Allocation greedyAllocation = greedy.getAllocation();
+        Allocation localSearchAllocation = localSearch.getAllocation();
+        assertValid(bidders, greedyAllocation);
+        assertValid(bidders, localSearchAllocation);
+        Assert.assertTrue(localSearchAllocation.getTotalAllocationValue().compareTo(greedyAllocation.getTotalAllocationValue()) >= 0);
+    }
+
+    @Test
+    public void testIndependentOfNumberOfThreads() {
+        List<LSVMBidder> bidders = new LocalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(53L));
+        HeuristicWinnerDetermination singleThreaded = new HeuristicWinnerDetermination(bidders);
+        singleThreaded.setSeed(7);
+        singleThreaded.setNumberOfThreads(1);
+        HeuristicWinnerDetermination parallel = new HeuristicWinnerDetermination(bidders);
+        parallel.setSeed(7);
+        parallel.setNumberOfThreads(4);
+        Allocation allocation = singleThreaded.getAllocation();
+        Allocation parallelAllocation = parallel.getAllocation();
+        for (LSVMBidder bidder : bidders) {
+            Assert.assertEquals(allocation.allocationOf(bidder).getBundle(), parallelAllocation.allocationOf(bidder).getBundle());
+        }
+    }
+
+    @Test
+    public void testSmallValueCache() {
+        List<LSVMBidder> bidders = new LocalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(54L));
+        HeuristicWinnerDetermination large = new HeuristicWinnerDetermination(bidders);
+        large.setValueCacheSize(1 << 18);
+        HeuristicWinnerDetermination bounded = new HeuristicWinnerDetermination(bidders);
+        bounded.setValueCacheSize(4);
+        Allocation allocation = large.getAllocation();
+        Allocation boundedAllocation = bounded.getAllocation();
+        for (LSVMBidder bidder : bidders) {
+            Assert.assertEquals(allocation.allocationOf(bidder).getBundle(), boundedAllocation.allocationOf(bidder).getBundle());
+        }
+    }
+
+    @Test
+    public void testOnlySingleAllocation() {
+        HeuristicWinnerDetermination mip = new HeuristicWinnerDetermination(new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(55L)));
+        Allocation allocation = mip.getAllocation();
+        Assert.assertEquals(Collections.singletonList(allocation), mip.getBestAllocations(1, false));
+        try {
+            mip.getBestAllocations(2, false);
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            mip.getIntermediateSolutions();
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            mip.adaptMIPResult(null);
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGenericModels() {
+        List<SRVMBidder> srvmBidders = new SingleRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(54L));
+        Allocation srvmAllocation = new HeuristicWinnerDetermination(srvmBidders).getAllocation();
+        assertValid(srvmBidders, srvmAllocation);
+        Assert.assertTrue(srvmAllocation.getTotalAllocationValue().compareTo(new SRVMUpperBound(srvmBidders).getUpperBound()) <= 0);
+
+        List<MRVMBidder> mrvmBidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(55L));
+        HeuristicWinnerDetermination mrvm = new HeuristicWinnerDetermination(mrvmBidders);
+        mrvm.setNumberOfRestarts(2);
+        mrvm.setNeighborhoods(EnumSet.of(HeuristicWinnerDetermination.Neighborhood.MOVE));
+        Allocation mrvmAllocation = mrvm.getAllocation();
+        assertValid(mrvmBidders, mrvmAllocation);
+        Assert.assertTrue(mrvmAllocation.getTotalAllocationValue().signum() > 0);
+        Assert.assertTrue(mrvmAllocation.getTotalAllocationValue().compareTo(new MRVMUpperBound(mrvmBidders).getUpperBound()) <= 0);
+    }
+
+    @Test
+    public void testCATS() {
+        CATSRegionModel model = new CATSRegionModel();
+        model.setNumberOfGoods(16);
+        model.setNumberOfBidders(6);
+        List<CATSBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(56L));
+        Allocation allocation = new HeuristicWinnerDetermination(bidders).getAllocation();
+        assertValid(bidders, allocation);
+    }
+
+    @Test
+    public void testWithoutBidder() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(57L));
+        HeuristicWinnerDetermination heuristic = new HeuristicWinnerDetermination(bidders);
+        GSVMBidder removed = bidders.get(0);
+        Allocation allocation = heuristic.getMIPWithout(removed).getAllocation();
+        Assert.assertEquals(Bundle.EMPTY, allocation.allocationOf(removed).getBundle());
+    }
+
+    @Test
+    public void testWarmStart() {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(58L));
+        HeuristicWinnerDetermination heuristic = new HeuristicWinnerDetermination(bidders);
+        heuristic.setNumberOfRestarts(1);
+        heuristic.setNeighborhoods(EnumSet.of(HeuristicWinnerDetermination.Neighborhood.MOVE));
+        Allocation allocation = heuristic.getAllocation();
+
+        MRVM_MIP mip = new MRVM_MIP(bidders);
+        mip.setWarmStart(allocation);
+        // Depending on the solve parameters, proposed zeros are omitted
+        Map<Variable, Object> proposed = mip.getMIP().getProposedValuesMap();
+        Assert.assertFalse(proposed.isEmpty());
+        for (AllocationVariable allocationVariable : mip.getAllocationVariables()) {
+            Bundle bundle = allocation.allocationOf(allocationVariable.getBidder()).getBundle();
+            long licenses = bundle.getSingleQuantityGoods().stream()
+                    .filter(((GenericGood) allocationVariable.getGood()).containedGoods()::contains)
+                    .count();
+            Object value = proposed.getOrDefault(allocationVariable.getVariable(), 0);
+            Assert.assertEquals(licenses, ((Number) value).longValue());
+        }
+    }
+
+    private static void assertValid(List<? extends SATSBidder> bidders, Allocation allocation) {
+        Set<Good> allocated = new HashSet<>();
+        double total = 0;
+        for (SATSBidder bidder : bidders) {
+            Bundle bundle = allocation.allocationOf(bidder).getBundle();
+            for (Good good : bundle.getSingleQuantityGoods()) {
+                Assert.assertTrue("Same license allocated multiple times", allocated.add(good));
+            }
+            total += bidder.calculateValue(bundle).doubleValue();
+        }
+        Assert.assertEquals(total, allocation.getTotalAllocationValue().doubleValue(), DELTA);
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.spectrumauctions.sats.opt.model;
+
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import edu.harvard.econcs.jopt.solver.server.lpsolve.LPSolveMIPSolver;
+import lpsolve.LpSolve;
+import lpsolve.LpSolveException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMWorld;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMWorldSetup;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.random.IntegerInterval;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMBranchAndBound;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMStandardMIP;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+public class ModelMIPExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLPFile() throws IOException {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(42L));
+        MRVM_MIP mip = new MRVM_MIP(bidders, 1);
+        Path lpFile = new ModelMIPExporter(mip).export(folder.getRoot().toPath(), "mrvm", MIPFileFormat.LP);
+
+        List<String> lines = Files.readAllLines(lpFile);
+        Assert.assertEquals("Maximize", lines.get(1));
+        Assert.assertEquals("End", lines.get(lines.size() - 1));
+        Assert.assertTrue(lines.contains("Subject To"));
+        Assert.assertTrue(lines.contains("Binaries"));
+        Assert.assertTrue(lines.contains("Generals"));
+        Assert.assertEquals(mip.getNumberOfConstraints(), lines.stream().filter(l -> l.matches(" c\\d+:.*")).count());
+        Assert.assertTrue(lines.stream().allMatch(l -> l.length() < 256));
+
+        List<String> mapping = Files.readAllLines(folder.getRoot().toPath().resolve("mrvm.varmap.tsv"));
+        Assert.assertEquals(mip.getNumberOfVariables() + 1, mapping.size());
+        long allocationVariables = mapping.stream().skip(1).filter(l -> l.split("\t").length == 4).count();
+        Assert.assertEquals(mip.getAllocationVariables().size(), allocationVariables);
+        Assert.assertTrue(mapping.stream().skip(1).allMatch(l -> l.split("\t")[0].matches("[A-Za-z][A-Za-z0-9_.]*")));
+    }
+
+    @Test
+    public void testDemandQueryMIPCanBeExported() throws IOException {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(42L));
+        MRVM_MIP mip = bidders.get(0).createDemandQueryMIP(Prices.NONE);
+        ModelMIPExporter exporter = new ModelMIPExporter(mip);
+        Path mpsFile = exporter.export(folder.getRoot().toPath(), "demandquery", MIPFileFormat.MPS);
+        List<String> lines = Files.readAllLines(mpsFile);
+        Assert.assertEquals("ENDATA", lines.get(lines.size() - 1));
+        Assert.assertTrue(lines.stream().anyMatch(l -> l.startsWith("    " + exporter.getFileName(mip.getMIP().getVar("p")) + " ")));
+    }
+
+    @Test
+    public void testRoundTripWithExternalSolver() throws IOException, LpSolveException {
+        GSVMWorldSetup.GSVMWorldSetupBuilder worldSetupBuilder = new GSVMWorldSetup.GSVMWorldSetupBuilder();
+        worldSetupBuilder.setSizeInterval(new IntegerInterval(2));
+        GSVMWorld world = new GSVMWorld(worldSetupBuilder.build(), new JavaUtilRNGSupplier(7L));
+        List<GSVMBidder> population = new GlobalSynergyValueModel().createPopulation(world, new JavaUtilRNGSupplier(7L));
+        GSVMStandardMIP mip = new GSVMStandardMIP(world, population);
+        Path directory = folder.getRoot().toPath();
+        Path mpsFile = new ModelMIPExporter(mip).export(directory, "gsvm", MIPFileFormat.MPS);
+        Path mappingFile = directory.resolve("gsvm.varmap.tsv");
+
+        // Loads the native LP Solve library shipped with jopt
+        new LPSolveMIPSolver();
+        LpSolve solver = LpSolve.readFreeMps(mpsFile.toString(), LpSolve.NEUTRAL);
+        Map<String, Double> values = new LinkedHashMap<>();
+        try {
+            Assert.assertEquals(LpSolve.OPTIMAL, solver.solve());
+            double[] solution = solver.getPtrVariables();
+            for (int i = 0; i < solution.length; i++) {
+                values.put(solver.getColName(i + 1), solution[i]);
+            }
+        } finally {
+            solver.deleteLp();
+        }
+        double optimum = new GSVMBranchAndBound(world, population).getAllocation().getTotalAllocationValue().doubleValue();
+
+        // Gurobi / SCIP style
+        Path textSolution = writeSolution(directory.resolve("gsvm.sol"), values, (name, value) -> name + " " + value);
+        // CBC style
+        int[] index = {0};
+        Path cbcSolution = writeSolution(directory.resolve("gsvm.cbc.txt"), values, (name, value) -> (index[0]++) + " " + name + " " + value + " 0");
+        // CPLEX style
+        Path xmlSolution = writeSolution(directory.resolve("gsvm.xml"), values, (name, value) -> "  <variable name=\"" + name + "\" index=\"0\" value=\"" + value + "\"/>");
+
+        for (Path solutionFile : new Path[]{textSolution, cbcSolution, xmlSolution}) {
+            Allocation allocation = new ModelMIPSolutionImporter(new GSVMStandardMIP(world, population)).importAllocation(solutionFile, mappingFile);
+            Assert.assertEquals(solutionFile.toString(), optimum, allocation.getTotalAllocationValue().doubleValue(), 1e-6);
+        }
+    }
+
+    @Test
+    public void testMissingVariablesAreZero() throws IOException {
+        List<GSVMBidder> population = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(3L));
+        GSVMStandardMIP mip = new GSVMStandardMIP(population);
+        Path directory = folder.getRoot().toPath();
+        new ModelMIPExporter(mip).export(directory, "empty", MIPFileFormat.LP);
+        Path solutionFile = Files.write(directory.resolve("empty.sol"), "# Objective value = 0\n".getBytes());
+        ModelMIPSolutionImporter importer = new ModelMIPSolutionImporter(mip);
+        for (Variable variable : mip.getMIP().getVars().values()) {
+            Assert.assertEquals(0, importer.readSolution(solutionFile, directory.resolve("empty.varmap.tsv")).getValue(variable), 0);
+        }
+        Assert.assertEquals(0, importer.importAllocation(solutionFile, directory.resolve("empty.varmap.tsv")).getTotalAllocationValue().signum());
+    }
+
+    private static Path writeSolution(Path file, Map<String, Double> values, BiFunction<String, Double, String> format) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("# Solution\n");
+            for (Map.Entry<String, Double> entry : values.entrySet()) {
+                writer.write(format.apply(entry.getKey(), entry.getValue()));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+}
@@ -0,0 +1,193 @@
+package org.spectrumauctions.sats.opt.model;
+
+import edu.harvard.econcs.jopt.solver.mip.MIPResult;
+import edu.harvard.econcs.jopt.solver.mip.PoolSolution;
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.spectrumauctions.sats.core.model.SATSBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GSVMBidder;
+import org.spectrumauctions.sats.core.model.gsvm.GlobalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMBranchAndBound;
+import org.spectrumauctions.sats.opt.model.gsvm.GSVMStandardMIP;
+import org.spectrumauctions.sats.opt.model.lsvm.LSVMStandardMIP;
+import org.spectrumauctions.sats.opt.model.mrvm.MRVM_MIP;
+import org.spectrumauctions.sats.opt.model.srvm.SRVM_MIP;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class PooledAllocationTest {
+
+    @Test
+    public void testDecodingMatchesAdaptMIPResult() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(61L));
+        GSVMStandardMIP mip = new GSVMStandardMIP(bidders);
+        Allocation allocation = new GSVMBranchAndBound(bidders).getAllocation();
+        PoolSolution solution = toSolution(mip, allocation, allocation.getTotalAllocationValue().doubleValue());
+
+        Allocation expected = ((ModelMIP) mip).adaptMIPResult(solution);
+        Allocation decoded = new PooledAllocation(mip, solution).toAllocation();
+        for (GSVMBidder bidder : bidders) {
+            Assert.assertEquals(allocation.allocationOf(bidder).getBundle(), decoded.allocationOf(bidder).getBundle());
+            Assert.assertEquals(expected.allocationOf(bidder).getBundle(), decoded.allocationOf(bidder).getBundle());
+            Assert.assertEquals(0, expected.allocationOf(bidder).getValue().compareTo(decoded.allocationOf(bidder).getValue()));
+        }
+        Assert.assertEquals(0, expected.getTotalAllocationValue().compareTo(decoded.getTotalAllocationValue()));
+    }
+
+    @Test
+    public void testValuesAreEvaluatedOnDemand() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(62L));
+        AtomicInteger evaluations = new AtomicInteger();
+        ModelMIP mip = countingMIP(bidders, evaluations);
+        Allocation allocation = new GSVMBranchAndBound(bidders).getAllocation();
+        PooledAllocation pooled = new PooledAllocation(mip, toSolution(mip, allocation, 1));
+
+        GSVMBidder bidder = bidders.stream()
+                .filter(b -> !Bundle.EMPTY.equals(allocation.allocationOf(b).getBundle()))
+                .findFirst().orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(allocation.allocationOf(bidder).getBundle(), pooled.getBundle(bidder));
+        Assert.assertEquals(0, evaluations.get());
+        BigDecimal value = pooled.getValue(bidder);
+        Assert.assertEquals(value, pooled.getValue(bidder));
+        Assert.assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    public void testStreamTerminatesEarly() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(63L));
+        AtomicInteger evaluations = new AtomicInteger();
+        ModelMIP mip = countingMIP(bidders, evaluations);
+        Allocation allocation = new GSVMBranchAndBound(bidders).getAllocation();
+        Queue<PoolSolution> pool = new LinkedList<>();
+        for (int i = 0; i < 5; i++) {
+            pool.add(toSolution(mip, allocation, i));
+        }
+        MIPResult result = new MIPResult(4, Collections.emptyMap(), Collections.emptyMap());
+        result.setPoolSolutions(pool);
+
+        List<PooledAllocation> solutions = mip.streamSolutions(result).collect(Collectors.toList());
+        Assert.assertEquals(5, solutions.size());
+        for (int i = 1; i < solutions.size(); i++) {
+            Assert.assertTrue(solutions.get(i - 1).getObjectiveValue() >= solutions.get(i).getObjectiveValue());
+        }
+        Assert.assertEquals(0, evaluations.get());
+
+        PooledAllocation best = mip.streamSolutions(result)
+                .filter(solution -> solution.toAllocation().getTotalAllocationValue().signum() > 0)
+                .findFirst().orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(4, best.getObjectiveValue(), 1e-9);
+        long allocatedBidders = bidders.stream().filter(b -> !Bundle.EMPTY.equals(allocation.allocationOf(b).getBundle())).count();
+        Assert.assertEquals(allocatedBidders, evaluations.get());
+    }
+
+    @Test
+    public void testDecodingMatchesAdaptMIPResultInLSVM() {
+        List<LSVMBidder> bidders = new LocalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(64L));
+        assertDecodingMatchesAdaptMIPResult(new LSVMStandardMIP(bidders), 64L);
+    }
+
+    @Test
+    public void testDecodingMatchesAdaptMIPResultInMRVM() {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(65L));
+        assertDecodingMatchesAdaptMIPResult(new MRVM_MIP(bidders), 65L);
+    }
+
+    @Test
+    public void testDecodingMatchesAdaptMIPResultInSRVM() {
+        List<SRVMBidder> bidders = new SingleRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(66L));
+        assertDecodingMatchesAdaptMIPResult(new SRVM_MIP(bidders), 66L);
+    }
+
+    @Test
+    public void testValuesAreSharedWithinPool() {
+        List<GSVMBidder> bidders = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(67L));
+        AtomicInteger evaluations = new AtomicInteger();
+        ModelMIP mip = countingMIP(bidders, evaluations);
+        Allocation allocation = new GSVMBranchAndBound(bidders).getAllocation();
+        Queue<PoolSolution> pool = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            pool.add(toSolution(mip, allocation, i + 1));
+        }
+        MIPResult result = new MIPResult(3, Collections.emptyMap(), Collections.emptyMap());
+        result.setPoolSolutions(pool);
+
+        List<Allocation> allocations = mip.streamSolutions(result).map(PooledAllocation::toAllocation).collect(Collectors.toList());
+        Assert.assertEquals(3, allocations.size());
+        long allocatedBidders = bidders.stream().filter(b -> !Bundle.EMPTY.equals(allocation.allocationOf(b).getBundle())).count();
+        Assert.assertEquals(allocatedBidders, evaluations.get());
+    }
+
+    /**
+     * Randomly sets the allocation variables of a solution, all other variables are zero
+     */
+    private static void assertDecodingMatchesAdaptMIPResult(ModelMIP mip, long seed) {
+        Random random = new Random(seed);
+        Map<String, Double> values = new HashMap<>();
+        mip.getMIP().getVars().keySet().forEach(name -> values.put(name, 0.0));
+        for (AllocationVariable variable : mip.getAllocationVariables()) {
+            int maxQuantity = Math.min(2, variable.getGood().getQuantity());
+            values.put(variable.getVariable().getName(), (double) random.nextInt(maxQuantity + 1));
+        }
+        PoolSolution solution = new PoolSolution(1, 0, values);
+
+        Allocation expected = mip.adaptMIPResult(solution);
+        PooledAllocation pooled = new PooledAllocation(mip, solution);
+        Allocation decoded = pooled.toAllocation();
+        Assert.assertFalse(pooled.getBidders().isEmpty());
+        for (SATSBidder bidder : pooled.getBidders()) {
+            Bundle bundle = expected.allocationOf(bidder).getBundle();
+            Assert.assertEquals(bundle, decoded.allocationOf(bidder).getBundle());
+            Assert.assertEquals(0, expected.allocationOf(bidder).getValue().compareTo(decoded.allocationOf(bidder).getValue()));
+        }
+        Assert.assertEquals(0, expected.getTotalAllocationValue().compareTo(decoded.getTotalAllocationValue()));
+    }
+
+    private static ModelMIP countingMIP(List<GSVMBidder> bidders, AtomicInteger evaluations) {
+        return new GSVMStandardMIP(bidders) {
+            @Override
+            protected BigDecimal evaluate(SATSBidder bidder, Bundle bundle) {
+                evaluations.incrementAndGet();
+                return super.evaluate(bidder, bundle);
+            }
+        };
+    }
+
+    /**
+     * Encodes an allocation by setting one allocation variable per allocated license
+     */
+    private static PoolSolution toSolution(ModelMIP mip, Allocation allocation, double objectiveValue) {
+        Map<String, Double> values = new HashMap<>();
+        Set<List<Object>> encoded = new HashSet<>();
+        for (AllocationVariable variable : mip.getAllocationVariables()) {
+            Bundle bundle = allocation.allocationOf(variable.getBidder()).getBundle();
+            List<Object> key = new ArrayList<>();
+            key.add(variable.getBidder());
+            key.add(variable.getGood());
+            boolean allocated = bundle.contains(variable.getGood()) && encoded.add(key);
+            values.put(variable.getVariable().getName(), allocated ? 1.0 : 0.0);
+        }
+        return new PoolSolution(objectiveValue, 0, values);
+    }
+
+}
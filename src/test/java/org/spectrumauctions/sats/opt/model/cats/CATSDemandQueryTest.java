@@ -0,0 +1,105 @@
+package org.spectrumauctions.sats.opt.model.cats;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.price.LinearPrices;
+import org.marketdesignresearch.mechlib.core.price.Price;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSBidderSetup;
+import org.spectrumauctions.sats.core.model.cats.CATSLicense;
+import org.spectrumauctions.sats.core.model.cats.CATSWorld;
+import org.spectrumauctions.sats.core.model.cats.CATSWorldSetup;
+import org.spectrumauctions.sats.core.util.random.IntegerInterval;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the closed-form CATS demand query to a brute-force enumeration of all bundles of a small world.
+ */
+public class CATSDemandQueryTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testBestBundleMatchesBruteForce() {
+        for (long seed = 0; seed < 5; seed++) {
+            checkAgainstBruteForce(createBidder(seed, false), seed);
+        }
+    }
+
+    @Test
+    public void testBestBundleMatchesBruteForceQuadraticPricing() {
+        for (long seed = 0; seed < 5; seed++) {
+            checkAgainstBruteForce(createBidder(seed, true), seed);
+        }
+    }
+
+    @Test
+    public void testBestBundlesThroughBidder() {
+        CATSBidder bidder = createBidder(42L, false);
+        Prices prices = createPrices(bidder.getWorld(), 42L);
+        Set<Bundle> bundles = bidder.getBestBundles(prices, 10, true);
+        Assert.assertEquals(10, bundles.size());
+        Set<Bundle> positiveBundles = bidder.getBestBundles(prices, 10, false);
+        for (Bundle bundle : positiveBundles) {
+            Assert.assertTrue(bidder.getUtility(bundle, prices).signum() > -1);
+        }
+    }
+
+    private void checkAgainstBruteForce(CATSBidder bidder, long seed) {
+        Prices prices = createPrices(bidder.getWorld(), seed);
+        List<CATSLicense> licenses = bidder.getWorld().getLicenses();
+        List<Double> utilities = new ArrayList<>();
+        for (int mask = 0; mask < (1 << licenses.size()); mask++) {
+            List<Good> goods = new ArrayList<>();
+            for (int i = 0; i < licenses.size(); i++) {
+                if ((mask & (1 << i)) != 0) goods.add(licenses.get(i));
+            }
+            Bundle bundle = goods.isEmpty() ? Bundle.EMPTY : Bundle.of(goods);
+            utilities.add(bidder.getUtility(bundle, prices).doubleValue());
+        }
+        utilities.sort((a, b) -> Double.compare(b, a));
+
+        int k = 20;
+        CATSDemandQuery demandQuery = new CATSDemandQuery(bidder, prices);
+        Assert.assertEquals(utilities.get(0), demandQuery.getBestUtility(), DELTA);
+        Assert.assertEquals(utilities.get(0), bidder.getUtility(demandQuery.getBestBundle(), prices).doubleValue(), DELTA);
+        List<Bundle> bestBundles = demandQuery.getBestBundles(k);
+        Assert.assertEquals(k, bestBundles.size());
+        Assert.assertEquals(k, bestBundles.stream().distinct().count());
+        for (int i = 0; i < k; i++) {
+            Assert.assertEquals(utilities.get(i), bidder.getUtility(bestBundles.get(i), prices).doubleValue(), DELTA);
+        }
+    }
+
+    private CATSBidder createBidder(long seed, boolean quadraticPricing) {
+        CATSWorldSetup.Builder builder = new CATSWorldSetup.Builder();
+        builder.setNumberOfRowsInterval(new IntegerInterval(3));
+        builder.setNumberOfColumnsInterval(new IntegerInterval(4));
+        builder.setUseQuadraticPricingOption(quadraticPricing);
+        CATSWorld world = new CATSWorld(builder.build(), new JavaUtilRNGSupplier(seed));
+        List<CATSBidderSetup> setups = new ArrayList<>();
+        setups.add(new CATSBidderSetup.Builder().build());
+        return world.createPopulation(setups, new JavaUtilRNGSupplier(seed)).get(0);
+    }
+
+    private Prices createPrices(CATSWorld world, long seed) {
+        Random random = new Random(seed);
+        double maxPrice = world.getUseQuadraticPricingOption() ? 10000 : 200;
+        Map<Good, Price> priceMap = new HashMap<>();
+        for (CATSLicense license : world.getLicenses()) {
+            priceMap.put(license, Price.of(random.nextDouble() * maxPrice));
+        }
+        return new LinearPrices(priceMap);
+    }
+
+}
@@ -0,0 +1,178 @@
+package org.spectrumauctions.sats.opt.model.cats;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.bidder.valuefunction.BundleValue;
+import org.spectrumauctions.sats.core.bidlang.xor.CatsXOR;
+import org.spectrumauctions.sats.core.model.UnsupportedBiddingLanguageException;
+import org.spectrumauctions.sats.core.model.cats.CATSBidder;
+import org.spectrumauctions.sats.core.model.cats.CATSLicense;
+import org.spectrumauctions.sats.core.model.cats.CATSRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CATSXORWinnerDeterminationTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testOptimalOnSmallInstances() throws UnsupportedBiddingLanguageException {
+        for (long seed = 0; seed < 5; seed++) {
+            Map<CATSBidder, List<BundleValue>> bids = createBids(16, 10, seed);
+            CATSXORWinnerDetermination wd = new CATSXORWinnerDetermination(bids);
+            wd.setEpsilon(0);
+            Allocation allocation = wd.getAllocation();
+            assertValid(bids, allocation);
+            Assert.assertEquals(bruteForce(bids), allocation.getTotalAllocationValue().doubleValue(), DELTA);
+        }
+    }
+
+    @Test
+    public void testFromValueFunctions() throws UnsupportedBiddingLanguageException {
+        CATSRegionModel model = new CATSRegionModel();
+        model.setNumberOfGoods(16);
+        model.setNumberOfBidders(8);
+        List<CATSBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(17L));
+        List<CatsXOR> valueFunctions = new ArrayList<>();
+        Map<CATSBidder, List<BundleValue>> bids = new LinkedHashMap<>();
+        for (CATSBidder bidder : bidders) {
+            valueFunctions.add(bidder.getValueFunction(CatsXOR.class, 17L + bidder.getLongId()));
+            bids.put(bidder, new ArrayList<>(bidder.getValueFunction(CatsXOR.class, 17L + bidder.getLongId()).getCATSXORBids()));
+        }
+        Allocation allocation = new CATSXORWinnerDetermination(valueFunctions).getAllocation();
+        assertValid(bids, allocation);
+        Assert.assertEquals(bruteForce(bids), allocation.getTotalAllocationValue().doubleValue(), DELTA);
+    }
+
+    @Test
+    public void testIndependentOfNumberOfThreads() throws UnsupportedBiddingLanguageException {
+        Map<CATSBidder, List<BundleValue>> bids = createBids(64, 40, 3L);
+        CATSXORWinnerDetermination singleThreaded = new CATSXORWinnerDetermination(bids);
+        singleThreaded.setEpsilon(0);
+        singleThreaded.setNumberOfThreads(1);
+        CATSXORWinnerDetermination parallel = new CATSXORWinnerDetermination(bids);
+        parallel.setEpsilon(0);
+        parallel.setNumberOfThreads(4);
+
+        Allocation allocation = singleThreaded.getAllocation();
+        Allocation parallelAllocation = parallel.getAllocation();
+        assertValid(bids, allocation);
+        for (CATSBidder bidder : bids.keySet()) {
+            Assert.assertEquals(allocation.allocationOf(bidder).getBundle(), parallelAllocation.allocationOf(bidder).getBundle());
+        }
+    }
+
+    @Test
+    public void testTimeLimit() throws UnsupportedBiddingLanguageException {
+        Map<CATSBidder, List<BundleValue>> bids = createBids(64, 80, 5L);
+        CATSXORWinnerDetermination wd = new CATSXORWinnerDetermination(bids);
+        wd.setTimeLimit(0.1);
+        long start = System.currentTimeMillis();
+        Allocation allocation = wd.getAllocation();
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        assertValid(bids, allocation);
+        Assert.assertTrue(allocation.getTotalAllocationValue().signum() > 0);
+    }
+
+    @Test
+    public void testWithoutBidder() throws UnsupportedBiddingLanguageException {
+        Map<CATSBidder, List<BundleValue>> bids = createBids(16, 6, 9L);
+        CATSXORWinnerDetermination wd = new CATSXORWinnerDetermination(bids);
+        CATSBidder removed = bids.keySet().iterator().next();
+        Allocation allocation = wd.getMIPWithout(removed).getAllocation();
+        Assert.assertEquals(Bundle.EMPTY, allocation.allocationOf(removed).getBundle());
+        Map<CATSBidder, List<BundleValue>> reduced = new LinkedHashMap<>(bids);
+        reduced.remove(removed);
+        Assert.assertEquals(bruteForce(reduced), allocation.getTotalAllocationValue().doubleValue(), DELTA);
+    }
+
+    @Test
+    public void testOnlySingleAllocation() throws UnsupportedBiddingLanguageException {
+        CATSXORWinnerDetermination mip = new CATSXORWinnerDetermination(createBids(16, 6, 11L));
+        Allocation allocation = mip.getAllocation();
+        Assert.assertEquals(Collections.singletonList(allocation), mip.getBestAllocations(1, false));
+        try {
+            mip.getBestAllocations(2, false);
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            mip.getIntermediateSolutions();
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            mip.adaptMIPResult(null);
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    private static Map<CATSBidder, List<BundleValue>> createBids(int numberOfGoods, int numberOfBidders, long seed) throws UnsupportedBiddingLanguageException {
+        CATSRegionModel model = new CATSRegionModel();
+        model.setNumberOfGoods(numberOfGoods);
+        model.setNumberOfBidders(numberOfBidders);
+        List<CATSBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed));
+        Map<CATSBidder, List<BundleValue>> bids = new LinkedHashMap<>();
+        for (CATSBidder bidder : bidders) {
+            bids.put(bidder, new ArrayList<>(bidder.getValueFunction(CatsXOR.class, seed + bidder.getLongId()).getCATSXORBids()));
+        }
+        return bids;
+    }
+
+    private static void assertValid(Map<CATSBidder, List<BundleValue>> bids, Allocation allocation) {
+        Set<Good> allocated = new HashSet<>();
+        double total = 0;
+        for (Map.Entry<CATSBidder, List<BundleValue>> entry : bids.entrySet()) {
+            Bundle bundle = allocation.allocationOf(entry.getKey()).getBundle();
+            if (Bundle.EMPTY.equals(bundle)) continue;
+            BundleValue bid = entry.getValue().stream().filter(b -> b.getBundle().equals(bundle)).findAny().orElse(null);
+            Assert.assertNotNull("Allocated bundle is not a bid of the bidder", bid);
+            for (Good good : bundle.getSingleQuantityGoods()) {
+                Assert.assertTrue("Same license allocated multiple times", allocated.add(good));
+            }
+            total += bid.getAmount().doubleValue();
+        }
+        Assert.assertEquals(total, allocation.getTotalAllocationValue().doubleValue(), DELTA);
+    }
+
+    /**
+     * Dynamic program over the bidders and all subsets of licenses
+     */
+    private static double bruteForce(Map<CATSBidder, List<BundleValue>> bids) {
+        List<CATSLicense> licenses = bids.keySet().iterator().next().getWorld().getLicenses();
+        int n = licenses.size();
+        double[] best = new double[1 << n];
+        for (List<BundleValue> bidderBids : bids.values()) {
+            double[] next = best.clone();
+            for (BundleValue bid : bidderBids) {
+                if (bid.getAmount().signum() <= 0) continue;
+                int mask = 0;
+                for (Good good : bid.getBundle().getSingleQuantityGoods()) {
+                    mask |= 1 << licenses.indexOf(good);
+                }
+                for (int available = 0; available < (1 << n); available++) {
+                    if ((available & mask) == mask) {
+                        next[available] = Math.max(next[available], best[available & ~mask] + bid.getAmount().doubleValue());
+                    }
+                }
+            }
+            best = next;
+        }
+        return best[(1 << n) - 1];
+    }
+
+}
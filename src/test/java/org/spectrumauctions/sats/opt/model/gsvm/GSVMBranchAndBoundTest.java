@@ -0,0 +1,207 @@
+package org.spectrumauctions.sats.opt.model.gsvm;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.allocationlimits.AllocationLimit;
+import org.marketdesignresearch.mechlib.core.allocationlimits.BundleSizeAllocationLimit;
+import org.marketdesignresearch.mechlib.core.allocationlimits.BundleSizeAndGoodAllocationLimit;
+import org.marketdesignresearch.mechlib.core.allocationlimits.GoodAllocationLimit;
+import org.spectrumauctions.sats.core.model.gsvm.*;
+import org.spectrumauctions.sats.core.util.random.DoubleInterval;
+import org.spectrumauctions.sats.core.util.random.IntegerInterval;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.mechanism.domains.GSVMDomain;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+public class GSVMBranchAndBoundTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testOptimalOnSmallWorlds() {
+        for (long seed = 0; seed < 5; seed++) {
+            GSVMWorldSetup.GSVMWorldSetupBuilder worldSetupBuilder = new GSVMWorldSetup.GSVMWorldSetupBuilder();
+            worldSetupBuilder.setSizeInterval(new IntegerInterval(2));
+            GSVMWorld world = new GSVMWorld(worldSetupBuilder.build(), new JavaUtilRNGSupplier(seed));
+            GlobalSynergyValueModel model = new GlobalSynergyValueModel();
+            List<GSVMBidder> population = model.createPopulation(world, new JavaUtilRNGSupplier(seed));
+
+            Allocation allocation = new GSVMBranchAndBound(world, population).getAllocation();
+            assertValid(population, allocation);
+            Assert.assertEquals(bruteForce(world, population), allocation.getTotalAllocationValue().doubleValue(), DELTA);
+        }
+    }
+
+    @Test
+    public void testEfficientAllocationCustomSetup() {
+        GSVMWorldSetup.GSVMWorldSetupBuilder worldSetupBuilder = new GSVMWorldSetup.GSVMWorldSetupBuilder();
+        worldSetupBuilder.setSizeInterval(new IntegerInterval(1));
+        GSVMWorld world = new GSVMWorld(worldSetupBuilder.build(), new JavaUtilRNGSupplier(983742L));
+
+        GSVMRegionalBidderSetup.Builder regionalBidderBuilder = new GSVMRegionalBidderSetup.Builder();
+        regionalBidderBuilder.setRegionalValueInterval(new DoubleInterval(15));
+        regionalBidderBuilder.setLowNationalValueInterval(new DoubleInterval(25));
+        regionalBidderBuilder.setHighNationalValueInterval(new DoubleInterval(35));
+        regionalBidderBuilder.setNumberOfBidders(2);
+        GSVMNationalBidderSetup.Builder nationalBidderBuilder = new GSVMNationalBidderSetup.Builder();
+        nationalBidderBuilder.setNumberOfBidders(1);
+        nationalBidderBuilder.setLowNationalValueInterval(new DoubleInterval(16));
+        nationalBidderBuilder.setHighNationalValueInterval(new DoubleInterval(26));
+        List<GSVMBidder> population = world.createPopulation(
+                Collections.singletonList(regionalBidderBuilder.build()),
+                Collections.singletonList(nationalBidderBuilder.build()),
+                new JavaUtilRNGSupplier(983742L));
+
+        Allocation allocation = new GSVMBranchAndBound(world, population).getAllocation();
+        // Same efficient allocation value as with the GSVMStandardMIP
+        Assert.assertEquals(0, BigDecimal.valueOf(75.0).compareTo(allocation.getTotalAllocationValue()));
+    }
+
+    @Test
+    public void testDeterministicInDefaultWorld() {
+        GlobalSynergyValueModel model = new GlobalSynergyValueModel();
+        GSVMWorld world = model.createWorld(new JavaUtilRNGSupplier(1234L));
+        List<GSVMBidder> population = model.createPopulation(world, new JavaUtilRNGSupplier(1234L));
+        List<GSVMBidder> reversed = new ArrayList<>(population);
+        Collections.reverse(reversed);
+
+        GSVMBranchAndBound singleThreaded = new GSVMBranchAndBound(world, population);
+        singleThreaded.setNumberOfThreads(1);
+        Allocation allocation = singleThreaded.getAllocation();
+        Allocation parallelAllocation = new GSVMBranchAndBound(world, reversed).getAllocation();
+
+        assertValid(population, allocation);
+        population.forEach(bidder -> Assert.assertEquals(allocation.allocationOf(bidder), parallelAllocation.allocationOf(bidder)));
+    }
+
+    @Test
+    public void testOptimalOnSmallLegacyWorlds() {
+        for (long seed = 0; seed < 5; seed++) {
+            GSVMWorld world = legacyWorld(2, seed);
+            List<GSVMBidder> population = new GlobalSynergyValueModel().createPopulation(world, new JavaUtilRNGSupplier(seed));
+
+            Allocation allocation = new GSVMBranchAndBound(world, population).getAllocation();
+            assertValid(population, allocation);
+            Assert.assertEquals(bruteForce(world, population), allocation.getTotalAllocationValue().doubleValue(), DELTA);
+        }
+    }
+
+    @Test
+    public void testLegacyEqualsStandardMIP() {
+        for (long seed = 0; seed < 3; seed++) {
+            GSVMWorld world = legacyWorld(3, seed);
+            List<GSVMBidder> population = new GlobalSynergyValueModel().createPopulation(world, new JavaUtilRNGSupplier(seed));
+
+            Allocation allocation = new GSVMBranchAndBound(world, population).getAllocation();
+            Allocation mipAllocation = new GSVMStandardMIP(world, population).getAllocation();
+            assertValid(population, allocation);
+            Assert.assertEquals(mipAllocation.getTotalAllocationValue().doubleValue(), allocation.getTotalAllocationValue().doubleValue(), DELTA);
+        }
+    }
+
+    @Test
+    public void testDomainWithoutSolver() {
+        List<GSVMBidder> population = new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(42L));
+        GSVMDomain domain = new GSVMDomain(population);
+        domain.setUseBranchAndBound(true);
+        Allocation allocation = domain.getEfficientAllocation();
+        assertValid(population, allocation);
+        Assert.assertTrue(allocation.getTotalAllocationValue().signum() > 0);
+    }
+
+    @Test
+    public void testOnlySingleAllocation() {
+        GSVMBranchAndBound mip = new GSVMBranchAndBound(new GlobalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(43L)));
+        Allocation allocation = mip.getAllocation();
+        Assert.assertEquals(Collections.singletonList(allocation), mip.getBestAllocations(1, false));
+        try {
+            mip.getBestAllocations(2, false);
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            mip.getIntermediateSolutions();
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            mip.adaptMIPResult(null);
+            Assert.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    private static GSVMWorld legacyWorld(int size, long seed) {
+        GSVMWorldSetup.GSVMWorldSetupBuilder worldSetupBuilder = new GSVMWorldSetup.GSVMWorldSetupBuilder();
+        worldSetupBuilder.setSizeInterval(new IntegerInterval(size));
+        worldSetupBuilder.setLegacyGSVM(true);
+        return new GSVMWorld(worldSetupBuilder.build(), new JavaUtilRNGSupplier(seed));
+    }
+
+    private static void assertValid(List<GSVMBidder> population, Allocation allocation) {
+        Set<Good> allocated = new HashSet<>();
+        double total = 0;
+        for (GSVMBidder bidder : population) {
+            Bundle bundle = allocation.allocationOf(bidder).getBundle();
+            for (Good good : bundle.getSingleQuantityGoods()) {
+                Assert.assertTrue("Same license allocated multiple times", allocated.add(good));
+            }
+            Assert.assertTrue(isFeasible(bidder, bundle.getSingleQuantityGoods()));
+            total += bidder.calculateValue(bundle).doubleValue();
+        }
+        Assert.assertEquals(total, allocation.getTotalAllocationValue().doubleValue(), DELTA);
+    }
+
+    private static boolean isFeasible(GSVMBidder bidder, Collection<? extends Good> goods) {
+        AllocationLimit limit = bidder.getAllocationLimit();
+        if (limit instanceof BundleSizeAllocationLimit) {
+            return goods.size() <= ((BundleSizeAllocationLimit) limit).getBundleSizeLimit();
+        } else if (limit instanceof GoodAllocationLimit) {
+            return ((GoodAllocationLimit) limit).getLimitedGoods().containsAll(goods);
+        } else if (limit instanceof BundleSizeAndGoodAllocationLimit) {
+            BundleSizeAndGoodAllocationLimit sizeAndGoodLimit = (BundleSizeAndGoodAllocationLimit) limit;
+            return goods.size() <= sizeAndGoodLimit.getBundleSizeLimit() && sizeAndGoodLimit.getLimitedGoods().containsAll(goods);
+        }
+        return true;
+    }
+
+    /**
+     * Dynamic program over the bidders and all subsets of licenses
+     */
+    private static double bruteForce(GSVMWorld world, List<GSVMBidder> population) {
+        List<GSVMLicense> licenses = world.getLicenses();
+        int n = licenses.size();
+        double[] best = new double[1 << n];
+        for (GSVMBidder bidder : population) {
+            double[] bundleValues = new double[1 << n];
+            for (int mask = 0; mask < (1 << n); mask++) {
+                List<GSVMLicense> goods = new ArrayList<>();
+                for (int j = 0; j < n; j++) {
+                    if ((mask & (1 << j)) != 0) goods.add(licenses.get(j));
+                }
+                bundleValues[mask] = isFeasible(bidder, goods)
+                        ? bidder.calculateValue(goods.isEmpty() ? Bundle.EMPTY : Bundle.of(goods)).doubleValue()
+                        : Double.NEGATIVE_INFINITY;
+            }
+            double[] next = new double[1 << n];
+            for (int available = 0; available < (1 << n); available++) {
+                double value = best[available];
+                for (int bundle = available; bundle != 0; bundle = (bundle - 1) & available) {
+                    value = Math.max(value, bundleValues[bundle] + best[available & ~bundle]);
+                }
+                next[available] = value;
+            }
+            best = next;
+        }
+        return best[(1 << n) - 1];
+    }
+
+}
@@ -15,6 +15,30 @@ import java.util.*;
 
 public class GSVMStandardMIPTest {
 
+    @Test
+    public void testXVariablesLookup() {
+        GlobalSynergyValueModel model = new GlobalSynergyValueModel();
+        GSVMWorld world = model.createWorld(new JavaUtilRNGSupplier(73L));
+        List<GSVMBidder> population = model.createPopulation(world, new JavaUtilRNGSupplier(73L));
+        GSVMStandardMIP gsvmMIP = new GSVMStandardMIP(world, population);
+
+        Set<Object> allVariables = new HashSet<>();
+        for (GSVMBidder bidder : population) {
+            long positive = bidder.getBaseValues().values().stream().filter(v -> v.signum() > 0).count();
+            for (GSVMLicense license : world.getLicenses()) {
+                Map<Integer, ?> xVariables = gsvmMIP.getXVariables(bidder, license);
+                boolean positiveValue = bidder.getBaseValues().getOrDefault(license.getLongId(), BigDecimal.ZERO).signum() > 0;
+                Assert.assertEquals(positiveValue ? positive : 0, xVariables.size());
+                allVariables.addAll(xVariables.values());
+            }
+        }
+        Assert.assertEquals(gsvmMIP.getMIP().getNumVars(), allVariables.size());
+
+        GSVMBidder removed = population.get(0);
+        GSVMStandardMIP reducedMIP = (GSVMStandardMIP) gsvmMIP.getMIPWithout(removed);
+        world.getLicenses().forEach(license -> Assert.assertTrue(reducedMIP.getXVariables(removed, license).isEmpty()));
+    }
+
     @Test
     public void testDeterministicOutcome() {
         GlobalSynergyValueModel model = new GlobalSynergyValueModel();
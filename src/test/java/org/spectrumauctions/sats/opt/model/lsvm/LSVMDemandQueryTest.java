@@ -10,15 +10,18 @@ import org.marketdesignresearch.mechlib.core.price.LinearPrices;
 import org.marketdesignresearch.mechlib.core.price.Price;
 import org.marketdesignresearch.mechlib.core.price.Prices;
 import org.spectrumauctions.sats.core.model.lsvm.LSVMBidder;
+import org.spectrumauctions.sats.core.model.lsvm.LSVMLicense;
 import org.spectrumauctions.sats.core.model.lsvm.LSVMWorld;
 import org.spectrumauctions.sats.core.model.lsvm.LocalSynergyValueModel;
 import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 /**
@@ -54,4 +57,36 @@ public class LSVMDemandQueryTest {
         }
     }
 
+    @Test
+    public void testEnumerationMatchesValueFunctionForRegionalBidders() {
+        List<LSVMBidder> bidders = new LocalSynergyValueModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(918273L));
+        LSVMWorld world = bidders.iterator().next().getWorld();
+        Random random = new Random(918273L);
+        Map<Good, Price> priceMap = new HashMap<>();
+        world.getLicenses().forEach(license -> priceMap.put(license, Price.of(random.nextDouble() * 40)));
+        Prices prices = new LinearPrices(priceMap);
+
+        for (LSVMBidder bidder : bidders) {
+            if (bidder.getProximity().size() == world.getNumberOfGoods()) continue; // National bidder
+            List<LSVMLicense> proximity = new ArrayList<>(bidder.getProximity());
+            List<Double> utilities = new ArrayList<>();
+            for (int mask = 0; mask < (1 << proximity.size()); mask++) {
+                List<LSVMLicense> licenses = new ArrayList<>();
+                for (int i = 0; i < proximity.size(); i++) {
+                    if ((mask & (1 << i)) != 0) licenses.add(proximity.get(i));
+                }
+                Bundle bundle = licenses.isEmpty() ? Bundle.EMPTY : Bundle.of(licenses);
+                utilities.add(bidder.getUtility(bundle, prices).doubleValue());
+            }
+            utilities.sort((a, b) -> Double.compare(b, a));
+
+            int k = 15;
+            List<Bundle> bestBundles = new LSVMDemandQuery(bidder, prices).getBestBundles(k);
+            Assert.assertEquals(k, bestBundles.size());
+            for (int i = 0; i < k; i++) {
+                Assert.assertEquals(utilities.get(i), bidder.getUtility(bestBundles.get(i), prices).doubleValue(), 1e-6);
+            }
+        }
+    }
+
 }
@@ -1,6 +1,7 @@
 package org.spectrumauctions.sats.opt.model.lsvm;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -80,6 +81,49 @@ public class LSVMStandardMIPTest {
 		testTotalValue(population, allocation);
 	}
 
+	@Test
+	public void testCompactFormulationIsSmaller() {
+		LocalSynergyValueModel model = new LocalSynergyValueModel();
+		LSVMWorld world = model.createWorld(1498246131808L);
+		List<LSVMBidder> population = model.createNewPopulation(world, 1498246131808L);
+
+		LSVMStandardMIP full = new LSVMStandardMIP(world, population, false);
+		LSVMStandardMIP compact = new LSVMStandardMIP(world, population);
+		Assert.assertFalse(full.isCompact());
+		Assert.assertTrue(compact.isCompact());
+		Assert.assertTrue(compact.getNumberOfVariables() < full.getNumberOfVariables());
+		Assert.assertTrue(compact.getNumberOfConstraints() < full.getNumberOfConstraints());
+		Assert.assertTrue(compact.getNumberOfBinaryVariables() < full.getNumberOfBinaryVariables());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCompactFormulationNotAllowedInLegacyLSVM() {
+		LocalSynergyValueModel model = new LocalSynergyValueModel();
+		model.setLegacyLSVM(true);
+		LSVMWorld world = model.createWorld(1498246131808L);
+		new LSVMStandardMIP(world, model.createNewPopulation(world, 1498246131808L), true);
+	}
+
+	@Test
+	public void testCompactFormulationParity() {
+		for (long seed = 1; seed <= 3; seed++) {
+			LocalSynergyValueModel model = new LocalSynergyValueModel();
+			LSVMWorld world = model.createWorld(seed);
+			List<LSVMBidder> population = model.createNewPopulation(world, seed);
+
+			Allocation full;
+			try {
+				full = new LSVMStandardMIP(world, population, false).getAllocation();
+			} catch (NoClassDefFoundError | UnsatisfiedLinkError e) {
+				Assume.assumeNoException("No solver available", e);
+				return;
+			}
+			Allocation compact = new LSVMStandardMIP(world, population, true).getAllocation();
+			Assert.assertEquals(full.getTotalAllocationValue().doubleValue(), compact.getTotalAllocationValue().doubleValue(), 1e-6);
+			testTotalValue(population, compact);
+		}
+	}
+
 	private void testTotalValue(List<LSVMBidder> population, Allocation allocation) {
 		BigDecimal totalValue = new BigDecimal(0);
 
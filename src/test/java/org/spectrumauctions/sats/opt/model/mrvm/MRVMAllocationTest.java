@@ -5,18 +5,82 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.marketdesignresearch.mechlib.core.Allocation;
+import edu.harvard.econcs.jopt.solver.mip.Variable;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBand;
 import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMRegionsMap;
 import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
 import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.opt.domain.PiecewiseLinearEncoding;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 public class MRVMAllocationTest {
 
+    @Test
+    public void testXVariablesLookup() {
+        MultiRegionModel model = new MultiRegionModel();
+        MRVMWorld world = model.createWorld(1234567);
+        List<MRVMBidder> biddersList = model.createNewPopulation(world, 1234567);
+        MRVMWorldPartialMip worldPartialMip = new MRVM_MIP(biddersList).getWorldPartialMip();
+
+        Set<Variable> allVariables = new HashSet<>();
+        for (MRVMBidder bidder : biddersList) {
+            Set<Variable> biddersVariables = worldPartialMip.getXVariables(bidder);
+            for (MRVMRegionsMap.Region region : world.getRegionsMap().getRegions()) {
+                for (MRVMBand band : world.getBands()) {
+                    Variable xVariable = worldPartialMip.getXVariable(bidder, region, band);
+                    Assert.assertEquals(MRVMWorldPartialMip.xVariablePrefix.concat(MRVMBidderPartialMIP.createIndex(bidder, region, band)), xVariable.getName());
+                    Assert.assertTrue(biddersVariables.contains(xVariable));
+                    Assert.assertTrue(allVariables.add(xVariable));
+                }
+            }
+            Assert.assertEquals(world.getRegionsMap().getRegions().size() * world.getBands().size(), biddersVariables.size());
+        }
+    }
+
+    @Test
+    public void testConcurrentBuildEqualsSequentialBuild() {
+        MultiRegionModel model = new MultiRegionModel();
+        MRVMWorld world = model.createWorld(1234567);
+        List<MRVMBidder> biddersList = model.createNewPopulation(world, 1234567);
+        MRVM_MIP sequential = new MRVM_MIP(biddersList, 1);
+        MRVM_MIP concurrent = new MRVM_MIP(biddersList, 4);
+        Assert.assertEquals(sequential.getMIP().getNumVars(), concurrent.getMIP().getNumVars());
+        Assert.assertEquals(sequential.getMIP().getNumConstraints(), concurrent.getMIP().getNumConstraints());
+        Assert.assertEquals(sequential.getMIP().toString(), concurrent.getMIP().toString());
+    }
+
+    @Test
+    public void testLogarithmicEncodingHasFewerBinaries() {
+        MultiRegionModel model = new MultiRegionModel();
+        MRVMWorld world = model.createWorld(1234567);
+        List<MRVMBidder> biddersList = model.createNewPopulation(world, 1234567);
+        MRVM_MIP multipleChoice = new MRVM_MIP(biddersList, 1);
+        MRVM_MIP logarithmic = new MRVM_MIP(biddersList, PiecewiseLinearEncoding.LOGARITHMIC, 1);
+        Assert.assertEquals(PiecewiseLinearEncoding.MULTIPLE_CHOICE, multipleChoice.getPiecewiseLinearEncoding());
+        Assert.assertEquals(PiecewiseLinearEncoding.LOGARITHMIC, logarithmic.getMIPWithout(biddersList.get(0)).getPiecewiseLinearEncoding());
+        Assert.assertTrue(logarithmic.getNumberOfBinaryVariables() < multipleChoice.getNumberOfBinaryVariables());
+        Assert.assertTrue(logarithmic.getNumberOfVariables() <= multipleChoice.getNumberOfVariables());
+        Assert.assertTrue(logarithmic.getNumberOfConstraints() < multipleChoice.getNumberOfConstraints());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testXVariableOfRemovedBidder() {
+        MultiRegionModel model = new MultiRegionModel();
+        MRVMWorld world = model.createWorld(1234567);
+        List<MRVMBidder> biddersList = model.createNewPopulation(world, 1234567);
+        MRVMBidder removed = biddersList.get(0);
+        MRVM_MIP mip = new MRVM_MIP(biddersList).getMIPWithout(removed);
+        mip.getWorldPartialMip().getXVariable(removed, world.getRegionsMap().getRegions().iterator().next(), world.getBands().iterator().next());
+    }
+
     @Test
     public void testEqualAllocationWhenSolvingTwice() {
         MultiRegionModel model = new MultiRegionModel();
@@ -4,9 +4,11 @@ import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
 import org.marketdesignresearch.mechlib.core.Good;
 import org.marketdesignresearch.mechlib.core.price.LinearPrices;
 import org.marketdesignresearch.mechlib.core.price.Price;
@@ -180,4 +182,127 @@ public class MRVMDemandQueryTest {
         Assert.assertEquals(regionsCovered2.size(), world.getRegionsMap().getNumberOfRegions());
 
     }
+
+    @Test
+    public void testBestBundlesMatchBruteForce() {
+        MRVMWorldSetup.MRVMWorldSetupBuilder worldSetupBuilder = new MRVMWorldSetup.MRVMWorldSetupBuilder();
+        worldSetupBuilder.createGraphRandomly(new IntegerInterval(3), new IntegerInterval(1), 100, 0);
+        new HashSet<>(worldSetupBuilder.bandSetups().keySet()).forEach(worldSetupBuilder::removeBandSetup);
+        worldSetupBuilder.putBandSetup(new MRVMWorldSetup.BandSetup("X", new IntegerInterval(2),
+                new DoubleInterval(20), new LinearFunction(BigDecimal.ONE, BigDecimal.ZERO)));
+        worldSetupBuilder.putBandSetup(new MRVMWorldSetup.BandSetup("Y", new IntegerInterval(2),
+                new DoubleInterval(10), new LinearFunction(BigDecimal.ZERO, BigDecimal.ONE)));
+        MRVMWorld world = new MRVMWorld(worldSetupBuilder.build(), new JavaUtilRNGSupplier(4711));
+
+        Set<MRVMLocalBidderSetup> localBidderSetups = new HashSet<>();
+        for (boolean allowAssigning : new boolean[]{false, true}) {
+            MRVMLocalBidderSetup.Builder localBuilder = new MRVMLocalBidderSetup.Builder();
+            localBuilder.setSetupName("Local " + allowAssigning);
+            localBuilder.setNumberOfBidders(2);
+            localBuilder.setNumberOfRegionsInterval(new IntegerInterval(1, 2));
+            localBuilder.setAllowAssigningLicensesWithZeroBasevalueInDemandQuery(allowAssigning);
+            localBidderSetups.add(localBuilder.build());
+        }
+        MRVMRegionalBidderSetup.Builder regionalBuilder = new MRVMRegionalBidderSetup.Builder();
+        regionalBuilder.setNumberOfBidders(2);
+        MRVMNationalBidderSetup.Builder nationalBuilder = new MRVMNationalBidderSetup.Builder();
+        nationalBuilder.setNumberOfBidders(2);
+        List<MRVMBidder> bidders = world.createPopulation(localBidderSetups, Collections.singleton(regionalBuilder.build()),
+                Collections.singleton(nationalBuilder.build()), new JavaUtilRNGSupplier(4712));
+
+        for (MRVMBidder bidder : bidders) {
+            Prices prices = createPrices(bidder, 4713);
+            List<Double> utilities = new ArrayList<>();
+            for (Bundle bundle : allBundles(bidder)) {
+                utilities.add(bidder.getUtility(bundle, prices).doubleValue());
+            }
+            utilities.sort((a, b) -> Double.compare(b, a));
+
+            int k = 10;
+            List<Bundle> bestBundles = new MRVMDemandQuery(bidder, prices).getBestBundles(k);
+            Assert.assertEquals(k, bestBundles.size());
+            Assert.assertEquals(k, bestBundles.stream().distinct().count());
+            for (int i = 0; i < k; i++) {
+                Assert.assertEquals(utilities.get(i), bidder.getUtility(bestBundles.get(i), prices).doubleValue(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testStandardModelDecreasingUtilities() {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(73246105));
+        for (MRVMBidder bidder : bidders) {
+            Prices prices = createPrices(bidder, 73246105);
+            List<Bundle> bestBundles = new MRVMDemandQuery(bidder, prices).getBestBundles(20);
+            Assert.assertEquals(20, bestBundles.stream().distinct().count());
+            for (int i = 1; i < bestBundles.size(); i++) {
+                Assert.assertTrue(bidder.getUtility(bestBundles.get(i - 1), prices).doubleValue()
+                        >= bidder.getUtility(bestBundles.get(i), prices).doubleValue() - 1e-6);
+            }
+            Set<Bundle> filtered = bidder.getBestBundles(prices, 20, false);
+            filtered.forEach(bundle -> Assert.assertTrue(bidder.getUtility(bundle, prices).signum() > -1));
+        }
+    }
+
+    @Test
+    public void testParityWithMIP() {
+        List<MRVMBidder> bidders = new MultiRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(11L));
+        for (MRVMBidder bidder : bidders) {
+            Prices prices = createPrices(bidder, 11L);
+            Bundle exact = new MRVMDemandQuery(bidder, prices).getBestBundle();
+            Bundle fromMIP;
+            bidder.setUseMIPForDemandQueries(true);
+            try {
+                fromMIP = bidder.getBestBundle(prices);
+            } catch (NoClassDefFoundError | UnsatisfiedLinkError e) {
+                Assume.assumeNoException("No solver available", e);
+                return;
+            } finally {
+                bidder.setUseMIPForDemandQueries(false);
+            }
+            double exactUtility = bidder.getUtility(exact, prices).doubleValue();
+            Assert.assertEquals(exactUtility, bidder.getUtility(fromMIP, prices).doubleValue(), 1e-4 * Math.max(1, exactUtility));
+        }
+    }
+
+    /**
+     * Random linear prices around the bidder's average value per license of each generic definition
+     */
+    private static Prices createPrices(MRVMBidder bidder, long seed) {
+        Random random = new Random(seed + bidder.getLongId());
+        Map<Good, Price> priceMap = new HashMap<>();
+        for (MRVMGenericDefinition definition : bidder.getWorld().getAllGenericDefinitions()) {
+            Set<BundleEntry> entries = new HashSet<>();
+            entries.add(new BundleEntry(definition, definition.getQuantity()));
+            double averageValue = bidder.calculateValue(new Bundle(entries)).doubleValue() / definition.getQuantity();
+            priceMap.put(definition, Price.of(1 + random.nextDouble() * 1.5 * averageValue));
+        }
+        return new LinearPrices(priceMap);
+    }
+
+    /**
+     * All bundles of generic definitions the bidder may be assigned in a demand query
+     */
+    private static List<Bundle> allBundles(MRVMBidder bidder) {
+        List<MRVMGenericDefinition> definitions = bidder.getWorld().getAllGenericDefinitions().stream()
+                .filter(def -> !(bidder instanceof MRVMLocalBidder)
+                        || ((MRVMLocalBidder) bidder).isAllowAssigningLicensesWithZeroBasevalueInDemandQuery()
+                        || bidder.gammaFactor(def.getRegion(), Collections.emptySet()).signum() > 0)
+                .collect(Collectors.toList());
+        List<Bundle> bundles = new ArrayList<>();
+        int[] quantities = new int[definitions.size()];
+        while (true) {
+            Set<BundleEntry> entries = new HashSet<>();
+            for (int d = 0; d < definitions.size(); d++) {
+                if (quantities[d] > 0) entries.add(new BundleEntry(definitions.get(d), quantities[d]));
+            }
+            bundles.add(entries.isEmpty() ? Bundle.EMPTY : new Bundle(entries));
+            int d = 0;
+            while (d < definitions.size() && quantities[d] == definitions.get(d).getQuantity()) {
+                quantities[d++] = 0;
+            }
+            if (d == definitions.size()) return bundles;
+            quantities[d]++;
+        }
+    }
 }
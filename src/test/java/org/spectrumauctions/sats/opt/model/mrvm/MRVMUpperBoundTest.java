@@ -0,0 +1,113 @@
+package org.spectrumauctions.sats.opt.model.mrvm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Allocation;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMBidder;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMGenericDefinition;
+import org.spectrumauctions.sats.core.model.mrvm.MRVMWorld;
+import org.spectrumauctions.sats.core.model.mrvm.MultiRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@Slf4j
+public class MRVMUpperBoundTest {
+
+    @Test
+    public void testBoundsRandomAllocations() {
+        MultiRegionModel model = new MultiRegionModel();
+        List<MRVMBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(31L));
+        double bound = new MRVMUpperBound(bidders).getUpperBound().doubleValue();
+        Random random = new Random(31L);
+        for (int i = 0; i < 20; i++) {
+            double welfare = randomAllocationValue(bidders, random);
+            Assert.assertTrue(bound >= welfare);
+        }
+    }
+
+    @Test
+    public void testTighterThanStandaloneValues() {
+        MultiRegionModel model = new MultiRegionModel();
+        List<MRVMBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(32L));
+        MRVMUpperBound upperBound = new MRVMUpperBound(bidders);
+        double bound = upperBound.getUpperBound().doubleValue();
+        double standaloneValues = bidders.stream()
+                .mapToDouble(bidder -> bidder.calculateValue(Bundle.of(bidder.getWorld().getLicenses())).doubleValue())
+                .sum();
+        Assert.assertTrue(bound < standaloneValues);
+        Assert.assertEquals(upperBound.getRegions().size() * upperBound.getBands().size(), upperBound.getPrices().length);
+    }
+
+    @Test
+    public void testLargePopulation() {
+        MultiRegionModel model = new MultiRegionModel();
+        model.setNumberOfLocalBidders(600);
+        model.setNumberOfRegionalBidders(300);
+        model.setNumberOfNationalBidders(100);
+        List<MRVMBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(33L));
+        MRVMUpperBound upperBound = new MRVMUpperBound(bidders);
+        long start = System.currentTimeMillis();
+        double bound = upperBound.getUpperBound().doubleValue();
+        log.info("Upper bound for {} MRVM bidders calculated in {} ms ({} iterations)",
+                bidders.size(), System.currentTimeMillis() - start, upperBound.getIterations());
+        Random random = new Random(33L);
+        Assert.assertTrue(bound >= randomAllocationValue(bidders, random));
+    }
+
+    @Test
+    public void testGapToEfficientAllocation() {
+        Assume.assumeTrue("Requires CPLEX", isCplexAvailable());
+        MultiRegionModel model = new MultiRegionModel();
+        List<MRVMBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(34L));
+        Allocation allocation = new MRVM_MIP(bidders).getAllocation();
+        MRVMUpperBound upperBound = new MRVMUpperBound(bidders);
+        log.info("MRVM upper bound {}, efficient allocation {}, gap {}", upperBound.getUpperBound(),
+                allocation.getTotalAllocationValue(), upperBound.getRelativeGap(allocation));
+        Assert.assertTrue(upperBound.getRelativeGap(allocation) >= 0);
+    }
+
+    /**
+     * Assigns every license to a random bidder or leaves it unassigned
+     */
+    private static double randomAllocationValue(List<MRVMBidder> bidders, Random random) {
+        MRVMWorld world = bidders.get(0).getWorld();
+        List<Set<BundleEntry>> bundles = new ArrayList<>();
+        bidders.forEach(bidder -> bundles.add(new HashSet<>()));
+        for (MRVMGenericDefinition definition : world.getAllGenericDefinitions()) {
+            int[] quantities = new int[bidders.size()];
+            for (int lot = 0; lot < definition.getQuantity(); lot++) {
+                int winner = random.nextInt(bidders.size() + 1);
+                if (winner < bidders.size()) quantities[winner]++;
+            }
+            for (int i = 0; i < bidders.size(); i++) {
+                if (quantities[i] > 0) bundles.get(i).add(new BundleEntry(definition, quantities[i]));
+            }
+        }
+        double welfare = 0;
+        for (int i = 0; i < bidders.size(); i++) {
+            if (!bundles.get(i).isEmpty()) {
+                welfare += bidders.get(i).calculateValue(new Bundle(bundles.get(i))).doubleValue();
+            }
+        }
+        return welfare;
+    }
+
+    private static boolean isCplexAvailable() {
+        try {
+            Class.forName("ilog.cplex.IloCplex");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package org.spectrumauctions.sats.opt.model.srvm;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.marketdesignresearch.mechlib.core.Good;
+import org.marketdesignresearch.mechlib.core.price.LinearPrices;
+import org.marketdesignresearch.mechlib.core.price.Price;
+import org.marketdesignresearch.mechlib.core.price.Prices;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the exact SRVM demand query to a brute-force enumeration of all quantity vectors and,
+ * if a solver is available, to the MIP-based demand query.
+ */
+public class SRVMDemandQueryTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testBestBundlesMatchBruteForce() {
+        for (long seed = 0; seed < 3; seed++) {
+            List<SRVMBidder> bidders = new SingleRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed));
+            for (SRVMBidder bidder : bidders) {
+                Prices prices = createPrices(bidder, seed);
+                List<Double> utilities = new ArrayList<>();
+                for (Bundle bundle : allBundles(bidder)) {
+                    utilities.add(bidder.getUtility(bundle, prices).doubleValue());
+                }
+                utilities.sort((a, b) -> Double.compare(b, a));
+
+                int k = 10;
+                List<Bundle> bestBundles = new SRVMDemandQuery(bidder, prices).getBestBundles(k);
+                Assert.assertEquals(k, bestBundles.size());
+                Assert.assertEquals(k, bestBundles.stream().distinct().count());
+                for (int i = 0; i < k; i++) {
+                    Assert.assertEquals(utilities.get(i), bidder.getUtility(bestBundles.get(i), prices).doubleValue(), DELTA);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNoNegativeUtilityBundles() {
+        List<SRVMBidder> bidders = new SingleRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(73L));
+        for (SRVMBidder bidder : bidders) {
+            Prices prices = createPrices(bidder, 73L);
+            Set<Bundle> bundles = bidder.getBestBundles(prices, 50, false);
+            for (Bundle bundle : bundles) {
+                Assert.assertTrue(bidder.getUtility(bundle, prices).signum() > -1);
+            }
+        }
+    }
+
+    @Test
+    public void testParityWithMIP() {
+        List<SRVMBidder> bidders = new SingleRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(11L));
+        for (SRVMBidder bidder : bidders) {
+            Prices prices = createPrices(bidder, 11L);
+            Bundle exact = new SRVMDemandQuery(bidder, prices).getBestBundle();
+            Bundle fromMIP;
+            bidder.setUseMIPForDemandQueries(true);
+            try {
+                fromMIP = bidder.getBestBundle(prices);
+            } catch (NoClassDefFoundError | UnsatisfiedLinkError e) {
+                Assume.assumeNoException("No solver available", e);
+                return;
+            } finally {
+                bidder.setUseMIPForDemandQueries(false);
+            }
+            Assert.assertEquals(bidder.getUtility(exact, prices).doubleValue(),
+                    bidder.getUtility(fromMIP, prices).doubleValue(), 1e-2);
+        }
+    }
+
+    private static Prices createPrices(SRVMBidder bidder, long seed) {
+        Random random = new Random(seed + bidder.getLongId());
+        Map<Good, Price> priceMap = new HashMap<>();
+        for (SRVMBand band : bidder.getWorld().getBands()) {
+            double averageValue = bidder.calculateValue(bandBundle(band, band.getQuantity())).doubleValue() / band.getQuantity();
+            priceMap.put(band, Price.of(random.nextDouble() * 1.5 * averageValue));
+        }
+        return new LinearPrices(priceMap);
+    }
+
+    private static List<Bundle> allBundles(SRVMBidder bidder) {
+        List<SRVMBand> bands = bidder.getWorld().getBands();
+        List<Bundle> bundles = new ArrayList<>();
+        int[] quantities = new int[bands.size()];
+        while (true) {
+            Set<BundleEntry> entries = new HashSet<>();
+            for (int b = 0; b < bands.size(); b++) {
+                if (quantities[b] > 0) entries.add(new BundleEntry(bands.get(b), quantities[b]));
+            }
+            bundles.add(entries.isEmpty() ? Bundle.EMPTY : new Bundle(entries));
+            int b = 0;
+            while (b < bands.size() && quantities[b] == bands.get(b).getQuantity()) {
+                quantities[b++] = 0;
+            }
+            if (b == bands.size()) return bundles;
+            quantities[b]++;
+        }
+    }
+
+    private static Bundle bandBundle(SRVMBand band, int quantity) {
+        Set<BundleEntry> entries = new HashSet<>();
+        entries.add(new BundleEntry(band, quantity));
+        return new Bundle(entries);
+    }
+
+}
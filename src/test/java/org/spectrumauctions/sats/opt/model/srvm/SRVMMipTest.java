@@ -7,11 +7,13 @@ package org.spectrumauctions.sats.opt.model.srvm;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
 import org.junit.Test;
 import org.marketdesignresearch.mechlib.core.Allocation;
 import org.marketdesignresearch.mechlib.core.Bundle;
 import org.spectrumauctions.sats.core.model.srvm.*;
 import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+import org.spectrumauctions.sats.opt.domain.PiecewiseLinearEncoding;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -39,6 +41,26 @@ public class SRVMMipTest {
         logger.info("Total value:" + result.getTotalAllocationValue());
     }
 
+    @Test
+    public void testConcurrentBuildEqualsSequentialBuild() {
+        Collection<SRVMBidder> bidders = (new SingleRegionModel()).createNewWorldAndPopulation(new JavaUtilRNGSupplier(147258369L));
+        SRVM_MIP sequential = new SRVM_MIP(bidders, 1);
+        SRVM_MIP concurrent = new SRVM_MIP(bidders, 4);
+        Assert.assertEquals(sequential.getMIP().getNumVars(), concurrent.getMIP().getNumVars());
+        Assert.assertEquals(sequential.getMIP().getNumConstraints(), concurrent.getMIP().getNumConstraints());
+        Assert.assertEquals(sequential.getMIP().toString(), concurrent.getMIP().toString());
+    }
+
+    @Test
+    public void testConvexCombinationEncodingHasFewerConstraints() {
+        Collection<SRVMBidder> bidders = (new SingleRegionModel()).createNewWorldAndPopulation(new JavaUtilRNGSupplier(147258369L));
+        SRVM_MIP multipleChoice = new SRVM_MIP(bidders, 1);
+        SRVM_MIP convexCombination = new SRVM_MIP(bidders, PiecewiseLinearEncoding.CONVEX_COMBINATION, 1);
+        Assert.assertEquals(PiecewiseLinearEncoding.CONVEX_COMBINATION, convexCombination.getPiecewiseLinearEncoding());
+        Assert.assertEquals(multipleChoice.getNumberOfBinaryVariables(), convexCombination.getNumberOfBinaryVariables());
+        Assert.assertTrue(convexCombination.getNumberOfConstraints() < multipleChoice.getNumberOfConstraints());
+    }
+
     @Test
     public void testMinimalNoException() {
         test(1, 1);
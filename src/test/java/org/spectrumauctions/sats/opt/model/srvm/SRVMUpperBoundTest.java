@@ -0,0 +1,104 @@
+package org.spectrumauctions.sats.opt.model.srvm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.marketdesignresearch.mechlib.core.Bundle;
+import org.marketdesignresearch.mechlib.core.BundleEntry;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBand;
+import org.spectrumauctions.sats.core.model.srvm.SRVMBidder;
+import org.spectrumauctions.sats.core.model.srvm.SingleRegionModel;
+import org.spectrumauctions.sats.core.util.random.JavaUtilRNGSupplier;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+public class SRVMUpperBoundTest {
+
+    @Test
+    public void testBoundsOptimum() {
+        for (long seed = 0; seed < 3; seed++) {
+            List<SRVMBidder> bidders = new SingleRegionModel().createNewWorldAndPopulation(new JavaUtilRNGSupplier(seed));
+            SRVMUpperBound upperBound = new SRVMUpperBound(bidders);
+            double optimum = optimum(bidders);
+            double bound = upperBound.getUpperBound().doubleValue();
+            log.info("SRVM upper bound {}, optimum {}, gap {}", bound, optimum, (bound - optimum) / optimum);
+            Assert.assertTrue(bound >= optimum);
+            Assert.assertTrue(bound <= totalStandaloneValue(bidders));
+        }
+    }
+
+    @Test
+    public void testLargePopulation() {
+        SingleRegionModel model = new SingleRegionModel();
+        model.setNumberOfSmallBidders(400);
+        model.setNumberOfHighFrequencyBidders(300);
+        model.setNumberOfPrimaryBidders(300);
+        List<SRVMBidder> bidders = model.createNewWorldAndPopulation(new JavaUtilRNGSupplier(11L));
+        SRVMUpperBound upperBound = new SRVMUpperBound(bidders);
+        long start = System.currentTimeMillis();
+        double bound = upperBound.getUpperBound().doubleValue();
+        log.info("Upper bound for {} SRVM bidders calculated in {} ms", bidders.size(), System.currentTimeMillis() - start);
+        Assert.assertTrue(bound > 0);
+        Assert.assertTrue(bound < totalStandaloneValue(bidders));
+    }
+
+    /**
+     * Sum of the bidders' values for all licenses, i.e., the bound at zero prices
+     */
+    private static double totalStandaloneValue(List<SRVMBidder> bidders) {
+        return bidders.stream().mapToDouble(bidder -> bidder.calculateValue(
+                Bundle.of(bidder.getWorld().getLicenses())).doubleValue()).sum();
+    }
+
+    /**
+     * Dynamic program over the bidders and all quantity vectors of the bands
+     */
+    private static double optimum(List<SRVMBidder> bidders) {
+        List<SRVMBand> bands = bidders.get(0).getWorld().getBands();
+        int numberOfStates = 1;
+        for (SRVMBand band : bands) {
+            numberOfStates *= band.getQuantity() + 1;
+        }
+        int[][] quantities = new int[numberOfStates][bands.size()];
+        for (int s = 0; s < numberOfStates; s++) {
+            int remainder = s;
+            for (int b = 0; b < bands.size(); b++) {
+                quantities[s][b] = remainder % (bands.get(b).getQuantity() + 1);
+                remainder /= bands.get(b).getQuantity() + 1;
+            }
+        }
+        double[] best = new double[numberOfStates];
+        for (SRVMBidder bidder : bidders) {
+            double[] values = new double[numberOfStates];
+            for (int s = 1; s < numberOfStates; s++) {
+                Set<BundleEntry> entries = new HashSet<>();
+                for (int b = 0; b < bands.size(); b++) {
+                    if (quantities[s][b] > 0) entries.add(new BundleEntry(bands.get(b), quantities[s][b]));
+                }
+                values[s] = bidder.calculateValue(new Bundle(entries)).doubleValue();
+            }
+            double[] next = new double[numberOfStates];
+            for (int available = 0; available < numberOfStates; available++) {
+                double value = best[available];
+                for (int bundle = 1; bundle <= available; bundle++) {
+                    boolean fits = true;
+                    int rest = 0;
+                    int factor = 1;
+                    for (int b = 0; b < bands.size() && fits; b++) {
+                        fits = quantities[bundle][b] <= quantities[available][b];
+                        rest += (quantities[available][b] - quantities[bundle][b]) * factor;
+                        factor *= bands.get(b).getQuantity() + 1;
+                    }
+                    if (fits) value = Math.max(value, values[bundle] + best[rest]);
+                }
+                next[available] = value;
+            }
+            best = next;
+        }
+        return best[numberOfStates - 1];
+    }
+
+}